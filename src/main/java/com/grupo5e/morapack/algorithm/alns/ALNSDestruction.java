@@ -22,19 +22,60 @@
         private ArrayList<Aeropuerto> aeropuertos;
         private Random aleatorio;
         private final AeropuertoService aeropuertoService;
+        // Journal compartido con el solver: cada paquete destruido libera su capacidad aquí
+        private final RegistroCapacidades registroCapacidades;
     
-        public ALNSDestruction(ArrayList<Aeropuerto> aeropuertos,AeropuertoService aeropuertoService) {
+        public ALNSDestruction(ArrayList<Aeropuerto> aeropuertos, AeropuertoService aeropuertoService,
+                               RegistroCapacidades registroCapacidades) {
             this.aeropuertoService = aeropuertoService;
             this.aleatorio = new Random(System.currentTimeMillis());
             this.aeropuertos = aeropuertos;
+            this.registroCapacidades = registroCapacidades;
+        }
+    
+        /**
+         * Constructor con semilla específica (ejecuciones reproducibles)
+         */
+        public ALNSDestruction(ArrayList<Aeropuerto> aeropuertos, long semilla, AeropuertoService aeropuertoService,
+                               RegistroCapacidades registroCapacidades) {
+            this.aeropuertoService = aeropuertoService;
+            this.aleatorio = new Random(semilla);
+            this.aeropuertos = aeropuertos;
+            this.registroCapacidades = registroCapacidades;
         }
     
         /**
          * Constructor con semilla específica para pruebas deterministas
          */
-        public ALNSDestruction(long semilla, AeropuertoService aeropuertoService) {
+        public ALNSDestruction(long semilla, AeropuertoService aeropuertoService,
+                               RegistroCapacidades registroCapacidades) {
             this.aleatorio = new Random(semilla);
             this.aeropuertoService = aeropuertoService;
+            this.aeropuertos = new ArrayList<>();
+            this.registroCapacidades = registroCapacidades;
+        }
+    
+        /**
+         * Quita un pedido de la solución parcial, lo anota como destruido y libera en el
+         * journal la capacidad que ocupaba: los vuelos de su ruta y el almacén de destino
+         * (simétrico a lo que ocupa la reparación).
+         */
+        private void destruir(ResultadoDestruccion resultado, Pedido pedido) {
+            SolucionCompacta solucionParcial = resultado.getSolucionParcial();
+            TablaRutas tabla = solucionParcial.getTabla();
+            int indice = tabla.indicePedido(pedido);
+            if (indice < 0 || !solucionParcial.estaAsignado(indice)) return;
+    
+            int idRuta = solucionParcial.rutaId(indice);
+            solucionParcial.quitarRuta(indice);
+            resultado.agregarDestruido(indice, idRuta);
+    
+            if (registroCapacidades == null) return;
+            // Por la instancia del registro: también con el constructor que no recibe aeropuertos
+            Aeropuerto destino = registroCapacidades.getInstancia().aeropuerto(pedido.getAeropuertoDestinoCodigo());
+            int cantidad = RegistroCapacidades.cantidadProductos(pedido);
+            registroCapacidades.liberarRuta(pedido, tabla.ruta(idRuta), destino, cantidad);
+            registroCapacidades.liberarFlujo(pedido, tabla.ruta(idRuta), cantidad);
         }
     
         /**
@@ -48,10 +89,6 @@
             return h;
         }
     
-        private static int productosDe(Pedido pedido) {
-            return (pedido.getProductos() != null && !pedido.getProductos().isEmpty()) ? pedido.getProductos().size() : 1;
-        }
-    
         /**
          * CORRECCIÓN: Slack real - horas disponibles desde fechaPedido menos horas de la ruta actual
          * REFINAMIENTO: Clampar slack negativo por deadlines raros (deadline < fechaPedido)
@@ -78,16 +115,16 @@
          * CORRECCIÓN: Destrucción aleatoria mejorada - sesgo por mayor slack y más productos
          */
         public ResultadoDestruccion destruccionAleatoria(
-                HashMap<Pedido, ArrayList<Vuelo>> solucionActual,
+                SolucionCompacta solucionActual,
                 double ratioDestruccion,
                 int minDestruir,
                 int maxDestruir) {
     
             //copiar la solucion
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial = new HashMap<>(solucionActual);
+            SolucionCompacta solucionParcial = solucionActual.copiar();
     
-            if (solucionActual.isEmpty()) {
-                return new ResultadoDestruccion(solucionParcial, new ArrayList<>());
+            if (solucionActual.estaVacia()) {
+                return new ResultadoDestruccion(solucionParcial);
             }
     
             // CORRECCIÓN: Construir lista con score = w1*slack + w2*productos
@@ -98,13 +135,12 @@
             }
     
             ArrayList<Candidato> candidatos = new ArrayList<>();
-            for (Map.Entry<Pedido, ArrayList<Vuelo>> e : solucionActual.entrySet()) {
-                Pedido p = e.getKey();
-                ArrayList<Vuelo> r = e.getValue();
+            for (Pedido p : solucionActual.pedidosAsignados()) {
+                ArrayList<Vuelo> r = solucionActual.ruta(p);
                 //Holgura de tiempo: cuantas Cuántas horas de sobra tiene el pedido antes de su deadline.
                 //Cuanto más slack, menos urgente es.
                 double slack = slackHoras(p, r);
-                int productos = productosDe(p);
+                int productos = RegistroCapacidades.cantidadProductos(p);
     
                 // REFINAMIENTO: Penalizar fuertemente paquetes ya en destino (no liberan capacidad de vuelo)
                 if (yaEstaEnDestino(r)) {
@@ -127,11 +163,11 @@
     
             //Determinar cuántos destruir
             int numDestruir = Math.min(
-                Math.max((int)(solucionActual.size() * ratioDestruccion), minDestruir),
-                Math.min(maxDestruir, solucionActual.size())
+                Math.max((int)(solucionActual.tamano() * ratioDestruccion), minDestruir),
+                Math.min(maxDestruir, solucionActual.tamano())
             );
     
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> destruidos = new ArrayList<>();
+            ResultadoDestruccion resultado = new ResultadoDestruccion(solucionParcial);
             int tomados = 0, i = 0;
     
             while (tomados < numDestruir && i < candidatos.size()) {
@@ -142,16 +178,12 @@
                 }
     
                 Pedido seleccionado = candidatos.get(i).paquete;
-                ArrayList<Vuelo> ruta = solucionActual.get(seleccionado);
-                if (ruta == null) ruta = new ArrayList<>(); // Protección contra nulos
-    
-                destruidos.add(new java.util.AbstractMap.SimpleEntry<>(seleccionado, new ArrayList<>(ruta)));
-                solucionParcial.remove(seleccionado);
+                destruir(resultado, seleccionado);
                 tomados++;
                 i++;
             }
     
-            return new ResultadoDestruccion(solucionParcial, destruidos);
+            return resultado;
         }
     
         /**
@@ -159,23 +191,23 @@
          * Útil para liberar capacidad en rutas intercontinentales.
          */
         public ResultadoDestruccion destruccionGeografica(
-                HashMap<Pedido, ArrayList<Vuelo>> solucionActual,
+                SolucionCompacta solucionActual,
                 double ratioDestruccion,
                 int minDestruir,
                 int maxDestruir) {
     
             //Creando copia de la solucion actual
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial = new HashMap<>(solucionActual);
+            SolucionCompacta solucionParcial = solucionActual.copiar();
     
-            if (solucionActual.isEmpty()) {
-                return new ResultadoDestruccion(solucionParcial, new ArrayList<>());
+            if (solucionActual.estaVacia()) {
+                return new ResultadoDestruccion(solucionParcial);
             }
     
             // Contar paquetes por continente (origen y destino)
             Map<Continente, ArrayList<Pedido>> paquetesPorContinenteOrigen = new HashMap<>();
             Map<Continente, ArrayList<Pedido>> paquetesPorContinenteDestino = new HashMap<>();
     
-            for (Pedido pedido : solucionActual.keySet()) {
+            for (Pedido pedido : solucionActual.pedidosAsignados()) {
                 Continente continenteOrigen = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad().getContinente();
                 Continente continenteDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad().getContinente();
     
@@ -210,7 +242,7 @@
     
             // Encontrar paquetes del continente seleccionado y se agregar a la lista de zona afectada
             ArrayList<Pedido> paquetesCandidatoes = new ArrayList<>();
-            for (Pedido pedido : solucionActual.keySet()) {
+            for (Pedido pedido : solucionActual.pedidosAsignados()) {
                 if (obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad().getContinente() == continenteSeleccionado ||
                         obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad().getContinente() == continenteSeleccionado) {
                     paquetesCandidatoes.add(pedido);
@@ -227,7 +259,7 @@
                 Math.min(maxDestruir, paquetesCandidatoes.size())
             );
     
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos = new ArrayList<>();
+            ResultadoDestruccion resultado = new ResultadoDestruccion(solucionParcial);
     
             // REFINAMIENTO: Precomputar slack y productos para evitar recalcular en comparator
             class InformacionCandidato {
@@ -245,9 +277,9 @@
                 info.intercontinental = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad().getContinente()
                         != obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad().getContinente();
     
-                ArrayList<Vuelo> ruta = solucionActual.get(pedido);
+                ArrayList<Vuelo> ruta = solucionActual.ruta(pedido);
                 info.slack = slackHoras(pedido, ruta);
-                info.productos = productosDe(pedido);
+                info.productos = RegistroCapacidades.cantidadProductos(pedido);
                 info.enDestino = yaEstaEnDestino(ruta);
     
                 candidatos.add(info);
@@ -287,22 +319,13 @@
             // Seleccionar paquetes con sesgo hacia los intercontinentales
             for (int i = 0; i < numDestruir; i++) {
                 Pedido pedidoSeleccionado = paquetesCandidatoes.get(i);
-                // REFINAMIENTO: Consistencia - usar siempre solucionActual como fuente
-                ArrayList<Vuelo> ruta = solucionActual.get(pedidoSeleccionado);
-                if (ruta == null) ruta = new ArrayList<>(); // Protección contra nulos
-    
-                paquetesDestruidos.add(new java.util.AbstractMap.SimpleEntry<>(
-                        pedidoSeleccionado,
-                    new ArrayList<>(ruta)
-                ));
-    
-                solucionParcial.remove(pedidoSeleccionado);
+                destruir(resultado, pedidoSeleccionado);
             }
     
             System.out.println("Destrucción geográfica: " + numDestruir +
                               " paquetes eliminados del continente " + continenteSeleccionado);
     
-            return new ResultadoDestruccion(solucionParcial, paquetesDestruidos);
+            return resultado;
         }
     
         /**
@@ -310,16 +333,16 @@
          * Útil para rebalancear la carga temporal.
          */
         public ResultadoDestruccion destruccionBasadaEnTiempo(
-                HashMap<Pedido, ArrayList<Vuelo>> solucionActual,
+                SolucionCompacta solucionActual,
                 double ratioDestruccion,
                 int minDestruir,
                 int maxDestruir) {
     
             //COPIA DE SOLUCION ACTUAL
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial = new HashMap<>(solucionActual);
+            SolucionCompacta solucionParcial = solucionActual.copiar();
     
-            if (solucionActual.isEmpty()) {
-                return new ResultadoDestruccion(solucionParcial, new ArrayList<>());
+            if (solucionActual.estaVacia()) {
+                return new ResultadoDestruccion(solucionParcial);
             }
     
             // CORRECCIÓN: Agrupar por slack real, no por "horas a deadline"
@@ -329,9 +352,8 @@
             ArrayList<Pedido> enDestino = new ArrayList<>(); // REFINAMIENTO: Separar paquetes ya en destino
     
             //CLASIFICA CADA PEDIDOS SEGUN SEA EL TIPO
-            for (Map.Entry<Pedido, ArrayList<Vuelo>> e : solucionActual.entrySet()) {
-                Pedido pedido = e.getKey();
-                ArrayList<Vuelo> ruta = e.getValue();
+            for (Pedido pedido : solucionActual.pedidosAsignados()) {
+                ArrayList<Vuelo> ruta = solucionActual.ruta(pedido);
     
                 // REFINAMIENTO: Separar paquetes ya en destino (fallback only)
                 if (yaEstaEnDestino(ruta)) {
@@ -375,8 +397,8 @@
             // REFINAMIENTO: Ordenar por productos desc para tie-break (más productos = más capacidad liberada)
             if (grupoSeleccionado != enDestino) { // Solo si no son paquetes en destino
                 grupoSeleccionado.sort((p1, p2) -> {
-                    int productosP1 = productosDe(p1);
-                    int productosP2 = productosDe(p2);
+                    int productosP1 = RegistroCapacidades.cantidadProductos(p1);
+                    int productosP2 = RegistroCapacidades.cantidadProductos(p2);
                     return Integer.compare(productosP2, productosP1); // Más productos primero
                 });
             }
@@ -394,19 +416,15 @@
                 Math.min(maxDestruir, grupoSeleccionado.size())
             );
     
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> destruidos = new ArrayList<>();
+            ResultadoDestruccion resultado = new ResultadoDestruccion(solucionParcial);
             for (int i = 0; i < numDestruir; i++) {
                 Pedido seleccionado = grupoSeleccionado.get(i);
-                ArrayList<Vuelo> ruta = solucionActual.get(seleccionado);
-                if (ruta == null) ruta = new ArrayList<>(); // Protección contra nulos
-    
-                destruidos.add(new java.util.AbstractMap.SimpleEntry<>(seleccionado, new ArrayList<>(ruta)));
-                solucionParcial.remove(seleccionado);
+                destruir(resultado, seleccionado);
             }
     
             System.out.println("Destrucción temporal por slack: " + numDestruir + " paquetes del grupo " + nombreGrupo);
     
-            return new ResultadoDestruccion(solucionParcial, destruidos);
+            return resultado;
         }
     
         /**
@@ -414,14 +432,14 @@
          * vuelo crítico + productos - urgencia
          */
         public ResultadoDestruccion destruccionRutaCongestionada(
-                HashMap<Pedido, ArrayList<Vuelo>> solucionActual,
+                SolucionCompacta solucionActual,
                 double ratioDestruccion,
                 int minDestruir,
                 int maxDestruir) {
             //HACE UNA COPIA A LA SOLUCION ACTUAL
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial = new HashMap<>(solucionActual);
-            if (solucionActual.isEmpty()) {
-                return new ResultadoDestruccion(solucionParcial, new ArrayList<>());
+            SolucionCompacta solucionParcial = solucionActual.copiar();
+            if (solucionActual.estaVacia()) {
+                return new ResultadoDestruccion(solucionParcial);
             }
     
             // CORRECCIÓN: Parámetros de scoring mejorados
@@ -439,18 +457,19 @@
     
             ArrayList<Candidato> candidatos = new ArrayList<>();
     
-            for (Map.Entry<Pedido, ArrayList<Vuelo>> e : solucionActual.entrySet()) {
-                Pedido p = e.getKey();
-                ArrayList<Vuelo> r = e.getValue();
+            for (Pedido p : solucionActual.pedidosAsignados()) {
+                ArrayList<Vuelo> r = solucionActual.ruta(p);
                 if (r == null || r.isEmpty()) continue;
     
-                int productos = productosDe(p);
+                int productos = RegistroCapacidades.cantidadProductos(p);
     
-                // CORRECCIÓN: Congestión acumulada en vuelos por encima del umbral
+                // CORRECCIÓN: Congestión acumulada en vuelos por encima del umbral (en la ocurrencia que usa el pedido)
                 double congestion = 0.0;
-                for (Vuelo f : r) {
+                int[] dias = registroCapacidades.dias(p, r);
+                for (int t = 0; dias != null && t < r.size(); t++) {
+                    Vuelo f = r.get(t);
                     double utilizacion = (f.getCapacidadMaxima() > 0) ?
-                        ((double) f.getCapacidadUsada() / f.getCapacidadMaxima()) : 0.0;
+                        ((double) registroCapacidades.capacidadUsada(f, dias[t]) / f.getCapacidadMaxima()) : 0.0;
                     if (utilizacion > UMBRAL_UTILIZACION) {
                         congestion += (utilizacion - UMBRAL_UTILIZACION);
                     }
@@ -482,45 +501,67 @@
                 Math.min(maxDestruir, candidatos.size())
             );
     
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> destruidos = new ArrayList<>();
+            ResultadoDestruccion resultado = new ResultadoDestruccion(solucionParcial);
             for (int i = 0; i < numDestruir; i++) {
                 Pedido seleccionado = candidatos.get(i).paquete;
-                // REFINAMIENTO: Consistencia - usar solucionActual como fuente
-                ArrayList<Vuelo> ruta = solucionActual.get(seleccionado);
-                if (ruta == null) ruta = new ArrayList<>(); // Protección contra nulos
-    
-                destruidos.add(new java.util.AbstractMap.SimpleEntry<>(seleccionado, new ArrayList<>(ruta)));
-                solucionParcial.remove(seleccionado);
+                destruir(resultado, seleccionado);
             }
     
             System.out.println("Destrucción por congestión (mejorada): " + numDestruir + " paquetes");
-            return new ResultadoDestruccion(solucionParcial, destruidos);
+            return resultado;
         }
     
         /**
-         * Clase para encapsular el resultado de una operación de destrucción
+         * Clase para encapsular el resultado de una operación de destrucción.
+         * Los paquetes destruidos se guardan como índice de pedido + id de la ruta que tenían.
          */
         public static class ResultadoDestruccion {
-            private HashMap<Pedido, ArrayList<Vuelo>> solucionParcial;
-            private ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos;
+            private final SolucionCompacta solucionParcial;
+            private int[] pedidosDestruidos;
+            private int[] rutasDestruidas;
+            private int numDestruidos;
     
-            public ResultadoDestruccion(
-                    HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
-                    ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos) {
+            public ResultadoDestruccion(SolucionCompacta solucionParcial) {
                 this.solucionParcial = solucionParcial;
-                this.paquetesDestruidos = paquetesDestruidos;
+                this.pedidosDestruidos = new int[16];
+                this.rutasDestruidas = new int[16];
+                this.numDestruidos = 0;
             }
     
-            public HashMap<Pedido, ArrayList<Vuelo>> getSolucionParcial() {
+            void agregarDestruido(int indicePedido, int idRuta) {
+                if (numDestruidos == pedidosDestruidos.length) {
+                    pedidosDestruidos = Arrays.copyOf(pedidosDestruidos, numDestruidos * 2);
+                    rutasDestruidas = Arrays.copyOf(rutasDestruidas, numDestruidos * 2);
+                }
+                pedidosDestruidos[numDestruidos] = indicePedido;
+                rutasDestruidas[numDestruidos] = idRuta;
+                numDestruidos++;
+            }
+    
+            public SolucionCompacta getSolucionParcial() {
                 return solucionParcial;
             }
     
-            public ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> getPaquetesDestruidos() {
-                return paquetesDestruidos;
+            /** Índices de los pedidos destruidos, en el orden en que se quitaron. */
+            public int[] getPedidosDestruidos() {
+                return Arrays.copyOf(pedidosDestruidos, numDestruidos);
+            }
+    
+            public int getPedidoDestruido(int i) {
+                return pedidosDestruidos[i];
+            }
+    
+            /** Id (en la {@link TablaRutas}) de la ruta que tenía el i-ésimo pedido destruido. */
+            public int getRutaDestruida(int i) {
+                return rutasDestruidas[i];
             }
     
             public int getNumPaquetesDestruidos() {
-                return paquetesDestruidos.size();
+                return numDestruidos;
+            }
+    
+            public boolean estaVacio() {
+                return numDestruidos == 0;
             }
         }
         private Aeropuerto obtenerAeropuerto(String codigoIATA) {
@@ -529,6 +570,12 @@
                 return null;
             }
     
+            // Con registro, el aeropuerto sale del índice por código de la instancia
+            if (registroCapacidades != null) {
+                Aeropuerto aeropuerto = registroCapacidades.getInstancia().aeropuerto(codigoIATA);
+                if (aeropuerto != null) return aeropuerto;
+            }
+    
             for (Aeropuerto aeropuerto : this.aeropuertos) {
                 if (aeropuerto != null &&
                         aeropuerto.getCodigoIATA() != null &&
@@ -0,0 +1,203 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.index.CatalogoRutas;
+import com.grupo5e.morapack.service.AeropuertoService;
+import com.grupo5e.morapack.service.PedidoService;
+import com.grupo5e.morapack.service.VueloService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ALNS multi-arranque: lanza varias búsquedas independientes en paralelo y se queda con la mejor.
+ *
+ * Cada trabajador es un {@link ALNSSolver} propio con su semilla y su estrategia de solución
+ * inicial (los ordenamientos greedy y el constructor aleatorio, en rotación). Los datos se cargan
+ * una sola vez en una {@link InstanciaProblema} inmutable que todos comparten, igual que sus
+ * {@link EstructurasVuelos} (índice, red temporal, cache y cancelaciones); las capacidades de
+ * vuelos y almacenes viven en el {@link RegistroCapacidades} de cada trabajador, así que no hace
+ * falta copiar entidades ni sincronizar.
+ *
+ * Con {@link #conMigracion(int)} las búsquedas dejan de ser independientes y pasan a un modelo de
+ * islas en anillo: cada K segmentos cada isla envía su mejor solución y sus pesos de operadores a
+ * la siguiente por un {@link BuzonMigracion}. Cada isla usa un esquema de temperatura distinto.
+ *
+ * Todos los trabajadores comparten un {@link TokenCancelacion}: el límite de tiempo es global y
+ * cancelar detiene a todos.
+ */
+public class ALNSMultiArranque {
+
+    // Separación entre semillas de trabajadores consecutivos
+    private static final long PASO_SEMILLA = 0x9E3779B97F4A7C15L;
+
+    // Esquemas de enfriamiento por isla (temperatura inicial, tasa), en rotación
+    private static final double[] TEMPERATURAS_ISLAS = {100.0, 50.0, 200.0, 25.0};
+    private static final double[] TASAS_ENFRIAMIENTO_ISLAS = {0.98, 0.95, 0.99, 0.97};
+
+    private final AeropuertoService aeropuertoService;
+    private final PedidoService pedidoService;
+    private final VueloService vueloService;
+    private final int numTrabajadores;
+    private final int iteracionesPorTrabajador;
+    private final Integer tiempoLimiteSegundos;
+    private final long semillaBase;
+    private int segmentosEntreMigraciones; // 0 = búsquedas independientes
+    private BuzonMigracion[] buzones;
+    private TokenCancelacion tokenCancelacion;
+    private CatalogoRutas catalogoRutas;
+    private int reparacionesEspeculativas = 1;
+    private int vecindariosParalelos = 1;
+
+    public ALNSMultiArranque(AeropuertoService aeropuertoService,
+                             PedidoService pedidoService,
+                             VueloService vueloService,
+                             int numTrabajadores,
+                             int iteracionesPorTrabajador,
+                             Integer tiempoLimiteSegundos) {
+        this.aeropuertoService = aeropuertoService;
+        this.pedidoService = pedidoService;
+        this.vueloService = vueloService;
+        this.numTrabajadores = Math.max(1, numTrabajadores);
+        this.iteracionesPorTrabajador = iteracionesPorTrabajador;
+        this.tiempoLimiteSegundos = tiempoLimiteSegundos;
+        this.semillaBase = System.currentTimeMillis();
+    }
+
+    /**
+     * Activa el modelo de islas: migración cada {@code segmentosEntreMigraciones} segmentos.
+     */
+    public ALNSMultiArranque conMigracion(int segmentosEntreMigraciones) {
+        this.segmentosEntreMigraciones = Math.max(0, segmentosEntreMigraciones);
+        return this;
+    }
+
+    /**
+     * Usa un token externo (p. ej. para cancelar desde la API) en lugar de crear uno propio.
+     */
+    public ALNSMultiArranque conTokenCancelacion(TokenCancelacion tokenCancelacion) {
+        this.tokenCancelacion = tokenCancelacion;
+        return this;
+    }
+
+    /**
+     * Catálogo de rutas precalculadas que comparten todos los trabajadores.
+     */
+    public ALNSMultiArranque conCatalogoRutas(CatalogoRutas catalogoRutas) {
+        this.catalogoRutas = catalogoRutas;
+        return this;
+    }
+
+    /**
+     * Operadores de reparación que cada trabajador prueba en paralelo por iteración (1 = ninguno
+     * extra). Multiplica los hilos: trabajadores × reparaciones.
+     */
+    public ALNSMultiArranque conReparacionesEspeculativas(int reparacionesEspeculativas) {
+        this.reparacionesEspeculativas = reparacionesEspeculativas;
+        return this;
+    }
+
+    /**
+     * Vecinos que cada trabajador genera y evalúa en paralelo por iteración (1 = uno solo).
+     * Multiplica los hilos: trabajadores × vecinos.
+     */
+    public ALNSMultiArranque conVecindariosParalelos(int vecindariosParalelos) {
+        this.vecindariosParalelos = vecindariosParalelos;
+        return this;
+    }
+
+    /**
+     * Estrategia de solución inicial del trabajador: el primero usa la configuración por defecto,
+     * los siguientes rotan por los ordenamientos greedy y el constructor aleatorio.
+     */
+    static int estrategiaDeTrabajador(int trabajador) {
+        if (trabajador == 0) return ALNSSolver.ESTRATEGIA_INICIAL_POR_DEFECTO;
+        return (trabajador - 1) % (ALNSSolver.NUM_ESTRATEGIAS_GREEDY + 1);
+    }
+
+    /**
+     * Ejecuta todas las búsquedas y devuelve el solver con la solución de mayor peso.
+     */
+    public ALNSSolver resolver() throws Exception {
+        System.out.println("=== ALNS MULTI-ARRANQUE: " + numTrabajadores + " trabajadores x "
+                + iteracionesPorTrabajador + " iteraciones"
+                + (segmentosEntreMigraciones > 0 ? ", migración cada " + segmentosEntreMigraciones + " segmentos" : "")
+                + " ===");
+
+        if (tokenCancelacion == null) {
+            tokenCancelacion = new TokenCancelacion(tiempoLimiteSegundos);
+        }
+        if (segmentosEntreMigraciones > 0) {
+            buzones = new BuzonMigracion[numTrabajadores];
+            for (int i = 0; i < numTrabajadores; i++) buzones[i] = new BuzonMigracion();
+        }
+
+        InstanciaProblema instancia = InstanciaProblema.cargar(aeropuertoService, pedidoService, vueloService,
+                semillaBase);
+        // Índice, red temporal, cache y cancelaciones: una vez para todos los trabajadores
+        EstructurasVuelos estructuras = EstructurasVuelos.construir(instancia);
+
+        AtomicInteger contadorHilos = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numTrabajadores, r -> {
+            Thread hilo = new Thread(r, "alns-trabajador-" + contadorHilos.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        try {
+            List<Future<ALNSSolver>> futuros = new ArrayList<>();
+            for (int i = 0; i < numTrabajadores; i++) {
+                final int trabajador = i;
+                futuros.add(executor.submit(() -> {
+                    ALNSSolver solver = crearSolver(instancia, estructuras, trabajador);
+                    solver.resolver();
+                    return solver;
+                }));
+            }
+
+            ALNSSolver mejor = null;
+            Exception primerError = null;
+            for (int i = 0; i < futuros.size(); i++) {
+                try {
+                    ALNSSolver solver = futuros.get(i).get();
+                    System.out.println("Trabajador " + i + " (estrategia " + estrategiaDeTrabajador(i)
+                            + "): peso " + solver.getPesoMejorSolucion());
+                    if (mejor == null || solver.getPesoMejorSolucion() > mejor.getPesoMejorSolucion()) {
+                        mejor = solver;
+                    }
+                } catch (Exception e) {
+                    System.err.println("Trabajador " + i + " falló: " + e.getMessage());
+                    if (primerError == null) primerError = e;
+                }
+            }
+
+            if (mejor == null) {
+                throw primerError;
+            }
+            System.out.println("=== MEJOR PESO MULTI-ARRANQUE: " + mejor.getPesoMejorSolucion() + " ===");
+            return mejor;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ALNSSolver crearSolver(InstanciaProblema instancia, EstructurasVuelos estructuras, int trabajador) {
+        ALNSSolver solver = new ALNSSolver(instancia, estructuras, aeropuertoService, iteracionesPorTrabajador,
+                tiempoLimiteSegundos, semillaBase + trabajador * PASO_SEMILLA, estrategiaDeTrabajador(trabajador));
+        solver.setTokenCancelacion(tokenCancelacion);
+        solver.setReparacionesEspeculativas(reparacionesEspeculativas);
+        solver.setVecindariosParalelos(vecindariosParalelos);
+        if (catalogoRutas != null) {
+            solver.setCatalogoRutas(catalogoRutas);
+        }
+        if (buzones != null) {
+            int esquema = trabajador % TEMPERATURAS_ISLAS.length;
+            solver.configurarIsla(trabajador, buzones[trabajador], buzones[(trabajador + 1) % numTrabajadores],
+                    segmentosEntreMigraciones, TEMPERATURAS_ISLAS[esquema], TASAS_ENFRIAMIENTO_ISLAS[esquema]);
+        }
+        return solver;
+    }
+}
@@ -1,6 +1,7 @@
 package com.grupo5e.morapack.algorithm.alns;
 
 import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
 import com.grupo5e.morapack.core.model.Pedido;
 import com.grupo5e.morapack.core.model.Vuelo;
 import com.grupo5e.morapack.core.model.Ciudad;
@@ -27,15 +28,22 @@ public class ALNSRepair {
     private ArrayList<Vuelo> vuelos;
     private HashMap<Aeropuerto, Integer> ocupacionAlmacenes;
     private Random aleatorio;
+    // Journal compartido con el solver: toda ocupación de capacidad pasa por aquí
+    private final RegistroCapacidades registroCapacidades;
+    // Búsqueda de rutas compartida con el solver (red temporal, índice de vuelos y disponibilidad por día)
+    private final BuscadorRutas buscadorRutas;
 
     private final AeropuertoService aeropuertoService;
 
     public ALNSRepair(ArrayList<Aeropuerto> aeropuertos, ArrayList<Vuelo> vuelos,
-                      HashMap<Aeropuerto, Integer> ocupacionAlmacenes, AeropuertoService aeropuertoService) {
+                      HashMap<Aeropuerto, Integer> ocupacionAlmacenes, AeropuertoService aeropuertoService,
+                      RegistroCapacidades registroCapacidades, BuscadorRutas buscadorRutas) {
         this.aeropuertos = aeropuertos;
         this.vuelos = vuelos;
         this.ocupacionAlmacenes = ocupacionAlmacenes;
         this.aeropuertoService = aeropuertoService;
+        this.registroCapacidades = registroCapacidades;
+        this.buscadorRutas = buscadorRutas;
         this.aleatorio = new Random(System.currentTimeMillis());
 
         // VERIFICACIÓN DE DATOS
@@ -53,12 +61,15 @@ public class ALNSRepair {
      * Constructor con semilla específica
      */
     public ALNSRepair(ArrayList<Aeropuerto> aeropuertos, ArrayList<Vuelo> vuelos,
-                      HashMap<Aeropuerto, Integer> ocupacionAlmacenes, long semilla, AeropuertoService aeropuertoService) {
+                      HashMap<Aeropuerto, Integer> ocupacionAlmacenes, long semilla, AeropuertoService aeropuertoService,
+                      RegistroCapacidades registroCapacidades, BuscadorRutas buscadorRutas) {
         this.aeropuertos = aeropuertos;
         this.vuelos = vuelos;
         this.ocupacionAlmacenes = ocupacionAlmacenes;
         this.aleatorio = new Random(semilla);
         this.aeropuertoService = aeropuertoService;
+        this.registroCapacidades = registroCapacidades;
+        this.buscadorRutas = buscadorRutas;
     }
 
     /**
@@ -66,20 +77,20 @@ public class ALNSRepair {
      * Prioriza paquetes por deadline y eficiencia de ruta específica para el negocio.
      */
     public ResultadoReparacion reparacionCodiciosa(
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos) {
+            SolucionCompacta solucionParcial,
+            int[] paquetesDestruidos) {
 
 //        System.out.println("\n=== INICIANDO REPARACIÓN GREEDY ===");
 //        System.out.println("Paquetes a reparar: " + paquetesDestruidos.size());
 //        System.out.println("Solución parcial inicial: " + solucionParcial.size() + " paquetes");
 
-        HashMap<Pedido, ArrayList<Vuelo>> solucionReparada = new HashMap<>(solucionParcial);
+        SolucionCompacta solucionReparada = solucionParcial.copiar();
         ArrayList<Pedido> paquetesNoAsignados = new ArrayList<>();
 
         // Ordenamiento inteligente específico para MoraPack
         ArrayList<Pedido> paquetesParaReparar = new ArrayList<>();
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : paquetesDestruidos) {
-            paquetesParaReparar.add(entrada.getKey());
+        for (int indicePedido : paquetesDestruidos) {
+            paquetesParaReparar.add(solucionParcial.getTabla().pedido(indicePedido));
         }
 
         paquetesParaReparar.sort((p1, p2) -> {
@@ -90,8 +101,8 @@ public class ALNSRepair {
             if (comparacionUrgencia != 0) return comparacionUrgencia;
 
             // 2. Priorizar paquetes con más productos (mayor valor de negocio)
-            int productos1 = p1.getProductos() != null ? p1.getProductos().size() : 1;
-            int productos2 = p2.getProductos() != null ? p2.getProductos().size() : 1;
+            int productos1 = RegistroCapacidades.cantidadProductos(p1);
+            int productos2 = RegistroCapacidades.cantidadProductos(p2);
             int comparacionProductos = Integer.compare(productos2, productos1);
             if (comparacionProductos != 0) return comparacionProductos;
 
@@ -111,7 +122,7 @@ public class ALNSRepair {
             Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
 
             // Obtener conteo de productos para este pedido
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
             //System.out.println("Productos: " + conteoProductos);
 
             // Verificar capacidad del almacén
@@ -141,8 +152,9 @@ public class ALNSRepair {
                 continue;
             }
 
-            solucionReparada.put(pedido, mejorRuta);
-            actualizarCapacidadesVuelos(mejorRuta, conteoProductos);
+            solucionReparada.asignar(pedido, mejorRuta);
+            actualizarCapacidadesVuelos(pedido, mejorRuta, conteoProductos);
+            registroCapacidades.ocuparFlujo(pedido, mejorRuta, conteoProductos);
             actualizarCapacidadAeropuertos(aeropuertoDestino.getCodigoIATA(), conteoProductos);
             //incrementarOcupacionAlmacen(aeropuertoDestino, conteoProductos);
             conteoReinsertados++;
@@ -165,103 +177,212 @@ public class ALNSRepair {
     /**
      * Reparación por Regret: Calcula el "arrepentimiento" de no insertar cada paquete
      * y prioriza aquellos con mayor diferencia entre mejor y segunda mejor opción.
+     *
+     * Las opciones de ruta de cada pedido se calculan una vez y quedan en memoria junto con los
+     * vuelos y almacenes de los que dependen. Tras cada inserción sólo se recalculan los pedidos
+     * cuyas rutas usan un vuelo o almacén que ya no les alcanza; los candidatos esperan en una
+     * cola de prioridad por arrepentimiento (las entradas desactualizadas se descartan al salir).
      */
     public ResultadoReparacion reparacionArrepentimiento(
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos,
+            SolucionCompacta solucionParcial,
+            int[] paquetesDestruidos,
             int nivelArrepentimiento) {
 
-        HashMap<Pedido, ArrayList<Vuelo>> solucionReparada = new HashMap<>(solucionParcial);
+        SolucionCompacta solucionReparada = solucionParcial.copiar();
         ArrayList<Pedido> paquetesNoAsignados = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
 
-        ArrayList<Pedido> paquetesRestantes = new ArrayList<>();
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : paquetesDestruidos) {
-            paquetesRestantes.add(entrada.getKey());
+        ArrayList<CandidatoArrepentimiento> candidatos = new ArrayList<>();
+        IdentityHashMap<Vuelo, Set<CandidatoArrepentimiento>> dependientesVuelo = new IdentityHashMap<>();
+        HashMap<String, Set<CandidatoArrepentimiento>> dependientesAlmacen = new HashMap<>();
+        PriorityQueue<EntradaArrepentimiento> cola = new PriorityQueue<>();
+
+        for (int indicePedido : paquetesDestruidos) {
+            Pedido pedido = solucionParcial.getTabla().pedido(indicePedido);
+            Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
+            if (aeropuertoDestino == null) {
+                System.out.println("❌ Aeropuerto destino no encontrado para pedido: " + pedido.getId() + " " + pedido.getAeropuertoDestinoCodigo());
+                exit(1);
+            }
+            CandidatoArrepentimiento candidato = new CandidatoArrepentimiento(pedido, aeropuertoDestino, candidatos.size());
+            candidatos.add(candidato);
+            evaluarCandidato(candidato, nivelArrepentimiento, ahora, dependientesVuelo, dependientesAlmacen, cola);
         }
 
         int conteoReinsertados = 0;
 
         // Mientras haya paquetes por insertar
-        while (!paquetesRestantes.isEmpty()) {
-            Pedido mejorPedido = null;
-            ArrayList<Vuelo> mejorRuta = null;
-            double maxArrepentimiento = Double.NEGATIVE_INFINITY;
-
-            // Calcular arrepentimiento para cada paquete restante
-            for (Pedido pedido : paquetesRestantes) {
-                Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
-                int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-
-                if (aeropuertoDestino == null) {
-                    System.out.println("❌ Aeropuerto destino no encontrado para pedido: " + pedido.getId() + " " + pedido.getAeropuertoDestinoCodigo());
-                    exit(1);
-                }
-                if(!tieneCapacidadAlmacen(aeropuertoDestino,conteoProductos)){
-                    continue;
-                }
-                // Encontrar las mejores rutas para este pedido
-                ArrayList<OpcionRuta> opcionesRuta = encontrarTodasLasOpcionesRuta(pedido);
+        while (conteoReinsertados < candidatos.size()) {
+            CandidatoArrepentimiento mejor = extraerMejorCandidato(cola);
+            ArrayList<Vuelo> mejorRuta = mejor != null ? mejor.opciones.get(0).ruta : null;
 
-                if (opcionesRuta.isEmpty()) {
-                    continue;
-                }
-
-                // Ordenar por margen de tiempo (mejor primero)
-                opcionesRuta.sort((r1, r2) -> Double.compare(r2.margenTiempo, r1.margenTiempo));
-
-                // Calcular regret-k real
-                double arrepentimiento = 0;
-                int k = Math.max(2, nivelArrepentimiento);
-                int limite = Math.min(k, opcionesRuta.size());
-                if (limite >= 2) {
-                    double mejorMargen = opcionesRuta.get(0).margenTiempo;
-                    for (int i = 1; i < limite; i++) {
-                        arrepentimiento += (mejorMargen - opcionesRuta.get(i).margenTiempo);
-                    }
-                } else if (opcionesRuta.size() == 1) {
-                    // Solo una opción: usar urgencia basada en orderDate→deadline
-                    if (pedido.getFechaPedido() != null && pedido.getFechaLimiteEntrega() != null) {
-                        long horasHastaDeadline = ChronoUnit.HOURS.between(pedido.getFechaPedido(), pedido.getFechaLimiteEntrega());
-                        arrepentimiento = Math.max(0, 72 - Math.min(72, horasHastaDeadline));
-                    } else {
-                        arrepentimiento = 0;
-                    }
+            // Insertar el paquete con mayor arrepentimiento
+            if (mejor == null || !esRutaValida(mejor.pedido, mejorRuta, Math.max(1, mejor.conteoProductos))) {
+                // No se pudo insertar ningún paquete, agregar todos los restantes como no asignados
+                for (CandidatoArrepentimiento candidato : candidatos) {
+                    if (!candidato.insertado) paquetesNoAsignados.add(candidato.pedido);
                 }
+                break;
+            }
 
-                // Añadir factor de urgencia al arrepentimiento
-                LocalDateTime ahora = LocalDateTime.now();
-                long horasHastaDeadline = ChronoUnit.HOURS.between(ahora, pedido.getFechaLimiteEntrega());
-                double factorUrgencia = Math.max(1, 72.0 / Math.max(1, horasHastaDeadline));
-                arrepentimiento *= factorUrgencia;
+            solucionReparada.asignar(mejor.pedido, mejorRuta);
+            actualizarCapacidadesVuelos(mejor.pedido, mejorRuta, mejor.conteoProductos);
+            registroCapacidades.ocuparFlujo(mejor.pedido, mejorRuta, mejor.conteoProductos);
+            actualizarCapacidadAeropuertos(mejor.pedido.getAeropuertoDestinoCodigo(), mejor.conteoProductos);
+            mejor.insertado = true;
+            quitarDependencias(mejor, dependientesVuelo, dependientesAlmacen);
+            conteoReinsertados++;
 
-                if (arrepentimiento > maxArrepentimiento) {
-                    maxArrepentimiento = arrepentimiento;
-                    mejorPedido = pedido;
-                    mejorRuta = opcionesRuta.get(0).ruta;
-                }
+            // Sólo se recalculan los pedidos que dependen de lo que acaba de ocuparse y ya no les alcanza
+            Set<CandidatoArrepentimiento> afectados = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Vuelo vuelo : mejorRuta) {
+                afectados.addAll(dependientesVuelo.getOrDefault(vuelo, Collections.emptySet()));
             }
-
-            // Insertar el paquete con mayor arrepentimiento
-            if (mejorPedido != null && mejorRuta != null && esRutaValida(mejorPedido, mejorRuta, Math.max(1, mejorPedido.getProductos() != null ? mejorPedido.getProductos().size() : 1))) {
-                solucionReparada.put(mejorPedido, mejorRuta);
-                int conteoProductos = mejorPedido.getProductos() != null ? mejorPedido.getProductos().size() : 1;
-                actualizarCapacidadesVuelos(mejorRuta, conteoProductos);
-                actualizarCapacidadAeropuertos(mejorPedido.getAeropuertoDestinoCodigo(), conteoProductos);
-                paquetesRestantes.remove(mejorPedido);
-                conteoReinsertados++;
-            } else {
-                // No se pudo insertar ningún paquete, agregar todos los restantes como no asignados
-                paquetesNoAsignados.addAll(paquetesRestantes);
-                break;
+            for (String codigo : almacenesDeRuta(mejor.pedido, mejorRuta)) {
+                afectados.addAll(dependientesAlmacen.getOrDefault(codigo, Collections.emptySet()));
+            }
+            for (CandidatoArrepentimiento candidato : afectados) {
+                if (!candidato.insertado && !candidato.opciones.isEmpty() && !opcionesSiguenVigentes(candidato)) {
+                    evaluarCandidato(candidato, nivelArrepentimiento, ahora, dependientesVuelo, dependientesAlmacen, cola);
+                }
             }
         }
 
-        System.out.println("Reparación por Arrepentimiento: " + conteoReinsertados + "/" + paquetesDestruidos.size() +
+        System.out.println("Reparación por Arrepentimiento: " + conteoReinsertados + "/" + paquetesDestruidos.length +
                           " paquetes reinsertados");
 
         return new ResultadoReparacion(solucionReparada, paquetesNoAsignados);
     }
 
+    /**
+     * Calcula (o recalcula) las opciones de ruta y el arrepentimiento de un candidato, registra sus
+     * dependencias (reemplazando las de la evaluación anterior) y lo encola. Un candidato sin
+     * opciones no vuelve a evaluarse: durante la reparación la capacidad sólo se consume, así que
+     * no puede ganar opciones.
+     */
+    private void evaluarCandidato(CandidatoArrepentimiento candidato, int nivelArrepentimiento, LocalDateTime ahora,
+                                  IdentityHashMap<Vuelo, Set<CandidatoArrepentimiento>> dependientesVuelo,
+                                  HashMap<String, Set<CandidatoArrepentimiento>> dependientesAlmacen,
+                                  PriorityQueue<EntradaArrepentimiento> cola) {
+        quitarDependencias(candidato, dependientesVuelo, dependientesAlmacen);
+        candidato.version++;
+        candidato.consultadas.clear();
+        if (!tieneCapacidadAlmacen(candidato.destino, candidato.conteoProductos)) {
+            candidato.opciones = new ArrayList<>();
+            return;
+        }
+        candidato.opciones = encontrarTodasLasOpcionesRuta(candidato.pedido, candidato.consultadas);
+        if (candidato.opciones.isEmpty()) return;
+
+        // Ordenar por margen de tiempo (mejor primero)
+        candidato.opciones.sort((r1, r2) -> Double.compare(r2.margenTiempo, r1.margenTiempo));
+        candidato.arrepentimiento = calcularArrepentimiento(candidato.pedido, candidato.opciones, nivelArrepentimiento, ahora);
+
+        // Dependencias: vuelos de todo itinerario consultado y almacenes por los que pasan las opciones
+        Set<Vuelo> vuelosUsados = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ArrayList<Vuelo> ruta : candidato.consultadas) vuelosUsados.addAll(ruta);
+        for (Vuelo vuelo : vuelosUsados) {
+            dependientesVuelo.computeIfAbsent(vuelo, v -> Collections.newSetFromMap(new IdentityHashMap<>())).add(candidato);
+        }
+        Set<String> almacenesUsados = new HashSet<>();
+        for (OpcionRuta opcion : candidato.opciones) almacenesUsados.addAll(almacenesDeRuta(candidato.pedido, opcion.ruta));
+        for (String codigo : almacenesUsados) {
+            dependientesAlmacen.computeIfAbsent(codigo, c -> Collections.newSetFromMap(new IdentityHashMap<>())).add(candidato);
+        }
+        candidato.vuelosDependencia = vuelosUsados;
+        candidato.almacenesDependencia = almacenesUsados;
+
+        cola.add(new EntradaArrepentimiento(candidato, candidato.version, candidato.arrepentimiento));
+    }
+
+    /**
+     * Quita al candidato de las listas de dependientes en que lo dejó su última evaluación.
+     */
+    private static void quitarDependencias(CandidatoArrepentimiento candidato,
+                                           IdentityHashMap<Vuelo, Set<CandidatoArrepentimiento>> dependientesVuelo,
+                                           HashMap<String, Set<CandidatoArrepentimiento>> dependientesAlmacen) {
+        for (Vuelo vuelo : candidato.vuelosDependencia) {
+            Set<CandidatoArrepentimiento> dependientes = dependientesVuelo.get(vuelo);
+            if (dependientes != null) dependientes.remove(candidato);
+        }
+        for (String codigo : candidato.almacenesDependencia) {
+            Set<CandidatoArrepentimiento> dependientes = dependientesAlmacen.get(codigo);
+            if (dependientes != null) dependientes.remove(candidato);
+        }
+        candidato.vuelosDependencia = Collections.emptySet();
+        candidato.almacenesDependencia = Collections.emptySet();
+    }
+
+    /**
+     * Regret-k sobre las opciones ordenadas, ponderado por la urgencia del pedido.
+     */
+    private double calcularArrepentimiento(Pedido pedido, ArrayList<OpcionRuta> opcionesRuta,
+                                           int nivelArrepentimiento, LocalDateTime ahora) {
+        // Calcular regret-k real
+        double arrepentimiento = 0;
+        int k = Math.max(2, nivelArrepentimiento);
+        int limite = Math.min(k, opcionesRuta.size());
+        if (limite >= 2) {
+            double mejorMargen = opcionesRuta.get(0).margenTiempo;
+            for (int i = 1; i < limite; i++) {
+                arrepentimiento += (mejorMargen - opcionesRuta.get(i).margenTiempo);
+            }
+        } else if (opcionesRuta.size() == 1) {
+            // Solo una opción: usar urgencia basada en orderDate→deadline
+            if (pedido.getFechaPedido() != null && pedido.getFechaLimiteEntrega() != null) {
+                long horasHastaDeadline = ChronoUnit.HOURS.between(pedido.getFechaPedido(), pedido.getFechaLimiteEntrega());
+                arrepentimiento = Math.max(0, 72 - Math.min(72, horasHastaDeadline));
+            }
+        }
+
+        // Añadir factor de urgencia al arrepentimiento
+        long horasHastaDeadline = ChronoUnit.HOURS.between(ahora, pedido.getFechaLimiteEntrega());
+        double factorUrgencia = Math.max(1, 72.0 / Math.max(1, horasHastaDeadline));
+        return arrepentimiento * factorUrgencia;
+    }
+
+    /**
+     * true si nada de lo que determinó las opciones del candidato cambió: el almacén destino
+     * aún tiene espacio, todo itinerario consultado sigue cabiendo en sus vuelos (la búsqueda
+     * devolvería lo mismo) y cada opción sigue cabiendo en los almacenes de paso.
+     */
+    private boolean opcionesSiguenVigentes(CandidatoArrepentimiento candidato) {
+        if (!tieneCapacidadAlmacen(candidato.destino, candidato.conteoProductos)) return false;
+        for (ArrayList<Vuelo> ruta : candidato.consultadas) {
+            if (!cabeEnCapacidadRuta(candidato.pedido, ruta, candidato.cantidadBusqueda)) return false;
+        }
+        for (OpcionRuta opcion : candidato.opciones) {
+            if (!registroCapacidades.cabeFlujo(candidato.pedido, opcion.ruta, candidato.cantidadBusqueda)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Saca de la cola el candidato vigente con mayor arrepentimiento (null si no queda ninguno).
+     */
+    private CandidatoArrepentimiento extraerMejorCandidato(PriorityQueue<EntradaArrepentimiento> cola) {
+        while (!cola.isEmpty()) {
+            EntradaArrepentimiento entrada = cola.poll();
+            CandidatoArrepentimiento candidato = entrada.candidato;
+            if (!candidato.insertado && entrada.version == candidato.version && !candidato.opciones.isEmpty()) {
+                return candidato;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Códigos de los almacenes que ocupa el pedido con la ruta: aeropuertos de salida, escalas y destino.
+     */
+    private List<String> almacenesDeRuta(Pedido pedido, ArrayList<Vuelo> ruta) {
+        ArrayList<String> codigos = new ArrayList<>();
+        for (Vuelo vuelo : ruta) {
+            codigos.add(vuelo.getAeropuertoOrigen().getCodigoIATA());
+        }
+        codigos.add(pedido.getAeropuertoDestinoCodigo());
+        return codigos;
+    }
+
 //    public ResultadoReparacion reparacionArrepentimiento(
 //            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
 //            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos,
@@ -431,16 +552,16 @@ public class ALNSRepair {
      * Reparación por tiempo: Prioriza paquetes con deadlines más cercanos.
      */
     public ResultadoReparacion reparacionPorTiempo(
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos) {
+            SolucionCompacta solucionParcial,
+            int[] paquetesDestruidos) {
 
-        HashMap<Pedido, ArrayList<Vuelo>> solucionReparada = new HashMap<>(solucionParcial);
+        SolucionCompacta solucionReparada = solucionParcial.copiar();
         ArrayList<Pedido> paquetesNoAsignados = new ArrayList<>();
 
         // Extraer paquetes y ordenar por urgencia (deadline más cercano primero)
         ArrayList<Pedido> paquetesParaReparar = new ArrayList<>();
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : paquetesDestruidos) {
-            paquetesParaReparar.add(entrada.getKey());
+        for (int indicePedido : paquetesDestruidos) {
+            paquetesParaReparar.add(solucionParcial.getTabla().pedido(indicePedido));
         }
 
         paquetesParaReparar.sort((p1, p2) -> {
@@ -461,7 +582,7 @@ public class ALNSRepair {
                 System.out.println("❌ Aeropuerto destino no encontrado para pedido: " + pedido.getId() + " " + pedido.getAeropuertoDestinoCodigo());
                 exit(1);
             }
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
 
             if (!tieneCapacidadAlmacen(aeropuertoDestino, conteoProductos)) {
                 paquetesNoAsignados.add(pedido);
@@ -479,8 +600,9 @@ public class ALNSRepair {
 //                        " → " + pedido.getAeropuertoDestinoCodigo());
 //            }
             if (mejorRuta != null && esRutaValida(pedido, mejorRuta, conteoProductos)) {
-                solucionReparada.put(pedido, mejorRuta);
-                actualizarCapacidadesVuelos(mejorRuta, conteoProductos);
+                solucionReparada.asignar(pedido, mejorRuta);
+                actualizarCapacidadesVuelos(pedido, mejorRuta, conteoProductos);
+                registroCapacidades.ocuparFlujo(pedido, mejorRuta, conteoProductos);
                 actualizarCapacidadAeropuertos(aeropuertoDestino.getCodigoIATA(), conteoProductos);
                 conteoReinsertados++;
             } else {
@@ -642,15 +764,15 @@ public class ALNSRepair {
      * Reparación por capacidad: Prioriza rutas con mayor capacidad disponible.
      */
     public ResultadoReparacion reparacionPorCapacidad(
-            HashMap<Pedido, ArrayList<Vuelo>> solucionParcial,
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos) {
+            SolucionCompacta solucionParcial,
+            int[] paquetesDestruidos) {
 
-        HashMap<Pedido, ArrayList<Vuelo>> solucionReparada = new HashMap<>(solucionParcial);
+        SolucionCompacta solucionReparada = solucionParcial.copiar();
         ArrayList<Pedido> paquetesNoAsignados = new ArrayList<>();
 
         ArrayList<Pedido> paquetesParaReparar = new ArrayList<>();
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : paquetesDestruidos) {
-            paquetesParaReparar.add(entrada.getKey());
+        for (int indicePedido : paquetesDestruidos) {
+            paquetesParaReparar.add(solucionParcial.getTabla().pedido(indicePedido));
         }
 
         // Ordenar por deadline como criterio secundario
@@ -666,7 +788,7 @@ public class ALNSRepair {
 
         for (Pedido pedido : paquetesParaReparar) {
             Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
 
             if (aeropuertoDestino == null) {
                 System.out.println("❌ Aeropuerto destino no encontrado para pedido: " + pedido.getId() + " " + pedido.getAeropuertoDestinoCodigo());
@@ -680,8 +802,9 @@ public class ALNSRepair {
             // Buscar ruta con mayor capacidad disponible
             ArrayList<Vuelo> mejorRuta = encontrarRutaConMaximaCapacidad(pedido);
             if (mejorRuta != null && esRutaValida(pedido, mejorRuta, conteoProductos)) {
-                solucionReparada.put(pedido, mejorRuta);
-                actualizarCapacidadesVuelos(mejorRuta, conteoProductos);
+                solucionReparada.asignar(pedido, mejorRuta);
+                actualizarCapacidadesVuelos(pedido, mejorRuta, conteoProductos);
+                registroCapacidades.ocuparFlujo(pedido, mejorRuta, conteoProductos);
                 actualizarCapacidadAeropuertos(aeropuertoDestino.getCodigoIATA(), conteoProductos);
                 conteoReinsertados++;
             } else {
@@ -868,6 +991,14 @@ public class ALNSRepair {
     }
 
     private ArrayList<OpcionRuta> encontrarTodasLasOpcionesRuta(Pedido pedido) {
+        return encontrarTodasLasOpcionesRuta(pedido, null);
+    }
+
+    /**
+     * @param consultadas si no es null, recibe todo itinerario devuelto por la red temporal,
+     *                    haya pasado o no la validación (las dependencias de la memoria de regret)
+     */
+    private ArrayList<OpcionRuta> encontrarTodasLasOpcionesRuta(Pedido pedido, List<ArrayList<Vuelo>> consultadas) {
         ArrayList<OpcionRuta> opciones = new ArrayList<>();
         String codigoOrigen = pedido.getAeropuertoOrigenCodigo();
         String codigoDestino = pedido.getAeropuertoDestinoCodigo();
@@ -883,31 +1014,14 @@ public class ALNSRepair {
             return opciones;
         }
 
-        // Buscar ruta directa
-        //System.out.println("\n    --- BUSCANDO RUTA DIRECTA ---");
-        ArrayList<Vuelo> rutaDirecta = encontrarRutaDirecta(codigoOrigen, codigoDestino);
-        if (rutaDirecta != null && esRutaValida(pedido, rutaDirecta)) {
-            double margen = calcularMargenTiempoRuta(pedido, rutaDirecta);
-            opciones.add(new OpcionRuta(rutaDirecta, margen));
-            //System.out.println("    ✅ RUTA DIRECTA VÁLIDA - Margen: " + margen);
-        }
-
-        // Buscar rutas con una escala
-        //System.out.println("\n    --- BUSCANDO RUTA CON 1 ESCALA ---");
-        ArrayList<Vuelo> rutaUnaEscala = encontrarRutaUnaEscala(codigoOrigen, codigoDestino);
-        if (rutaUnaEscala != null && esRutaValida(pedido, rutaUnaEscala)) {
-            double margen = calcularMargenTiempoRuta(pedido, rutaUnaEscala);
-            opciones.add(new OpcionRuta(rutaUnaEscala, margen));
-            //System.out.println("    ✅ RUTA CON 1 ESCALA VÁLIDA - Margen: " + margen);
-        }
-
-        // Buscar rutas con dos escalas
-        //System.out.println("\n    --- BUSCANDO RUTA CON 2 ESCALAS ---");
-        ArrayList<Vuelo> rutaDosEscalas = encontrarRutaDosEscalas(codigoOrigen, codigoDestino);
-        if (rutaDosEscalas != null && esRutaValida(pedido, rutaDosEscalas)) {
-            double margen = calcularMargenTiempoRuta(pedido, rutaDosEscalas);
-            opciones.add(new OpcionRuta(rutaDosEscalas, margen));
-            //System.out.println("    ✅ RUTA CON 2 ESCALAS VÁLIDA - Margen: " + margen);
+        // Itinerarios factibles de la red temporal (directos, 1 y 2 escalas) por búsqueda
+        // bidireccional, los de llegada más temprana primero
+        for (RedTemporalVuelos.Itinerario itinerario : buscadorRutas.enumerar(pedido, 0, Constantes.MAX_OPCIONES_RUTA)) {
+            ArrayList<Vuelo> ruta = itinerario.getVuelos();
+            if (consultadas != null) consultadas.add(ruta);
+            if (esRutaValida(pedido, ruta)) {
+                opciones.add(new OpcionRuta(ruta, calcularMargenTiempoRuta(pedido, ruta)));
+            }
         }
 
         //System.out.println("    📊 TOTAL OPCIONES ENCONTRADAS: " + opciones.size());
@@ -935,11 +1049,12 @@ public class ALNSRepair {
         ArrayList<OpcionCapacidadRuta> opcionesCapacidad = new ArrayList<>();
         for (OpcionRuta opcion : opciones) {
             double capacidadTotal = 0;
-            double capacidadUsada = 0;
+            // Carga de las ocurrencias que usaría el pedido, no de todo el horizonte
+            double capacidadUsada = registroCapacidades.cargaRuta(pedido, opcion.ruta,
+                    RegistroCapacidades.cantidadProductos(pedido));
 
             for (Vuelo vuelo : opcion.ruta) {
                 capacidadTotal += vuelo.getCapacidadMaxima();
-                capacidadUsada += vuelo.getCapacidadUsada();
             }
 
             double ratioCapacidadDisponible = (capacidadTotal - capacidadUsada) / Math.max(1, capacidadTotal);
@@ -1053,14 +1168,12 @@ public class ALNSRepair {
     }
 
     /**
-     * PATCH: Helper para validar capacidad de ruta con cantidad específica
+     * PATCH: Helper para validar capacidad de ruta con cantidad específica, en las ocurrencias
+     * (vuelo, día) que usaría el pedido
      */
-    private boolean cabeEnCapacidadRuta(ArrayList<Vuelo> ruta, int cantidad) {
+    private boolean cabeEnCapacidadRuta(Pedido pedido, ArrayList<Vuelo> ruta, int cantidad) {
         if (ruta == null) return false;
-        for (Vuelo f : ruta) {
-            if (f.getCapacidadUsada() + cantidad > f.getCapacidadMaxima()) return false;
-        }
-        return true;
+        return registroCapacidades.cabeEnVuelos(pedido, ruta, cantidad);
     }
 
     /**
@@ -1077,7 +1190,7 @@ public class ALNSRepair {
         }
 
         // Verificar capacidad de vuelos con cantidad específica
-        if (!cabeEnCapacidadRuta(ruta, cantidad)) {
+        if (!cabeEnCapacidadRuta(pedido, ruta, cantidad)) {
             //System.out.println("  ❌ No cabe en capacidad de vuelos");
             return false;
         }
@@ -1100,8 +1213,10 @@ public class ALNSRepair {
         // Verificar deadline
         boolean deadlineOk = seRespetaDeadline(pedido, ruta);
         //System.out.println("  ✅ Deadline respetado: " + deadlineOk);
+        if (!deadlineOk) return false;
 
-        return deadlineOk;
+        // Verificar ocupación temporal de los almacenes de paso (espera, escalas y recogida)
+        return registroCapacidades.cabeFlujo(pedido, ruta, cantidad);
     }
     /**
      * PATCH: Versión con cantidad específica de productos
@@ -1179,7 +1294,7 @@ public class ALNSRepair {
      * PATCH: Versión original que delega calculando cantidad
      */
     private boolean esRutaValida(Pedido pedido, ArrayList<Vuelo> ruta) {
-        int cantidad = (pedido.getProductos() != null && !pedido.getProductos().isEmpty()) ? pedido.getProductos().size() : 1;
+        int cantidad = RegistroCapacidades.cantidadProductos(pedido);
         return esRutaValida(pedido, ruta, cantidad);
     }
 
@@ -1227,148 +1342,6 @@ public class ALNSRepair {
         return resultado;
     }
 
-    // Métodos de búsqueda de rutas (simplificados, podrían referenciar a Solution.java)
-    private ArrayList<Vuelo> encontrarRutaDirecta(String codigoOrigen, String codigoDestino) {
-
-        for (Vuelo vuelo : vuelos) {
-            boolean mismoOrigen = vuelo.getAeropuertoOrigen().getCodigoIATA().equals(codigoOrigen);
-            boolean mismoDestino = vuelo.getAeropuertoDestino().getCodigoIATA().equals(codigoDestino);
-
-            if (mismoOrigen && mismoDestino) {
-                ArrayList<Vuelo> ruta = new ArrayList<>();
-                ruta.add(vuelo);
-                return ruta;
-            }
-        }
-
-        //System.out.println("    ❌ No se encontró vuelo directo");
-        return null;
-    }
-
-    private ArrayList<Vuelo> encontrarRutaUnaEscala(String codigoOrigen, String codigoDestino) {
-        // Buscar todos los posibles aeropuertos intermedios
-        for (Aeropuerto intermedio : aeropuertos) {
-            if (intermedio.getCodigoIATA().equals(codigoOrigen) ||
-                    intermedio.getCodigoIATA().equals(codigoDestino)) {
-                continue;
-            }
-
-            Vuelo primerVuelo = null;
-            Vuelo segundoVuelo = null;
-
-            // Buscar primer tramo: Origen → Intermedio
-            for (Vuelo vuelo : vuelos) {
-                if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(codigoOrigen) &&
-                        vuelo.getAeropuertoDestino().getCodigoIATA().equals(intermedio.getCodigoIATA())) {
-                    primerVuelo = vuelo;
-                    break;
-                }
-            }
-
-            if (primerVuelo == null) continue;
-
-            // Buscar segundo tramo: Intermedio → Destino
-            for (Vuelo vuelo : vuelos) {
-                if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(intermedio.getCodigoIATA()) &&
-                        vuelo.getAeropuertoDestino().getCodigoIATA().equals(codigoDestino)) {
-                    segundoVuelo = vuelo;
-                    break;
-                }
-            }
-
-            if (segundoVuelo != null) {
-                ArrayList<Vuelo> ruta = new ArrayList<>();
-                ruta.add(primerVuelo);
-                ruta.add(segundoVuelo);
-                return ruta;
-            }
-        }
-
-        System.out.println("    ❌ No se encontró ruta con 1 escala");
-        return null;
-    }
-
-    private ArrayList<Vuelo> encontrarRutaDosEscalas(String codigoOrigen, String codigoDestino) {
-        ArrayList<Aeropuerto> candidatos = new ArrayList<>();
-        for (Aeropuerto aeropuerto : aeropuertos) {
-            if (!aeropuerto.getCodigoIATA().equals(codigoOrigen) &&
-                    !aeropuerto.getCodigoIATA().equals(codigoDestino)) {
-                candidatos.add(aeropuerto);
-            }
-        }
-
-        if (candidatos.size() < 2) return null;
-
-        Collections.shuffle(candidatos, aleatorio);
-        int maxIntentos = Math.min(10, candidatos.size() - 1);
-
-        for (int i = 0; i < maxIntentos; i++) {
-            Aeropuerto primero = candidatos.get(i);
-            for (int j = i + 1; j < Math.min(i + 5, candidatos.size()); j++) {
-                Aeropuerto segundo = candidatos.get(j);
-
-                ArrayList<Vuelo> ruta = intentarRutaDosEscalas(codigoOrigen, primero.getCodigoIATA(),
-                        segundo.getCodigoIATA(), codigoDestino);
-                if (ruta != null) return ruta;
-
-                // También probar en orden inverso
-                ruta = intentarRutaDosEscalas(codigoOrigen, segundo.getCodigoIATA(),
-                        primero.getCodigoIATA(), codigoDestino);
-                if (ruta != null) return ruta;
-            }
-        }
-
-        return null;
-    }
-
-    private ArrayList<Vuelo> intentarRutaDosEscalas(String origen, String primero, String segundo, String destino) {
-        Vuelo vuelo1 = null, vuelo2 = null, vuelo3 = null;
-
-        // Buscar vuelo 1: origen -> primero
-        for (Vuelo vuelo : vuelos) {
-            if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(origen) &&
-                vuelo.getAeropuertoDestino().getCodigoIATA().equals(primero) &&
-                vuelo.getCapacidadUsada() < vuelo.getCapacidadMaxima()) {
-                vuelo1 = vuelo;
-                break;
-            }
-        }
-
-        if (vuelo1 == null) return null;
-
-        // Buscar vuelo 2: primero -> segundo
-        for (Vuelo vuelo : vuelos) {
-            if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(primero) &&
-                vuelo.getAeropuertoDestino().getCodigoIATA().equals(segundo) &&
-                vuelo.getCapacidadUsada() < vuelo.getCapacidadMaxima()) {
-                vuelo2 = vuelo;
-                break;
-            }
-        }
-
-        if (vuelo2 == null) return null;
-
-        // Buscar vuelo 3: segundo -> destino
-        for (Vuelo vuelo : vuelos) {
-            if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(segundo) &&
-                vuelo.getAeropuertoDestino().getCodigoIATA().equals(destino) &&
-                vuelo.getCapacidadUsada() < vuelo.getCapacidadMaxima()) {
-                vuelo3 = vuelo;
-                break;
-            }
-        }
-
-        if (vuelo3 != null) {
-            ArrayList<Vuelo> ruta = new ArrayList<>();
-            ruta.add(vuelo1);
-            ruta.add(vuelo2);
-            ruta.add(vuelo3);
-            return ruta;
-        }
-
-        return null;
-    }
-
     /**
      * PATCH: Ciudad→Aeropuerto robusto por nombre (evita equals frágil)
      */
@@ -1400,7 +1373,7 @@ public class ALNSRepair {
 
         int capacidad = aeropuertoDestino.getCapacidadMaxima();
         //int ocupacion = ocupacionAlmacenes.getOrDefault(aeropuertoDestino, 0);
-        int ocupacion = aeropuertoDestino.getCapacidadActual();
+        int ocupacion = registroCapacidades.ocupacion(aeropuertoDestino);
         // Si la capacidad del aeropuerto es 0, se considera sin espacio
         if (capacidad == 0) {
             if (Constantes.LOGGING_VERBOSO)
@@ -1418,15 +1391,12 @@ public class ALNSRepair {
         return tieneEspacio;
     }
 
-    private void actualizarCapacidadesVuelos(ArrayList<Vuelo> ruta, int conteoProductos) {
-        for (Vuelo vuelo : ruta) {
-            vuelo.setCapacidadUsada(vuelo.getCapacidadUsada() + conteoProductos);
-        }
+    private void actualizarCapacidadesVuelos(Pedido pedido, ArrayList<Vuelo> ruta, int conteoProductos) {
+        registroCapacidades.ocuparVuelos(pedido, ruta, conteoProductos);
     }
 
     private void incrementarOcupacionAlmacen(Aeropuerto aeropuerto, int conteoProductos) {
-        int actual = aeropuerto.getCapacidadActual();
-        aeropuerto.setCapacidadActual(actual + conteoProductos);
+        registroCapacidades.ajustarAeropuerto(aeropuerto, conteoProductos);
     }
 
     // ================= CLASES AUXILIARES =================
@@ -1441,6 +1411,55 @@ public class ALNSRepair {
         }
     }
 
+    /**
+     * Pedido pendiente en la reparación por regret con sus opciones de ruta memorizadas.
+     */
+    private static class CandidatoArrepentimiento {
+        final Pedido pedido;
+        final Aeropuerto destino;
+        final int orden;              // posición entre los destruidos (desempate)
+        final int conteoProductos;    // lo que se ocupa al insertar
+        final int cantidadBusqueda;   // lo que se exige a los vuelos al buscar rutas
+        final ArrayList<ArrayList<Vuelo>> consultadas = new ArrayList<>();
+        ArrayList<OpcionRuta> opciones = new ArrayList<>();
+        // Claves bajo las que está registrado en dependientesVuelo / dependientesAlmacen
+        Set<Vuelo> vuelosDependencia = Collections.emptySet();
+        Set<String> almacenesDependencia = Collections.emptySet();
+        double arrepentimiento;
+        int version;
+        boolean insertado;
+
+        CandidatoArrepentimiento(Pedido pedido, Aeropuerto destino, int orden) {
+            this.pedido = pedido;
+            this.destino = destino;
+            this.orden = orden;
+            this.conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
+            this.cantidadBusqueda = Math.max(1, conteoProductos);
+        }
+    }
+
+    /**
+     * Entrada de la cola de regret: mayor arrepentimiento primero y, a igualdad, el pedido que
+     * llegó antes. Si el candidato se recalculó después de encolarla, la versión ya no coincide.
+     */
+    private static class EntradaArrepentimiento implements Comparable<EntradaArrepentimiento> {
+        final CandidatoArrepentimiento candidato;
+        final int version;
+        final double arrepentimiento;
+
+        EntradaArrepentimiento(CandidatoArrepentimiento candidato, int version, double arrepentimiento) {
+            this.candidato = candidato;
+            this.version = version;
+            this.arrepentimiento = arrepentimiento;
+        }
+
+        @Override
+        public int compareTo(EntradaArrepentimiento otra) {
+            int comparacion = Double.compare(otra.arrepentimiento, arrepentimiento);
+            return comparacion != 0 ? comparacion : Integer.compare(candidato.orden, otra.candidato.orden);
+        }
+    }
+
     private static class OpcionCapacidadRuta {
         ArrayList<Vuelo> ruta;
         double capacidadDisponible;
@@ -1457,16 +1476,16 @@ public class ALNSRepair {
      * Clase para encapsular el resultado de una operación de reparación
      */
     public static class ResultadoReparacion {
-        private HashMap<Pedido, ArrayList<Vuelo>> solucionReparada;
+        private SolucionCompacta solucionReparada;
         private ArrayList<Pedido> paquetesNoAsignados;
 
-        public ResultadoReparacion(HashMap<Pedido, ArrayList<Vuelo>> solucionReparada,
+        public ResultadoReparacion(SolucionCompacta solucionReparada,
                            ArrayList<Pedido> paquetesNoAsignados) {
             this.solucionReparada = solucionReparada;
             this.paquetesNoAsignados = paquetesNoAsignados;
         }
 
-        public HashMap<Pedido, ArrayList<Vuelo>> getSolucionReparada() {
+        public SolucionCompacta getSolucionReparada() {
             return solucionReparada;
         }
 
@@ -1475,11 +1494,11 @@ public class ALNSRepair {
         }
 
         public int getNumPaquetesReparados() {
-            return solucionReparada.size();
+            return solucionReparada.tamano();
         }
 
         public boolean esExitoso() {
-            return !solucionReparada.isEmpty() || paquetesNoAsignados.isEmpty();
+            return !solucionReparada.estaVacia() || paquetesNoAsignados.isEmpty();
         }
 
         public int getNumPaquetesNoAsignados() {
@@ -1492,13 +1511,9 @@ public class ALNSRepair {
             return null;
         }
 
-        for (Aeropuerto aeropuerto : this.aeropuertos) {
-            if (aeropuerto != null &&
-                    aeropuerto.getCodigoIATA() != null &&
-                    aeropuerto.getCodigoIATA().equalsIgnoreCase(codigoIATA.trim())) {
-                //System.out.println("✅ Aeropuerto encontrado: " + codigoIATA);
-                return aeropuerto;
-            }
+        Aeropuerto aeropuerto = buscadorRutas.aeropuerto(codigoIATA);
+        if (aeropuerto != null) {
+            return aeropuerto;
         }
 
         // Log para debugging
@@ -1536,7 +1551,7 @@ public class ALNSRepair {
                     vuelo.getAeropuertoDestino().getCodigoIATA().equals(destino.getCodigoIATA())) {
                 System.out.println("  ✅ " + vuelo.getAeropuertoOrigen().getCodigoIATA() +
                         " → " + vuelo.getAeropuertoDestino().getCodigoIATA() +
-                        " - Capacidad: " + vuelo.getCapacidadUsada() + "/" + vuelo.getCapacidadMaxima());
+                        " - Capacidad: " + registroCapacidades.capacidadUsada(vuelo) + "/" + vuelo.getCapacidadMaxima());
                 hayDirectos = true;
             }
         }
@@ -1549,7 +1564,7 @@ public class ALNSRepair {
             if (vuelo.getAeropuertoOrigen().getCodigoIATA().equals(origen.getCodigoIATA())) {
                 System.out.println("  ✈️  " + vuelo.getAeropuertoOrigen().getCodigoIATA() +
                         " → " + vuelo.getAeropuertoDestino().getCodigoIATA() +
-                        " - Cap: " + vuelo.getCapacidadUsada() + "/" + vuelo.getCapacidadMaxima());
+                        " - Cap: " + registroCapacidades.capacidadUsada(vuelo) + "/" + vuelo.getCapacidadMaxima());
                 vuelosDesdeOrigen++;
             }
         }
@@ -1562,19 +1577,13 @@ public class ALNSRepair {
             if (vuelo.getAeropuertoDestino().getCodigoIATA().equals(destino.getCodigoIATA())) {
                 System.out.println("  ✈️  " + vuelo.getAeropuertoOrigen().getCodigoIATA() +
                         " → " + vuelo.getAeropuertoDestino().getCodigoIATA() +
-                        " - Cap: " + vuelo.getCapacidadUsada() + "/" + vuelo.getCapacidadMaxima());
+                        " - Cap: " + registroCapacidades.capacidadUsada(vuelo) + "/" + vuelo.getCapacidadMaxima());
                 vuelosHaciaDestino++;
             }
         }
         System.out.println("  Total vuelos hacia " + codigoDestino + ": " + vuelosHaciaDestino);
     }
     void actualizarCapacidadAeropuertos(String codigoAeropuertoDestino, int cantidad) {
-        for(Aeropuerto aeropuerto : aeropuertos) {
-            if(aeropuerto.getCodigoIATA().equals(codigoAeropuertoDestino)) {
-                int capacidadActual = aeropuerto.getCapacidadActual();
-                aeropuerto.setCapacidadActual(capacidadActual + cantidad);
-                break;
-            }
-        }
+        registroCapacidades.ajustarAeropuerto(buscadorRutas.aeropuerto(codigoAeropuertoDestino), cantidad);
     }
 }
\ No newline at end of file
@@ -4,12 +4,12 @@ import com.grupo5e.morapack.core.model.*;
 import com.grupo5e.morapack.core.model.Pedido;
 import com.grupo5e.morapack.core.constants.Constantes;
 import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
-import com.grupo5e.morapack.core.index.IndiceVuelos;
 import com.grupo5e.morapack.core.index.CacheDisponibilidad;
+import com.grupo5e.morapack.core.index.CatalogoRutas;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
 import com.grupo5e.morapack.service.AeropuertoService;
 import com.grupo5e.morapack.service.PedidoService;
 import com.grupo5e.morapack.service.VueloService;
-import com.grupo5e.morapack.utils.LectorCancelaciones;
 
 import java.util.*;
 import java.time.LocalDateTime;
@@ -39,14 +39,31 @@ public class ALNSSolver {
     private LocalDateTime T0;
     // Ocupación de almacenes
     private HashMap<Aeropuerto, Integer> ocupacionAlmacenes;
-    private HashMap<Aeropuerto, int[]> ocupacionTemporalAlmacenes;
-    // Mejor solución y random
-    private HashMap<HashMap<Pedido, ArrayList<Vuelo>>, Integer> mejorSolucion;
+    private OcupacionTemporalAlmacenes ocupacionTemporalAlmacenes;
+    // Mejor solución (forma compacta) y random
+    private SolucionCompacta mejorSolucion;
+    private int pesoMejorSolucion;
+    // Días reservados de cada tramo de la mejor solución: el registro termina con esos mismos días
+    private Map<Pedido, int[]> reservasMejorSolucion = new HashMap<>();
+    // Índices densos de pedidos/vuelos y rutas internadas sobre las que opera el ALNS
+    private TablaRutas tablaRutas;
     private Random aleatorio;
 
     // ALNS operators
     private ALNSDestruction operadoresDestruccion;
     private ALNSRepair operadoresReparacion;
+    // Reparación especulativa: operadores de reparación probados en paralelo por iteración (1 = desactivada)
+    private int reparacionesEspeculativas = 1;
+    private RamasParalelas<ALNSRepair> reparacionEspeculativa;
+    // Muestreo de vecindarios: pares destrucción/reparación aplicados en paralelo por iteración (1 = desactivado)
+    private int vecindariosParalelos = 1;
+    private RamasParalelas<OperadoresRama> vecindarios;
+    // Journal de deltas de capacidad de la iteración en curso (reemplaza los snapshots completos)
+    private RegistroCapacidades registroCapacidades;
+    // Función objetivo completa (soluciones iniciales y verificación) y sus sumas parciales,
+    // actualizadas sólo con los pedidos que cambian
+    private FuncionObjetivo funcionObjetivo;
+    private AcumuladorObjetivo acumuladorObjetivo;
     private double[][] pesosOperadores;
     private double[][] puntajesOperadores;
     private int[][] usoOperadores;
@@ -73,17 +90,40 @@ public class ALNSSolver {
     // Servicio de disponibilidad de vuelos (cancelaciones)
     private ServicioDisponibilidadVuelos servicioDisponibilidad;
 
+    // Día en que vuela cada tramo de una ruta; la capacidad de los vuelos se lleva por (vuelo, día)
+    private CalendarioVuelos calendarioVuelos;
+
     // Optimizaciones de rendimiento
-    private IndiceVuelos indiceVuelos;
     private CacheDisponibilidad cacheDisponibilidad;
-
-    // Horizon days
-    private static final int HORIZON_DAYS = 4;
+    private RedTemporalVuelos redTemporal;
+    private BuscadorRutas buscadorRutas;
+
+    // Estrategia de solución inicial: 0-4 = ordenamientos de generarSolucionInicialGreedy
+    public static final int ESTRATEGIA_INICIAL_POR_DEFECTO = -1; // según Constantes.USAR_SOLUCION_INICIAL_CODICIOSA
+    public static final int ESTRATEGIA_INICIAL_ALEATORIA = 5;
+    public static final int NUM_ESTRATEGIAS_GREEDY = 5;
+    private final int estrategiaInicial;
+
+    // Límite de tiempo y cancelación cooperativa (se revisan entre iteraciones)
+    private final Integer tiempoLimiteSegundos;
+    private TokenCancelacion tokenCancelacion;
+
+    // Modelo de islas: buzón propio, buzón de la isla vecina y cada cuántos segmentos migrar
+    private int idIsla;
+    private BuzonMigracion buzonEntrada;
+    private BuzonMigracion buzonSalida;
+    private int segmentosEntreMigraciones;
+
+    // Datos del problema (inmutables, compartibles entre ejecuciones); el estado mutable vive en registroCapacidades
+    private final InstanciaProblema instancia;
+
+    // Índice, red temporal, cache y calendario de la instancia (compartidos entre solvers) y su horizonte
+    private final EstructurasVuelos estructuras;
     private static final boolean DEBUG_MODE = false;
+    // Tope de vecinos paralelos por iteración
+    public static final int MAX_VECINDARIOS_PARALELOS = 16;
 
     private final AeropuertoService aeropuertoService;
-    private final PedidoService pedidoService;
-    private final VueloService vueloService;
 
     public ALNSSolver(AeropuertoService aeropuertoService,
                       PedidoService pedidoService,
@@ -96,17 +136,54 @@ public class ALNSSolver {
                       VueloService vueloService,
                       int maxIteraciones,
                       Integer tiempoLimiteSegundos) {
+        this(InstanciaProblema.cargar(aeropuertoService, pedidoService, vueloService, System.currentTimeMillis()),
+                aeropuertoService, maxIteraciones, tiempoLimiteSegundos,
+                System.nanoTime(), ESTRATEGIA_INICIAL_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor sobre una instancia ya cargada. La instancia no se modifica, así que puede
+     * compartirse entre varios solvers en paralelo (multi-arranque, islas, simulaciones concurrentes);
+     * con la misma instancia y la misma semilla la ejecución es reproducible.
+     *
+     * @param semilla            semilla del generador aleatorio del solver
+     * @param estrategiaInicial  0-4 = ordenamiento greedy, {@link #ESTRATEGIA_INICIAL_ALEATORIA}
+     *                           o {@link #ESTRATEGIA_INICIAL_POR_DEFECTO}
+     */
+    public ALNSSolver(InstanciaProblema instancia,
+                      AeropuertoService aeropuertoService,
+                      int maxIteraciones,
+                      Integer tiempoLimiteSegundos,
+                      long semilla,
+                      int estrategiaInicial) {
+        this(instancia, EstructurasVuelos.construir(instancia), aeropuertoService, maxIteraciones,
+                tiempoLimiteSegundos, semilla, estrategiaInicial);
+    }
+
+    /**
+     * Como el anterior, sobre estructuras de vuelos ya construidas para la instancia: los solvers
+     * de un multi-arranque las comparten en lugar de construir cada uno las suyas.
+     */
+    public ALNSSolver(InstanciaProblema instancia,
+                      EstructurasVuelos estructuras,
+                      AeropuertoService aeropuertoService,
+                      int maxIteraciones,
+                      Integer tiempoLimiteSegundos,
+                      long semilla,
+                      int estrategiaInicial) {
         this.solucion = new HashMap<>();
+        this.instancia = instancia;
+        this.estructuras = estructuras;
         this.aeropuertoService = aeropuertoService;
-        this.pedidoService = pedidoService;
-        this.vueloService = vueloService;
         this.maxIteraciones = maxIteraciones;  // Usar parámetro en vez de hardcoded
+        this.estrategiaInicial = estrategiaInicial;
+        this.tiempoLimiteSegundos = tiempoLimiteSegundos;
 
-        //inicializr primero las listas
-        this.pedidosOriginales = new ArrayList<>(pedidoService.listar());
-        
-        // CARGAR SOLO AEROPUERTOS DISPONIBLES (ACTIVOS)
-        this.aeropuertos = new ArrayList<>(aeropuertoService.listarDisponibles());
+        //inicializr primero las listas (el origen de cada pedido ya viene sorteado en la instancia)
+        this.pedidosOriginales = new ArrayList<>(instancia.getPedidos());
+
+        // SOLO AEROPUERTOS DISPONIBLES (ACTIVOS)
+        this.aeropuertos = new ArrayList<>(instancia.getAeropuertos());
         System.out.println("✅ Aeropuertos ACTIVOS cargados para ALNS: " + this.aeropuertos.size());
         
         // VERIFICAR CAPACIDADES DE AEROPUERTOS
@@ -117,10 +194,7 @@ public class ALNSSolver {
                         " tiene capacidad: " + a.getCapacidadMaxima());
             }
         }
-        this.vuelos = new ArrayList<>(vueloService.listar());
-
-        //ASIGNAR AEROPUERTO ORIGEN ALEATORIO A PEDIDOS
-        asignarAeropuertosOrigen();
+        this.vuelos = new ArrayList<>(instancia.getVuelos());
 
         if (HABILITAR_UNITIZACION_PRODUCTO) {
             this.pedidos = expandirPaquetesAUnidadesProducto(this.pedidosOriginales);
@@ -131,30 +205,39 @@ public class ALNSSolver {
             System.out.println("UNITIZACIÓN DESHABILITADA: Usando pedidos originales");
         }
 
+        this.tablaRutas = new TablaRutas(this.pedidos, this.vuelos);
+
         this.ocupacionAlmacenes = new HashMap<>();
-        this.ocupacionTemporalAlmacenes = new HashMap<>();
 
         //CREA UN MAPA del nombre del nombre de la ciudad y su aeropuerto ("lima",Clase aeropuerto "SPIM")
         inicializarCacheCiudadAeropuerto();
-        //HACE QUE EL RELOJ empiece en el pedido con fecha más antigua CUANDO SE EJECUTA EL ALGORITMO
-        inicializarT0();
+        //El reloj empieza en el pedido con fecha más antigua (lo fija la construcción de las estructuras)
+        this.T0 = estructuras.getT0();
 
-        this.aleatorio = new Random(System.currentTimeMillis());
+        this.aleatorio = new Random(semilla);
 
-        this.operadoresDestruccion = new ALNSDestruction(this.aeropuertos,aeropuertoService);
-        this.operadoresReparacion = new ALNSRepair(this.aeropuertos, vuelos, ocupacionAlmacenes,aeropuertoService);
+        // Cancelaciones ya cargadas: el calendario de ocurrencias las salta
+        this.servicioDisponibilidad = estructuras.getServicioDisponibilidad();
+
+        this.ocupacionTemporalAlmacenes = new OcupacionTemporalAlmacenes(instancia, T0, estructuras.getDiasHorizonte());
+        this.calendarioVuelos = estructuras.getCalendarioVuelos();
+        this.registroCapacidades = new RegistroCapacidades(instancia, ocupacionTemporalAlmacenes, calendarioVuelos);
+        this.funcionObjetivo = new FuncionObjetivo(registroCapacidades);
+        this.acumuladorObjetivo = new AcumuladorObjetivo(registroCapacidades);
 
         inicializarParametrosALNS();
 
         inicializarCapacidadAeropuertos();
-        inicializarOcupacionTemporalAlmacenes();
-
-        // Inicializar servicio de cancelaciones
-        inicializarServicioDisponibilidad();
 
         // Inicializar optimizaciones de rendimiento
         inicializarOptimizaciones();
 
+        // Semillas derivadas de la del solver para que toda la ejecución sea reproducible
+        this.operadoresDestruccion = new ALNSDestruction(this.aeropuertos, aleatorio.nextLong(), aeropuertoService,
+                registroCapacidades);
+        this.operadoresReparacion = new ALNSRepair(this.aeropuertos, vuelos, ocupacionAlmacenes, aleatorio.nextLong(),
+                aeropuertoService, registroCapacidades, buscadorRutas);
+
         // DEBUG: Verificar vuelos disponibles
         System.out.println("=== VERIFICACIÓN DE VUELOS ===");
         System.out.println("Total vuelos cargados: " + this.vuelos.size());
@@ -218,82 +301,22 @@ public class ALNSSolver {
     }
 
     /**
-     * Inicializa el servicio de disponibilidad de vuelos y carga cancelaciones.
-     * Maneja errores gracefully para no interrumpir el flujo si falta el archivo.
-     */
-    private void inicializarServicioDisponibilidad() {
-        this.servicioDisponibilidad = new ServicioDisponibilidadVuelos();
-
-        try {
-            LectorCancelaciones lectorCancelaciones = new LectorCancelaciones(
-                Constantes.RUTA_ARCHIVO_CANCELACIONES
-            );
-            servicioDisponibilidad.cargarCancelaciones(lectorCancelaciones);
-
-            int totalCancelaciones = servicioDisponibilidad.getTotalCancelaciones();
-            int vuelosAfectados = servicioDisponibilidad.getVuelosAfectados();
-
-            System.out.println("\n=== CANCELACIONES DE VUELOS ===");
-            System.out.println("Vuelos únicos afectados: " + vuelosAfectados);
-            System.out.println("Total de cancelaciones (día×vuelo): " + totalCancelaciones);
-            System.out.println("================================\n");
-
-        } catch (Exception e) {
-            System.err.println("Advertencia: No se pudieron cargar cancelaciones de vuelos");
-            System.err.println("Archivo: " + Constantes.RUTA_ARCHIVO_CANCELACIONES);
-            System.err.println("El algoritmo continuará sin considerar cancelaciones.");
-            // No es crítico, continuar sin cancelaciones
-        }
-    }
-
-    /**
-     * Inicializa las estructuras de optimización de rendimiento.
-     * Construye índices y caches para búsquedas eficientes.
+     * Toma las estructuras de búsqueda compartidas y arma el buscador de rutas del solver
+     * sobre su propio registro de capacidades.
      */
     private void inicializarOptimizaciones() {
-        System.out.println("\n=== INICIALIZANDO OPTIMIZACIONES ===");
-        long inicioIndices = System.currentTimeMillis();
-
-        // Construir índice de vuelos
-        this.indiceVuelos = new IndiceVuelos(this.vuelos);
-
-        // Construir cache de disponibilidad
-        this.cacheDisponibilidad = new CacheDisponibilidad(servicioDisponibilidad, indiceVuelos);
-
-        long finIndices = System.currentTimeMillis();
-        long tiempoIndices = finIndices - inicioIndices;
-
-        System.out.println("Índices construidos en " + tiempoIndices + "ms");
-        indiceVuelos.imprimirEstadisticas();
-        System.out.println("=====================================\n");
-    }
-
-    /**
-     * Calcula el día de operación para un pedido basado en su fecha de pedido.
-     * El día es relativo a T0 (día inicial del horizonte de planificación).
-     *
-     * @param pedido Pedido para calcular su día de operación
-     * @return Día de operación (1-based), donde 1 es el primer día del horizonte
-     */
-    private int calcularDiaOperacion(Pedido pedido) {
-        if (pedido == null || pedido.getFechaPedido() == null || T0 == null) {
-            return 1; // Default: día 1 si no hay información temporal
-        }
-
-        long minutosDesdeT0 = ChronoUnit.MINUTES.between(T0, pedido.getFechaPedido());
-
-        // Convertir minutos a días (1-based)
-        int dia = (int) (minutosDesdeT0 / (24 * 60)) + 1;
+        this.cacheDisponibilidad = estructuras.getCacheDisponibilidad();
+        this.redTemporal = estructuras.getRedTemporal();
 
-        // Clamp al rango válido [1, HORIZON_DAYS * 30]
-        // Asumiendo horizonte de planificación de 30 días por defecto
-        int maxDias = HORIZON_DAYS * 30;
-        dia = Math.max(1, Math.min(dia, maxDias));
-
-        return dia;
+        // Búsqueda de rutas compartida por el solver y la reparación
+        this.buscadorRutas = new BuscadorRutas(instancia, redTemporal, cacheDisponibilidad, registroCapacidades);
     }
 
     public void resolver() {
+        // El límite de tiempo cuenta desde aquí salvo que el llamador haya fijado su propio token
+        if (tokenCancelacion == null) {
+            tokenCancelacion = new TokenCancelacion(tiempoLimiteSegundos);
+        }
         System.out.println("Iniciando solución ALNS");
         System.out.println("Lectura de aeropuertos");
         System.out.println("Aeropuertos leídos: " + this.aeropuertos.size());
@@ -312,12 +335,29 @@ public class ALNSSolver {
 
         this.imprimirDescripcionSolucion(1);
 
-        mejorSolucion = new HashMap<>(solucion);
+        Map.Entry<HashMap<Pedido, ArrayList<Vuelo>>, Integer> inicial = solucion.entrySet().iterator().next();
+        mejorSolucion = tablaRutas.desdeMapa(inicial.getKey());
+        pesoMejorSolucion = inicial.getValue();
+        reservasMejorSolucion = registroCapacidades.copiarReservas();
 
         inicializarPoolNoAsignados();
-        inicializarOcupacionTemporalAlmacenes();
-        System.out.println("\n=== INICIANDO ALGORITMO ALNS ===");
-        ejecutarAlgoritmoALNS();
+        if (tokenCancelacion.debeDetenerse()) {
+            System.out.println("\n⏹️ Límite de tiempo o cancelación antes del ALNS: se devuelve la solución inicial");
+        } else {
+            System.out.println("\n=== INICIANDO ALGORITMO ALNS ===");
+            try {
+                ejecutarAlgoritmoALNS();
+            } finally {
+                if (reparacionEspeculativa != null) {
+                    reparacionEspeculativa.close();
+                    reparacionEspeculativa = null;
+                }
+                if (vecindarios != null) {
+                    vecindarios.close();
+                    vecindarios = null;
+                }
+            }
+        }
 
         System.out.println("\n=== RESULTADO FINAL ALNS ===");
         this.imprimirDescripcionSolucion(2);
@@ -338,14 +378,11 @@ public class ALNSSolver {
         }
     }
     //Se busca agregar paquetes que fueron destruidos al pool de no asignados mediante
-    private ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> expandirConPaquetesNoAsignados(
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos, int maxAgregar) {
+    private int[] expandirConPaquetesNoAsignados(int[] paquetesDestruidos, int maxAgregar) {
 
         if (poolNoAsignados.isEmpty() || maxAgregar <= 0) {
             return paquetesDestruidos;
         }
-        //Duplica la lista de paquetes destruidos para añadir al pool de paquetes sin ruta
-        ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> listaExpandida = new ArrayList<>(paquetesDestruidos);
 
         //Calcula qué porcentaje del total de pedidos están actualmente no asignados.
         double ratioPool = (double) poolNoAsignados.size() / pedidos.size();
@@ -386,9 +423,9 @@ public class ALNSSolver {
             int agregar = Math.min(maxDinamico, noAsignadosOrdenados.size());
 
             //Inserta los agregar primeros pedidos (los más urgentes) al final de la lista expandida.
+            int[] listaExpandida = Arrays.copyOf(paquetesDestruidos, paquetesDestruidos.length + agregar);
             for (int i = 0; i < agregar; i++) {
-                Pedido pedido = noAsignadosOrdenados.get(i);
-                listaExpandida.add(new java.util.AbstractMap.SimpleEntry<>(pedido, new ArrayList<>()));
+                listaExpandida[paquetesDestruidos.length + i] = tablaRutas.indicePedido(noAsignadosOrdenados.get(i));
             }
 
             if (Constantes.LOGGING_VERBOSO) {
@@ -397,16 +434,17 @@ public class ALNSSolver {
                                  " = " + String.format("%.1f%%", ratioPool * 100) +
                                  ", Prob: " + String.format("%.0f%%", probabilidadExpansion * 100) + ")");
             }
+            return listaExpandida;
         }
 
-        return listaExpandida;
+        return paquetesDestruidos;
     }
 
-    private void actualizarPoolNoAsignados(HashMap<Pedido, ArrayList<Vuelo>> solucionActual) {
+    private void actualizarPoolNoAsignados(SolucionCompacta solucionActual) {
         poolNoAsignados.clear();
-        for (Pedido pedido : this.pedidos) {
-            if (!solucionActual.containsKey(pedido)) {
-                poolNoAsignados.add(pedido);
+        for (int i = 0; i < tablaRutas.getNumPedidos(); i++) {
+            if (!solucionActual.estaAsignado(i)) {
+                poolNoAsignados.add(tablaRutas.pedido(i));
             }
         }
     }
@@ -420,7 +458,7 @@ public class ALNSSolver {
 
         Map.Entry<HashMap<Pedido, ArrayList<Vuelo>>, Integer> primeraEntrada =
                 solucion.entrySet().iterator().next();
-        HashMap<Pedido, ArrayList<Vuelo>> solucionActual = new HashMap<>(primeraEntrada.getKey());
+        SolucionCompacta solucionActual = tablaRutas.desdeMapa(primeraEntrada.getKey());
         int pesoActual = primeraEntrada.getValue();
 
         System.out.println("Peso de solución inicial: " + pesoActual);
@@ -432,7 +470,33 @@ public class ALNSSolver {
         int mejoras = 0;
         int conteoSinMejoras = 0;
 
+        // Única reconstrucción completa: a partir de aquí las capacidades se mantienen con deltas
+        reconstruirCapacidadesDesdeSolucion(solucionActual);
+        reconstruirAlmacenesDesdeSolucion(solucionActual);
+        registroCapacidades.confirmar();
+        acumuladorObjetivo.reiniciar(solucionActual);
+
+        if (vecindariosParalelos > 1) {
+            // Cada vecino destruye y repara por completo en su rama: no hace falta reparación especulativa
+            vecindarios = new RamasParalelas<>(registroCapacidades, acumuladorObjetivo, vecindariosParalelos,
+                    (registro, acumulador) -> new OperadoresRama(registro,
+                            new ALNSDestruction(aeropuertos, aleatorio.nextLong(), aeropuertoService, registro),
+                            crearOperadoresReparacion(registro), acumulador),
+                    "alns-vecindario");
+            System.out.println("🔀 Muestreo de vecindarios: " + vecindariosParalelos + " vecinos por iteración");
+        } else if (reparacionesEspeculativas > 1) {
+            reparacionEspeculativa = new RamasParalelas<>(registroCapacidades, null, reparacionesEspeculativas,
+                    (registro, acumulador) -> crearOperadoresReparacion(registro), "alns-reparacion");
+            System.out.println("🔀 Reparación especulativa: " + reparacionesEspeculativas + " operadores por iteración");
+        }
+
         for (int iteracion = 0; iteracion < maxIteraciones; iteracion++) {
+            if (tokenCancelacion.debeDetenerse()) {
+                System.out.println("⏹️ ALNS detenido en iteración " + iteracion + " (" +
+                                 (tokenCancelacion.estaCancelado() ? "cancelado" : "límite de tiempo") +
+                                 "), se conserva la mejor solución");
+                break;
+            }
             if (Constantes.LOGGING_VERBOSO || iteracion % Constantes.INTERVALO_LOG_ITERACION == 0) {
                 System.out.println("ALNS Iteración " + iteracion + "/" + maxIteraciones);
             }
@@ -455,60 +519,25 @@ public class ALNSSolver {
                 System.out.println("  Operadores seleccionados: Destrucción=" + operadorDestruccion + ", Reparación=" + operadorReparacion);
             }
 
-            HashMap<Pedido, ArrayList<Vuelo>> solucionTemporal = new HashMap<>(solucionActual);
-
-            //Crear una foto de las capacidades en esa iteracion de los vuelos y de los aeropuertos
-            //esto sirve para revertir una destruccion o una reparacion de una solucion
-            Map<Vuelo, Integer> snapshotCapacidadesVuelos = crearSnapshotCapacidadesVuelos(); //VUELOS
-            Map<Aeropuerto, Integer> snapshotCapacidadAeropuertos = crearSnapshotCapacidadAeropuerto(); //AEROPUERTOS
-
-            if (Constantes.LOGGING_VERBOSO) {
-                System.out.println("  Aplicando operador de destrucción...");
-            }
-            long tiempoInicio = System.currentTimeMillis();
-            //empezamos con la destruccion de la solucion temporal (porque no queremos malograr la actual)
-            //se manda tambien el operador de destruccion segun seleccionarOperadores()
-            ALNSDestruction.ResultadoDestruccion resultadoDestruccion = aplicarOperadorDestruccion(
-                solucionTemporal, operadorDestruccion);
-            long tiempoFin = System.currentTimeMillis();
-
-            if (Constantes.LOGGING_VERBOSO) {
-                System.out.println("  Operador de destrucción completado en " + (tiempoFin - tiempoInicio) + "ms");
-            }
-
-            if (resultadoDestruccion == null || resultadoDestruccion.getPaquetesDestruidos().isEmpty()) {
-                if (Constantes.LOGGING_VERBOSO) {
-                    System.out.println("  No se pudo destruir nada, continuando...");
-                }
+            //Los operadores anotan en registroCapacidades cada delta de capacidad que aplican
+            //(la destrucción libera, la reparación ocupa); si el movimiento se rechaza se deshace el journal
+            Movimiento movimiento = usaVecindariosParalelos()
+                    ? explorarVecindarios(solucionActual, operadorDestruccion, operadorReparacion)
+                    : aplicarMovimiento(solucionActual, operadorDestruccion, operadorReparacion);
+            if (movimiento == null) {
+                deshacerMovimiento();
+                acumuladorObjetivo.deshacer();
                 continue;
             }
+            operadorDestruccion = movimiento.operadorDestruccion;
+            operadorReparacion = movimiento.operadorReparacion;
+            SolucionCompacta solucionTemporal = movimiento.solucion;
 
-            if (Constantes.LOGGING_VERBOSO) {
-                System.out.println("  Paquetes destruidos: " + resultadoDestruccion.getPaquetesDestruidos().size());
-            }
-
-            solucionTemporal = new HashMap<>(resultadoDestruccion.getSolucionParcial());
-            reconstruirCapacidadesDesdeSolucion(solucionTemporal); //VUELOS
-            reconstruirAlmacenesDesdeSolucion(solucionTemporal); //AEROPUERTOS
-
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesExpandidos =
-                expandirConPaquetesNoAsignados(resultadoDestruccion.getPaquetesDestruidos(), 100);
-
-            ALNSRepair.ResultadoReparacion resultadoReparacion = aplicarOperadorReparacion(
-                solucionTemporal, operadorReparacion, paquetesExpandidos);
-
-            if (resultadoReparacion == null || !resultadoReparacion.esExitoso()) {
-                restaurarVuelos(snapshotCapacidadesVuelos);
-                restaurarAeropuertos(snapshotCapacidadAeropuertos);
-                continue;
+            int pesoTemporal = acumuladorObjetivo.calcularPeso();
+            if (Constantes.VERIFICAR_PESO_INCREMENTAL) {
+                verificarPesoIncremental(pesoTemporal, solucionTemporal, iteracion);
             }
 
-            solucionTemporal = new HashMap<>(resultadoReparacion.getSolucionReparada());
-            reconstruirCapacidadesDesdeSolucion(solucionTemporal);
-            reconstruirAlmacenesDesdeSolucion(solucionTemporal);
-
-            int pesoTemporal = calcularPesoSolucion(solucionTemporal);
-
             usoOperadores[operadorDestruccion][operadorReparacion]++;
 
             boolean aceptada = false;
@@ -522,8 +551,9 @@ public class ALNSSolver {
 
                 if (pesoTemporal > mejorPeso) {
                     mejorPeso = pesoTemporal;
-                    mejorSolucion.clear();
-                    mejorSolucion.put(new HashMap<>(solucionActual), pesoActual);
+                    mejorSolucion = solucionActual.copiar();
+                    pesoMejorSolucion = pesoActual;
+                    reservasMejorSolucion = registroCapacidades.copiarReservas();
                     puntajesOperadores[operadorDestruccion][operadorReparacion] += 300;
                     mejoras++;
                     conteoSinMejoras = 0;
@@ -556,7 +586,7 @@ public class ALNSSolver {
                 }
             } else {
                 double delta = pesoTemporal - pesoActual;
-                double temperaturaAjustada = temperatura * (1.0 + 0.1 * Math.random());
+                double temperaturaAjustada = temperatura * (1.0 + 0.1 * aleatorio.nextDouble());
                 double probabilidad = Math.exp(delta / temperaturaAjustada);
 
                 if (aleatorio.nextDouble() < probabilidad) {
@@ -576,9 +606,12 @@ public class ALNSSolver {
                 }
             }
 
-            if (!aceptada) {
-                restaurarVuelos(snapshotCapacidadesVuelos);
-                restaurarAeropuertos(snapshotCapacidadAeropuertos);
+            if (aceptada) {
+                confirmarMovimiento();
+                acumuladorObjetivo.confirmar();
+            } else {
+                deshacerMovimiento();
+                acumuladorObjetivo.deshacer();
                 conteoSinMejoras++;
             }
 
@@ -603,24 +636,46 @@ public class ALNSSolver {
                 contadorRestarts < Constantes.MAX_RESTARTS) {
 
                 solucionActual = aplicarDiversificacionExtrema(solucionActual, iteracion);
-                pesoActual = calcularPesoSolucion(solucionActual);
+                pesoActual = acumuladorObjetivo.calcularPeso();
 
                 if (pesoActual > mejorPeso) {
                     mejorPeso = pesoActual;
-                    mejorSolucion.clear();
-                    mejorSolucion.put(new HashMap<>(solucionActual), pesoActual);
+                    mejorSolucion = solucionActual.copiar();
+                    pesoMejorSolucion = pesoActual;
+                    reservasMejorSolucion = registroCapacidades.copiarReservas();
                     mejoras++;
                     System.out.println("🎉 ¡Diversificación extrema encontró mejor solución! Peso: " + mejorPeso);
                 }
-
-                reconstruirCapacidadesDesdeSolucion(solucionActual);
-                reconstruirAlmacenesDesdeSolucion(solucionActual);
             }
 
             if ((iteracion + 1) % tamanoSegmento == 0) {
                 actualizarPesosOperadores();
                 temperatura *= tasaEnfriamiento;
 
+                int segmento = (iteracion + 1) / tamanoSegmento;
+                if (buzonEntrada != null && segmento % segmentosEntreMigraciones == 0) {
+                    publicarMigrante();
+                    SolucionCompacta recibida = recibirMigrante(pesoActual);
+                    if (recibida != null) {
+                        // Adoptar la solución migrante reconstruye capacidades y objetivo desde cero
+                        solucionActual = recibida;
+                        reconstruirCapacidadesDesdeSolucion(solucionActual);
+                        reconstruirAlmacenesDesdeSolucion(solucionActual);
+                        registroCapacidades.confirmar();
+                        acumuladorObjetivo.reiniciar(solucionActual);
+                        pesoActual = acumuladorObjetivo.calcularPeso();
+                        actualizarPoolNoAsignados(solucionActual);
+
+                        if (pesoActual > mejorPeso) {
+                            mejorPeso = pesoActual;
+                            mejorSolucion = solucionActual.copiar();
+                            pesoMejorSolucion = pesoActual;
+                            reservasMejorSolucion = registroCapacidades.copiarReservas();
+                            ultimaIteracionMejora = iteracion;
+                        }
+                    }
+                }
+
                 if (iteracion % 100 == 0) {
                     System.out.println("Iteración " + iteracion +
                                      " | Mejor peso: " + mejorPeso +
@@ -638,26 +693,29 @@ public class ALNSSolver {
             }
         }
 
+        // Frontera: sólo la mejor solución vuelve al formato de entidades
         solucion.clear();
-        solucion.putAll(mejorSolucion);
+        solucion.put(tablaRutas.aMapa(mejorSolucion), pesoMejorSolucion);
+        // El registro queda con las reservas de la mejor solución: los días con que se aceptó
+        // cada tramo, no los que daría ocuparla de nuevo en orden de índice
+        reconstruirCapacidadesDesdeSolucion(mejorSolucion, reservasMejorSolucion);
 
         System.out.println("ALNS completado:");
         System.out.println("  Mejoras encontradas: " + mejoras);
-        System.out.println("  Peso final: " + (mejorSolucion.isEmpty() ? 0 : mejorSolucion.values().iterator().next()));
+        System.out.println("  Peso final: " + pesoMejorSolucion);
         if (Constantes.LOGGING_VERBOSO) {
             System.out.println("  Temperatura final: " + temperatura);
         }
     }
 
-    private HashMap<Pedido, ArrayList<Vuelo>> aplicarDiversificacionExtrema(
-            HashMap<Pedido, ArrayList<Vuelo>> solucionActual, int iteracion) {
+    private SolucionCompacta aplicarDiversificacionExtrema(SolucionCompacta solucionActual, int iteracion) {
 
         System.out.println("\n🚀 ACTIVANDO DIVERSIFICACIÓN EXTREMA 🚀");
         System.out.println("Iteración " + iteracion + ": " + iteracionesDesdeMejoraSignificativa +
                          " iteraciones sin mejora significativa");
         System.out.println("Restart #" + (contadorRestarts + 1) + "/" + Constantes.MAX_RESTARTS);
 
-        HashMap<Pedido, ArrayList<Vuelo>> nuevaSolucion;
+        SolucionCompacta nuevaSolucion;
 
         switch (contadorRestarts % 3) {
             case 0:
@@ -685,31 +743,34 @@ public class ALNSSolver {
 
         actualizarPoolNoAsignados(nuevaSolucion);
 
-        int nuevoPeso = calcularPesoSolucion(nuevaSolucion);
+        // Los restarts reconstruyen todo desde cero: el journal y las sumas previas ya no aplican
+        reconstruirCapacidadesDesdeSolucion(nuevaSolucion);
+        reconstruirAlmacenesDesdeSolucion(nuevaSolucion);
+        registroCapacidades.confirmar();
+        acumuladorObjetivo.reiniciar(nuevaSolucion);
+
+        int nuevoPeso = acumuladorObjetivo.calcularPeso();
         System.out.println("Peso después de diversificación extrema: " + nuevoPeso);
-        System.out.println("Paquetes asignados: " + nuevaSolucion.size() + "/" + pedidos.size());
+        System.out.println("Paquetes asignados: " + nuevaSolucion.tamano() + "/" + pedidos.size());
         System.out.println("=== FIN DIVERSIFICACIÓN EXTREMA ===\n");
 
         return nuevaSolucion;
     }
 
-    private HashMap<Pedido, ArrayList<Vuelo>> destruccionExtrema(HashMap<Pedido, ArrayList<Vuelo>> solucionActual) {
-        HashMap<Pedido, ArrayList<Vuelo>> nuevaSolucion = new HashMap<>(solucionActual);
+    private SolucionCompacta destruccionExtrema(SolucionCompacta solucionActual) {
+        SolucionCompacta nuevaSolucion = solucionActual.copiar();
 
-        ArrayList<Pedido> asignados = new ArrayList<>(nuevaSolucion.keySet());
+        ArrayList<Pedido> asignados = nuevaSolucion.pedidosAsignados();
         Collections.shuffle(asignados, aleatorio);
 
         int paquetesAEliminar = (int)(asignados.size() * Constantes.RATIO_DESTRUCCION_EXTREMA);
 
         for (int i = 0; i < paquetesAEliminar && i < asignados.size(); i++) {
-            nuevaSolucion.remove(asignados.get(i));
+            nuevaSolucion.quitar(asignados.get(i));
         }
 
         System.out.println("Destruidos " + paquetesAEliminar + "/" + asignados.size() + " pedidos");
 
-        reconstruirCapacidadesDesdeSolucion(nuevaSolucion);
-        reconstruirAlmacenesDesdeSolucion(nuevaSolucion);
-
         return nuevaSolucion;
     }
 
@@ -772,18 +833,14 @@ public class ALNSSolver {
 //        System.out.println("Restart greedy: " + asignados + "/" + pedidos.size() + " pedidos asignados");
 //        return nuevaSolucion;
 //    }
-    private HashMap<Pedido, ArrayList<Vuelo>> restartGreedy() {
+    private SolucionCompacta restartGreedy() {
         System.out.println("=== INICIANDO RESTART GREEDY ===");
 
         // Reiniciar capacidades PERO mantener la estructura
-        for (Vuelo f : vuelos) {
-            f.setCapacidadUsada(0);
-        }
-        for(Aeropuerto a : aeropuertos) {
-            a.setCapacidadActual(0);
-        }
+        registroCapacidades.reiniciarVuelos();
+        registroCapacidades.reiniciarAeropuertos();
 
-        HashMap<Pedido, ArrayList<Vuelo>> nuevaSolucion = new HashMap<>();
+        SolucionCompacta nuevaSolucion = new SolucionCompacta(tablaRutas);
         ArrayList<Pedido> ordenados = new ArrayList<>(pedidos);
 
         // Ordenamiento más agresivo
@@ -793,8 +850,8 @@ public class ALNSSolver {
             if (prioridadCompare != 0) return prioridadCompare;
 
             // 2. Menos productos primero (más fáciles de colocar)
-            int productos1 = p1.getProductos() != null ? p1.getProductos().size() : 1;
-            int productos2 = p2.getProductos() != null ? p2.getProductos().size() : 1;
+            int productos1 = RegistroCapacidades.cantidadProductos(p1);
+            int productos2 = RegistroCapacidades.cantidadProductos(p2);
             return Integer.compare(productos1, productos2);
         });
 
@@ -805,6 +862,7 @@ public class ALNSSolver {
         int maxIntentosFallidos = 100; // Parada temprana
 
         for (Pedido p : ordenados) {
+            if (tokenCancelacion.debeDetenerse()) break;
             if (intentosFallidos >= maxIntentosFallidos) {
                 System.out.println("Parada temprana: muchos intentos fallidos consecutivos");
                 break;
@@ -820,12 +878,12 @@ public class ALNSSolver {
             ArrayList<Vuelo> mejorRuta = encontrarMejorRutaRobusta(p);
 
             if (mejorRuta != null && !mejorRuta.isEmpty()) {
-                int cnt = p.getProductos() != null ? p.getProductos().size() : 1;
+                int cnt = RegistroCapacidades.cantidadProductos(p);
 
                 // Verificar capacidad más permisiva
                 if (puedeAsignarConCapacidadPermisiva(p, mejorRuta)) {
-                    nuevaSolucion.put(p, mejorRuta);
-                    actualizarCapacidadesVuelos(mejorRuta, cnt);
+                    nuevaSolucion.asignar(p, mejorRuta);
+                    actualizarCapacidadesVuelos(p, mejorRuta, cnt);
                     actualizarCapacidadAeropuertos(p.getAeropuertoDestinoCodigo(), cnt);
                     asignados++;
                     intentosFallidos = 0; // Resetear contador de fallos
@@ -853,54 +911,8 @@ public class ALNSSolver {
     }
     private ArrayList<Vuelo> encontrarMejorRutaRobusta(Pedido pedido) {
         try {
-            // Intentar método original primero
-            ArrayList<Vuelo> ruta = encontrarMejorRuta(pedido);
-            if (ruta != null && !ruta.isEmpty()) {
-                return ruta;
-            }
-
-            // Fallback: búsqueda directa sin cache
-            Aeropuerto origen = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo());
-            Aeropuerto destino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
-
-            if (origen == null || destino == null) {
-                return null;
-            }
-
-            // Búsqueda directa en la lista de vuelos
-            for (Vuelo vuelo : vuelos) {
-                if (vuelo.getAeropuertoOrigen().equals(origen) &&
-                        vuelo.getAeropuertoDestino().equals(destino) &&
-                        vuelo.getCapacidadUsada() < vuelo.getCapacidadMaxima()) {
-                    ArrayList<Vuelo> rutaDirecta = new ArrayList<>();
-                    rutaDirecta.add(vuelo);
-                    return rutaDirecta;
-                }
-            }
-
-            // Buscar con una escala
-            for (Vuelo primerVuelo : vuelos) {
-                if (primerVuelo.getAeropuertoOrigen().equals(origen) &&
-                        primerVuelo.getCapacidadUsada() < primerVuelo.getCapacidadMaxima()) {
-
-                    Aeropuerto escala = primerVuelo.getAeropuertoDestino();
-
-                    for (Vuelo segundoVuelo : vuelos) {
-                        if (segundoVuelo.getAeropuertoOrigen().equals(escala) &&
-                                segundoVuelo.getAeropuertoDestino().equals(destino) &&
-                                segundoVuelo.getCapacidadUsada() < segundoVuelo.getCapacidadMaxima()) {
-
-                            ArrayList<Vuelo> rutaConEscala = new ArrayList<>();
-                            rutaConEscala.add(primerVuelo);
-                            rutaConEscala.add(segundoVuelo);
-                            return rutaConEscala;
-                        }
-                    }
-                }
-            }
-
-            return null;
-
+            // La red temporal ya explora directos y escalas; no hay fallback sin horarios
+            return encontrarMejorRuta(pedido);
         } catch (Exception e) {
             System.err.println("Error en encontrarMejorRutaRobusta: " + e.getMessage());
             return null;
@@ -909,13 +921,11 @@ public class ALNSSolver {
     private boolean puedeAsignarConCapacidadPermisiva(Pedido pedido, ArrayList<Vuelo> ruta) {
         if (ruta == null || ruta.isEmpty()) return false;
 
-        int cantidadProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+        int cantidadProductos = RegistroCapacidades.cantidadProductos(pedido);
 
-        // Verificar capacidad de vuelos
-        for (Vuelo vuelo : ruta) {
-            if (vuelo.getCapacidadUsada() + cantidadProductos > vuelo.getCapacidadMaxima()) {
-                return false;
-            }
+        // Verificar capacidad de las ocurrencias de vuelo que usaría el pedido
+        if (!registroCapacidades.cabeEnVuelos(pedido, ruta, cantidadProductos)) {
+            return false;
         }
 
         // Verificar capacidad del aeropuerto destino (más permisivo)
@@ -923,40 +933,40 @@ public class ALNSSolver {
         if (aeropuertoDestino == null) return false;
 
         // Permitir hasta el 95% de capacidad para restart
-        int capacidadDisponible = aeropuertoDestino.getCapacidadMaxima() - aeropuertoDestino.getCapacidadActual();
+        int capacidadDisponible = aeropuertoDestino.getCapacidadMaxima() - registroCapacidades.ocupacion(aeropuertoDestino);
         return cantidadProductos <= capacidadDisponible;
     }
 
-    private HashMap<Pedido, ArrayList<Vuelo>> restartHibrido(HashMap<Pedido, ArrayList<Vuelo>> solucionActual) {
-        HashMap<Pedido, ArrayList<Vuelo>> nuevaSolucion = new HashMap<>();
+    private SolucionCompacta restartHibrido(SolucionCompacta solucionActual) {
+        SolucionCompacta nuevaSolucion = new SolucionCompacta(tablaRutas);
 
-        ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> entradas = new ArrayList<>(solucionActual.entrySet());
-        entradas.sort((e1, e2) -> {
+        ArrayList<Pedido> entradas = solucionActual.pedidosAsignados();
+        entradas.sort((p1, p2) -> {
+            ArrayList<Vuelo> r1 = solucionActual.ruta(p1);
+            ArrayList<Vuelo> r2 = solucionActual.ruta(p2);
             try {
-                int s1 = calcularCalidadRuta(e1.getKey(), e1.getValue());
-                int s2 = calcularCalidadRuta(e2.getKey(), e2.getValue());
+                int s1 = calcularCalidadRuta(p1, r1);
+                int s2 = calcularCalidadRuta(p2, r2);
                 int cmp = Integer.compare(s2, s1);
                 if (cmp != 0) return cmp;
-                int cmpVuelos = Integer.compare(e1.getValue().size(), e2.getValue().size());
+                int cmpVuelos = Integer.compare(r1.size(), r2.size());
                 if (cmpVuelos != 0) return cmpVuelos;
-                int cmpPrior = Double.compare(e2.getKey().getPrioridad(), e1.getKey().getPrioridad());
+                int cmpPrior = Double.compare(p2.getPrioridad(), p1.getPrioridad());
                 if (cmpPrior != 0) return cmpPrior;
-                return Integer.compare(e1.getKey().hashCode(), e2.getKey().hashCode());
+                return Integer.compare(p1.hashCode(), p2.hashCode());
             } catch (Exception ex) {
                 System.out.println("Warning: Error en comparación de calidad, usando fallback");
-                return Integer.compare(e1.getValue().size(), e2.getValue().size());
+                return Integer.compare(r1.size(), r2.size());
             }
         });
 
         int mantener = (int)(entradas.size() * 0.3);
         for (int i = 0; i < mantener && i < entradas.size(); i++) {
-            nuevaSolucion.put(entradas.get(i).getKey(), entradas.get(i).getValue());
+            int indice = tablaRutas.indicePedido(entradas.get(i));
+            nuevaSolucion.asignarRuta(indice, solucionActual.rutaId(indice));
         }
 
-        System.out.println("Híbrido: Manteniendo " + mantener + " mejores pedidos, regenerando " + (solucionActual.size() - mantener));
-
-        reconstruirCapacidadesDesdeSolucion(nuevaSolucion); //VUELOS
-        reconstruirAlmacenesDesdeSolucion(nuevaSolucion); //AEROPUERTOS
+        System.out.println("Híbrido: Manteniendo " + mantener + " mejores pedidos, regenerando " + (solucionActual.tamano() - mantener));
 
         return nuevaSolucion;
     }
@@ -975,7 +985,7 @@ public class ALNSSolver {
 
         score += Math.max(0, 2000 - (int)(total * 10));
 
-        int products = p.getProductos() != null ? p.getProductos().size() : 1;
+        int products = RegistroCapacidades.cantidadProductos(p);
         score += products * 10;
         score += (int)(p.getPrioridad() * 50);
 
@@ -1038,8 +1048,78 @@ public class ALNSSolver {
         }
     }
 
-    private ALNSDestruction.ResultadoDestruccion aplicarOperadorDestruccion(
-            HashMap<Pedido, ArrayList<Vuelo>> solucion, int indiceOperador) {
+    /**
+     * Modo depuración: compara el peso incremental con el recálculo completo de la solución.
+     */
+    private void verificarPesoIncremental(int pesoIncremental, SolucionCompacta solucionTemporal,
+                                          int iteracion) {
+        int pesoCompleto = funcionObjetivo.calcularPeso(tablaRutas.aMapa(solucionTemporal));
+        // Se tolera 1 unidad por el redondeo de las sumas en double acumuladas
+        if (Math.abs(pesoCompleto - pesoIncremental) > 1) {
+            System.out.println("⚠️ Iteración " + iteracion + ": peso incremental " + pesoIncremental +
+                    " difiere del recálculo completo " + pesoCompleto +
+                    " (paquetes: " + acumuladorObjetivo.getTotalPaquetes() + "/" + solucionTemporal.tamano() + ")");
+        }
+    }
+
+    /**
+     * Movimiento serial de una iteración: destruye con el operador elegido y repara (en paralelo
+     * si la reparación especulativa está activa).
+     *
+     * @return el movimiento, o null si no se pudo destruir nada o la reparación falló
+     */
+    private Movimiento aplicarMovimiento(SolucionCompacta solucionActual, int operadorDestruccion,
+                                         int operadorReparacion) {
+        if (Constantes.LOGGING_VERBOSO) {
+            System.out.println("  Aplicando operador de destrucción...");
+        }
+        long tiempoInicio = System.currentTimeMillis();
+        //empezamos con la destruccion de la solucion temporal (porque no queremos malograr la actual)
+        //se manda tambien el operador de destruccion segun seleccionarOperadores()
+        //La destrucción trabaja sobre una copia copy-on-write: solucionActual no se modifica
+        ALNSDestruction.ResultadoDestruccion resultadoDestruccion = aplicarOperadorDestruccion(
+            operadoresDestruccion, solucionActual, operadorDestruccion);
+        long tiempoFin = System.currentTimeMillis();
+
+        if (Constantes.LOGGING_VERBOSO) {
+            System.out.println("  Operador de destrucción completado en " + (tiempoFin - tiempoInicio) + "ms");
+        }
+
+        if (resultadoDestruccion == null || resultadoDestruccion.estaVacio()) {
+            if (Constantes.LOGGING_VERBOSO) {
+                System.out.println("  No se pudo destruir nada, continuando...");
+            }
+            return null;
+        }
+
+        if (Constantes.LOGGING_VERBOSO) {
+            System.out.println("  Paquetes destruidos: " + resultadoDestruccion.getNumPaquetesDestruidos());
+        }
+
+        SolucionCompacta solucionTemporal = resultadoDestruccion.getSolucionParcial();
+        quitarDestruidos(acumuladorObjetivo, resultadoDestruccion);
+
+        int[] paquetesExpandidos =
+            expandirConPaquetesNoAsignados(resultadoDestruccion.getPedidosDestruidos(), 100);
+
+        if (usaReparacionEspeculativa()) {
+            return repararEspeculativamente(solucionTemporal, operadorDestruccion, operadorReparacion,
+                paquetesExpandidos);
+        }
+        ALNSRepair.ResultadoReparacion resultadoReparacion = aplicarOperadorReparacion(
+            operadoresReparacion, solucionTemporal, operadorReparacion, paquetesExpandidos);
+
+        if (resultadoReparacion == null || !resultadoReparacion.esExitoso()) {
+            return null;
+        }
+
+        solucionTemporal = resultadoReparacion.getSolucionReparada();
+        agregarReparados(acumuladorObjetivo, registroCapacidades, solucionTemporal, paquetesExpandidos);
+        return new Movimiento(operadorDestruccion, operadorReparacion, solucionTemporal);
+    }
+
+    private ALNSDestruction.ResultadoDestruccion aplicarOperadorDestruccion(ALNSDestruction operadoresDestruccion,
+            SolucionCompacta solucion, int indiceOperador) {
         try {
             //porcentaje de pedidos a eliminar
             double ratioAjustado = Constantes.RATIO_DESTRUCCION * factorDiversificacion;
@@ -1089,9 +1169,8 @@ public class ALNSSolver {
         }
     }
 
-    private ALNSRepair.ResultadoReparacion aplicarOperadorReparacion(
-            HashMap<Pedido, ArrayList<Vuelo>> solucion, int indiceOperador,
-            ArrayList<Map.Entry<Pedido, ArrayList<Vuelo>>> paquetesDestruidos) {
+    private static ALNSRepair.ResultadoReparacion aplicarOperadorReparacion(ALNSRepair operadoresReparacion,
+            SolucionCompacta solucion, int indiceOperador, int[] paquetesDestruidos) {
 
         switch (indiceOperador) {
             case 0:
@@ -1107,6 +1186,215 @@ public class ALNSSolver {
         }
     }
 
+    private boolean usaReparacionEspeculativa() {
+        return reparacionEspeculativa != null && !reparacionEspeculativa.estaCerrada();
+    }
+
+    private boolean usaVecindariosParalelos() {
+        return vecindarios != null && !vecindarios.estaCerrada();
+    }
+
+    /** Operadores de reparación de una rama paralela, con su registro y su propia semilla. */
+    private ALNSRepair crearOperadoresReparacion(RegistroCapacidades registro) {
+        return new ALNSRepair(aeropuertos, vuelos, ocupacionAlmacenes, aleatorio.nextLong(),
+                aeropuertoService, registro, buscadorRutas.conRegistro(registro));
+    }
+
+    /**
+     * Repara la misma destrucción con el operador elegido por la ruleta y los de mayor peso que
+     * le siguen en la fila del operador de destrucción, cada uno en su rama y en paralelo. El
+     * candidato de mayor peso queda anotado en el registro como movimiento de la iteración; los
+     * demás cuentan como uso de su par de operadores con el puntaje de un movimiento rechazado.
+     *
+     * @return el movimiento elegido, o null si ninguna reparación fue exitosa
+     */
+    private Movimiento repararEspeculativamente(SolucionCompacta solucionParcial, int operadorDestruccion,
+                                                int operadorReparacion, int[] paquetes) {
+        int[] operadores = operadoresEspeculativos(operadorDestruccion, operadorReparacion,
+                reparacionEspeculativa.getNumRamas());
+        // Cada rama recibe su propia copia: copiar() marca el original como compartido
+        SolucionCompacta[] parciales = new SolucionCompacta[operadores.length];
+        for (int i = 0; i < operadores.length; i++) {
+            parciales[i] = solucionParcial.copiar();
+        }
+        List<RamasParalelas.Candidato<ALNSRepair.ResultadoReparacion>> candidatos = reparacionEspeculativa.ejecutar(
+                operadores.length, (operadoresRama, i) -> {
+                    ALNSRepair.ResultadoReparacion resultado = aplicarOperadorReparacion(
+                            operadoresRama, parciales[i], operadores[i], paquetes);
+                    return resultado != null && resultado.esExitoso() ? resultado : null;
+                });
+
+        // Cada candidato se evalúa sobre el acumulador y se deshace, dejando sólo la destrucción
+        RamasParalelas.Candidato<ALNSRepair.ResultadoReparacion> ganador = null;
+        int pesoGanador = Integer.MIN_VALUE;
+        int marca = acumuladorObjetivo.marca();
+        for (RamasParalelas.Candidato<ALNSRepair.ResultadoReparacion> candidato : candidatos) {
+            agregarReparados(acumuladorObjetivo, candidato.getRegistro(),
+                    candidato.getResultado().getSolucionReparada(), paquetes);
+            int peso = acumuladorObjetivo.calcularPeso();
+            acumuladorObjetivo.deshacerHasta(marca);
+            if (peso > pesoGanador) {
+                pesoGanador = peso;
+                ganador = candidato;
+            }
+        }
+        if (ganador == null) return null;
+
+        for (RamasParalelas.Candidato<ALNSRepair.ResultadoReparacion> candidato : candidatos) {
+            if (candidato != ganador) {
+                usoOperadores[operadorDestruccion][operadores[candidato.getIndice()]]++;
+                puntajesOperadores[operadorDestruccion][operadores[candidato.getIndice()]] += 5;
+            }
+        }
+        reparacionEspeculativa.adoptar(ganador);
+        SolucionCompacta reparada = ganador.getResultado().getSolucionReparada();
+        agregarReparados(acumuladorObjetivo, registroCapacidades, reparada, paquetes);
+        return new Movimiento(operadorDestruccion, operadores[ganador.getIndice()], reparada);
+    }
+
+    /**
+     * El operador de reparación elegido seguido de los de mayor peso para el operador de
+     * destrucción, hasta {@code cantidad} operadores.
+     */
+    private int[] operadoresEspeculativos(int operadorDestruccion, int operadorReparacion, int cantidad) {
+        double[] pesos = pesosOperadores[operadorDestruccion];
+        int[] operadores = new int[Math.min(cantidad, pesos.length)];
+        operadores[0] = operadorReparacion;
+        boolean[] elegido = new boolean[pesos.length];
+        elegido[operadorReparacion] = true;
+        for (int k = 1; k < operadores.length; k++) {
+            int mejor = -1;
+            for (int j = 0; j < pesos.length; j++) {
+                if (!elegido[j] && (mejor < 0 || pesos[j] > pesos[mejor])) mejor = j;
+            }
+            operadores[k] = mejor;
+            elegido[mejor] = true;
+        }
+        return operadores;
+    }
+
+    /**
+     * Genera vecinos de la solución actual en paralelo, cada uno con su par destrucción/reparación
+     * (el elegido por la ruleta y otros sorteados) en su rama, con sus propios operadores y
+     * semillas, y los evalúa cada uno en el acumulador de su rama. El vecino de mayor peso se
+     * reproduce en el registro y el acumulador principales para que el criterio de aceptación lo
+     * trate como el movimiento de la iteración; los demás cuentan como movimientos rechazados.
+     *
+     * @return el movimiento elegido, o null si ningún vecino se pudo construir
+     */
+    private Movimiento explorarVecindarios(SolucionCompacta solucionActual, int operadorDestruccion,
+                                           int operadorReparacion) {
+        int[][] pares = paresVecindario(operadorDestruccion, operadorReparacion, vecindarios.getNumRamas());
+        // En el hilo del solver: las copias (copiar() marca el original) y la expansión con el pool,
+        // que usa el Random del solver
+        SolucionCompacta[] copias = new SolucionCompacta[pares.length];
+        int[][] adicionales = new int[pares.length][];
+        for (int i = 0; i < pares.length; i++) {
+            copias[i] = solucionActual.copiar();
+            adicionales[i] = expandirConPaquetesNoAsignados(new int[0], 100);
+        }
+
+        List<RamasParalelas.Candidato<Vecino>> candidatos = vecindarios.ejecutar(pares.length, (rama, i) -> {
+            ALNSDestruction.ResultadoDestruccion destruccion =
+                    aplicarOperadorDestruccion(rama.destruccion, copias[i], pares[i][0]);
+            if (destruccion == null || destruccion.estaVacio()) return null;
+            quitarDestruidos(rama.acumulador, destruccion);
+
+            int[] destruidos = destruccion.getPedidosDestruidos();
+            int[] paquetes = Arrays.copyOf(destruidos, destruidos.length + adicionales[i].length);
+            System.arraycopy(adicionales[i], 0, paquetes, destruidos.length, adicionales[i].length);
+            ALNSRepair.ResultadoReparacion reparacion = aplicarOperadorReparacion(
+                    rama.reparacion, destruccion.getSolucionParcial(), pares[i][1], paquetes);
+            if (reparacion == null || !reparacion.esExitoso()) return null;
+            agregarReparados(rama.acumulador, rama.registro, reparacion.getSolucionReparada(), paquetes);
+            return new Vecino(new Movimiento(pares[i][0], pares[i][1], reparacion.getSolucionReparada()),
+                    rama.acumulador.calcularPeso());
+        });
+
+        RamasParalelas.Candidato<Vecino> mejor = null;
+        for (RamasParalelas.Candidato<Vecino> candidato : candidatos) {
+            if (mejor == null || candidato.getResultado().peso > mejor.getResultado().peso) mejor = candidato;
+        }
+        if (mejor == null) return null;
+
+        for (RamasParalelas.Candidato<Vecino> candidato : candidatos) {
+            if (candidato != mejor) {
+                Movimiento perdedor = candidato.getResultado().movimiento;
+                usoOperadores[perdedor.operadorDestruccion][perdedor.operadorReparacion]++;
+                puntajesOperadores[perdedor.operadorDestruccion][perdedor.operadorReparacion] += 5;
+            }
+        }
+        vecindarios.adoptar(mejor);
+        return mejor.getResultado().movimiento;
+    }
+
+    /**
+     * El par elegido por la ruleta seguido de otros pares sorteados con la misma ruleta, distintos
+     * mientras se pueda; si se repiten, los vecinos difieren sólo en la semilla de su rama.
+     */
+    private int[][] paresVecindario(int operadorDestruccion, int operadorReparacion, int cantidad) {
+        int columnas = pesosOperadores[0].length;
+        int[][] pares = new int[cantidad][];
+        pares[0] = new int[]{operadorDestruccion, operadorReparacion};
+        Set<Integer> elegidos = new HashSet<>();
+        elegidos.add(operadorDestruccion * columnas + operadorReparacion);
+        for (int k = 1; k < cantidad; k++) {
+            int[] par = seleccionarOperadores();
+            for (int intento = 0; intento < 4 * cantidad && elegidos.contains(par[0] * columnas + par[1]); intento++) {
+                par = seleccionarOperadores();
+            }
+            elegidos.add(par[0] * columnas + par[1]);
+            pares[k] = par;
+        }
+        return pares;
+    }
+
+    /** Anota en el acumulador que los pedidos destruidos salen de la solución. */
+    private void quitarDestruidos(AcumuladorObjetivo acumulador, ALNSDestruction.ResultadoDestruccion destruccion) {
+        for (int i = 0; i < destruccion.getNumPaquetesDestruidos(); i++) {
+            acumulador.quitar(tablaRutas.pedido(destruccion.getPedidoDestruido(i)),
+                    tablaRutas.ruta(destruccion.getRutaDestruida(i)));
+        }
+    }
+
+    /**
+     * Anota en el acumulador los pedidos de {@code paquetes} que la reparación asignó, con los días
+     * en que los ocupó {@code registro} (el registro en que se ejecutó la reparación).
+     */
+    private void agregarReparados(AcumuladorObjetivo acumulador, RegistroCapacidades registro,
+                                  SolucionCompacta solucionReparada, int[] paquetes) {
+        //Sólo los pedidos destruidos o tomados del pool pueden haber entrado a la solución
+        for (int indicePedido : paquetes) {
+            if (solucionReparada.estaAsignado(indicePedido)) {
+                Pedido pedido = tablaRutas.pedido(indicePedido);
+                ArrayList<Vuelo> ruta = tablaRutas.ruta(solucionReparada.rutaId(indicePedido));
+                acumulador.agregar(pedido, ruta, registro.dias(pedido, ruta));
+            }
+        }
+    }
+
+    /** Acepta el movimiento de la iteración en el registro (y en las ramas paralelas). */
+    private void confirmarMovimiento() {
+        if (usaVecindariosParalelos()) {
+            vecindarios.aceptar();
+        } else if (usaReparacionEspeculativa()) {
+            reparacionEspeculativa.aceptar();
+        } else {
+            registroCapacidades.confirmar();
+        }
+    }
+
+    /** Deshace el movimiento de la iteración en el registro (y en las ramas paralelas). */
+    private void deshacerMovimiento() {
+        if (usaVecindariosParalelos()) {
+            vecindarios.descartar();
+        } else if (usaReparacionEspeculativa()) {
+            reparacionEspeculativa.descartar();
+        } else {
+            registroCapacidades.deshacer();
+        }
+    }
+
     private void actualizarPesosOperadores() {
         double lambda = 0.1;
 
@@ -1124,61 +1412,147 @@ public class ALNSSolver {
         }
     }
 
-    private Map<Vuelo, Integer> crearSnapshotCapacidadesVuelos() {
-        Map<Vuelo, Integer> snapshot = new HashMap<>();
-        for (Vuelo f : vuelos) {
-            snapshot.put(f, f.getCapacidadUsada());
-        }
-        return snapshot;
+    /**
+     * Fija el token de límite de tiempo/cancelación (p. ej. uno compartido por varios trabajadores).
+     * Si no se fija, resolver() crea uno con el tiempoLimiteSegundos del constructor.
+     */
+    public void setTokenCancelacion(TokenCancelacion tokenCancelacion) {
+        this.tokenCancelacion = tokenCancelacion;
     }
 
-    private void restaurarVuelos(Map<Vuelo, Integer> snapshot) {
-        for (Vuelo f : vuelos) {
-            f.setCapacidadUsada(snapshot.getOrDefault(f, 0));
-        }
+    /**
+     * Número de operadores de reparación que se prueban en paralelo sobre cada destrucción (el
+     * elegido por la ruleta y los de mayor peso siguientes); 1 desactiva la reparación
+     * especulativa. Debe fijarse antes de {@link #resolver()}.
+     */
+    public void setReparacionesEspeculativas(int reparacionesEspeculativas) {
+        this.reparacionesEspeculativas = Math.max(1, Math.min(reparacionesEspeculativas, pesosOperadores[0].length));
+    }
+
+    /**
+     * Número de vecinos (destrucción + reparación completas) que se generan y evalúan en paralelo
+     * en cada iteración a partir de la solución actual; el criterio de aceptación se aplica al de
+     * mayor peso. 1 desactiva el muestreo; si está activo, reemplaza a la reparación especulativa.
+     * Debe fijarse antes de {@link #resolver()}.
+     */
+    public void setVecindariosParalelos(int vecindariosParalelos) {
+        this.vecindariosParalelos = Math.max(1, Math.min(vecindariosParalelos, MAX_VECINDARIOS_PARALELOS));
     }
 
-    private void reconstruirCapacidadesDesdeSolucion(HashMap<Pedido, ArrayList<Vuelo>> solucion) {
-        for (Vuelo f : vuelos) {
-            f.setCapacidadUsada(0);
+    /**
+     * Usa un catálogo de rutas precalculadas en la búsqueda de alternativas de la reparación.
+     * Debe fijarse antes de {@link #resolver()}; si el catálogo es de otro plan de vuelos se ignora.
+     */
+    public void setCatalogoRutas(CatalogoRutas catalogoRutas) {
+        if (!buscadorRutas.usarCatalogo(catalogoRutas) && catalogoRutas != null) {
+            System.err.println("Advertencia: el catálogo de rutas no corresponde al plan de vuelos; se ignora");
         }
+    }
+
+    /** true si la última ejecución terminó por cancelación explícita. */
+    public boolean fueCancelado() {
+        return tokenCancelacion != null && tokenCancelacion.estaCancelado();
+    }
 
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : solucion.entrySet()) {
-            Pedido pedido = entrada.getKey();
-            ArrayList<Vuelo> ruta = entrada.getValue();
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+    /**
+     * Configura esta instancia como isla: cada {@code segmentosEntreMigraciones} segmentos publica su
+     * mejor solución en {@code buzonSalida} y lee el migrante pendiente de {@code buzonEntrada}.
+     * Cada isla puede usar su propio esquema de enfriamiento.
+     */
+    public void configurarIsla(int idIsla, BuzonMigracion buzonEntrada, BuzonMigracion buzonSalida,
+                               int segmentosEntreMigraciones, double temperaturaInicial, double tasaEnfriamiento) {
+        this.idIsla = idIsla;
+        this.buzonEntrada = buzonEntrada;
+        this.buzonSalida = buzonSalida;
+        this.segmentosEntreMigraciones = Math.max(1, segmentosEntreMigraciones);
+        this.temperatura = temperaturaInicial;
+        this.tasaEnfriamiento = tasaEnfriamiento;
+    }
+
+    private void publicarMigrante() {
+        if (mejorSolucion == null) return;
+        int n = mejorSolucion.tamano();
+        Pedido[] pedidosMigrante = new Pedido[n];
+        Vuelo[][] rutas = new Vuelo[n][];
+        int k = 0;
+        for (int i = 0; i < tablaRutas.getNumPedidos() && k < n; i++) {
+            if (!mejorSolucion.estaAsignado(i)) continue;
+            pedidosMigrante[k] = tablaRutas.pedido(i);
+            rutas[k] = tablaRutas.ruta(mejorSolucion.rutaId(i)).toArray(new Vuelo[0]);
+            k++;
+        }
+        double[][] pesos = new double[pesosOperadores.length][];
+        for (int i = 0; i < pesos.length; i++) pesos[i] = pesosOperadores[i].clone();
+
+        buzonSalida.publicar(new BuzonMigracion.Migrante(idIsla, pesoMejorSolucion,
+                Arrays.copyOf(pedidosMigrante, k), Arrays.copyOf(rutas, k), pesos));
+    }
 
-            for (Vuelo f : ruta) {
-                f.setCapacidadUsada(f.getCapacidadUsada() + conteoProductos);
+    /**
+     * Lee el migrante pendiente: promedia los pesos de operadores con los de la otra isla y, si su
+     * solución es mejor que la actual, la devuelve sobre la tabla de rutas de esta isla (si no, null).
+     */
+    private SolucionCompacta recibirMigrante(int pesoActual) {
+        BuzonMigracion.Migrante migrante = buzonEntrada.tomar();
+        if (migrante == null) return null;
+
+        double[][] pesosRemotos = migrante.getPesosOperadores();
+        for (int i = 0; i < pesosOperadores.length; i++) {
+            for (int j = 0; j < pesosOperadores[i].length; j++) {
+                pesosOperadores[i][j] = (pesosOperadores[i][j] + pesosRemotos[i][j]) / 2.0;
             }
         }
-    }
 
-    private Map<Aeropuerto, Integer> crearSnapshotCapacidadAeropuerto() {
-        Map<Aeropuerto, Integer> snapshot = new HashMap<>();
-        for (Aeropuerto aeropuerto : aeropuertos) {
-            snapshot.put(aeropuerto, aeropuerto.getCapacidadActual());
-            //snapshot.put(aeropuerto, ocupacionAlmacenes.getOrDefault(aeropuerto, 0));
+        if (migrante.getPeso() <= pesoActual) return null;
+
+        // Mismas entidades en todas las islas: sólo cambian los ids de ruta de cada tabla
+        SolucionCompacta recibida = new SolucionCompacta(tablaRutas);
+        for (int k = 0; k < migrante.getNumPedidos(); k++) {
+            int indicePedido = tablaRutas.indicePedido(migrante.getPedido(k));
+            if (indicePedido < 0) return null; // no es de esta instancia (pedidos unitizados por isla)
+            recibida.asignarRuta(indicePedido, tablaRutas.internar(Arrays.asList(migrante.getRuta(k))));
         }
-        return snapshot;
+
+        System.out.println("Isla " + idIsla + ": adoptando solución de isla " + migrante.getIslaOrigen() +
+                         " (peso " + migrante.getPeso() + " > " + pesoActual + ")");
+        return recibida;
     }
 
-    private void restaurarAeropuertos(Map<Aeropuerto, Integer> snapshot) {
-        for(Aeropuerto aeropuerto : aeropuertos) {
-            aeropuerto.setCapacidadActual(snapshot.getOrDefault(aeropuerto, 0));
-            //ocupacionAlmacenes.put(aeropuerto, snapshot.getOrDefault(aeropuerto, 0));
+    private void reconstruirCapacidadesDesdeSolucion(SolucionCompacta solucion) {
+        reconstruirCapacidadesDesdeSolucion(solucion, Map.of());
+    }
+
+    /**
+     * Ocupa desde cero los vuelos de la solución. Los pedidos con reserva en {@code reservas}
+     * vuelven a sus mismos días; el resto toma la primera ocurrencia con espacio en orden de índice.
+     */
+    private void reconstruirCapacidadesDesdeSolucion(SolucionCompacta solucion, Map<Pedido, int[]> reservas) {
+        registroCapacidades.reiniciarVuelos();
+
+        for (int i = 0; i < tablaRutas.getNumPedidos(); i++) {
+            if (!solucion.estaAsignado(i)) continue;
+            Pedido pedido = tablaRutas.pedido(i);
+            ArrayList<Vuelo> ruta = tablaRutas.ruta(solucion.rutaId(i));
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
+
+            int[] dias = reservas.get(pedido);
+            if (dias != null) {
+                registroCapacidades.ocuparVuelos(pedido, ruta, conteoProductos, dias);
+            } else {
+                registroCapacidades.ocuparVuelos(pedido, ruta, conteoProductos);
+            }
         }
-//        ocupacionAlmacenes.clear();
-//        ocupacionAlmacenes.putAll(snapshot);
+        registroCapacidades.confirmar();
     }
 
-    private void reconstruirAlmacenesDesdeSolucion(HashMap<Pedido, ArrayList<Vuelo>> solucion) {
+    private void reconstruirAlmacenesDesdeSolucion(SolucionCompacta solucion) {
         inicializarCapacidadAeropuertos();
 
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : solucion.entrySet()) {
-            Pedido pedido = entrada.getKey();
-            ArrayList<Vuelo> ruta = entrada.getValue();
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+        for (int i = 0; i < tablaRutas.getNumPedidos(); i++) {
+            if (!solucion.estaAsignado(i)) continue;
+            Pedido pedido = tablaRutas.pedido(i);
+            ArrayList<Vuelo> ruta = tablaRutas.ruta(solucion.rutaId(i));
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
 
             if (ruta == null || ruta.isEmpty()) {
                 Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
@@ -1189,26 +1563,16 @@ public class ALNSSolver {
                 Vuelo ultimoVuelo = ruta.get(ruta.size() - 1);
                 actualizarCapacidadAeropuertos(ultimoVuelo.getAeropuertoDestino().getCodigoIATA(), conteoProductos);
             }
+            registroCapacidades.ocuparFlujo(pedido, ruta, conteoProductos);
         }
+        registroCapacidades.confirmar();
     }
     void actualizarCapacidadAeropuertos(String codigoAeropuertoDestino, int cantidad) {
-        for(Aeropuerto aeropuerto : aeropuertos) {
-            if(aeropuerto.getCodigoIATA().equals(codigoAeropuertoDestino)) {
-                int capacidadActual = aeropuerto.getCapacidadActual();
-                aeropuerto.setCapacidadActual(capacidadActual + cantidad);
-                break;
-            }
-        }
+        registroCapacidades.ajustarAeropuerto(obtenerAeropuerto(codigoAeropuertoDestino), cantidad);
     }
-    private boolean cabeEnCapacidad(ArrayList<Vuelo> ruta, int cantidad) {
+    private boolean cabeEnCapacidad(Pedido pedido, ArrayList<Vuelo> ruta, int cantidad) {
         if (ruta == null || ruta.isEmpty()) return true;
-
-        for (Vuelo vuelo : ruta) {
-            if (vuelo.getCapacidadUsada() + cantidad > vuelo.getCapacidadMaxima()) {
-                return false;
-            }
-        }
-        return true;
+        return registroCapacidades.cabeEnVuelos(pedido, ruta, cantidad);
     }
 
     private void inicializarCacheCiudadAeropuerto() {
@@ -1222,21 +1586,6 @@ public class ALNSSolver {
         System.out.println("Cache inicializada: " + cacheNombreCiudadAeropuerto.size() + " ciudades");
     }
 
-    private void inicializarT0() {
-        T0 = LocalDateTime.now();
-
-        if (pedidos != null && !pedidos.isEmpty()) {
-            LocalDateTime minFechaPedido = pedidos.stream()
-                .filter(p -> p.getFechaPedido() != null)
-                .map(Pedido::getFechaPedido)
-                .min(LocalDateTime::compareTo)
-                .orElse(LocalDateTime.now());
-            T0 = minFechaPedido;
-        }
-
-        System.out.println("T0 inicializado: " + T0);
-    }
-
     private List<Pedido> expandirPaquetesAUnidadesProducto(List<Pedido> pedidosOriginales) {
         List<Pedido> unidadesProducto = new ArrayList<>();
 
@@ -1274,52 +1623,12 @@ public class ALNSSolver {
         return unidad;
     }
 
-    private Aeropuerto obtenerAeropuertoPorCiudad(Ciudad ciudad) {
-        if (ciudad == null || ciudad.getNombre() == null) return null;
-        String claveCiudad = ciudad.getNombre().toLowerCase().trim();
-        return cacheNombreCiudadAeropuerto.get(claveCiudad);
-    }
-
-    /**
-     * Encuentra una ruta directa entre dos ciudades, considerando disponibilidad por día.
-     * OPTIMIZADO: Usa índice y cache de disponibilidad (O(1) en lugar de O(N))
-     *
-     * @param origen Ciudad de origen
-     * @param destino Ciudad de destino
-     * @param dia Día de operación para verificar disponibilidad de vuelo
-     * @return Ruta directa si existe y está disponible, null en caso contrario
-     */
-    private ArrayList<Vuelo> encontrarRutaDirecta(Ciudad origen, Ciudad destino, int dia) {
-        if (origen == null || destino == null) return null;
-
-        Aeropuerto aeropuertoOrigen = obtenerAeropuertoPorCiudad(origen);
-        Aeropuerto aeropuertoDestino = obtenerAeropuertoPorCiudad(destino);
-
-        if (aeropuertoOrigen == null || aeropuertoDestino == null) return null;
-
-        // OPTIMIZACIÓN: Usar cache de disponibilidad en lugar de búsqueda lineal
-        List<Vuelo> vuelosDisponibles = cacheDisponibilidad.obtenerVuelosDisponibles(
-            aeropuertoOrigen,
-            aeropuertoDestino,
-            dia
-        );
-
-        if (vuelosDisponibles.isEmpty()) {
-            return null; // No hay vuelos directos disponibles en este día
-        }
-
-        // Tomar el primer vuelo disponible
-        ArrayList<Vuelo> ruta = new ArrayList<>();
-        ruta.add(vuelosDisponibles.get(0));
-        return ruta;
-    }
-
     private boolean esRutaValida(Pedido pedido, ArrayList<Vuelo> ruta) {
         if (pedido == null || ruta == null || ruta.isEmpty()) return false;
 
-        int qty = pedido.getProductos() != null && !pedido.getProductos().isEmpty() ? pedido.getProductos().size() : 1;
+        int qty = RegistroCapacidades.cantidadProductos(pedido);
 
-        if (!cabeEnCapacidad(ruta, qty)) return false;
+        if (!cabeEnCapacidad(pedido, ruta, qty)) return false;
 
         Aeropuerto expectedOrigin = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo());
         if (expectedOrigin == null || !ruta.get(0).getAeropuertoOrigen().equals(expectedOrigin)) return false;
@@ -1339,17 +1648,15 @@ public class ALNSSolver {
         Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
         if (aeropuertoDestino == null) return false;
 
-        int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-        int ocupacionActual = aeropuertoDestino.getCapacidadActual();
+        int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
+        int ocupacionActual = registroCapacidades.ocupacion(aeropuertoDestino);
         int capacidadMaxima = aeropuertoDestino.getCapacidadMaxima();
 
         return (ocupacionActual + conteoProductos) <= capacidadMaxima;
     }
 
-    private void actualizarCapacidadesVuelos(ArrayList<Vuelo> ruta, int conteoProductos) {
-        for (Vuelo vuelo : ruta) {
-            vuelo.setCapacidadUsada(vuelo.getCapacidadUsada() + conteoProductos);
-        }
+    private void actualizarCapacidadesVuelos(Pedido pedido, ArrayList<Vuelo> ruta, int conteoProductos) {
+        registroCapacidades.ocuparVuelos(pedido, ruta, conteoProductos);
     }
 
     private void incrementarOcupacionAlmacen(Aeropuerto aeropuerto, int conteoProductos) {
@@ -1357,39 +1664,19 @@ public class ALNSSolver {
         ocupacionAlmacenes.put(aeropuerto, ocupacionActual + conteoProductos);
     }
 
-    private int obtenerTiempoInicioPaquete(Pedido pedido) {
-        if (pedido == null || pedido.getFechaPedido() == null || T0 == null) {
-            return 0;
-        }
-        long minutosDesdeT0 = ChronoUnit.MINUTES.between(T0, pedido.getFechaPedido());
-        int offset = Math.floorMod(pedido.getId(), 60);
-        int minutoInicio = (int) (minutosDesdeT0 + offset);
-        final int TOTAL_MINUTOS = HORIZON_DAYS * 24 * 60;
-        return Math.max(0, Math.min(minutoInicio, TOTAL_MINUTOS - 1));
-    }
-
-    private double calcularMargenTiempoRuta(Pedido pedido, ArrayList<Vuelo> ruta) {
-        if (pedido == null || ruta == null) return 1.0;
-        if (pedido.getFechaPedido() == null || pedido.getFechaLimiteEntrega() == null) return 1.0;
-
-        double tiempoTotal = 0.0;
-        for (Vuelo vuelo : ruta) tiempoTotal += vuelo.getTiempoTransporte();
-        if (ruta.size() > 1) tiempoTotal += (ruta.size() - 1) * 2.0;
-
-        long horasDisponibles = ChronoUnit.HOURS.between(pedido.getFechaPedido(), pedido.getFechaLimiteEntrega());
-        double margen = horasDisponibles - tiempoTotal;
-        return Math.max(margen, 0.0) + 1.0;
-    }
-
     public void generarSolucionInicial() {
-        if (Constantes.USAR_SOLUCION_INICIAL_CODICIOSA) {
-            generarSolucionInicialGreedy();
+        if (estrategiaInicial == ESTRATEGIA_INICIAL_ALEATORIA) {
+            generarSolucionInicialAleatoria();
+        } else if (estrategiaInicial >= 0) {
+            generarSolucionInicialGreedy(estrategiaInicial);
+        } else if (Constantes.USAR_SOLUCION_INICIAL_CODICIOSA) {
+            generarSolucionInicialGreedy(0);
         } else {
             generarSolucionInicialAleatoria();
         }
     }
 
-    private void generarSolucionInicialGreedy() {
+    private void generarSolucionInicialGreedy(int estrategiaOrdenamiento) {
         System.out.println("=== GENERANDO SOLUCIÓN INICIAL GREEDY ===");
 
         // Reiniciar capacidades
@@ -1401,9 +1688,7 @@ public class ALNSSolver {
         // Ordenar pedidos con un componente aleatorio
         ArrayList<Pedido> paquetesOrdenados = new ArrayList<>(pedidos);
 
-        // Decidir aleatoriamente entre diferentes estrategias de ordenamiento
-        int estrategiaOrdenamiento = 0; // Puedes cambiar o parametrizar esta elección
-
+        // Estrategia de ordenamiento elegida al construir el solver (0 por defecto)
         switch (estrategiaOrdenamiento) {
             case 0:
                 // Ordenamiento por deadline (original)
@@ -1451,7 +1736,7 @@ public class ALNSSolver {
         int paquetesAsignados = generarSolucionOptima(solActual, paquetesOrdenados);
 
         // Calcular el peso/costo de esta solución
-        int pesoSolucion = calcularPesoSolucion(solActual);
+        int pesoSolucion = funcionObjetivo.calcularPeso(solActual);
 
         // Almacenar la solución con su peso
         solucion.put(solActual, pesoSolucion);
@@ -1460,9 +1745,7 @@ public class ALNSSolver {
         System.out.println("Peso de la solución: " + pesoSolucion);
     }
     private void reiniciarCapacidades() {
-        for (Vuelo vuelo : vuelos) {
-            vuelo.setCapacidadUsada(0);
-        }
+        registroCapacidades.reiniciarVuelos();
     }
 
     private void generarSolucionInicialAleatoria() {
@@ -1476,19 +1759,20 @@ public class ALNSSolver {
         Collections.shuffle(paquetesBarajados, aleatorio);
 
         for (Pedido pedido : paquetesBarajados) {
+            if (tokenCancelacion != null && tokenCancelacion.debeDetenerse()) break;
             if (aleatorio.nextDouble() < Constantes.PROBABILIDAD_ASIGNACION_ALEATORIA) {
                 ArrayList<Vuelo> rutaAleatoria = generarRutaAleatoria(pedido);
 
                 if (rutaAleatoria != null && !rutaAleatoria.isEmpty()) {
-                    int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+                    int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
 
-                    if (cabeEnCapacidad(rutaAleatoria, conteoProductos)) {
+                    if (cabeEnCapacidad(pedido, rutaAleatoria, conteoProductos)) {
                         Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
                         if (aeropuertoDestino != null &&
                             puedeAsignarConOptimizacionEspacio(pedido, rutaAleatoria, solucionActual)) {
 
                             solucionActual.put(pedido, rutaAleatoria);
-                            actualizarCapacidadesVuelos(rutaAleatoria, conteoProductos);
+                            actualizarCapacidadesVuelos(pedido, rutaAleatoria, conteoProductos);
                             actualizarCapacidadAeropuertos(aeropuertoDestino.getCodigoIATA(), conteoProductos);
                             //incrementarOcupacionAlmacen(aeropuertoDestino, conteoProductos);
                             paquetesAsignados++;
@@ -1498,7 +1782,7 @@ public class ALNSSolver {
             }
         }
 
-        int pesoSolucion = calcularPesoSolucion(solucionActual);
+        int pesoSolucion = funcionObjetivo.calcularPeso(solucionActual);
         solucion.put(solucionActual, pesoSolucion);
 
         System.out.println("Solución inicial aleatoria generada: " + paquetesAsignados + "/" + pedidos.size() + " pedidos asignados");
@@ -1528,10 +1812,14 @@ public class ALNSSolver {
         int asignadosEnIteracion = 0;
 
         for (Pedido pkg : paquetesOrdenados) {
+            if (tokenCancelacion != null && tokenCancelacion.debeDetenerse()) {
+                System.out.println("  Construcción inicial detenida por límite de tiempo o cancelación");
+                return paquetesAsignados;
+            }
             Aeropuerto aeropuertoDestino = obtenerAeropuerto(pkg.getAeropuertoDestinoCodigo());
             if (aeropuertoDestino == null) continue;
 
-            int cantidadProductos = pkg.getProductos() != null ? pkg.getProductos().size() : 1;
+            int cantidadProductos = RegistroCapacidades.cantidadProductos(pkg);
 
             // Intentar asignar el paquete usando diferentes estrategias
             ArrayList<Vuelo> mejorRuta = encontrarMejorRutaConVentanasDeTiempo(pkg, solucionActual);
@@ -1545,7 +1833,7 @@ public class ALNSSolver {
                     asignadosEnIteracion++;
 
                     // Actualizar capacidades DESPUÉS de la validación
-                    actualizarCapacidadesVuelos(mejorRuta, cantidadProductos);
+                    actualizarCapacidadesVuelos(pkg, mejorRuta, cantidadProductos);
                     actualizarCapacidadAeropuertos(aeropuertoDestino.getCodigoIATA(), cantidadProductos);
                     //incrementarOcupacionAlmacen(aeropuertoDestino, cantidadProductos);
 
@@ -1588,8 +1876,8 @@ public class ALNSSolver {
     Aeropuerto aeropuertoDestino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
     if (aeropuertoDestino == null) return false;
 
-    int cantidadProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-    int ocupacionActual = aeropuertoDestino.getCapacidadActual();
+    int cantidadProductos = RegistroCapacidades.cantidadProductos(pedido);
+    int ocupacionActual = registroCapacidades.ocupacion(aeropuertoDestino);
     int capacidadMaxima = aeropuertoDestino.getCapacidadMaxima();
 
     return (ocupacionActual + cantidadProductos) <= capacidadMaxima;
@@ -1598,51 +1886,16 @@ public class ALNSSolver {
 
     /**
      * Genera una ruta aleatoria para un pedido, considerando disponibilidad.
-     * Usado en la generación de solución inicial aleatoria.
+     * Usado en la generación de solución inicial aleatoria: busca en la red temporal con una
+     * salida retrasada al azar, para no construir siempre el mismo itinerario.
      *
      * @param pedido Pedido para el cual generar ruta
      * @return Ruta aleatoria disponible, o null si no se encuentra ninguna
      */
     private ArrayList<Vuelo> generarRutaAleatoria(Pedido pedido) {
-        Ciudad origen = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad();
-        Ciudad destino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad();
-
-        if (origen == null || destino == null) return null;
-
-        Aeropuerto aeropuertoOrigen = obtenerAeropuertoPorCiudad(origen);
-        Aeropuerto aeropuertoDestino = obtenerAeropuertoPorCiudad(destino);
-
-        if (aeropuertoOrigen == null || aeropuertoDestino == null) return null;
-
-        // Calcular día de operación
-        int dia = calcularDiaOperacion(pedido);
-
-        // Intentar ruta directa primero
-        ArrayList<Vuelo> rutaDirecta = encontrarRutaDirecta(origen, destino, dia);
-        if (rutaDirecta != null && !rutaDirecta.isEmpty()) {
-            return rutaDirecta;
-        }
-
-        // Intentar con aeropuertos intermedios
-        ArrayList<Aeropuerto> aeropuertosBarajados = new ArrayList<>(aeropuertos);
-        Collections.shuffle(aeropuertosBarajados, aleatorio);
-
-        for (int i = 0; i < Math.min(5, aeropuertosBarajados.size()); i++) {
-            Aeropuerto intermedio = aeropuertosBarajados.get(i);
-            if (intermedio.equals(aeropuertoOrigen) || intermedio.equals(aeropuertoDestino)) continue;
-
-            ArrayList<Vuelo> tramo1 = encontrarRutaDirecta(origen, intermedio.getCiudad(), dia);
-            ArrayList<Vuelo> tramo2 = encontrarRutaDirecta(intermedio.getCiudad(), destino, dia);
-
-            if (tramo1 != null && tramo2 != null && !tramo1.isEmpty() && !tramo2.isEmpty()) {
-                ArrayList<Vuelo> ruta = new ArrayList<>();
-                ruta.addAll(tramo1);
-                ruta.addAll(tramo2);
-                return ruta;
-            }
-        }
-
-        return null; // No hay rutas disponibles en este día
+        int retraso = aleatorio.nextInt(Constantes.RETRASO_MAX_RUTA_ALEATORIA_MINUTOS + 1);
+        ArrayList<Vuelo> ruta = buscarItinerario(pedido, retraso);
+        return ruta != null ? ruta : buscarItinerario(pedido, 0);
     }
 
     private ArrayList<Vuelo> encontrarMejorRutaConVentanasTiempo(Pedido pedido, HashMap<Pedido, ArrayList<Vuelo>> solucionActual) {
@@ -1686,8 +1939,8 @@ public class ALNSSolver {
     }
 
     /**
-     * Encuentra la mejor ruta para un pedido considerando disponibilidad de vuelos.
-     * Intenta rutas directas primero, luego con 1 escala, y finalmente con 2 escalas.
+     * Encuentra la mejor ruta para un pedido: el itinerario de llegada más temprana en la red
+     * temporal, respetando horarios, cancelaciones, conexiones mínimas, capacidad y plazo.
      *
      * @param pedido Pedido para el cual buscar ruta
      * @return Mejor ruta encontrada, o null si no hay rutas disponibles
@@ -1696,7 +1949,6 @@ public class ALNSSolver {
         Ciudad origen = obtenerAeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad();
         Ciudad destino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad();
 
-        // ERROR: No se verifica si origen o destino son null
         if (origen == null || destino == null) {
             return null;
         }
@@ -1705,221 +1957,21 @@ public class ALNSSolver {
             return new ArrayList<>();
         }
 
-        // Calcular día de operación para verificar disponibilidad
-        int dia = calcularDiaOperacion(pedido);
-
-        ArrayList<ArrayList<Vuelo>> rutasValidas = new ArrayList<>();
-        ArrayList<Double> puntajesRuta = new ArrayList<>();
-
-        // Intentar ruta directa con verificación de disponibilidad
-        ArrayList<Vuelo> directa = encontrarRutaDirecta(origen, destino, dia);
-        if (directa != null && esRutaValida(pedido, directa)) {
-            rutasValidas.add(directa);
-            puntajesRuta.add(calcularMargenTiempoRuta(pedido, directa));
-        }
-
-        // Intentar ruta con una escala
-        ArrayList<Vuelo> unaEscala = encontrarRutaUnaEscala(origen, destino, dia);
-        if (unaEscala != null && esRutaValida(pedido, unaEscala)) {
-            rutasValidas.add(unaEscala);
-            puntajesRuta.add(calcularMargenTiempoRuta(pedido, unaEscala));
-        }
-
-        // Intentar ruta con dos escalas
-        ArrayList<Vuelo> dosEscalas = encontrarRutaDosEscalas(origen, destino, dia);
-        if (dosEscalas != null && esRutaValida(pedido, dosEscalas)) {
-            rutasValidas.add(dosEscalas);
-            puntajesRuta.add(calcularMargenTiempoRuta(pedido, dosEscalas));
-        }
-
-        if (rutasValidas.isEmpty()) {
-            // No hay rutas disponibles en este día (posiblemente por cancelaciones)
-            if (Constantes.LOGGING_VERBOSO) {
-                System.out.println("No se encontraron rutas disponibles para pedido " + pedido.getId() +
-                                 " en día " + dia + " (cancelaciones activas)");
-            }
-            return null;
-        }
-
-        int total = rutasValidas.size();
-        int indiceSeleccionado;
-        if (total > 1) {
-            double suma = 0;
-            for (double p : puntajesRuta) suma += p;
-            if (suma > 0) {
-                double rand = aleatorio.nextDouble() * suma;
-                double acum = 0;
-                indiceSeleccionado = 0;
-                for (int i = 0; i < puntajesRuta.size(); i++) {
-                    acum += puntajesRuta.get(i);
-                    if (rand <= acum) {
-                        indiceSeleccionado = i;
-                        break;
-                    }
-                }
-            } else {
-                indiceSeleccionado = aleatorio.nextInt(total);
-            }
-        } else {
-            indiceSeleccionado = 0;
+        ArrayList<Vuelo> ruta = buscarItinerario(pedido, 0);
+        if (ruta == null && Constantes.LOGGING_VERBOSO) {
+            System.out.println("No se encontraron rutas disponibles para pedido " + pedido.getId() +
+                             " dentro de su plazo");
         }
-
-        return rutasValidas.get(indiceSeleccionado);
+        return ruta;
     }
 
     /**
-     * Encuentra una ruta con una escala entre dos ciudades, considerando disponibilidad.
-     * OPTIMIZADO: Usa índice de vuelos salientes en lugar de búsqueda lineal
-     *
-     * @param origen Ciudad de origen
-     * @param destino Ciudad de destino
-     * @param dia Día de operación para verificar disponibilidad
-     * @return Ruta con una escala si existe y está disponible, null en caso contrario
+     * Itinerario de llegada más temprana del pedido en la red temporal, sólo por vuelos con
+     * espacio para sus productos.
      */
-    private ArrayList<Vuelo> encontrarRutaUnaEscala(Ciudad origen, Ciudad destino, int dia) {
-        Aeropuerto aOrigen = obtenerAeropuertoPorCiudad(origen);
-        Aeropuerto aDestino = obtenerAeropuertoPorCiudad(destino);
-        if (aOrigen == null || aDestino == null) return null;
-
-        // OPTIMIZACIÓN: Obtener aeropuertos intermedios viables desde el índice
-        List<Vuelo> vuelosSalidaOrigen = indiceVuelos.obtenerVuelosSalientes(aOrigen);
-
-        // Generar lista de aeropuertos intermedios únicos
-        ArrayList<Aeropuerto> posibles = new ArrayList<>();
-        for (Vuelo v : vuelosSalidaOrigen) {
-            Aeropuerto destVuelo = v.getAeropuertoDestino();
-            if (!destVuelo.equals(aDestino) && !posibles.contains(destVuelo)) {
-                posibles.add(destVuelo);
-            }
-        }
-        Collections.shuffle(posibles, aleatorio);
-
-        // Buscar conexión viable usando cache de disponibilidad
-        for (Aeropuerto escala : posibles) {
-            List<Vuelo> primerTramo = cacheDisponibilidad.obtenerVuelosDisponibles(aOrigen, escala, dia);
-            if (primerTramo.isEmpty()) continue;
-
-            // Buscar vuelo con capacidad disponible
-            Vuelo primero = null;
-            for (Vuelo v : primerTramo) {
-                if (v.getCapacidadUsada() < v.getCapacidadMaxima()) {
-                    primero = v;
-                    break;
-                }
-            }
-            if (primero == null) continue;
-
-            List<Vuelo> segundoTramo = cacheDisponibilidad.obtenerVuelosDisponibles(escala, aDestino, dia);
-            if (segundoTramo.isEmpty()) continue;
-
-            // Buscar vuelo con capacidad disponible
-            Vuelo segundo = null;
-            for (Vuelo v : segundoTramo) {
-                if (v.getCapacidadUsada() < v.getCapacidadMaxima()) {
-                    segundo = v;
-                    break;
-                }
-            }
-
-            if (segundo != null) {
-                ArrayList<Vuelo> ruta = new ArrayList<>();
-                ruta.add(primero);
-                ruta.add(segundo);
-                return ruta;
-            }
-        }
-        return null; // No hay rutas con una escala disponibles en este día
-    }
-
-    /**
-     * Encuentra una ruta con dos escalas entre dos ciudades, considerando disponibilidad.
-     * OPTIMIZADO: Usa cache de disponibilidad en lugar de verificación directa
-     *
-     * @param origen Ciudad de origen
-     * @param destino Ciudad de destino
-     * @param dia Día de operación para verificar disponibilidad
-     * @return Ruta con dos escalas si existe y está disponible, null en caso contrario
-     */
-    private ArrayList<Vuelo> encontrarRutaDosEscalas(Ciudad origen, Ciudad destino, int dia) {
-        Aeropuerto aOrigen = obtenerAeropuertoPorCiudad(origen);
-        Aeropuerto aDestino = obtenerAeropuertoPorCiudad(destino);
-        if (aOrigen == null || aDestino == null) return null;
-
-        // OPTIMIZACIÓN: Obtener aeropuertos alcanzables desde origen
-        List<Vuelo> vuelosSalidaOrigen = indiceVuelos.obtenerVuelosSalientes(aOrigen);
-        ArrayList<Aeropuerto> primeras = new ArrayList<>();
-        for (Vuelo v : vuelosSalidaOrigen) {
-            Aeropuerto destVuelo = v.getAeropuertoDestino();
-            if (!destVuelo.equals(aDestino) && !primeras.contains(destVuelo)) {
-                primeras.add(destVuelo);
-            }
-        }
-        Collections.shuffle(primeras, aleatorio);
-        int maxPrimeras = Math.min(10, primeras.size());
-
-        for (int i = 0; i < maxPrimeras; i++) {
-            Aeropuerto p1 = primeras.get(i);
-
-            // OPTIMIZACIÓN: Obtener aeropuertos alcanzables desde p1
-            List<Vuelo> vuelosSalidaP1 = indiceVuelos.obtenerVuelosSalientes(p1);
-            ArrayList<Aeropuerto> segundas = new ArrayList<>();
-            for (Vuelo v : vuelosSalidaP1) {
-                Aeropuerto destVuelo = v.getAeropuertoDestino();
-                if (!destVuelo.equals(aOrigen) && !destVuelo.equals(aDestino) &&
-                    !destVuelo.equals(p1) && !segundas.contains(destVuelo)) {
-                    segundas.add(destVuelo);
-                }
-            }
-            Collections.shuffle(segundas, aleatorio);
-            int maxSeg = Math.min(10, segundas.size());
-
-            for (int j = 0; j < maxSeg; j++) {
-                Aeropuerto p2 = segundas.get(j);
-
-                // Buscar vuelos usando cache de disponibilidad
-                List<Vuelo> primerTramo = cacheDisponibilidad.obtenerVuelosDisponibles(aOrigen, p1, dia);
-                if (primerTramo.isEmpty()) continue;
-
-                Vuelo f1 = null;
-                for (Vuelo v : primerTramo) {
-                    if (v.getCapacidadUsada() < v.getCapacidadMaxima()) {
-                        f1 = v; break;
-                    }
-                }
-                if (f1 == null) continue;
-
-                List<Vuelo> segundoTramo = cacheDisponibilidad.obtenerVuelosDisponibles(p1, p2, dia);
-                if (segundoTramo.isEmpty()) continue;
-
-                Vuelo f2 = null;
-                for (Vuelo v : segundoTramo) {
-                    if (v.getCapacidadUsada() < v.getCapacidadMaxima()) {
-                        f2 = v; break;
-                    }
-                }
-                if (f2 == null) continue;
-
-                List<Vuelo> tercerTramo = cacheDisponibilidad.obtenerVuelosDisponibles(p2, aDestino, dia);
-                if (tercerTramo.isEmpty()) continue;
-
-                Vuelo f3 = null;
-                for (Vuelo v : tercerTramo) {
-                    if (v.getCapacidadUsada() < v.getCapacidadMaxima()) {
-                        f3 = v; break;
-                    }
-                }
-
-                if (f3 != null) {
-                    ArrayList<Vuelo> ruta = new ArrayList<>();
-                    ruta.add(f1); ruta.add(f2); ruta.add(f3);
-                    double tiempoTotal = f1.getTiempoTransporte() + f2.getTiempoTransporte() + f3.getTiempoTransporte();
-                    tiempoTotal += 2.0;
-                    if (tiempoTotal > Constantes.TIEMPO_MAX_ENTREGA_DIFERENTE_CONTINENTE * 24) continue;
-                    return ruta;
-                }
-            }
-        }
-        return null; // No hay rutas con dos escalas disponibles en este día
+    private ArrayList<Vuelo> buscarItinerario(Pedido pedido, int retrasoMinutos) {
+        RedTemporalVuelos.Itinerario itinerario = buscadorRutas.buscar(pedido, retrasoMinutos);
+        return itinerario != null ? itinerario.getVuelos() : null;
     }
 
     private boolean seRespetaDeadline(Pedido pedido, ArrayList<Vuelo> ruta) {
@@ -2003,130 +2055,6 @@ public class ALNSSolver {
         return nombre.contains("lima") || nombre.contains("bruselas") || nombre.contains("brussels") || nombre.contains("baku");
     }
 
-    private int calcularPesoSolucion(HashMap<Pedido, ArrayList<Vuelo>> mapaSolucion) {
-        int totalPaquetes = mapaSolucion.size();
-        int totalProductos = 0;
-        double tiempoTotalEntrega = 0;
-        int entregasATiempo = 0;
-        double utilizacionCapacidadTotal = 0;
-        int totalVuelosUsados = 0;
-        double margenEntregaTotal = 0;
-
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : mapaSolucion.entrySet()) {
-            Pedido pedido = entrada.getKey();
-            ArrayList<Vuelo> ruta = entrada.getValue();
-
-            int productosEnPaquete = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-            totalProductos += productosEnPaquete;
-
-            double tiempoRuta = 0;
-            for (Vuelo vuelo : ruta) {
-                tiempoRuta += vuelo.getTiempoTransporte();
-                utilizacionCapacidadTotal += (double) vuelo.getCapacidadUsada() / vuelo.getCapacidadMaxima();
-                totalVuelosUsados++;
-            }
-
-            if (ruta.size() > 1) tiempoRuta += (ruta.size() - 1) * 2.0;
-
-            tiempoTotalEntrega += tiempoRuta;
-
-            if (seRespetaDeadline(pedido, ruta)) {
-                entregasATiempo++;
-                LocalDateTime entregaEstimada = pedido.getFechaPedido().plusHours((long)tiempoRuta);
-                double horasMargen = ChronoUnit.HOURS.between(entregaEstimada, pedido.getFechaLimiteEntrega());
-                margenEntregaTotal += horasMargen;
-            }
-        }
-
-        double tiempoPromedioEntrega = totalPaquetes > 0 ? tiempoTotalEntrega / totalPaquetes : 0;
-        double utilizacionCapacidadPromedio = totalVuelosUsados > 0 ? utilizacionCapacidadTotal / totalVuelosUsados : 0;
-        double tasaATiempo = totalPaquetes > 0 ? (double) entregasATiempo / totalPaquetes : 0;
-        double margenPromedioEntrega = entregasATiempo > 0 ? margenEntregaTotal / entregasATiempo : 0;
-
-        double eficienciaContinental = calcularEficienciaContinental(mapaSolucion);
-        double utilizacionAlmacenes = calcularUtilizacionAlmacenes();
-
-        int peso = (int) (
-            totalPaquetes * 100000 +
-            totalProductos * 10000 +
-            tasaATiempo * 5000 +
-            Math.min(margenPromedioEntrega * 50, 1000) +
-            eficienciaContinental * 500 +
-            utilizacionCapacidadPromedio * 200 +
-            utilizacionAlmacenes * 100 -
-            tiempoPromedioEntrega * 20 -
-            calcularComplejidadRuteo(mapaSolucion) * 50
-        );
-
-        if (tasaATiempo < 0.8) {
-            peso = (int)(peso * 0.5);
-        }
-
-        if (tasaATiempo >= 0.95 && totalPaquetes > 10) {
-            peso = (int)(peso * 1.1);
-        }
-
-        if (totalPaquetes > 1000) {
-            peso = (int)(peso * 1.15);
-        }
-
-        return peso;
-    }
-
-    private double calcularEficienciaContinental(HashMap<Pedido, ArrayList<Vuelo>> mapaSolucion) {
-        if (mapaSolucion.isEmpty()) return 0.0;
-
-        int sameDirect = 0, sameOneStop = 0, diffDirect = 0, diffOneStop = 0, inefficient = 0;
-
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> e : mapaSolucion.entrySet()) {
-            Pedido p = e.getKey();
-            ArrayList<Vuelo> ruta = e.getValue();
-            boolean mismo = obtenerAeropuerto(p.getAeropuertoOrigenCodigo()).getCiudad().getContinente() ==
-                    obtenerAeropuerto(p.getAeropuertoDestinoCodigo()).getCiudad().getContinente();
-            if (ruta.isEmpty()) continue;
-            if (mismo) {
-                if (ruta.size() == 1) sameDirect++;
-                else if (ruta.size() == 2) sameOneStop++;
-                else inefficient++;
-            } else {
-                if (ruta.size() == 1) diffDirect++;
-                else if (ruta.size() <= 2) diffOneStop++;
-                else inefficient++;
-            }
-        }
-
-        double ef = sameDirect * 1.0 + sameOneStop * 0.8 + diffDirect * 1.2 + diffOneStop * 1.0 + inefficient * (-0.5);
-        return ef;
-    }
-
-    private double calcularUtilizacionAlmacenes() {
-        double total = 0.0;
-        for(Aeropuerto aeropuerto : aeropuertos) {
-            total += (double) aeropuerto.getCapacidadActual() / aeropuerto.getCapacidadMaxima();
-        }
-        return total;
-    }
-
-    private double calcularComplejidadRuteo(HashMap<Pedido, ArrayList<Vuelo>> mapaSolucion) {
-        if (mapaSolucion.isEmpty()) return 0.0;
-        double total = 0.0;
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> e : mapaSolucion.entrySet()) {
-            Pedido p = e.getKey();
-            ArrayList<Vuelo> ruta = e.getValue();
-            if (ruta.isEmpty()) continue;
-            boolean mismo = obtenerAeropuerto(p.getAeropuertoOrigenCodigo()).getCiudad().getContinente() == obtenerAeropuerto(p.getAeropuertoDestinoCodigo()).getCiudad().getContinente();
-            int esperado = mismo ? 1 : 2;
-            if (ruta.size() > esperado) total += (ruta.size() - esperado) * 2.0;
-            if (ruta.size() > 1) {
-                for (Vuelo f : ruta) {
-                    double util = (double) f.getCapacidadUsada() / f.getCapacidadMaxima();
-                    if (util < 0.3) total += 1.0;
-                }
-            }
-        }
-        return total;
-    }
-
     public boolean esSolucionValida() {
         if (solucion.isEmpty()) return false;
         HashMap<Pedido, ArrayList<Vuelo>> solucionActual = solucion.keySet().iterator().next();
@@ -2148,15 +2076,28 @@ public class ALNSSolver {
     public boolean esSolucionCapacidadValida() {
         if (solucion.isEmpty()) return false;
         HashMap<Pedido, ArrayList<Vuelo>> solucionActual = solucion.keySet().iterator().next();
-        Map<Vuelo, Integer> uso = new HashMap<>();
+        // Carga por ocurrencia (vuelo, día) en un registro aparte, sin tocar el de la ejecución,
+        // con los días en que el solver reservó cada pedido
+        RegistroCapacidades uso = new RegistroCapacidades(instancia, null, calendarioVuelos);
+        HashMap<Pedido, int[]> diasPorPedido = new HashMap<>();
         for (Map.Entry<Pedido, ArrayList<Vuelo>> e : solucionActual.entrySet()) {
             Pedido p = e.getKey();
             ArrayList<Vuelo> ruta = e.getValue();
-            int productos = p.getProductos() != null && !p.getProductos().isEmpty() ? p.getProductos().size() : 1;
-            for (Vuelo f : ruta) uso.merge(f, productos, Integer::sum);
+            int[] dias = registroCapacidades.dias(p, ruta);
+            if (dias == null) return false;
+            diasPorPedido.put(p, dias);
+            int productos = RegistroCapacidades.cantidadProductos(p);
+            for (int t = 0; t < ruta.size(); t++) {
+                uso.ajustarVuelo(ruta.get(t), dias[t], productos);
+            }
         }
-        for (Map.Entry<Vuelo, Integer> e : uso.entrySet()) {
-            if (e.getValue() > e.getKey().getCapacidadMaxima()) return false;
+        for (Map.Entry<Pedido, ArrayList<Vuelo>> e : solucionActual.entrySet()) {
+            int[] dias = diasPorPedido.get(e.getKey());
+            ArrayList<Vuelo> ruta = e.getValue();
+            for (int t = 0; t < ruta.size(); t++) {
+                Vuelo vuelo = ruta.get(t);
+                if (uso.capacidadUsada(vuelo, dias[t]) > vuelo.getCapacidadMaxima()) return false;
+            }
         }
         return true;
     }
@@ -2173,7 +2114,7 @@ public class ALNSSolver {
         int totalProductosAsignados = 0;
         int totalProductosEnSistema = 0;
         for (Pedido pedido : this.pedidos) {
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+            int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
             totalProductosEnSistema += conteoProductos;
             if (solucionActual.containsKey(pedido)) totalProductosAsignados += conteoProductos;
         }
@@ -2211,18 +2152,19 @@ public class ALNSSolver {
         }
 
         System.out.println("\n----- Ocupación de Almacenes -----");
-        reconstruirCapacidadesDesdeSolucion(solucionActual);
-        reconstruirAlmacenesDesdeSolucion(solucionActual);
+        SolucionCompacta solucionCompacta = tablaRutas.desdeMapa(solucionActual);
+        reconstruirCapacidadesDesdeSolucion(solucionCompacta);
+        reconstruirAlmacenesDesdeSolucion(solucionCompacta);
         int totalCapacidad = 0, totalOcupacion = 0, almacenesAlMax = 0;
         for(Aeropuerto aeropuerto : aeropuertos) {
             int max = aeropuerto.getCapacidadMaxima();
             totalCapacidad += max;
-            totalOcupacion += aeropuerto.getCapacidadActual();
-            if (aeropuerto.getCapacidadActual() >= max) almacenesAlMax++;
-            double porcentaje = (aeropuerto.getCapacidadActual() * 100.0) / max;
+            totalOcupacion += registroCapacidades.ocupacion(aeropuerto);
+            if (registroCapacidades.ocupacion(aeropuerto) >= max) almacenesAlMax++;
+            double porcentaje = (registroCapacidades.ocupacion(aeropuerto) * 100.0) / max;
             //if (porcentaje > 80.0) {
                 System.out.println("  " + aeropuerto.getCiudad().getNombre() + " - " + aeropuerto.getCodigoIATA()
-                        + " : " + aeropuerto.getCapacidadActual()
+                        + " : " + registroCapacidades.ocupacion(aeropuerto)
                         + "/" + max + " (" + String.format("%.1f", porcentaje) + "%)");
             //}
         }
@@ -2231,13 +2173,12 @@ public class ALNSSolver {
         System.out.println("Ocupación promedio de aeropuertos: " + String.format("%.1f", avgPorcentaje) + "%");
         System.out.println("Aeropuertos llenos: " + almacenesAlMax + "/" + aeropuertos.size());
 
-        if (ocupacionTemporalAlmacenes != null && !ocupacionTemporalAlmacenes.isEmpty()) {
+        if (ocupacionTemporalAlmacenes != null) {
             System.out.println("\n----- Picos de Ocupación Temporal -----");
             for (Aeropuerto aeropuerto : aeropuertos) {
                 if (aeropuerto.getCapacidadMaxima() > 0) {
-                    int[] pico = findPeakOccupancy(aeropuerto);
-                    int minutoPico = pico[0];
-                    int maxOcc = pico[1];
+                    int minutoPico = ocupacionTemporalAlmacenes.minutoPico(aeropuerto);
+                    int maxOcc = ocupacionTemporalAlmacenes.maximo(aeropuerto);
                     if (maxOcc > 0) {
                         int hora = minutoPico / 60;
                         int min = minutoPico % 60;
@@ -2285,14 +2226,15 @@ public class ALNSSolver {
 
             System.out.println("  Ruta (" + ruta.size() + " vuelos):");
             double tiempoTotal = 0;
-            for (int j = 0; j < ruta.size(); j++) {
+            int[] dias = registroCapacidades.dias(p, ruta);
+            for (int j = 0; dias != null && j < ruta.size(); j++) {
                 Vuelo v = ruta.get(j);
                 tiempoTotal += v.getTiempoTransporte();
                 System.out.println("    " + (j+1) + ". " +
                                   v.getAeropuertoOrigen().getCiudad().getNombre() + " → " +
                                   v.getAeropuertoDestino().getCiudad().getNombre() +
-                                  " (" + String.format("%.1f", v.getTiempoTransporte()) + "h, " +
-                                  v.getCapacidadUsada() + "/" + v.getCapacidadMaxima() + " pedidos)");
+                                  " (día " + dias[j] + ", " + String.format("%.1f", v.getTiempoTransporte()) + "h, " +
+                                  registroCapacidades.capacidadUsada(v, dias[j]) + "/" + v.getCapacidadMaxima() + " pedidos)");
             }
 
             if (ruta.size() > 1) tiempoTotal += (ruta.size() - 1) * 2.0;
@@ -2316,97 +2258,37 @@ public class ALNSSolver {
     }
 
     private void inicializarCapacidadAeropuertos() {
-        for (Aeropuerto a : aeropuertos) {
-            a.setCapacidadActual(0);
-        }
-
-    }
-
-    private void inicializarOcupacionTemporalAlmacenes() {
-        final int TOTAL_MINUTOS = HORIZON_DAYS * 24 * 60;
-        for (Aeropuerto aeropuerto : aeropuertos) {
-            ocupacionTemporalAlmacenes.put(aeropuerto, new int[TOTAL_MINUTOS]);
-        }
+        registroCapacidades.reiniciarAeropuertos();
     }
 
+    /**
+     * Simula el flujo de todos los pedidos por los almacenes sobre el horizonte y verifica que
+     * ningún almacén exceda su capacidad en ningún minuto. Deja la ocupación temporal cargada con
+     * el flujo simulado.
+     */
     public boolean esSolucionTemporalValida(HashMap<Pedido, ArrayList<Vuelo>> mapaSolucion) {
-        inicializarOcupacionTemporalAlmacenes();
-        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : mapaSolucion.entrySet()) {
-            Pedido pedido = entrada.getKey();
-            ArrayList<Vuelo> ruta = entrada.getValue();
-            if (!simularFlujoPaquete(pedido, ruta)) {
-                return false;
+        ocupacionTemporalAlmacenes.reiniciar();
+        try {
+            for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : mapaSolucion.entrySet()) {
+                if (!simularFlujoPaquete(entrada.getKey(), entrada.getValue())) {
+                    return false;
+                }
             }
+            return true;
+        } finally {
+            ocupacionTemporalAlmacenes.confirmar();
         }
-        return true;
     }
 
     private boolean simularFlujoPaquete(Pedido pedido, ArrayList<Vuelo> ruta) {
-        if (ruta == null || ruta.isEmpty()) {
-            Aeropuerto destino = obtenerAeropuerto(pedido.getAeropuertoDestinoCodigo());
-            int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-            int inicio = obtenerTiempoInicioPaquete(pedido);
-            return agregarOcupacionTemporal(destino, inicio, Constantes.HORAS_MAX_RECOGIDA_CLIENTE * 60, conteoProductos);
-        }
-
-        int minutoActual = obtenerTiempoInicioPaquete(pedido);
-        int conteoProductos = pedido.getProductos() != null ? pedido.getProductos().size() : 1;
-
-        for (int i = 0; i < ruta.size(); i++) {
-            Vuelo vuelo = ruta.get(i);
-            Aeropuerto salida = vuelo.getAeropuertoOrigen();
-            Aeropuerto llegada = vuelo.getAeropuertoDestino();
-
-            int tiempoEspera = 120;
-            if (!agregarOcupacionTemporal(salida, minutoActual, tiempoEspera, conteoProductos)) {
-                System.out.println("Violación de capacidad en " + salida.getCiudad().getNombre() +
-                                  " en minuto " + minutoActual + " (fase de espera) para pedido " + pedido.getId());
-                return false;
-            }
-
-            int inicioVuelo = minutoActual + tiempoEspera;
-            int duracionVuelo = (int)(vuelo.getTiempoTransporte() * 60);
-            int minutoLlegada = inicioVuelo + duracionVuelo;
-
-            int duracionEstancia;
-            if (i < ruta.size() - 1) duracionEstancia = 120;
-            else duracionEstancia = Constantes.HORAS_MAX_RECOGIDA_CLIENTE * 60;
+        int conteoProductos = RegistroCapacidades.cantidadProductos(pedido);
+        int[] violacion = ocupacionTemporalAlmacenes.ocuparFlujoVerificando(pedido, ruta, conteoProductos);
+        if (violacion == null) return true;
 
-            if (duracionEstancia > 0 && !agregarOcupacionTemporal(llegada, minutoLlegada, duracionEstancia, conteoProductos)) {
-                System.out.println("Violación de capacidad en " + llegada.getCiudad().getNombre() +
-                                  " en minuto " + minutoLlegada + " (fase de llegada) para pedido " + pedido.getId());
-                return false;
-            }
-
-            minutoActual = minutoLlegada;
-            if (i < ruta.size() - 1) minutoActual += 120;
-        }
-
-        return true;
-    }
-
-    private boolean agregarOcupacionTemporal(Aeropuerto aeropuerto, int minutoInicio, int duracionMinutos, int conteoProductos) {
-        if (aeropuerto == null) return false;
-        int[] array = ocupacionTemporalAlmacenes.get(aeropuerto);
-        int capacidadMaxima = aeropuerto.getCapacidadMaxima();
-        final int TOTAL_MINUTOS = HORIZON_DAYS * 24 * 60;
-        int inicioClamp = Math.max(0, Math.min(minutoInicio, TOTAL_MINUTOS - 1));
-        int finClamp = Math.max(0, Math.min(minutoInicio + duracionMinutos, TOTAL_MINUTOS));
-        for (int m = inicioClamp; m < finClamp; m++) {
-            array[m] += conteoProductos;
-            if (array[m] > capacidadMaxima) return false;
-        }
-        return true;
-    }
-
-    private int[] findPeakOccupancy(Aeropuerto aeropuerto) {
-        int[] array = ocupacionTemporalAlmacenes.get(aeropuerto);
-        int max = 0; int minuto = 0;
-        final int TOTAL_MINUTOS = HORIZON_DAYS * 24 * 60;
-        for (int m = 0; m < TOTAL_MINUTOS; m++) {
-            if (array[m] > max) { max = array[m]; minuto = m; }
-        }
-        return new int[]{minuto, max};
+        Aeropuerto aeropuerto = instancia.getAeropuertos().get(violacion[0]);
+        System.out.println("Violación de capacidad en " + aeropuerto.getCiudad().getNombre() +
+                          " en minuto " + violacion[1] + " para pedido " + pedido.getId());
+        return false;
     }
 
     private Aeropuerto obtenerAeropuerto(String codigoIATA) {
@@ -2415,12 +2297,9 @@ public class ALNSSolver {
             return null;
         }
 
-        for (Aeropuerto aeropuerto : this.aeropuertos) {
-            if (aeropuerto != null &&
-                    aeropuerto.getCodigoIATA() != null &&
-                    aeropuerto.getCodigoIATA().equalsIgnoreCase(codigoIATA.trim())) {
-                return aeropuerto;
-            }
+        Aeropuerto aeropuerto = instancia.aeropuerto(codigoIATA);
+        if (aeropuerto != null) {
+            return aeropuerto;
         }
 
         // Log para debugging
@@ -2441,12 +2320,11 @@ public class ALNSSolver {
      * @return HashMap con la solución: Pedido -> Lista de Vuelos asignados
      */
     public HashMap<Pedido, ArrayList<Vuelo>> getMejorSolucion() {
-        if (mejorSolucion == null || mejorSolucion.isEmpty()) {
+        if (mejorSolucion == null) {
             return new HashMap<>();
         }
-        // La estructura es HashMap<HashMap<Pedido, ArrayList<Vuelo>>, Integer>
-        // donde Integer es el peso. Retornamos solo el HashMap interno
-        return mejorSolucion.keySet().iterator().next();
+        // Internamente la solución es compacta (índices); aquí se convierte a entidades
+        return tablaRutas.aMapa(mejorSolucion);
     }
 
     /**
@@ -2454,10 +2332,14 @@ public class ALNSSolver {
      * @return Peso de la solución (mayor es mejor)
      */
     public Integer getPesoMejorSolucion() {
-        if (mejorSolucion == null || mejorSolucion.isEmpty()) {
+        if (mejorSolucion == null) {
             return 0;
         }
-        return mejorSolucion.values().iterator().next();
+        return pesoMejorSolucion;
+    }
+
+    public InstanciaProblema getInstancia() {
+        return instancia;
     }
 
     /**
@@ -2468,6 +2350,14 @@ public class ALNSSolver {
         return this.T0;
     }
 
+    /**
+     * Registro con las reservas de la mejor solución: día de la ocurrencia de cada tramo de una
+     * ruta ({@link RegistroCapacidades#dias}) sobre su calendario
+     */
+    public RegistroCapacidades getRegistroCapacidades() {
+        return this.registroCapacidades;
+    }
+
     /**
      * Obtiene la lista de pedidos originales
      * @return Lista de pedidos
@@ -2489,38 +2379,54 @@ public class ALNSSolver {
      * @return Lista de pedidos no asignados
      */
     public ArrayList<Pedido> getPedidosNoAsignados() {
-        HashMap<Pedido, ArrayList<Vuelo>> solucion = getMejorSolucion();
         ArrayList<Pedido> noAsignados = new ArrayList<>();
         
-        for (Pedido pedido : this.pedidos) {
-            if (!solucion.containsKey(pedido)) {
-                noAsignados.add(pedido);
+        for (int i = 0; i < tablaRutas.getNumPedidos(); i++) {
+            if (mejorSolucion == null || !mejorSolucion.estaAsignado(i)) {
+                noAsignados.add(tablaRutas.pedido(i));
             }
         }
         
         return noAsignados;
     }
-    //METODO PARA AGREGAR AEROPUERTOS ORIGEN
-    private void asignarAeropuertosOrigen(){
-        for(Pedido pedido : pedidosOriginales){
-            pedido.setAeropuertoOrigenCodigo(colocarAeropuertoPrincipalAleatorio(pedido.getAeropuertoDestinoCodigo()));
+
+    /** Movimiento de una iteración: par de operadores y solución reparada. */
+    private static final class Movimiento {
+        final int operadorDestruccion;
+        final int operadorReparacion;
+        final SolucionCompacta solucion;
+
+        Movimiento(int operadorDestruccion, int operadorReparacion, SolucionCompacta solucion) {
+            this.operadorDestruccion = operadorDestruccion;
+            this.operadorReparacion = operadorReparacion;
+            this.solucion = solucion;
+        }
+    }
+
+    /** Vecino generado en una rama y su peso según el acumulador de la rama. */
+    private static final class Vecino {
+        final Movimiento movimiento;
+        final int peso;
+
+        Vecino(Movimiento movimiento, int peso) {
+            this.movimiento = movimiento;
+            this.peso = peso;
         }
     }
-    // Método auxiliar para encontrar aeropuerto por defecto
-    private String colocarAeropuertoPrincipalAleatorio(String codigoDestino) {
-        // Lista de códigos IATA de los aeropuertos principales de MoraPack
-        String[] aeropuertosPrincipales = {"SPIM", "UBBB", "EBCI"};
-        ArrayList<String> aeropuertos = new ArrayList<>();
 
-        Random random = new Random();
-        for (int i = 0; i < 3; i++) {
-            if(Objects.equals(codigoDestino, aeropuertosPrincipales[i]))
-                continue;
-            aeropuertos.add(aeropuertosPrincipales[i]);
+    /** Operadores de una rama del muestreo de vecindarios, sobre su registro y su acumulador. */
+    private static final class OperadoresRama {
+        final RegistroCapacidades registro;
+        final ALNSDestruction destruccion;
+        final ALNSRepair reparacion;
+        final AcumuladorObjetivo acumulador;
+
+        OperadoresRama(RegistroCapacidades registro, ALNSDestruction destruccion, ALNSRepair reparacion,
+                       AcumuladorObjetivo acumulador) {
+            this.registro = registro;
+            this.destruccion = destruccion;
+            this.reparacion = reparacion;
+            this.acumulador = acumulador;
         }
-        int indiceAleatorio = random.nextInt(aeropuertos.size());
-        String codigoIATAOrigen = aeropuertos.get(indiceAleatorio);
-        //System.out.println("🔀 Usando aeropuerto por defecto: " + codigoIATAOrigen);
-        return codigoIATAOrigen;
     }
 }
@@ -0,0 +1,396 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Ciudad;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acumulador incremental de la función objetivo del ALNS.
+ *
+ * Mantiene las sumas parciales que usa {@link FuncionObjetivo} (paquetes, productos,
+ * entregas a tiempo, márgenes, eficiencia continental, utilización de vuelos y almacenes,
+ * complejidad de ruteo) y las actualiza en O(vuelos de la ruta) cada vez que un pedido
+ * entra o sale de la solución.
+ *
+ * Los términos que dependen de la carga de un vuelo (utilización promedio y vuelos
+ * con baja ocupación en rutas con escalas) se guardan por ocurrencia, con las mismas celdas
+ * vuelo × día del {@link RegistroCapacidades}: cada pedido aporta a las ocurrencias en que
+ * el registro reservó sus tramos, y al cambiar la carga de una sólo se recalcula su aporte.
+ *
+ * Igual que {@link RegistroCapacidades}, lleva un journal de operaciones para
+ * deshacer el movimiento si la iteración se rechaza.
+ */
+public class AcumuladorObjetivo {
+
+    /** Datos estáticos del pedido que la función objetivo consulta en cada evaluación. */
+    private static class DatosPedido {
+        int productos;
+        boolean mismoContinente;
+        boolean continenteConocido;
+        long horasHastaDeadline;
+        double capacidadAlmacenDestino;
+    }
+
+    private final RegistroCapacidades registro;
+    private final InstanciaProblema instancia;
+    private final int dias;
+    private final Map<Pedido, DatosPedido> datosPedidos = new HashMap<>();
+    // Por celda vuelo × día del registro ([indiceVuelo * dias + dia - 1])
+    private final int[] cargaOcurrencias;
+    private final int[] usosOcurrencias;            // apariciones de la ocurrencia en rutas de la solución
+    private final int[] usosMultiescalaOcurrencias; // apariciones en rutas con más de un vuelo
+    // Días de cada tramo con los que entró cada pedido (null si la ruta cae fuera del horizonte)
+    private final Map<Pedido, int[]> diasPedidos = new HashMap<>();
+
+    // Sumas por pedido
+    private int totalPaquetes;
+    private int totalProductos;
+    private double tiempoTotalEntrega;
+    private int entregasATiempo;
+    private long margenEntregaTotal;
+    private int mismoDirecto, mismoUnaEscala, distintoDirecto, distintoUnaEscala, ineficientes;
+    private long complejidadEstructural;
+    private double utilizacionAlmacenes;
+
+    // Sumas por vuelo
+    private double utilizacionVuelos;
+    private long usosVuelos;
+    private long vuelosBajaOcupacion;
+
+    // Journal: pedido, ruta, días y signo (+1 agregado, -1 quitado) de cada operación
+    private final ArrayList<Pedido> journalPedidos = new ArrayList<>();
+    private final ArrayList<List<Vuelo>> journalRutas = new ArrayList<>();
+    private final ArrayList<int[]> journalDias = new ArrayList<>();
+    private final ArrayList<Integer> journalSignos = new ArrayList<>();
+
+    /**
+     * @param registro registro de capacidades de la solución que refleja: de él salen los
+     *                 aeropuertos y las celdas vuelo × día, y los días al reiniciar
+     */
+    public AcumuladorObjetivo(RegistroCapacidades registro) {
+        this.registro = registro;
+        this.instancia = registro.getInstancia();
+        this.dias = registro.getCalendario().getDias();
+        int celdas = instancia.getNumVuelos() * dias;
+        this.cargaOcurrencias = new int[celdas];
+        this.usosOcurrencias = new int[celdas];
+        this.usosMultiescalaOcurrencias = new int[celdas];
+    }
+
+    /**
+     * Descarta todo el estado y lo recalcula a partir de una solución completa, que tiene que
+     * estar ocupada en el registro (los días de cada tramo son los de su reserva).
+     */
+    public void reiniciar(Map<Pedido, ? extends List<Vuelo>> solucion) {
+        totalPaquetes = 0;
+        totalProductos = 0;
+        tiempoTotalEntrega = 0;
+        entregasATiempo = 0;
+        margenEntregaTotal = 0;
+        mismoDirecto = mismoUnaEscala = distintoDirecto = distintoUnaEscala = ineficientes = 0;
+        complejidadEstructural = 0;
+        utilizacionAlmacenes = 0;
+        utilizacionVuelos = 0;
+        usosVuelos = 0;
+        vuelosBajaOcupacion = 0;
+        Arrays.fill(cargaOcurrencias, 0);
+        Arrays.fill(usosOcurrencias, 0);
+        Arrays.fill(usosMultiescalaOcurrencias, 0);
+        diasPedidos.clear();
+        confirmar();
+
+        for (Map.Entry<Pedido, ? extends List<Vuelo>> entrada : solucion.entrySet()) {
+            aplicar(entrada.getKey(), entrada.getValue(),
+                    registro.dias(entrada.getKey(), entrada.getValue()), 1);
+        }
+    }
+
+    /**
+     * Igual que {@link #reiniciar(Map)} pero a partir de la forma compacta de la solución.
+     */
+    public void reiniciar(SolucionCompacta solucion) {
+        reiniciar(Map.of());
+        TablaRutas tabla = solucion.getTabla();
+        for (int i = 0; i < tabla.getNumPedidos(); i++) {
+            if (solucion.estaAsignado(i)) {
+                Pedido pedido = tabla.pedido(i);
+                List<Vuelo> ruta = tabla.ruta(solucion.rutaId(i));
+                aplicar(pedido, ruta, registro.dias(pedido, ruta), 1);
+            }
+        }
+    }
+
+    /**
+     * Registra que el pedido entra a la solución con la ruta dada, ocupada en los días
+     * {@code diasRuta} ({@link RegistroCapacidades#dias} del registro que la ocupó).
+     */
+    public void agregar(Pedido pedido, List<Vuelo> ruta, int[] diasRuta) {
+        aplicar(pedido, ruta, diasRuta, 1);
+        anotar(pedido, ruta, diasRuta, 1);
+    }
+
+    /**
+     * Registra que el pedido sale de la solución (ruta = la que tenía asignada). Libera las
+     * ocurrencias con las que entró, aunque el registro ya haya liberado su reserva.
+     */
+    public void quitar(Pedido pedido, List<Vuelo> ruta) {
+        int[] diasRuta = diasPedidos.get(pedido);
+        aplicar(pedido, ruta, diasRuta, -1);
+        anotar(pedido, ruta, diasRuta, -1);
+    }
+
+    /** Acepta las operaciones pendientes y vacía el journal. */
+    public void confirmar() {
+        journalPedidos.clear();
+        journalRutas.clear();
+        journalDias.clear();
+        journalSignos.clear();
+    }
+
+    /** Revierte, en orden inverso, las operaciones desde la última confirmación. */
+    public void deshacer() {
+        deshacerHasta(0);
+    }
+
+    /** Posición actual del journal, para deshacer sólo una parte del movimiento. */
+    public int marca() {
+        return journalPedidos.size();
+    }
+
+    /** Revierte, en orden inverso, las operaciones anotadas después de {@code marca}. */
+    public void deshacerHasta(int marca) {
+        for (int i = journalPedidos.size() - 1; i >= Math.max(0, marca); i--) {
+            aplicar(journalPedidos.get(i), journalRutas.get(i), journalDias.get(i), -journalSignos.get(i));
+            journalPedidos.remove(i);
+            journalRutas.remove(i);
+            journalDias.remove(i);
+            journalSignos.remove(i);
+        }
+    }
+
+    /** Acumulador vacío sobre el registro de una rama paralela del solver. */
+    public AcumuladorObjetivo crearRama(RegistroCapacidades registroRama) {
+        return new AcumuladorObjetivo(registroRama);
+    }
+
+    /**
+     * Copia las sumas de {@code otro} (la solución que refleja) y vacía el journal. Los datos
+     * estáticos de los pedidos no se copian: cada acumulador los calcula al usarlos.
+     */
+    public void copiarEstadoDe(AcumuladorObjetivo otro) {
+        totalPaquetes = otro.totalPaquetes;
+        totalProductos = otro.totalProductos;
+        tiempoTotalEntrega = otro.tiempoTotalEntrega;
+        entregasATiempo = otro.entregasATiempo;
+        margenEntregaTotal = otro.margenEntregaTotal;
+        mismoDirecto = otro.mismoDirecto;
+        mismoUnaEscala = otro.mismoUnaEscala;
+        distintoDirecto = otro.distintoDirecto;
+        distintoUnaEscala = otro.distintoUnaEscala;
+        ineficientes = otro.ineficientes;
+        complejidadEstructural = otro.complejidadEstructural;
+        utilizacionAlmacenes = otro.utilizacionAlmacenes;
+        utilizacionVuelos = otro.utilizacionVuelos;
+        usosVuelos = otro.usosVuelos;
+        vuelosBajaOcupacion = otro.vuelosBajaOcupacion;
+        System.arraycopy(otro.cargaOcurrencias, 0, cargaOcurrencias, 0, cargaOcurrencias.length);
+        System.arraycopy(otro.usosOcurrencias, 0, usosOcurrencias, 0, usosOcurrencias.length);
+        System.arraycopy(otro.usosMultiescalaOcurrencias, 0, usosMultiescalaOcurrencias, 0,
+                usosMultiescalaOcurrencias.length);
+        // Los días de un pedido no se modifican, así que se comparten
+        diasPedidos.clear();
+        diasPedidos.putAll(otro.diasPedidos);
+        confirmar();
+    }
+
+    /**
+     * Aplica en {@code destino}, anotándolas en su journal, las operaciones de este acumulador
+     * entre las marcas {@code desde} y {@code hasta}.
+     */
+    public void reproducirEn(AcumuladorObjetivo destino, int desde, int hasta) {
+        for (int i = Math.max(0, desde); i < Math.min(hasta, journalPedidos.size()); i++) {
+            Pedido pedido = journalPedidos.get(i);
+            List<Vuelo> ruta = journalRutas.get(i);
+            int[] diasRuta = journalDias.get(i);
+            int signo = journalSignos.get(i);
+            destino.aplicar(pedido, ruta, diasRuta, signo);
+            destino.anotar(pedido, ruta, diasRuta, signo);
+        }
+    }
+
+    /**
+     * Peso de la solución con la misma fórmula que {@link FuncionObjetivo#calcularPeso}.
+     */
+    public int calcularPeso() {
+        double tiempoPromedioEntrega = totalPaquetes > 0 ? tiempoTotalEntrega / totalPaquetes : 0;
+        double utilizacionCapacidadPromedio = usosVuelos > 0 ? utilizacionVuelos / usosVuelos : 0;
+        double tasaATiempo = totalPaquetes > 0 ? (double) entregasATiempo / totalPaquetes : 0;
+        double margenPromedioEntrega = entregasATiempo > 0 ? (double) margenEntregaTotal / entregasATiempo : 0;
+
+        double eficienciaContinental = totalPaquetes == 0 ? 0.0 :
+                mismoDirecto * 1.0 + mismoUnaEscala * 0.8 + distintoDirecto * 1.2 +
+                distintoUnaEscala * 1.0 + ineficientes * (-0.5);
+        double complejidadRuteo = totalPaquetes == 0 ? 0.0 :
+                complejidadEstructural * 2.0 + vuelosBajaOcupacion;
+
+        int peso = (int) (
+            totalPaquetes * 100000 +
+            totalProductos * 10000 +
+            tasaATiempo * 5000 +
+            Math.min(margenPromedioEntrega * 50, 1000) +
+            eficienciaContinental * 500 +
+            utilizacionCapacidadPromedio * 200 +
+            utilizacionAlmacenes * 100 -
+            tiempoPromedioEntrega * 20 -
+            complejidadRuteo * 50
+        );
+
+        if (tasaATiempo < 0.8) {
+            peso = (int)(peso * 0.5);
+        }
+
+        if (tasaATiempo >= 0.95 && totalPaquetes > 10) {
+            peso = (int)(peso * 1.1);
+        }
+
+        if (totalPaquetes > 1000) {
+            peso = (int)(peso * 1.15);
+        }
+
+        return peso;
+    }
+
+    public int getTotalPaquetes() {
+        return totalPaquetes;
+    }
+
+    public int getEntregasATiempo() {
+        return entregasATiempo;
+    }
+
+    /**
+     * Entrega a tiempo sin margen de seguridad aleatorio: promesa MoraPack (48h mismo
+     * continente, 72h distinto) y deadline del cliente.
+     */
+    public boolean cumpleDeadline(Pedido pedido, List<Vuelo> ruta) {
+        if (ruta == null || ruta.isEmpty()) return false;
+        DatosPedido datos = datos(pedido);
+        if (!datos.continenteConocido) return false;
+        double tiempo = horasRuta(ruta);
+        long horasPromesa = datos.mismoContinente ? 48 : 72;
+        return tiempo <= horasPromesa && tiempo <= datos.horasHastaDeadline;
+    }
+
+    private void aplicar(Pedido pedido, List<Vuelo> ruta, int[] diasRuta, int signo) {
+        DatosPedido datos = datos(pedido);
+        int tamanoRuta = ruta == null ? 0 : ruta.size();
+        double tiempoRuta = horasRuta(ruta);
+
+        totalPaquetes += signo;
+        totalProductos += signo * datos.productos;
+        tiempoTotalEntrega += signo * tiempoRuta;
+        utilizacionAlmacenes += signo * (datos.productos / datos.capacidadAlmacenDestino);
+
+        if (cumpleDeadline(pedido, ruta)) {
+            entregasATiempo += signo;
+            LocalDateTime entregaEstimada = pedido.getFechaPedido().plusHours((long) tiempoRuta);
+            margenEntregaTotal += signo * ChronoUnit.HOURS.between(entregaEstimada, pedido.getFechaLimiteEntrega());
+        }
+
+        if (tamanoRuta > 0) {
+            if (datos.mismoContinente) {
+                if (tamanoRuta == 1) mismoDirecto += signo;
+                else if (tamanoRuta == 2) mismoUnaEscala += signo;
+                else ineficientes += signo;
+            } else {
+                if (tamanoRuta == 1) distintoDirecto += signo;
+                else if (tamanoRuta == 2) distintoUnaEscala += signo;
+                else ineficientes += signo;
+            }
+            int esperado = datos.mismoContinente ? 1 : 2;
+            if (tamanoRuta > esperado) complejidadEstructural += (long) signo * (tamanoRuta - esperado);
+
+            for (int t = 0; t < tamanoRuta; t++) {
+                usosVuelos += signo;
+                // Fuera del horizonte el tramo cuenta como uso pero no tiene ocurrencia
+                if (diasRuta == null) continue;
+                Vuelo vuelo = ruta.get(t);
+                int indice = instancia.indiceVuelo(vuelo);
+                if (indice < 0) {
+                    // El registro no lleva carga de vuelos ajenos a la instancia: utilización 0
+                    if (tamanoRuta > 1) vuelosBajaOcupacion += signo;
+                    continue;
+                }
+                int celda = indice * dias + diasRuta[t] - 1;
+                utilizacionVuelos -= utilizacion(celda, vuelo);
+                vuelosBajaOcupacion -= bajaOcupacion(celda, vuelo);
+
+                cargaOcurrencias[celda] += signo * datos.productos;
+                usosOcurrencias[celda] += signo;
+                if (tamanoRuta > 1) usosMultiescalaOcurrencias[celda] += signo;
+
+                utilizacionVuelos += utilizacion(celda, vuelo);
+                vuelosBajaOcupacion += bajaOcupacion(celda, vuelo);
+            }
+        }
+
+        if (signo > 0) diasPedidos.put(pedido, diasRuta);
+        else diasPedidos.remove(pedido);
+    }
+
+    /** Aporte de la ocurrencia a la utilización: usos * carga / capacidadMaxima. */
+    private double utilizacion(int celda, Vuelo vuelo) {
+        return usosOcurrencias[celda] * ((double) cargaOcurrencias[celda] / vuelo.getCapacidadMaxima());
+    }
+
+    /** Vuelos con baja ocupación que aporta la ocurrencia: sus usos en rutas con escalas si está a < 30%. */
+    private int bajaOcupacion(int celda, Vuelo vuelo) {
+        double util = (double) cargaOcurrencias[celda] / vuelo.getCapacidadMaxima();
+        return util < 0.3 ? usosMultiescalaOcurrencias[celda] : 0;
+    }
+
+    private void anotar(Pedido pedido, List<Vuelo> ruta, int[] diasRuta, int signo) {
+        journalPedidos.add(pedido);
+        journalRutas.add(ruta);
+        journalDias.add(diasRuta);
+        journalSignos.add(signo);
+    }
+
+    private DatosPedido datos(Pedido pedido) {
+        DatosPedido datos = datosPedidos.get(pedido);
+        if (datos != null) return datos;
+
+        datos = new DatosPedido();
+        datos.productos = RegistroCapacidades.cantidadProductos(pedido);
+        datos.horasHastaDeadline = ChronoUnit.HOURS.between(pedido.getFechaPedido(), pedido.getFechaLimiteEntrega());
+
+        Aeropuerto origen = instancia.aeropuerto(pedido.getAeropuertoOrigenCodigo());
+        Aeropuerto destino = instancia.aeropuerto(pedido.getAeropuertoDestinoCodigo());
+        Ciudad ciudadOrigen = origen != null ? origen.getCiudad() : null;
+        Ciudad ciudadDestino = destino != null ? destino.getCiudad() : null;
+        datos.continenteConocido = ciudadOrigen != null && ciudadDestino != null;
+        datos.mismoContinente = datos.continenteConocido &&
+                ciudadOrigen.getContinente() == ciudadDestino.getContinente();
+        datos.capacidadAlmacenDestino = destino != null ? destino.getCapacidadMaxima() : Double.POSITIVE_INFINITY;
+
+        datosPedidos.put(pedido, datos);
+        return datos;
+    }
+
+    private static double horasRuta(List<Vuelo> ruta) {
+        if (ruta == null) return 0.0;
+        double tiempo = 0;
+        for (Vuelo vuelo : ruta) tiempo += vuelo.getTiempoTransporte();
+        if (ruta.size() > 1) tiempo += (ruta.size() - 1) * 2.0;
+        return tiempo;
+    }
+}
@@ -0,0 +1,264 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.index.CacheDisponibilidad;
+import com.grupo5e.morapack.core.index.CatalogoRutas;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Búsqueda de rutas compartida por el solver y los operadores de reparación.
+ *
+ * Reúne los índices que construye el solver: la {@link RedTemporalVuelos} para los itinerarios,
+ * el {@link IndiceVuelos} para saber de antemano cuántos vuelos hacen falta como mínimo entre dos
+ * aeropuertos, y la {@link CacheDisponibilidad} para descartar sin buscar los directos que no
+ * operan (o no tienen espacio) en ningún día del plazo del pedido. La capacidad de los vuelos se
+ * lee del {@link RegistroCapacidades} de la ejecución, por ocurrencia: cada tramo se mira en el día
+ * en que la red lo programa, que es el mismo en el que el registro lo ocupa.
+ *
+ * Con un {@link CatalogoRutas} (ver {@link #usarCatalogo(CatalogoRutas)}) la enumeración de
+ * alternativas se vuelve una consulta a la tabla: sólo se programan las rutas precalculadas del
+ * par y se descartan las que no tienen capacidad, están canceladas o llegan tarde. Si ninguna
+ * sirve se cae a la búsqueda bidireccional.
+ *
+ * Todo se resuelve con los ids densos del índice (los de la red): los códigos IATA del pedido se
+ * traducen una vez por búsqueda y el filtro de capacidad lee arreglos, sin hashes por vuelo.
+ */
+public class BuscadorRutas {
+
+    private static final int INALCANZABLE = Integer.MAX_VALUE;
+
+    private final InstanciaProblema instancia;
+    private final RedTemporalVuelos redTemporal;
+    private final IndiceVuelos indiceVuelos;
+    private final CacheDisponibilidad cacheDisponibilidad;
+    private final RegistroCapacidades registroCapacidades;
+    private CatalogoRutas catalogoRutas; // null = sin catálogo
+
+    // Por id de vuelo del índice: su índice en la instancia (el del registro) y su capacidad
+    private final int[] vueloEnInstancia;
+    private final int[] capacidadVuelo;
+
+    // Mínimo número de vuelos entre cada par de aeropuertos (INALCANZABLE si no hay conexión)
+    private final int[][] vuelosMinimos;
+
+    public BuscadorRutas(InstanciaProblema instancia,
+                         RedTemporalVuelos redTemporal,
+                         CacheDisponibilidad cacheDisponibilidad,
+                         RegistroCapacidades registroCapacidades) {
+        this.instancia = instancia;
+        this.redTemporal = redTemporal;
+        this.indiceVuelos = redTemporal.getIndice();
+        this.cacheDisponibilidad = cacheDisponibilidad;
+        this.registroCapacidades = registroCapacidades;
+
+        int numVuelos = indiceVuelos.getNumVuelos();
+        this.vueloEnInstancia = new int[numVuelos];
+        this.capacidadVuelo = new int[numVuelos];
+        for (int f = 0; f < numVuelos; f++) {
+            vueloEnInstancia[f] = instancia.indiceVuelo(indiceVuelos.vuelo(f));
+            capacidadVuelo[f] = indiceVuelos.vuelo(f).getCapacidadMaxima();
+        }
+        this.vuelosMinimos = calcularVuelosMinimos(indiceVuelos);
+    }
+
+    private BuscadorRutas(BuscadorRutas base, RegistroCapacidades registroCapacidades) {
+        this.instancia = base.instancia;
+        this.redTemporal = base.redTemporal;
+        this.indiceVuelos = base.indiceVuelos;
+        this.cacheDisponibilidad = base.cacheDisponibilidad;
+        this.registroCapacidades = registroCapacidades;
+        this.catalogoRutas = base.catalogoRutas;
+        this.vueloEnInstancia = base.vueloEnInstancia;
+        this.capacidadVuelo = base.capacidadVuelo;
+        this.vuelosMinimos = base.vuelosMinimos;
+    }
+
+    /**
+     * La misma búsqueda (índices, red y catálogo compartidos, todos de sólo lectura) pero leyendo la
+     * capacidad de otro registro, p. ej. una rama de la reparación especulativa.
+     */
+    public BuscadorRutas conRegistro(RegistroCapacidades registro) {
+        return new BuscadorRutas(this, registro);
+    }
+
+    /**
+     * BFS desde cada aeropuerto sobre el CSR de vuelos salientes del índice.
+     */
+    private static int[][] calcularVuelosMinimos(IndiceVuelos indiceVuelos) {
+        int n = indiceVuelos.getNumAeropuertos();
+        int[][] distancias = new int[n][n];
+        int[] cola = new int[n];
+        for (int origen = 0; origen < n; origen++) {
+            int[] distancia = distancias[origen];
+            Arrays.fill(distancia, INALCANZABLE);
+            distancia[origen] = 0;
+            int cabeza = 0;
+            int ultimo = 0;
+            cola[ultimo++] = origen;
+            while (cabeza < ultimo) {
+                int actual = cola[cabeza++];
+                for (int i = indiceVuelos.inicioSalientes(actual); i < indiceVuelos.finSalientes(actual); i++) {
+                    int siguiente = indiceVuelos.destino(indiceVuelos.vueloSaliente(i));
+                    if (distancia[siguiente] == INALCANZABLE) {
+                        distancia[siguiente] = distancia[actual] + 1;
+                        cola[ultimo++] = siguiente;
+                    }
+                }
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Usa un catálogo de rutas precalculadas para {@link #enumerar}. El catálogo se traduce a los
+     * ids del índice de esta búsqueda; si es de otro plan de vuelos se ignora.
+     *
+     * @return true si el catálogo quedó en uso
+     */
+    public boolean usarCatalogo(CatalogoRutas catalogo) {
+        this.catalogoRutas = catalogo != null ? catalogo.paraIndice(indiceVuelos) : null;
+        return this.catalogoRutas != null;
+    }
+
+    /** Aeropuerto de la instancia por código IATA (null si no existe). */
+    public Aeropuerto aeropuerto(String codigoIATA) {
+        return instancia.aeropuerto(codigoIATA);
+    }
+
+    /** Mínimo número de vuelos para ir de origen a destino, o Integer.MAX_VALUE si no hay conexión. */
+    public int vuelosMinimos(Aeropuerto origen, Aeropuerto destino) {
+        int o = indiceVuelos.idAeropuerto(origen);
+        int d = indiceVuelos.idAeropuerto(destino);
+        return o >= 0 && d >= 0 ? vuelosMinimos[o][d] : INALCANZABLE;
+    }
+
+    /** true si la ocurrencia del vuelo del día {@code dia} tiene espacio para {@code cantidad} productos más. */
+    public boolean tieneEspacio(Vuelo vuelo, int dia, int cantidad) {
+        return registroCapacidades.capacidadUsada(vuelo, dia) + cantidad <= vuelo.getCapacidadMaxima();
+    }
+
+    /** Igual que {@link #tieneEspacio(Vuelo, int, int)} con el id de vuelo del índice. */
+    private boolean tieneEspacio(int vuelo, int dia, int cantidad) {
+        int indice = vueloEnInstancia[vuelo];
+        return indice < 0 || registroCapacidades.capacidadUsada(indice, dia) + cantidad <= capacidadVuelo[vuelo];
+    }
+
+    /**
+     * Itinerario de llegada más temprana del pedido con a lo sumo {@code maxVuelos} vuelos, sólo
+     * por vuelos con espacio para sus productos.
+     *
+     * @param retrasoMinutos minutos de espera en el origen antes de poder salir
+     * @return el itinerario, o null si no hay ninguno dentro del plazo
+     */
+    public RedTemporalVuelos.Itinerario buscar(Pedido pedido, int retrasoMinutos, int maxVuelos) {
+        int origen = indiceVuelos.idAeropuerto(pedido.getAeropuertoOrigenCodigo());
+        int destino = indiceVuelos.idAeropuerto(pedido.getAeropuertoDestinoCodigo());
+        if (origen < 0 || destino < 0) return null;
+
+        int minimos = vuelosMinimos[origen][destino];
+        if (minimos == 0 || minimos > maxVuelos) return null;
+
+        int cantidad = RegistroCapacidades.cantidadProductos(pedido);
+        if (maxVuelos == 1 && !hayDirectoDisponible(pedido, origen, destino, retrasoMinutos, cantidad)) {
+            return null;
+        }
+        return redTemporal.buscarParaPedido(pedido, origen, destino, retrasoMinutos, maxVuelos,
+                (f, dia) -> tieneEspacio(f, dia, cantidad));
+    }
+
+    /**
+     * Todos los itinerarios factibles del pedido (directo, una o dos escalas) por vuelos con espacio
+     * para sus productos: los del catálogo si hay uno y alguno sirve, si no por búsqueda
+     * bidireccional en la red temporal.
+     *
+     * @param maxResultados número máximo de itinerarios (los de llegada más temprana)
+     * @return itinerarios ordenados por llegada; vacío si no hay ninguno dentro del plazo
+     */
+    public List<RedTemporalVuelos.Itinerario> enumerar(Pedido pedido, int retrasoMinutos, int maxResultados) {
+        int origen = indiceVuelos.idAeropuerto(pedido.getAeropuertoOrigenCodigo());
+        int destino = indiceVuelos.idAeropuerto(pedido.getAeropuertoDestinoCodigo());
+        if (origen < 0 || destino < 0) return List.of();
+
+        int minimos = vuelosMinimos[origen][destino];
+        if (minimos == 0 || minimos > Constantes.MAX_VUELOS_POR_RUTA) return List.of();
+
+        int cantidad = RegistroCapacidades.cantidadProductos(pedido);
+        int desde = redTemporal.minutoListo(pedido) + retrasoMinutos;
+        int hasta = redTemporal.limiteLlegada(pedido, indiceVuelos.aeropuerto(origen), indiceVuelos.aeropuerto(destino));
+        RedTemporalVuelos.FiltroCapacidad conEspacio = (f, dia) -> tieneEspacio(f, dia, cantidad);
+        if (catalogoRutas != null) {
+            List<RedTemporalVuelos.Itinerario> delCatalogo =
+                    desdeCatalogo(origen, destino, desde, hasta, conEspacio, maxResultados);
+            if (!delCatalogo.isEmpty()) return delCatalogo;
+        }
+        return redTemporal.enumerarItinerarios(origen, destino, desde, hasta, Constantes.MAX_VUELOS_POR_RUTA,
+                conEspacio, maxResultados);
+    }
+
+    /**
+     * Programa las rutas del catálogo del par desde {@code desde} y se queda con las que llegan a
+     * tiempo, ordenadas por llegada.
+     */
+    private List<RedTemporalVuelos.Itinerario> desdeCatalogo(int origen, int destino, int desde, int hasta,
+                                                            RedTemporalVuelos.FiltroCapacidad conEspacio,
+                                                            int maxResultados) {
+        int numRutas = catalogoRutas.numRutas(origen, destino);
+        if (numRutas == 0) return List.of();
+        List<RedTemporalVuelos.Itinerario> resultado = new ArrayList<>(numRutas);
+        for (int r = 0; r < numRutas; r++) {
+            RedTemporalVuelos.Itinerario itinerario =
+                    redTemporal.programar(catalogoRutas.ruta(origen, destino, r), desde, hasta, conEspacio);
+            if (itinerario != null) resultado.add(itinerario);
+        }
+        resultado.sort((a, b) -> a.getLlegada() != b.getLlegada() ? Integer.compare(a.getLlegada(), b.getLlegada())
+                : Integer.compare(a.getNumVuelos(), b.getNumVuelos()));
+        return resultado.size() > maxResultados ? new ArrayList<>(resultado.subList(0, maxResultados)) : resultado;
+    }
+
+    /**
+     * Itinerario de llegada más temprana con exactamente {@code numVuelos} vuelos (directo, una o
+     * dos escalas), o null si el mejor con a lo sumo esos vuelos usa menos.
+     */
+    public RedTemporalVuelos.Itinerario buscarConVuelos(Pedido pedido, int numVuelos) {
+        RedTemporalVuelos.Itinerario itinerario = buscar(pedido, 0, numVuelos);
+        return itinerario != null && itinerario.getNumVuelos() == numVuelos ? itinerario : null;
+    }
+
+    /**
+     * Itinerario con hasta {@link Constantes#MAX_VUELOS_POR_RUTA} vuelos.
+     */
+    public RedTemporalVuelos.Itinerario buscar(Pedido pedido, int retrasoMinutos) {
+        return buscar(pedido, retrasoMinutos, Constantes.MAX_VUELOS_POR_RUTA);
+    }
+
+    /**
+     * true si algún vuelo directo opera con espacio entre la salida posible y el plazo del pedido
+     * (según la cache de disponibilidad por día). Los directos de cada día están ordenados por
+     * salida: el primer día se empieza por búsqueda binaria y el último se corta en el plazo.
+     */
+    private boolean hayDirectoDisponible(Pedido pedido, int origen, int destino, int retrasoMinutos, int cantidad) {
+        int desde = redTemporal.minutoListo(pedido) + retrasoMinutos;
+        int hasta = redTemporal.limiteLlegada(pedido, indiceVuelos.aeropuerto(origen), indiceVuelos.aeropuerto(destino));
+        int primerDia = Math.max(1, Math.floorDiv(desde, RedTemporalVuelos.MINUTOS_DIA) + 1);
+        int ultimoDia = Math.min(redTemporal.getDiasHorizonte(), Math.floorDiv(hasta, RedTemporalVuelos.MINUTOS_DIA) + 1);
+        for (int dia = primerDia; dia <= ultimoDia; dia++) {
+            CacheDisponibilidad.TablaDia tabla = cacheDisponibilidad.obtenerTabla(dia);
+            int inicioDia = (dia - 1) * RedTemporalVuelos.MINUTOS_DIA;
+            for (int i = tabla.primeroDesde(origen, destino, desde - inicioDia), fin = tabla.fin(origen, destino);
+                 i < fin; i++) {
+                int salida = tabla.salida(i);
+                if (salida < 0 || inicioDia + salida > hasta) break;
+                if (tieneEspacio(tabla.vuelo(i), dia, cantidad)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Buzón sin locks para el modelo de islas: guarda a lo sumo un migrante pendiente.
+ *
+ * Si llegan varios antes de que la isla lea, se conserva el de mayor peso (CAS sobre
+ * {@link AtomicReference}); leer vacía el buzón.
+ */
+public class BuzonMigracion {
+
+    /**
+     * Solución migrante. Todas las islas resuelven la misma {@link InstanciaProblema}, así que
+     * viaja con las mismas entidades Pedido y Vuelo que usa la isla que la recibe. Inmutable.
+     */
+    public static final class Migrante {
+        private final int islaOrigen;
+        private final int peso;
+        private final Pedido[] pedidos;
+        private final Vuelo[][] rutas;          // ruta de cada pedido
+        private final double[][] pesosOperadores;
+
+        public Migrante(int islaOrigen, int peso, Pedido[] pedidos, Vuelo[][] rutas, double[][] pesosOperadores) {
+            this.islaOrigen = islaOrigen;
+            this.peso = peso;
+            this.pedidos = pedidos;
+            this.rutas = rutas;
+            this.pesosOperadores = pesosOperadores;
+        }
+
+        public int getIslaOrigen() {
+            return islaOrigen;
+        }
+
+        public int getPeso() {
+            return peso;
+        }
+
+        public int getNumPedidos() {
+            return pedidos.length;
+        }
+
+        public Pedido getPedido(int i) {
+            return pedidos[i];
+        }
+
+        public Vuelo[] getRuta(int i) {
+            return rutas[i];
+        }
+
+        public double[][] getPesosOperadores() {
+            return pesosOperadores;
+        }
+    }
+
+    private final AtomicReference<Migrante> pendiente = new AtomicReference<>();
+
+    /** Deja un migrante; si ya había uno pendiente se queda el de mayor peso. */
+    public void publicar(Migrante migrante) {
+        pendiente.accumulateAndGet(migrante,
+                (actual, nuevo) -> actual == null || nuevo.getPeso() >= actual.getPeso() ? nuevo : actual);
+    }
+
+    /** Retira el migrante pendiente, o null si no hay. */
+    public Migrante tomar() {
+        return pendiente.getAndSet(null);
+    }
+}
@@ -0,0 +1,200 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Ocurrencias diarias de los vuelos de una instancia: en qué día vuela cada tramo de una ruta.
+ *
+ * Cada Vuelo es una entrada del plan que se repite todos los días. Un pedido toma cada tramo en
+ * la primera ocurrencia no cancelada con espacio que sale cuando ya está listo: en el origen desde
+ * su fechaPedido y en cada escala desde la llegada del tramo anterior más la conexión mínima. Si la
+ * ocurrencia del día está llena se pasa a la del día siguiente. Es la misma regla con la que
+ * {@link RedTemporalVuelos} programa los itinerarios, así que la capacidad se reserva en el mismo
+ * día en que la búsqueda encontró espacio.
+ *
+ * Los días son 1-based desde la medianoche de T0 (como en la red). Una ocurrencia posterior al
+ * horizonte no existe: el tramo no se puede programar.
+ */
+public final class CalendarioVuelos {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    private final InstanciaProblema instancia;
+    private final LocalDateTime inicio; // medianoche del día 1; null = sin fechas, todo cae en el día 1
+    private final int dias;
+    private final int minutosConexion;
+
+    // Por índice de vuelo de la instancia
+    private final int[] salida;        // minuto del día, -1 si no tiene horario
+    private final int[] duracion;
+    private final BitSet[] cancelados; // null si el vuelo no tiene cancelaciones
+
+    /**
+     * Filtro de capacidad por ocurrencia: true si el vuelo (índice de la instancia) tiene espacio
+     * el día {@code dia}.
+     */
+    @FunctionalInterface
+    public interface FiltroOcurrencia {
+        boolean tieneEspacio(int indiceVuelo, int dia);
+    }
+
+    public CalendarioVuelos(InstanciaProblema instancia, LocalDateTime inicio, int dias,
+                            ServicioDisponibilidadVuelos servicioDisponibilidad) {
+        this.instancia = instancia;
+        this.inicio = inicio != null ? inicio.truncatedTo(ChronoUnit.DAYS) : null;
+        this.dias = Math.max(1, dias);
+        this.minutosConexion = Constantes.TIEMPO_MINIMO_CONEXION_MINUTOS;
+
+        int numVuelos = instancia.getNumVuelos();
+        this.salida = new int[numVuelos];
+        this.duracion = new int[numVuelos];
+        this.cancelados = new BitSet[numVuelos];
+        boolean hayCancelaciones = servicioDisponibilidad != null && servicioDisponibilidad.getTotalCancelaciones() > 0;
+        for (int f = 0; f < numVuelos; f++) {
+            Vuelo vuelo = instancia.getVuelos().get(f);
+            salida[f] = vuelo.getHoraSalida() != null ? vuelo.getHoraSalida().toSecondOfDay() / 60 : -1;
+            duracion[f] = RedTemporalVuelos.duracionMinutos(vuelo);
+            if (hayCancelaciones) {
+                BitSet mascara = servicioDisponibilidad.obtenerMascaraCancelaciones(vuelo);
+                if (!mascara.isEmpty()) cancelados[f] = mascara;
+            }
+        }
+    }
+
+    /**
+     * Calendario de un solo día y sin fechas: cada vuelo tiene una única ocurrencia.
+     */
+    public static CalendarioVuelos unDia(InstanciaProblema instancia) {
+        return new CalendarioVuelos(instancia, null, 1, null);
+    }
+
+    public int getDias() {
+        return dias;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    /** Minuto (desde la medianoche del día 1) en que el pedido está listo en su origen. */
+    public int minutoListo(Pedido pedido) {
+        if (inicio == null || pedido == null || pedido.getFechaPedido() == null) return 0;
+        return (int) Math.max(0, ChronoUnit.MINUTES.between(inicio, pedido.getFechaPedido()));
+    }
+
+    /**
+     * Minuto máximo de llegada del pedido: el menor entre su fecha límite y la promesa MoraPack,
+     * con la misma regla estática que la red temporal ({@link RedTemporalVuelos#limiteLlegada}).
+     * Sin fechas no hay límite.
+     */
+    public long limiteLlegada(Pedido pedido) {
+        if (inicio == null || pedido == null) return Long.MAX_VALUE;
+        long limiteCliente = pedido.getFechaLimiteEntrega() != null
+                ? ChronoUnit.MINUTES.between(inicio, pedido.getFechaLimiteEntrega()) : Long.MAX_VALUE;
+        return RedTemporalVuelos.limiteLlegada(minutoListo(pedido), limiteCliente,
+                instancia.aeropuerto(pedido.getAeropuertoOrigenCodigo()),
+                instancia.aeropuerto(pedido.getAeropuertoDestinoCodigo()));
+    }
+
+    /**
+     * Día de la primera ocurrencia no cancelada del vuelo que sale a partir de {@code listo} (un
+     * vuelo sin horario sale a medianoche), o -1 si no hay ninguna dentro del horizonte.
+     */
+    public int dia(int indiceVuelo, long listo) {
+        if (inicio == null) return 1;
+        long base = Math.max(0, salida[indiceVuelo]);
+        long dia = Math.max(1, Math.floorDiv(listo - base + MINUTOS_DIA - 1, MINUTOS_DIA) + 1);
+        return dia <= dias ? diaNoCancelado(indiceVuelo, (int) dia) : -1;
+    }
+
+    /**
+     * Día de la primera ocurrencia no cancelada que sale a partir de {@code listo} y pasa el filtro;
+     * si la del día está llena se prueba la del siguiente. -1 si ninguna dentro del horizonte llega
+     * a más tardar en {@code limiteLlegada}.
+     *
+     * @param filtro null para tomar la primera ocurrencia sin mirar la capacidad
+     */
+    public int dia(int indiceVuelo, long listo, long limiteLlegada, FiltroOcurrencia filtro) {
+        for (int dia = dia(indiceVuelo, listo); dia > 0; dia = siguienteDia(indiceVuelo, dia)) {
+            if (llegada(indiceVuelo, dia) > limiteLlegada) return -1;
+            if (filtro == null || filtro.tieneEspacio(indiceVuelo, dia)) return dia;
+        }
+        return -1;
+    }
+
+    /** Ocurrencia no cancelada siguiente a la del día dado, o -1 si no quedan en el horizonte. */
+    private int siguienteDia(int indiceVuelo, int dia) {
+        // Sin fechas cada vuelo tiene una única ocurrencia
+        return inicio != null && dia < dias ? diaNoCancelado(indiceVuelo, dia + 1) : -1;
+    }
+
+    private int diaNoCancelado(int indiceVuelo, int dia) {
+        BitSet diasCancelados = cancelados[indiceVuelo];
+        if (diasCancelados != null) dia = diasCancelados.nextClearBit(dia);
+        return dia <= dias ? dia : -1;
+    }
+
+    /** Minuto de salida de la ocurrencia del vuelo en el día dado. */
+    public long salida(int indiceVuelo, int dia) {
+        return (long) (dia - 1) * MINUTOS_DIA + Math.max(0, salida[indiceVuelo]);
+    }
+
+    /** Minuto de llegada de la ocurrencia del vuelo en el día dado. */
+    public long llegada(int indiceVuelo, int dia) {
+        return salida(indiceVuelo, dia) + duracion[indiceVuelo];
+    }
+
+    /** Fecha de salida de la ocurrencia, o null si el calendario no tiene fechas. */
+    public LocalDateTime fechaSalida(int indiceVuelo, int dia) {
+        return inicio != null ? inicio.plusMinutes(salida(indiceVuelo, dia)) : null;
+    }
+
+    /** Fecha de llegada de la ocurrencia, o null si el calendario no tiene fechas. */
+    public LocalDateTime fechaLlegada(int indiceVuelo, int dia) {
+        return inicio != null ? inicio.plusMinutes(llegada(indiceVuelo, dia)) : null;
+    }
+
+    /**
+     * Día de la ocurrencia de cada tramo de la ruta del pedido, cada uno en la primera que pasa el
+     * filtro (0 para vuelos que no son de la instancia). Sin pedido, el primer tramo sale desde el
+     * inicio del calendario.
+     *
+     * @param filtro null para tomar la primera ocurrencia de cada tramo sin mirar la capacidad
+     * @return los días, o null si algún tramo no tiene ocurrencia dentro del horizonte que llegue a
+     *         más tardar en {@code limiteLlegada}
+     */
+    public int[] dias(Pedido pedido, List<Vuelo> ruta, long limiteLlegada, FiltroOcurrencia filtro) {
+        int[] resultado = new int[ruta != null ? ruta.size() : 0];
+        long listo = minutoListo(pedido);
+        for (int t = 0; t < resultado.length; t++) {
+            int f = instancia.indiceVuelo(ruta.get(t));
+            if (f < 0) continue;
+            int dia = dia(f, listo, limiteLlegada, filtro);
+            if (dia < 0) return null;
+            resultado[t] = dia;
+            listo = llegada(f, dia) + minutosConexion;
+        }
+        return resultado;
+    }
+
+    /**
+     * Día de la primera ocurrencia de cada tramo de la ruta del pedido, sin mirar la capacidad ni
+     * el plazo, o null si alguno cae fuera del horizonte.
+     */
+    public int[] dias(Pedido pedido, List<Vuelo> ruta) {
+        return dias(pedido, ruta, Long.MAX_VALUE, null);
+    }
+
+    public InstanciaProblema getInstancia() {
+        return instancia;
+    }
+}
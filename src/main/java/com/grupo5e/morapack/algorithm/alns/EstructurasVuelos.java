@@ -0,0 +1,127 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.index.CacheDisponibilidad;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+import com.grupo5e.morapack.utils.LectorCancelaciones;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Estructuras de búsqueda sobre los vuelos de una {@link InstanciaProblema}: cancelaciones,
+ * índice de vuelos, cache de disponibilidad, red temporal y calendario de ocurrencias, todas
+ * ancladas en el mismo T0 y el mismo horizonte.
+ *
+ * Ninguna cambia durante la búsqueda (la red y la cache sólo guardan estado por hilo o tablas
+ * inmutables), así que se construyen una vez por instancia y las comparten todos los solvers
+ * que la resuelven en paralelo; la capacidad usada vive aparte en cada {@link RegistroCapacidades}.
+ */
+public final class EstructurasVuelos {
+
+    /**
+     * Días del horizonte de planificación desde T0: red temporal, calendario de vuelos, registro de
+     * capacidades y ocupación temporal de almacenes usan el mismo; fuera de él no hay ocurrencias
+     */
+    public static final int DIAS_HORIZONTE = 30;
+
+    private final LocalDateTime t0;
+    private final int diasHorizonte;
+    private final ServicioDisponibilidadVuelos servicioDisponibilidad;
+    private final IndiceVuelos indiceVuelos;
+    private final CacheDisponibilidad cacheDisponibilidad;
+    private final RedTemporalVuelos redTemporal;
+    private final CalendarioVuelos calendarioVuelos;
+
+    private EstructurasVuelos(InstanciaProblema instancia, LocalDateTime t0, int diasHorizonte,
+                              ServicioDisponibilidadVuelos servicioDisponibilidad) {
+        this.t0 = t0;
+        this.diasHorizonte = diasHorizonte;
+        this.servicioDisponibilidad = servicioDisponibilidad;
+        this.indiceVuelos = new IndiceVuelos(instancia.getAeropuertos(), instancia.getVuelos());
+        this.cacheDisponibilidad = new CacheDisponibilidad(servicioDisponibilidad, indiceVuelos);
+        this.redTemporal = new RedTemporalVuelos(indiceVuelos, servicioDisponibilidad, t0,
+                diasHorizonte, Constantes.TIEMPO_MINIMO_CONEXION_MINUTOS);
+        this.calendarioVuelos = new CalendarioVuelos(instancia, t0, diasHorizonte, servicioDisponibilidad);
+    }
+
+    /**
+     * Construye las estructuras de la instancia con T0 en el pedido más antiguo y las
+     * cancelaciones de {@link Constantes#RUTA_ARCHIVO_CANCELACIONES}.
+     */
+    public static EstructurasVuelos construir(InstanciaProblema instancia) {
+        System.out.println("\n=== INICIALIZANDO OPTIMIZACIONES ===");
+        long inicio = System.currentTimeMillis();
+
+        EstructurasVuelos estructuras = new EstructurasVuelos(instancia, calcularT0(instancia),
+                DIAS_HORIZONTE, cargarCancelaciones());
+
+        System.out.println("T0 inicializado: " + estructuras.t0);
+        System.out.println("Índices construidos en " + (System.currentTimeMillis() - inicio) + "ms");
+        estructuras.indiceVuelos.imprimirEstadisticas();
+        System.out.println("=====================================\n");
+        return estructuras;
+    }
+
+    /**
+     * El reloj empieza en el pedido con fecha más antigua (o ahora si ninguno tiene fecha)
+     */
+    private static LocalDateTime calcularT0(InstanciaProblema instancia) {
+        return instancia.getPedidos().stream()
+                .map(Pedido::getFechaPedido)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.now());
+    }
+
+    /**
+     * Lee las cancelaciones de vuelos. Si falta el archivo se sigue sin cancelaciones.
+     */
+    private static ServicioDisponibilidadVuelos cargarCancelaciones() {
+        ServicioDisponibilidadVuelos servicio = new ServicioDisponibilidadVuelos();
+        try {
+            servicio.cargarCancelaciones(new LectorCancelaciones(Constantes.RUTA_ARCHIVO_CANCELACIONES));
+
+            System.out.println("\n=== CANCELACIONES DE VUELOS ===");
+            System.out.println("Vuelos únicos afectados: " + servicio.getVuelosAfectados());
+            System.out.println("Total de cancelaciones (día×vuelo): " + servicio.getTotalCancelaciones());
+            System.out.println("================================\n");
+        } catch (Exception e) {
+            System.err.println("Advertencia: No se pudieron cargar cancelaciones de vuelos");
+            System.err.println("Archivo: " + Constantes.RUTA_ARCHIVO_CANCELACIONES);
+            System.err.println("El algoritmo continuará sin considerar cancelaciones.");
+        }
+        return servicio;
+    }
+
+    public LocalDateTime getT0() {
+        return t0;
+    }
+
+    public int getDiasHorizonte() {
+        return diasHorizonte;
+    }
+
+    public ServicioDisponibilidadVuelos getServicioDisponibilidad() {
+        return servicioDisponibilidad;
+    }
+
+    public IndiceVuelos getIndiceVuelos() {
+        return indiceVuelos;
+    }
+
+    public CacheDisponibilidad getCacheDisponibilidad() {
+        return cacheDisponibilidad;
+    }
+
+    public RedTemporalVuelos getRedTemporal() {
+        return redTemporal;
+    }
+
+    public CalendarioVuelos getCalendarioVuelos() {
+        return calendarioVuelos;
+    }
+}
@@ -0,0 +1,183 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Función objetivo del ALNS recalculada desde cero sobre una solución completa.
+ *
+ * La utilización de vuelos y los vuelos con baja ocupación usan la carga de la ocurrencia
+ * (vuelo × día) en que el {@link RegistroCapacidades} reservó cada tramo, y la utilización de
+ * almacenes su ocupación, así que el registro tiene que tener ocupada exactamente la solución.
+ *
+ * Es la referencia del {@link AcumuladorObjetivo}, que mantiene las mismas sumas con deltas; el
+ * solver la usa para las soluciones iniciales y para verificar el peso incremental.
+ */
+public class FuncionObjetivo {
+
+    private final RegistroCapacidades registro;
+    private final InstanciaProblema instancia;
+
+    public FuncionObjetivo(RegistroCapacidades registro) {
+        this.registro = registro;
+        this.instancia = registro.getInstancia();
+    }
+
+    public int calcularPeso(Map<Pedido, ? extends List<Vuelo>> solucion) {
+        int totalPaquetes = solucion.size();
+        int totalProductos = 0;
+        double tiempoTotalEntrega = 0;
+        int entregasATiempo = 0;
+        double utilizacionCapacidadTotal = 0;
+        int totalVuelosUsados = 0;
+        double margenEntregaTotal = 0;
+
+        for (Map.Entry<Pedido, ? extends List<Vuelo>> entrada : solucion.entrySet()) {
+            Pedido pedido = entrada.getKey();
+            List<Vuelo> ruta = entrada.getValue();
+
+            int productosEnPaquete = RegistroCapacidades.cantidadProductos(pedido);
+            totalProductos += productosEnPaquete;
+
+            double tiempoRuta = 0;
+            int[] dias = registro.dias(pedido, ruta);
+            for (int t = 0; t < ruta.size(); t++) {
+                Vuelo vuelo = ruta.get(t);
+                tiempoRuta += vuelo.getTiempoTransporte();
+                if (dias != null) {
+                    utilizacionCapacidadTotal += (double) registro.capacidadUsada(vuelo, dias[t]) / vuelo.getCapacidadMaxima();
+                }
+                totalVuelosUsados++;
+            }
+
+            if (ruta.size() > 1) tiempoRuta += (ruta.size() - 1) * 2.0;
+
+            tiempoTotalEntrega += tiempoRuta;
+
+            if (cumpleDeadline(pedido, ruta, tiempoRuta)) {
+                entregasATiempo++;
+                LocalDateTime entregaEstimada = pedido.getFechaPedido().plusHours((long) tiempoRuta);
+                double horasMargen = ChronoUnit.HOURS.between(entregaEstimada, pedido.getFechaLimiteEntrega());
+                margenEntregaTotal += horasMargen;
+            }
+        }
+
+        double tiempoPromedioEntrega = totalPaquetes > 0 ? tiempoTotalEntrega / totalPaquetes : 0;
+        double utilizacionCapacidadPromedio = totalVuelosUsados > 0 ? utilizacionCapacidadTotal / totalVuelosUsados : 0;
+        double tasaATiempo = totalPaquetes > 0 ? (double) entregasATiempo / totalPaquetes : 0;
+        double margenPromedioEntrega = entregasATiempo > 0 ? margenEntregaTotal / entregasATiempo : 0;
+
+        double eficienciaContinental = calcularEficienciaContinental(solucion);
+        double utilizacionAlmacenes = calcularUtilizacionAlmacenes();
+
+        int peso = (int) (
+            totalPaquetes * 100000 +
+            totalProductos * 10000 +
+            tasaATiempo * 5000 +
+            Math.min(margenPromedioEntrega * 50, 1000) +
+            eficienciaContinental * 500 +
+            utilizacionCapacidadPromedio * 200 +
+            utilizacionAlmacenes * 100 -
+            tiempoPromedioEntrega * 20 -
+            calcularComplejidadRuteo(solucion) * 50
+        );
+
+        if (tasaATiempo < 0.8) {
+            peso = (int)(peso * 0.5);
+        }
+
+        if (tasaATiempo >= 0.95 && totalPaquetes > 10) {
+            peso = (int)(peso * 1.1);
+        }
+
+        if (totalPaquetes > 1000) {
+            peso = (int)(peso * 1.15);
+        }
+
+        return peso;
+    }
+
+    private double calcularEficienciaContinental(Map<Pedido, ? extends List<Vuelo>> solucion) {
+        if (solucion.isEmpty()) return 0.0;
+
+        int sameDirect = 0, sameOneStop = 0, diffDirect = 0, diffOneStop = 0, inefficient = 0;
+
+        for (Map.Entry<Pedido, ? extends List<Vuelo>> e : solucion.entrySet()) {
+            Pedido p = e.getKey();
+            List<Vuelo> ruta = e.getValue();
+            boolean mismo = mismoContinente(p);
+            if (ruta.isEmpty()) continue;
+            if (mismo) {
+                if (ruta.size() == 1) sameDirect++;
+                else if (ruta.size() == 2) sameOneStop++;
+                else inefficient++;
+            } else {
+                if (ruta.size() == 1) diffDirect++;
+                else if (ruta.size() <= 2) diffOneStop++;
+                else inefficient++;
+            }
+        }
+
+        double ef = sameDirect * 1.0 + sameOneStop * 0.8 + diffDirect * 1.2 + diffOneStop * 1.0 + inefficient * (-0.5);
+        return ef;
+    }
+
+    private double calcularUtilizacionAlmacenes() {
+        double total = 0.0;
+        for (Aeropuerto aeropuerto : instancia.getAeropuertos()) {
+            total += (double) registro.ocupacion(aeropuerto) / aeropuerto.getCapacidadMaxima();
+        }
+        return total;
+    }
+
+    private double calcularComplejidadRuteo(Map<Pedido, ? extends List<Vuelo>> solucion) {
+        if (solucion.isEmpty()) return 0.0;
+        double total = 0.0;
+        for (Map.Entry<Pedido, ? extends List<Vuelo>> e : solucion.entrySet()) {
+            Pedido p = e.getKey();
+            List<Vuelo> ruta = e.getValue();
+            if (ruta.isEmpty()) continue;
+            int esperado = mismoContinente(p) ? 1 : 2;
+            if (ruta.size() > esperado) total += (ruta.size() - esperado) * 2.0;
+            if (ruta.size() > 1) {
+                int[] dias = registro.dias(p, ruta);
+                for (int t = 0; dias != null && t < ruta.size(); t++) {
+                    Vuelo f = ruta.get(t);
+                    double util = (double) registro.capacidadUsada(f, dias[t]) / f.getCapacidadMaxima();
+                    if (util < 0.3) total += 1.0;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Entrega a tiempo sin margen de seguridad aleatorio: promesa MoraPack (48h mismo continente,
+     * 72h distinto) y deadline del cliente. Sin margen aleatorio el mismo par pedido/ruta siempre
+     * aporta lo mismo, que es lo que permite el cálculo incremental.
+     */
+    private boolean cumpleDeadline(Pedido pedido, List<Vuelo> ruta, double tiempoRuta) {
+        if (ruta == null || ruta.isEmpty() || !continenteConocido(pedido)) return false;
+        long horasPromesa = mismoContinente(pedido) ? 48 : 72;
+        long horasHastaDeadline = ChronoUnit.HOURS.between(pedido.getFechaPedido(), pedido.getFechaLimiteEntrega());
+        return tiempoRuta <= horasPromesa && tiempoRuta <= horasHastaDeadline;
+    }
+
+    private boolean continenteConocido(Pedido pedido) {
+        Aeropuerto origen = instancia.aeropuerto(pedido.getAeropuertoOrigenCodigo());
+        Aeropuerto destino = instancia.aeropuerto(pedido.getAeropuertoDestinoCodigo());
+        return origen != null && origen.getCiudad() != null && destino != null && destino.getCiudad() != null;
+    }
+
+    private boolean mismoContinente(Pedido pedido) {
+        if (!continenteConocido(pedido)) return false;
+        return instancia.aeropuerto(pedido.getAeropuertoOrigenCodigo()).getCiudad().getContinente() ==
+                instancia.aeropuerto(pedido.getAeropuertoDestinoCodigo()).getCiudad().getContinente();
+    }
+}
@@ -0,0 +1,151 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.service.AeropuertoService;
+import com.grupo5e.morapack.service.PedidoService;
+import com.grupo5e.morapack.service.VueloService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Foto inmutable de los datos de un problema: aeropuertos activos, vuelos y pedidos,
+ * cargados una sola vez desde los servicios.
+ *
+ * El solver no modifica ninguna de estas entidades: la capacidad usada de los vuelos y la
+ * ocupación de los almacenes viven en arreglos por ejecución ({@link RegistroCapacidades}),
+ * indexados con los índices densos de esta clase. Los pedidos son copias propias de la
+ * instancia con el aeropuerto origen ya sorteado, así que las entidades que devuelven los
+ * servicios quedan intactas. Una misma instancia puede compartirse entre varios solvers
+ * que corren en paralelo.
+ */
+public final class InstanciaProblema {
+
+    // Sedes de MoraPack desde las que puede salir un pedido
+    private static final String[] AEROPUERTOS_PRINCIPALES = {"SPIM", "UBBB", "EBCI"};
+
+    private final List<Aeropuerto> aeropuertos;
+    private final List<Vuelo> vuelos;
+    private final List<Pedido> pedidos;
+
+    private final Map<String, Integer> indiceAeropuertos;
+    private final Map<Vuelo, Integer> indiceVuelos;
+
+    public InstanciaProblema(List<Aeropuerto> aeropuertos, List<Vuelo> vuelos, List<Pedido> pedidos) {
+        this.aeropuertos = Collections.unmodifiableList(new ArrayList<>(aeropuertos));
+        this.vuelos = Collections.unmodifiableList(new ArrayList<>(vuelos));
+        this.pedidos = Collections.unmodifiableList(new ArrayList<>(pedidos));
+
+        Map<String, Integer> porCodigo = new HashMap<>(aeropuertos.size() * 2);
+        for (int i = 0; i < this.aeropuertos.size(); i++) {
+            String codigo = this.aeropuertos.get(i).getCodigoIATA();
+            if (codigo != null) porCodigo.putIfAbsent(codigo, i);
+        }
+        Map<Vuelo, Integer> porVuelo = new IdentityHashMap<>(vuelos.size() * 2);
+        for (int i = 0; i < this.vuelos.size(); i++) porVuelo.put(this.vuelos.get(i), i);
+
+        this.indiceAeropuertos = Collections.unmodifiableMap(porCodigo);
+        this.indiceVuelos = Collections.unmodifiableMap(porVuelo);
+    }
+
+    /**
+     * Carga la instancia desde los servicios y sortea el aeropuerto origen de cada pedido
+     * (una de las sedes distinta del destino) con la semilla dada.
+     */
+    public static InstanciaProblema cargar(AeropuertoService aeropuertoService,
+                                           PedidoService pedidoService,
+                                           VueloService vueloService,
+                                           long semilla) {
+        List<Aeropuerto> aeropuertos = aeropuertoService.listarDisponibles();
+        List<Vuelo> vuelos = vueloService.listar();
+
+        Random aleatorio = new Random(semilla);
+        List<Pedido> pedidos = new ArrayList<>();
+        for (Pedido original : pedidoService.listar()) {
+            pedidos.add(copiarConOrigen(original, sortearOrigen(original.getAeropuertoDestinoCodigo(), aleatorio)));
+        }
+        return new InstanciaProblema(aeropuertos, vuelos, pedidos);
+    }
+
+    private static String sortearOrigen(String codigoDestino, Random aleatorio) {
+        ArrayList<String> candidatos = new ArrayList<>();
+        for (String codigo : AEROPUERTOS_PRINCIPALES) {
+            if (!Objects.equals(codigoDestino, codigo)) candidatos.add(codigo);
+        }
+        return candidatos.get(aleatorio.nextInt(candidatos.size()));
+    }
+
+    private static Pedido copiarConOrigen(Pedido original, String codigoOrigen) {
+        Pedido copia = new Pedido();
+        copia.setId(original.getId());
+        copia.setCliente(original.getCliente());
+        copia.setAeropuertoDestinoCodigo(original.getAeropuertoDestinoCodigo());
+        copia.setFechaPedido(original.getFechaPedido());
+        copia.setFechaLimiteEntrega(original.getFechaLimiteEntrega());
+        copia.setEstado(original.getEstado());
+        copia.setAeropuertoOrigenCodigo(codigoOrigen);
+        copia.setRutas(original.getRutas());
+        copia.setPrioridad(original.getPrioridad());
+        copia.setProductos(original.getProductos());
+        copia.setCantidadProductos(original.getCantidadProductos());
+        return copia;
+    }
+
+    public List<Aeropuerto> getAeropuertos() {
+        return aeropuertos;
+    }
+
+    public List<Vuelo> getVuelos() {
+        return vuelos;
+    }
+
+    public List<Pedido> getPedidos() {
+        return pedidos;
+    }
+
+    public int getNumAeropuertos() {
+        return aeropuertos.size();
+    }
+
+    public int getNumVuelos() {
+        return vuelos.size();
+    }
+
+    /** Índice denso del vuelo, o -1 si no pertenece a la instancia. */
+    public int indiceVuelo(Vuelo vuelo) {
+        Integer indice = indiceVuelos.get(vuelo);
+        return indice != null ? indice : -1;
+    }
+
+    /**
+     * Índice denso del aeropuerto por código IATA (los aeropuertos que cuelgan de los vuelos
+     * pueden ser otras instancias de la misma entidad), o -1 si no está activo en la instancia.
+     */
+    public int indiceAeropuerto(Aeropuerto aeropuerto) {
+        return aeropuerto != null ? indiceAeropuerto(aeropuerto.getCodigoIATA()) : -1;
+    }
+
+    /**
+     * Aeropuerto de la instancia por código IATA, o null si no está activo. Si el código no
+     * coincide tal cual, se reintenta sin espacios y en mayúsculas.
+     */
+    public Aeropuerto aeropuerto(String codigoIATA) {
+        if (codigoIATA == null) return null;
+        int indice = indiceAeropuerto(codigoIATA);
+        if (indice < 0) indice = indiceAeropuerto(codigoIATA.trim().toUpperCase());
+        return indice >= 0 ? aeropuertos.get(indice) : null;
+    }
+
+    public int indiceAeropuerto(String codigoIATA) {
+        Integer indice = codigoIATA != null ? indiceAeropuertos.get(codigoIATA) : null;
+        return indice != null ? indice : -1;
+    }
+}
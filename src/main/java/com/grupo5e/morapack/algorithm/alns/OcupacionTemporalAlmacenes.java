@@ -0,0 +1,389 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ocupación minuto a minuto de los almacenes sobre el horizonte de planificación.
+ *
+ * Cada aeropuerto tiene un árbol de segmentos con propagación perezosa: sumar productos en un
+ * intervalo de minutos y consultar el máximo de un intervalo cuestan O(log T), en lugar de
+ * recorrer el intervalo minuto a minuto. Los árboles se crean sólo para los aeropuertos que
+ * reciben ocupación, así que un horizonte de 30 días no reserva memoria para almacenes sin uso.
+ *
+ * Los cambios se anotan en un journal (igual que {@link RegistroCapacidades}) para poder
+ * revertirlos en orden inverso cuando la iteración del ALNS se rechaza.
+ *
+ * El flujo de un pedido por su ruta sigue el modelo de simulación del solver: espera en el
+ * aeropuerto de salida antes de cada vuelo, estancia de conexión en cada escala y estancia de
+ * recogida en el destino.
+ */
+public class OcupacionTemporalAlmacenes {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int CAPACIDAD_INICIAL_JOURNAL = 256;
+
+    private final InstanciaProblema instancia;
+    private final LocalDateTime inicio;
+    private final int totalMinutos;
+    private final int hojas;   // potencia de dos >= totalMinutos
+    private final int altura;
+
+    // Por aeropuerto: máximo del subárbol (incluye su suma pendiente) y suma pendiente de cada nodo interno
+    private final int[][] maximos;
+    private final int[][] pendientes;
+
+    // Journal: aeropuerto, intervalo [desde, hasta) y delta
+    private int[] journalAeropuerto;
+    private int[] journalDesde;
+    private int[] journalHasta;
+    private int[] journalDelta;
+    private int tamanoJournal;
+
+    /**
+     * @param inicio instante del minuto 0 (T0 del solver)
+     * @param dias   días del horizonte
+     */
+    public OcupacionTemporalAlmacenes(InstanciaProblema instancia, LocalDateTime inicio, int dias) {
+        this.instancia = instancia;
+        this.inicio = inicio;
+        this.totalMinutos = Math.max(1, dias) * MINUTOS_DIA;
+        int potencia = 1;
+        int niveles = 0;
+        while (potencia < totalMinutos) {
+            potencia <<= 1;
+            niveles++;
+        }
+        this.hojas = potencia;
+        this.altura = niveles;
+        this.maximos = new int[instancia.getNumAeropuertos()][];
+        this.pendientes = new int[instancia.getNumAeropuertos()][];
+        this.journalAeropuerto = new int[CAPACIDAD_INICIAL_JOURNAL];
+        this.journalDesde = new int[CAPACIDAD_INICIAL_JOURNAL];
+        this.journalHasta = new int[CAPACIDAD_INICIAL_JOURNAL];
+        this.journalDelta = new int[CAPACIDAD_INICIAL_JOURNAL];
+    }
+
+    public int getTotalMinutos() {
+        return totalMinutos;
+    }
+
+    /**
+     * Minuto en que el pedido empieza a ocupar almacén: su fechaPedido relativa al inicio, con un
+     * desfase por id para repartir los pedidos de la misma hora.
+     */
+    public int minutoInicio(Pedido pedido) {
+        if (pedido == null || pedido.getFechaPedido() == null || inicio == null) {
+            return 0;
+        }
+        long minutosDesdeInicio = ChronoUnit.MINUTES.between(inicio, pedido.getFechaPedido());
+        int offset = Math.floorMod(pedido.getId(), 60);
+        long minuto = minutosDesdeInicio + offset;
+        return (int) Math.max(0, Math.min(minuto, totalMinutos - 1));
+    }
+
+    // ================= OPERACIONES POR AEROPUERTO =================
+
+    /**
+     * Suma {@code delta} productos al aeropuerto durante {@code duracion} minutos desde {@code desde}
+     * y lo anota en el journal. El intervalo se recorta al horizonte.
+     */
+    public void sumar(Aeropuerto aeropuerto, int desde, int duracion, int delta) {
+        sumar(instancia.indiceAeropuerto(aeropuerto), desde, desde + duracion, delta, true);
+    }
+
+    /**
+     * Ocupación máxima del aeropuerto en {@code [desde, desde + duracion)}.
+     */
+    public int maximo(Aeropuerto aeropuerto, int desde, int duracion) {
+        return maximo(instancia.indiceAeropuerto(aeropuerto), desde, desde + duracion);
+    }
+
+    /**
+     * true si caben {@code cantidad} productos más en el almacén durante todo el intervalo.
+     */
+    public boolean cabe(Aeropuerto aeropuerto, int desde, int duracion, int cantidad) {
+        if (aeropuerto == null) return false;
+        return maximo(aeropuerto, desde, duracion) + cantidad <= aeropuerto.getCapacidadMaxima();
+    }
+
+    /** Ocupación pico del aeropuerto en todo el horizonte. */
+    public int maximo(Aeropuerto aeropuerto) {
+        int a = instancia.indiceAeropuerto(aeropuerto);
+        return a >= 0 && maximos[a] != null ? maximos[a][1] : 0;
+    }
+
+    /** Primer minuto en que se alcanza la ocupación pico del aeropuerto. */
+    public int minutoPico(Aeropuerto aeropuerto) {
+        int a = instancia.indiceAeropuerto(aeropuerto);
+        if (a < 0 || maximos[a] == null) return 0;
+        int[] max = maximos[a];
+        int nodo = 1;
+        // Baja por el hijo con el máximo (el izquierdo en caso de empate)
+        while (nodo < hojas) {
+            nodo = max[2 * nodo] >= max[2 * nodo + 1] ? 2 * nodo : 2 * nodo + 1;
+        }
+        return nodo - hojas;
+    }
+
+    // ================= FLUJO DE UN PEDIDO =================
+
+    /**
+     * Ocupa los almacenes por los que pasa el pedido con su ruta.
+     *
+     * @return número de intervalos anotados en el journal
+     */
+    public int ocuparFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        int[] anotados = {0};
+        recorrerFlujo(pedido, ruta, (a, desde, hasta) -> {
+            sumar(a, desde, hasta, cantidad, true);
+            anotados[0]++;
+            return true;
+        });
+        return anotados[0];
+    }
+
+    /**
+     * Libera lo que ocupó {@link #ocuparFlujo} con el mismo pedido, ruta y cantidad.
+     *
+     * @return número de intervalos anotados en el journal
+     */
+    public int liberarFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        return ocuparFlujo(pedido, ruta, -cantidad);
+    }
+
+    /**
+     * true si el pedido cabe con su ruta en todos los almacenes por los que pasa.
+     */
+    public boolean cabeFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        return recorrerFlujo(pedido, ruta, (a, desde, hasta) ->
+                maximo(a, desde, hasta) + cantidad <= instancia.getAeropuertos().get(a).getCapacidadMaxima());
+    }
+
+    /**
+     * Ocupa el flujo del pedido intervalo por intervalo y se detiene en el primero que excede la
+     * capacidad del almacén (lo ya sumado queda en el journal).
+     *
+     * @return Aeropuerto y minuto de la primera violación, o null si todo el flujo cabe
+     */
+    public int[] ocuparFlujoVerificando(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        int[] violacion = {-1, -1};
+        recorrerFlujo(pedido, ruta, (a, desde, hasta) -> {
+            sumar(a, desde, hasta, cantidad, true);
+            if (maximo(a, desde, hasta) > instancia.getAeropuertos().get(a).getCapacidadMaxima()) {
+                violacion[0] = a;
+                violacion[1] = desde;
+                return false;
+            }
+            return true;
+        });
+        return violacion[0] >= 0 ? violacion : null;
+    }
+
+    private interface VisitanteIntervalo {
+        boolean visitar(int aeropuerto, int desde, int hasta);
+    }
+
+    /**
+     * Recorre los intervalos de almacén del pedido; se detiene si el visitante devuelve false.
+     *
+     * @return false si el recorrido se detuvo o falta un aeropuerto del flujo
+     */
+    private boolean recorrerFlujo(Pedido pedido, List<Vuelo> ruta, VisitanteIntervalo visitante) {
+        int conexion = Constantes.TIEMPO_MINIMO_CONEXION_MINUTOS;
+        int recogida = Constantes.HORAS_MAX_RECOGIDA_CLIENTE * 60;
+        int minutoActual = minutoInicio(pedido);
+
+        if (ruta == null || ruta.isEmpty()) {
+            int destino = instancia.indiceAeropuerto(pedido.getAeropuertoDestinoCodigo());
+            return destino >= 0 && visitante.visitar(destino, minutoActual, minutoActual + recogida);
+        }
+
+        for (int i = 0; i < ruta.size(); i++) {
+            Vuelo vuelo = ruta.get(i);
+            int salida = instancia.indiceAeropuerto(vuelo.getAeropuertoOrigen());
+            int llegada = instancia.indiceAeropuerto(vuelo.getAeropuertoDestino());
+            if (salida < 0 || llegada < 0) return false;
+
+            // Espera en el aeropuerto de salida hasta el vuelo
+            if (!visitante.visitar(salida, minutoActual, minutoActual + conexion)) return false;
+
+            int minutoLlegada = minutoActual + conexion + (int) (vuelo.getTiempoTransporte() * 60);
+            boolean ultimo = i == ruta.size() - 1;
+            int estancia = ultimo ? recogida : conexion;
+            if (estancia > 0 && !visitante.visitar(llegada, minutoLlegada, minutoLlegada + estancia)) return false;
+
+            minutoActual = ultimo ? minutoLlegada : minutoLlegada + conexion;
+        }
+        return true;
+    }
+
+    // ================= JOURNAL =================
+
+    /** Posición actual del journal. */
+    public int marca() {
+        return tamanoJournal;
+    }
+
+    /** Revierte, en orden inverso, los cambios anotados después de {@code marca}. */
+    public void deshacerHasta(int marca) {
+        int limite = Math.max(0, marca);
+        while (tamanoJournal > limite) {
+            tamanoJournal--;
+            sumar(journalAeropuerto[tamanoJournal], journalDesde[tamanoJournal], journalHasta[tamanoJournal],
+                    -journalDelta[tamanoJournal], false);
+        }
+    }
+
+    /** Revierte los últimos {@code cantidad} cambios del journal. */
+    public void deshacerUltimos(int cantidad) {
+        deshacerHasta(tamanoJournal - cantidad);
+    }
+
+    /** Acepta los cambios actuales: el estado queda como está y el journal se vacía. */
+    public void confirmar() {
+        tamanoJournal = 0;
+    }
+
+    /** Ocupación vacía con el mismo inicio y horizonte. */
+    public OcupacionTemporalAlmacenes crearVacia() {
+        return new OcupacionTemporalAlmacenes(instancia, inicio, totalMinutos / MINUTOS_DIA);
+    }
+
+    /** Copia la ocupación de {@code otra} (mismo horizonte) y vacía el journal. */
+    public void copiarEstadoDe(OcupacionTemporalAlmacenes otra) {
+        for (int a = 0; a < maximos.length; a++) {
+            if (otra.maximos[a] == null) {
+                if (maximos[a] != null) {
+                    Arrays.fill(maximos[a], 0);
+                    Arrays.fill(pendientes[a], 0);
+                }
+            } else if (maximos[a] == null) {
+                maximos[a] = otra.maximos[a].clone();
+                pendientes[a] = otra.pendientes[a].clone();
+            } else {
+                System.arraycopy(otra.maximos[a], 0, maximos[a], 0, maximos[a].length);
+                System.arraycopy(otra.pendientes[a], 0, pendientes[a], 0, pendientes[a].length);
+            }
+        }
+        tamanoJournal = 0;
+    }
+
+    /**
+     * Aplica, anotándolos en el journal, {@code cantidad} cambios del journal de {@code origen}
+     * desde la posición {@code desde}.
+     */
+    public void reproducir(OcupacionTemporalAlmacenes origen, int desde, int cantidad) {
+        for (int i = desde; i < desde + cantidad; i++) {
+            sumar(origen.journalAeropuerto[i], origen.journalDesde[i], origen.journalHasta[i],
+                    origen.journalDelta[i], true);
+        }
+    }
+
+    /** Deja todos los almacenes vacíos y vacía el journal. */
+    public void reiniciar() {
+        for (int a = 0; a < maximos.length; a++) {
+            if (maximos[a] != null) {
+                Arrays.fill(maximos[a], 0);
+                Arrays.fill(pendientes[a], 0);
+            }
+        }
+        tamanoJournal = 0;
+    }
+
+    // ================= ÁRBOL DE SEGMENTOS =================
+
+    private void sumar(int a, int desde, int hasta, int delta, boolean anotar) {
+        if (a < 0 || delta == 0) return;
+        int izquierda = Math.max(0, Math.min(desde, totalMinutos - 1));
+        int derecha = Math.max(0, Math.min(hasta, totalMinutos));
+        if (izquierda >= derecha) return;
+
+        if (maximos[a] == null) {
+            maximos[a] = new int[2 * hojas];
+            pendientes[a] = new int[hojas];
+        }
+        int[] max = maximos[a];
+        int[] pendiente = pendientes[a];
+
+        int l = izquierda + hojas;
+        int r = derecha + hojas;
+        int l0 = l;
+        int r0 = r - 1;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) aplicar(max, pendiente, l++, delta);
+            if ((r & 1) == 1) aplicar(max, pendiente, --r, delta);
+        }
+        recalcular(max, pendiente, l0);
+        recalcular(max, pendiente, r0);
+
+        if (anotar) anotar(a, izquierda, derecha, delta);
+    }
+
+    private int maximo(int a, int desde, int hasta) {
+        if (a < 0 || maximos[a] == null) return 0;
+        int izquierda = Math.max(0, Math.min(desde, totalMinutos - 1));
+        int derecha = Math.max(0, Math.min(hasta, totalMinutos));
+        if (izquierda >= derecha) return 0;
+
+        int[] max = maximos[a];
+        int[] pendiente = pendientes[a];
+        int l = izquierda + hojas;
+        int r = derecha + hojas;
+        propagar(max, pendiente, l);
+        propagar(max, pendiente, r - 1);
+        int resultado = Integer.MIN_VALUE;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resultado = Math.max(resultado, max[l++]);
+            if ((r & 1) == 1) resultado = Math.max(resultado, max[--r]);
+        }
+        return resultado;
+    }
+
+    private void aplicar(int[] max, int[] pendiente, int nodo, int delta) {
+        max[nodo] += delta;
+        if (nodo < hojas) pendiente[nodo] += delta;
+    }
+
+    /** Recalcula los ancestros de una hoja: máximo de los hijos más la suma pendiente propia. */
+    private void recalcular(int[] max, int[] pendiente, int nodo) {
+        while (nodo > 1) {
+            nodo >>= 1;
+            max[nodo] = Math.max(max[2 * nodo], max[2 * nodo + 1]) + pendiente[nodo];
+        }
+    }
+
+    /** Empuja hacia abajo las sumas pendientes en el camino de la raíz a una hoja. */
+    private void propagar(int[] max, int[] pendiente, int hoja) {
+        for (int s = altura; s > 0; s--) {
+            int nodo = hoja >> s;
+            if (pendiente[nodo] != 0) {
+                aplicar(max, pendiente, 2 * nodo, pendiente[nodo]);
+                aplicar(max, pendiente, 2 * nodo + 1, pendiente[nodo]);
+                pendiente[nodo] = 0;
+            }
+        }
+    }
+
+    private void anotar(int a, int desde, int hasta, int delta) {
+        if (tamanoJournal == journalDelta.length) {
+            int nuevaCapacidad = journalDelta.length * 2;
+            journalAeropuerto = Arrays.copyOf(journalAeropuerto, nuevaCapacidad);
+            journalDesde = Arrays.copyOf(journalDesde, nuevaCapacidad);
+            journalHasta = Arrays.copyOf(journalHasta, nuevaCapacidad);
+            journalDelta = Arrays.copyOf(journalDelta, nuevaCapacidad);
+        }
+        journalAeropuerto[tamanoJournal] = a;
+        journalDesde[tamanoJournal] = desde;
+        journalHasta[tamanoJournal] = hasta;
+        journalDelta[tamanoJournal] = delta;
+        tamanoJournal++;
+    }
+}
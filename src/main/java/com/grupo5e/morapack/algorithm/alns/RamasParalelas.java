@@ -0,0 +1,271 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Ramas paralelas del solver: cada rama tiene su propio {@link RegistroCapacidades} (creado con
+ * {@link RegistroCapacidades#crearRama()}), opcionalmente su propio {@link AcumuladorObjetivo} y
+ * sus propios operadores, así que varias ramas pueden aplicar movimientos a la vez sin compartir
+ * estado mutable: la {@link InstanciaProblema}, la red temporal y la cache de disponibilidad son
+ * de sólo lectura y la {@link TablaRutas} sincroniza el internado de rutas.
+ *
+ * Las ramas siguen al registro principal con los mismos journals. Antes de ejecutar su tarea,
+ * cada rama reproduce lo que el principal ya tiene anotado en el movimiento en curso (por ejemplo,
+ * la destrucción en la reparación especulativa; nada en el muestreo de vecindarios). El candidato
+ * elegido se reproduce de vuelta en el principal ({@link #adoptar}), de modo que el solver lo
+ * evalúa, acepta o deshace igual que un movimiento serial. Al aceptar, las ramas que no ganaron
+ * deshacen su parte y reproducen la elegida. Si el principal cambió por otra vía (reinicios,
+ * migrantes), la rama se vuelve a copiar completa la próxima vez.
+ *
+ * @param <O> operadores de cada rama, creados sobre su registro y su acumulador
+ */
+public class RamasParalelas<O> implements AutoCloseable {
+
+    // Versión imposible: la rama debe copiarse completa antes de usarse
+    private static final long SIN_SINCRONIZAR = -1;
+
+    /**
+     * Movimiento que una rama aplica con sus operadores sobre su registro.
+     *
+     * @param <R> resultado del movimiento
+     */
+    @FunctionalInterface
+    public interface Tarea<O, R> {
+        /** @return el resultado, o null si la rama no produjo candidato */
+        R ejecutar(O operadores, int indice);
+    }
+
+    /** Resultado de la tarea {@code indice}, ejecutada en la rama del mismo índice. */
+    public static final class Candidato<R> {
+        private final int indice;
+        private final R resultado;
+        private final RegistroCapacidades registro;
+
+        private Candidato(int indice, R resultado, RegistroCapacidades registro) {
+            this.indice = indice;
+            this.resultado = resultado;
+            this.registro = registro;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public R getResultado() {
+            return resultado;
+        }
+
+        /**
+         * Registro de la rama con el movimiento del candidato aplicado (p. ej. para leer los días
+         * de sus reservas); sólo de lectura y hasta que se acepte o descarte el movimiento.
+         */
+        public RegistroCapacidades getRegistro() {
+            return registro;
+        }
+    }
+
+    private static final class Rama<O> {
+        final RegistroCapacidades registro;
+        final AcumuladorObjetivo acumulador; // null si el principal no tiene acumulador
+        final O operadores;
+        long version = SIN_SINCRONIZAR; // versión del principal que tiene como estado confirmado
+        boolean usada;                  // ejecutó una tarea en el movimiento en curso
+        boolean copiada;                // se copió con el movimiento del principal ya aplicado
+        int marcaRegistro;              // posiciones de sus journals donde empieza su tarea
+        int marcaAcumulador;
+
+        Rama(RegistroCapacidades registro, AcumuladorObjetivo acumulador, O operadores) {
+            this.registro = registro;
+            this.acumulador = acumulador;
+            this.operadores = operadores;
+        }
+    }
+
+    private final RegistroCapacidades principal;
+    private final AcumuladorObjetivo acumuladorPrincipal;
+    private final List<Rama<O>> ramas;
+    private final ExecutorService executor;
+    private int marcaInicio;
+    private int marcaInicioAcumulador;
+    private Rama<O> ganadora;
+
+    /**
+     * @param principal            registro del solver
+     * @param acumuladorPrincipal  acumulador del solver si las tareas evalúan el objetivo, o null
+     * @param numRamas             tareas que pueden ejecutarse a la vez
+     * @param fabricaOperadores    crea los operadores de una rama sobre su registro y su acumulador
+     * @param nombreHilos          prefijo del nombre de los hilos del pool
+     */
+    public RamasParalelas(RegistroCapacidades principal, AcumuladorObjetivo acumuladorPrincipal, int numRamas,
+                          BiFunction<RegistroCapacidades, AcumuladorObjetivo, O> fabricaOperadores,
+                          String nombreHilos) {
+        this.principal = principal;
+        this.acumuladorPrincipal = acumuladorPrincipal;
+        this.ramas = new ArrayList<>(Math.max(1, numRamas));
+        for (int i = 0; i < Math.max(1, numRamas); i++) {
+            RegistroCapacidades registro = principal.crearRama();
+            AcumuladorObjetivo acumulador = acumuladorPrincipal != null ? acumuladorPrincipal.crearRama(registro) : null;
+            ramas.add(new Rama<>(registro, acumulador, fabricaOperadores.apply(registro, acumulador)));
+        }
+        AtomicInteger contadorHilos = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(ramas.size(), r -> {
+            Thread hilo = new Thread(r, nombreHilos + "-" + contadorHilos.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public int getNumRamas() {
+        return ramas.size();
+    }
+
+    /** true si se cerró (o se interrumpió una tarea) y ya no acepta movimientos. */
+    public boolean estaCerrada() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Ejecuta {@code cantidad} tareas (una por rama, como máximo {@link #getNumRamas()}) sobre el
+     * estado actual del registro principal, incluido lo ya anotado en su journal.
+     *
+     * @return los candidatos producidos, en orden de índice
+     */
+    public <R> List<Candidato<R>> ejecutar(int cantidad, Tarea<O, R> tarea) {
+        marcaInicio = principal.marca();
+        marcaInicioAcumulador = acumuladorPrincipal != null ? acumuladorPrincipal.marca() : 0;
+        ganadora = null;
+        int usadas = Math.min(cantidad, ramas.size());
+        List<Future<R>> futuros = new ArrayList<>(usadas);
+        for (int i = 0; i < usadas; i++) {
+            Rama<O> rama = ramas.get(i);
+            int indice = i;
+            rama.usada = true;
+            futuros.add(executor.submit(() -> {
+                sincronizar(rama);
+                return tarea.ejecutar(rama.operadores, indice);
+            }));
+        }
+
+        List<Candidato<R>> candidatos = new ArrayList<>(usadas);
+        for (int i = 0; i < usadas; i++) {
+            try {
+                R resultado = futuros.get(i).get();
+                if (resultado != null) {
+                    candidatos.add(new Candidato<>(i, resultado, ramas.get(i).registro));
+                }
+            } catch (ExecutionException e) {
+                System.out.println("    Error en rama paralela " + i + ": " + e.getCause());
+                // Su estado quedó a medias: se copia completa la próxima vez
+                ramas.get(i).usada = false;
+                ramas.get(i).version = SIN_SINCRONIZAR;
+            } catch (InterruptedException e) {
+                // Las ramas que siguen corriendo no pueden reutilizarse: se cierra y el solver
+                // sigue en modo serial
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                for (Rama<O> rama : ramas) {
+                    rama.usada = false;
+                    rama.version = SIN_SINCRONIZAR;
+                }
+                return new ArrayList<>();
+            }
+        }
+        return candidatos;
+    }
+
+    /**
+     * Reproduce en el registro principal (y en su acumulador) el movimiento del candidato.
+     */
+    public void adoptar(Candidato<?> candidato) {
+        ganadora = ramas.get(candidato.indice);
+        ganadora.registro.reproducirEn(principal, ganadora.marcaRegistro, ganadora.registro.marca());
+        if (acumuladorPrincipal != null) {
+            ganadora.acumulador.reproducirEn(acumuladorPrincipal, ganadora.marcaAcumulador,
+                    ganadora.acumulador.marca());
+        }
+    }
+
+    /**
+     * Confirma el movimiento del registro principal y deja las ramas usadas con el mismo estado
+     * confirmado. El acumulador principal lo confirma el solver después.
+     */
+    public void aceptar() {
+        int finMovimiento = principal.marca();
+        int finAcumulador = acumuladorPrincipal != null ? acumuladorPrincipal.marca() : 0;
+        List<Rama<O>> sincronizadas = new ArrayList<>(ramas.size());
+        for (Rama<O> rama : ramas) {
+            if (!rama.usada) continue;
+            rama.usada = false;
+            rama.copiada = false;
+            if (rama != ganadora) {
+                // Vuelve a "estado confirmado + lo anotado antes de la tarea" y toma el movimiento adoptado
+                rama.registro.deshacerHasta(rama.marcaRegistro);
+                principal.reproducirEn(rama.registro, marcaInicio, finMovimiento);
+                if (rama.acumulador != null) {
+                    rama.acumulador.deshacerHasta(rama.marcaAcumulador);
+                    acumuladorPrincipal.reproducirEn(rama.acumulador, marcaInicioAcumulador, finAcumulador);
+                }
+            }
+            rama.registro.confirmar();
+            if (rama.acumulador != null) rama.acumulador.confirmar();
+            sincronizadas.add(rama);
+        }
+        // Las ramas que no se usaron quedan con la versión anterior y se copiarán completas
+        principal.confirmar();
+        for (Rama<O> rama : sincronizadas) {
+            rama.version = principal.getVersion();
+        }
+        ganadora = null;
+    }
+
+    /**
+     * Deshace el movimiento en el registro principal y en las ramas. El acumulador principal lo
+     * deshace el solver.
+     */
+    public void descartar() {
+        for (Rama<O> rama : ramas) {
+            if (!rama.usada) continue;
+            rama.usada = false;
+            rama.registro.deshacer();
+            if (rama.acumulador != null) rama.acumulador.deshacer();
+            // Una rama copiada con el movimiento aplicado ya no coincide con el estado confirmado
+            if (rama.copiada) rama.version = SIN_SINCRONIZAR;
+            rama.copiada = false;
+        }
+        principal.deshacer();
+        ganadora = null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Deja la rama con el estado actual del principal: reproduce lo anotado en el movimiento en
+     * curso si la rama está al día o, si no, copia el estado completo.
+     */
+    private void sincronizar(Rama<O> rama) {
+        boolean alDia = rama.version == principal.getVersion() && rama.registro.getTamano() == 0
+                && (rama.acumulador == null || rama.acumulador.marca() == 0);
+        if (alDia) {
+            principal.reproducirEn(rama.registro, 0, marcaInicio);
+            if (rama.acumulador != null) acumuladorPrincipal.reproducirEn(rama.acumulador, 0, marcaInicioAcumulador);
+            rama.copiada = false;
+        } else {
+            rama.registro.copiarEstadoDe(principal);
+            if (rama.acumulador != null) rama.acumulador.copiarEstadoDe(acumuladorPrincipal);
+            rama.copiada = true;
+            rama.version = principal.getVersion();
+        }
+        rama.marcaRegistro = rama.registro.marca();
+        rama.marcaAcumulador = rama.acumulador != null ? rama.acumulador.marca() : 0;
+    }
+}
@@ -0,0 +1,492 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estado de capacidades de una ejecución del ALNS y journal de sus cambios.
+ *
+ * La capacidad usada de cada vuelo y la ocupación de cada almacén se guardan en arreglos
+ * primitivos indexados con {@link InstanciaProblema}; las entidades Vuelo y Aeropuerto no
+ * se modifican, por lo que varias ejecuciones pueden compartir la misma instancia sin locks.
+ *
+ * Un Vuelo se repite todos los días, así que la carga se lleva por ocurrencia: una celda por
+ * vuelo y día del {@link CalendarioVuelos} (un solo arreglo vuelo × día, sin objetos por celda).
+ * Las operaciones por ruta reciben el pedido para saber en qué día vuela cada tramo: al ocupar,
+ * cada tramo va en la primera ocurrencia con espacio, y los días elegidos quedan como reserva del
+ * pedido para liberar después las mismas celdas. Un día fuera del horizonte no tiene celda.
+ *
+ * Los operadores de destrucción y reparación ajustan la capacidad a través de este registro,
+ * que guarda cada delta. Si la iteración se rechaza, {@link #deshacer()} reproduce el journal
+ * en orden inverso; si se acepta, {@link #confirmar()} simplemente lo vacía.
+ *
+ * Así el costo por iteración depende del tamaño del movimiento y no del número de
+ * vuelos/aeropuertos de la red ni del tamaño de la solución.
+ *
+ * Opcionalmente lleva también la {@link OcupacionTemporalAlmacenes}: los flujos de pedidos se
+ * anotan en el mismo journal, de modo que deshacer un movimiento revierte vuelos, almacenes y
+ * ocupación temporal juntos.
+ *
+ * Para la reparación especulativa un registro puede tener ramas ({@link #crearRama()}) que se
+ * igualan copiando el estado o reproduciendo el journal de otro registro
+ * ({@link #reproducirEn}).
+ */
+public class RegistroCapacidades {
+
+    private static final int CAPACIDAD_INICIAL = 256;
+    // Entrada del journal que corresponde a intervalos de la ocupación temporal (delta = nº de intervalos)
+    private static final int ENTRADA_FLUJO = Integer.MIN_VALUE;
+    // Entrada del journal que cambia la reserva de un pedido (delta = posición en cambiosReserva)
+    private static final int ENTRADA_RESERVA = Integer.MIN_VALUE + 1;
+
+    private final InstanciaProblema instancia;
+    private final CalendarioVuelos calendario;
+    private final int dias;
+    private final int[] cargaVuelos; // [indiceVuelo * dias + dia - 1]
+    private final int[] ocupacionAeropuertos;
+    private final OcupacionTemporalAlmacenes temporal;
+    // Días de la ocurrencia de cada tramo con los que se ocupó cada pedido
+    private final HashMap<Pedido, int[]> reservas = new HashMap<>();
+
+    // Entradas del journal: celda vuelo × día (>= 0) o ~índice de aeropuerto (< 0), y su delta
+    private int[] indices;
+    private int[] deltas;
+    private int tamano;
+    // Cambios de reserva del journal: pedido, días anteriores (null = sin reserva) y nuevos
+    private final ArrayList<CambioReserva> cambiosReserva = new ArrayList<>();
+    // Cambia con cada confirmación o reinicio que altera el estado confirmado
+    private long version;
+
+    /**
+     * Unidades que ocupa un pedido: sus productos, o 1 si no trae la lista.
+     * Es la única fuente de esta cantidad; búsqueda de rutas, reservas y objetivo la usan igual.
+     */
+    public static int cantidadProductos(Pedido pedido) {
+        return pedido.getProductos() != null ? pedido.getProductos().size() : 1;
+    }
+
+    /** Registro de un solo día: cada vuelo tiene una única ocurrencia. */
+    public RegistroCapacidades(InstanciaProblema instancia) {
+        this(instancia, null);
+    }
+
+    public RegistroCapacidades(InstanciaProblema instancia, OcupacionTemporalAlmacenes temporal) {
+        this(instancia, temporal, CalendarioVuelos.unDia(instancia));
+    }
+
+    public RegistroCapacidades(InstanciaProblema instancia, OcupacionTemporalAlmacenes temporal,
+                               CalendarioVuelos calendario) {
+        this.instancia = instancia;
+        this.temporal = temporal;
+        this.calendario = calendario;
+        this.dias = calendario.getDias();
+        this.cargaVuelos = new int[instancia.getNumVuelos() * dias];
+        this.ocupacionAeropuertos = new int[instancia.getNumAeropuertos()];
+        this.indices = new int[CAPACIDAD_INICIAL];
+        this.deltas = new int[CAPACIDAD_INICIAL];
+        this.tamano = 0;
+    }
+
+    /**
+     * Carga de la ocurrencia más llena del vuelo en esta ejecución (0 si no pertenece a la
+     * instancia).
+     */
+    public int capacidadUsada(Vuelo vuelo) {
+        int indice = instancia.indiceVuelo(vuelo);
+        return indice >= 0 ? capacidadUsada(indice) : 0;
+    }
+
+    /** Igual que {@link #capacidadUsada(Vuelo)} con el índice denso del vuelo en la instancia. */
+    public int capacidadUsada(int indiceVuelo) {
+        int maximo = 0;
+        for (int c = indiceVuelo * dias, fin = c + dias; c < fin; c++) {
+            maximo = Math.max(maximo, cargaVuelos[c]);
+        }
+        return maximo;
+    }
+
+    /** Carga de la ocurrencia del vuelo en el día {@code dia} (0 si no pertenece a la instancia). */
+    public int capacidadUsada(Vuelo vuelo, int dia) {
+        int indice = instancia.indiceVuelo(vuelo);
+        return indice >= 0 ? cargaVuelos[celda(indice, dia)] : 0;
+    }
+
+    /** Carga de la ocurrencia del día {@code dia} del vuelo con índice denso {@code indiceVuelo}. */
+    public int capacidadUsada(int indiceVuelo, int dia) {
+        return cargaVuelos[celda(indiceVuelo, dia)];
+    }
+
+    /**
+     * Día de la ocurrencia de cada tramo de la ruta del pedido: los de su reserva si está ocupado
+     * (la ruta debe ser la que ocupó), o si no la primera ocurrencia de cada tramo. 0 para vuelos
+     * que no son de la instancia.
+     *
+     * @return los días, o null si algún tramo cae fuera del horizonte
+     */
+    public int[] dias(Pedido pedido, List<Vuelo> ruta) {
+        int[] reserva = pedido != null ? reservas.get(pedido) : null;
+        return reserva != null ? reserva.clone() : calendario.dias(pedido, ruta);
+    }
+
+    /**
+     * Suma de la carga de las ocurrencias que usaría el pedido con su ruta y {@code cantidad}
+     * productos (0 si no se puede programar en el horizonte).
+     */
+    public int cargaRuta(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        int[] dias = diasParaOcupar(pedido, ruta, cantidad);
+        if (dias == null) return 0;
+        int total = 0;
+        for (int t = 0; t < dias.length; t++) {
+            int indice = instancia.indiceVuelo(ruta.get(t));
+            if (indice >= 0) total += cargaVuelos[celda(indice, dias[t])];
+        }
+        return total;
+    }
+
+    /**
+     * true si caben {@code cantidad} productos más en la ruta del pedido: cada tramo tiene, dentro
+     * del horizonte y antes de su límite de llegada ({@link CalendarioVuelos#limiteLlegada}), una
+     * ocurrencia con espacio que sale a tiempo.
+     */
+    public boolean cabeEnVuelos(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        return diasConEspacio(pedido, ruta, cantidad) != null;
+    }
+
+    /** Días de la primera ocurrencia con espacio para {@code cantidad} de cada tramo, o null. */
+    private int[] diasConEspacio(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        return calendario.dias(pedido, ruta, calendario.limiteLlegada(pedido), (f, dia) ->
+                cargaVuelos[celda(f, dia)] + cantidad <= instancia.getVuelos().get(f).getCapacidadMaxima());
+    }
+
+    /**
+     * Días en que se ocupa la ruta: la primera ocurrencia con espacio de cada tramo o, si no la
+     * hay, la primera ocurrencia (queda sobre la capacidad). Sin pedido no hay reserva que
+     * recuerde los días, así que siempre es la primera ocurrencia.
+     */
+    private int[] diasParaOcupar(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        int[] dias = pedido != null ? diasConEspacio(pedido, ruta, cantidad) : null;
+        return dias != null ? dias : calendario.dias(pedido, ruta);
+    }
+
+    /** Ocupación del almacén en esta ejecución (0 si no está activo en la instancia). */
+    public int ocupacion(Aeropuerto aeropuerto) {
+        int indice = instancia.indiceAeropuerto(aeropuerto);
+        return indice >= 0 ? ocupacionAeropuertos[indice] : 0;
+    }
+
+    /**
+     * Suma {@code delta} a la carga de la ocurrencia del vuelo en el día {@code dia} y lo anota en
+     * el journal.
+     */
+    public void ajustarVuelo(Vuelo vuelo, int dia, int delta) {
+        if (vuelo == null || delta == 0) return;
+        int indice = instancia.indiceVuelo(vuelo);
+        if (indice < 0) return;
+        ajustarCelda(celda(indice, dia), delta);
+    }
+
+    /**
+     * Ocupa con la ruta del pedido la primera ocurrencia con espacio de cada tramo y guarda los
+     * días como su reserva. Una cantidad negativa libera, como {@link #liberarVuelos}.
+     *
+     * @return false (sin ocupar nada) si algún tramo no tiene ocurrencia dentro del horizonte
+     */
+    public boolean ocuparVuelos(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        if (cantidad < 0) {
+            liberarVuelos(pedido, ruta, -cantidad);
+            return true;
+        }
+        if (cantidad == 0 || ruta == null) return true;
+        int[] dias = diasParaOcupar(pedido, ruta, cantidad);
+        if (dias == null) return false;
+        ajustarTramos(ruta, dias, cantidad);
+        if (pedido != null) cambiarReserva(pedido, dias);
+        return true;
+    }
+
+    /**
+     * Ocupa con la ruta del pedido las ocurrencias de los días dados (los de una reserva copiada
+     * con {@link #copiarReservas()}) y los guarda como su reserva, sin buscar espacio.
+     */
+    public void ocuparVuelos(Pedido pedido, List<Vuelo> ruta, int cantidad, int[] dias) {
+        if (cantidad == 0 || ruta == null || dias == null) return;
+        ajustarTramos(ruta, dias, cantidad);
+        if (pedido != null) cambiarReserva(pedido, dias);
+    }
+
+    /**
+     * Días reservados de cada pedido ocupado, para volver a ocupar más tarde exactamente las
+     * mismas ocurrencias.
+     */
+    public Map<Pedido, int[]> copiarReservas() {
+        // Los días de una reserva no se modifican, así que se comparten
+        return new HashMap<>(reservas);
+    }
+
+    /**
+     * Libera lo que ocupó {@link #ocuparVuelos} con el mismo pedido, ruta y cantidad: las celdas
+     * de su reserva, aunque ahora haya espacio en ocurrencias anteriores.
+     */
+    public void liberarVuelos(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        if (cantidad == 0 || ruta == null) return;
+        int[] reserva = pedido != null ? reservas.get(pedido) : null;
+        int[] dias = reserva != null ? reserva : calendario.dias(pedido, ruta);
+        if (dias == null) return;
+        ajustarTramos(ruta, dias, -cantidad);
+        if (reserva != null) cambiarReserva(pedido, null);
+    }
+
+    private void ajustarTramos(List<Vuelo> ruta, int[] dias, int delta) {
+        for (int t = 0; t < dias.length; t++) {
+            int indice = instancia.indiceVuelo(ruta.get(t));
+            if (indice >= 0) ajustarCelda(celda(indice, dias[t]), delta);
+        }
+    }
+
+    private void cambiarReserva(Pedido pedido, int[] dias) {
+        int[] anterior = dias != null ? reservas.put(pedido, dias) : reservas.remove(pedido);
+        cambiosReserva.add(new CambioReserva(pedido, anterior, dias));
+        anotar(ENTRADA_RESERVA, cambiosReserva.size() - 1);
+    }
+
+    /**
+     * Suma {@code delta} a la ocupación actual de un aeropuerto y lo anota en el journal.
+     */
+    public void ajustarAeropuerto(Aeropuerto aeropuerto, int delta) {
+        if (aeropuerto == null || delta == 0) return;
+        int indice = instancia.indiceAeropuerto(aeropuerto);
+        if (indice < 0) return;
+        ocupacionAeropuertos[indice] += delta;
+        anotar(~indice, delta);
+    }
+
+    /**
+     * Ocupa las ocurrencias que usa el pedido con su ruta y el almacén destino.
+     */
+    public void ocuparRuta(Pedido pedido, List<Vuelo> ruta, Aeropuerto destino, int cantidad) {
+        if (ocuparVuelos(pedido, ruta, cantidad)) ajustarAeropuerto(destino, cantidad);
+    }
+
+    /**
+     * Libera las ocurrencias que usa el pedido con su ruta y el almacén destino.
+     */
+    public void liberarRuta(Pedido pedido, List<Vuelo> ruta, Aeropuerto destino, int cantidad) {
+        ocuparRuta(pedido, ruta, destino, -cantidad);
+    }
+
+    /**
+     * Igual que {@link #ocuparRuta(Pedido, List, Aeropuerto, int)} para una ruta sin pedido: el
+     * primer tramo sale desde el inicio del calendario.
+     */
+    public void ocuparRuta(List<Vuelo> ruta, Aeropuerto destino, int cantidad) {
+        ocuparRuta(null, ruta, destino, cantidad);
+    }
+
+    public void liberarRuta(List<Vuelo> ruta, Aeropuerto destino, int cantidad) {
+        ocuparRuta(null, ruta, destino, -cantidad);
+    }
+
+    /**
+     * Ocupa los almacenes por los que pasa el pedido a lo largo del tiempo (sin efecto si el
+     * registro no lleva ocupación temporal).
+     */
+    public void ocuparFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        if (temporal == null || cantidad == 0) return;
+        int intervalos = temporal.ocuparFlujo(pedido, ruta, cantidad);
+        if (intervalos > 0) anotar(ENTRADA_FLUJO, intervalos);
+    }
+
+    /**
+     * Libera la ocupación temporal de un pedido con su ruta.
+     */
+    public void liberarFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        ocuparFlujo(pedido, ruta, -cantidad);
+    }
+
+    /**
+     * true si el pedido cabe con su ruta en todos los almacenes de paso durante su estancia
+     * (siempre true si el registro no lleva ocupación temporal).
+     */
+    public boolean cabeFlujo(Pedido pedido, List<Vuelo> ruta, int cantidad) {
+        return temporal == null || temporal.cabeFlujo(pedido, ruta, cantidad);
+    }
+
+    public InstanciaProblema getInstancia() {
+        return instancia;
+    }
+
+    public OcupacionTemporalAlmacenes getTemporal() {
+        return temporal;
+    }
+
+    public CalendarioVuelos getCalendario() {
+        return calendario;
+    }
+
+    /** Deja en cero la carga de todas las ocurrencias de los vuelos (sin reservas) y vacía el journal. */
+    public void reiniciarVuelos() {
+        Arrays.fill(cargaVuelos, 0);
+        reservas.clear();
+        version++;
+        vaciarJournal();
+    }
+
+    /** Deja en cero la ocupación de todos los almacenes (también la temporal) y vacía el journal. */
+    public void reiniciarAeropuertos() {
+        Arrays.fill(ocupacionAeropuertos, 0);
+        if (temporal != null) temporal.reiniciar();
+        version++;
+        vaciarJournal();
+    }
+
+    // ================= RAMAS =================
+
+    /**
+     * Registro vacío de la misma instancia y calendario (con su propia ocupación temporal si este
+     * la lleva), para seguir a este registro desde otro hilo.
+     */
+    public RegistroCapacidades crearRama() {
+        return new RegistroCapacidades(instancia, temporal != null ? temporal.crearVacia() : null, calendario);
+    }
+
+    /**
+     * Copia el estado actual de {@code otro} (creado con {@link #crearRama()} o del que esta es
+     * rama) y vacía el journal.
+     */
+    public void copiarEstadoDe(RegistroCapacidades otro) {
+        System.arraycopy(otro.cargaVuelos, 0, cargaVuelos, 0, cargaVuelos.length);
+        System.arraycopy(otro.ocupacionAeropuertos, 0, ocupacionAeropuertos, 0, ocupacionAeropuertos.length);
+        // Los días de una reserva no se modifican, así que se comparten
+        reservas.clear();
+        reservas.putAll(otro.reservas);
+        if (temporal != null) temporal.copiarEstadoDe(otro.temporal);
+        version++;
+        vaciarJournal();
+    }
+
+    /**
+     * Aplica en {@code destino}, anotándolos en su journal, los cambios de este registro entre las
+     * marcas {@code desde} y {@code hasta}. Ambos registros deben ser ramas uno del otro.
+     */
+    public void reproducirEn(RegistroCapacidades destino, int desde, int hasta) {
+        // Los intervalos de la ocupación temporal van en orden en su propio journal
+        int flujo = 0;
+        for (int i = 0; i < desde; i++) {
+            if (indices[i] == ENTRADA_FLUJO) flujo += deltas[i];
+        }
+        for (int i = Math.max(0, desde); i < Math.min(hasta, tamano); i++) {
+            int indice = indices[i];
+            int delta = deltas[i];
+            if (indice == ENTRADA_FLUJO) {
+                destino.temporal.reproducir(temporal, flujo, delta);
+                flujo += delta;
+                destino.anotar(ENTRADA_FLUJO, delta);
+            } else if (indice == ENTRADA_RESERVA) {
+                CambioReserva cambio = cambiosReserva.get(delta);
+                destino.cambiarReserva(cambio.pedido(), cambio.dias());
+            } else if (indice >= 0) {
+                destino.ajustarCelda(indice, delta);
+            } else {
+                destino.ocupacionAeropuertos[~indice] += delta;
+                destino.anotar(indice, delta);
+            }
+        }
+    }
+
+    /**
+     * Versión del estado confirmado: cambia al confirmar cambios, reiniciar o copiar otro estado.
+     * Dos registros que se igualaron en una misma versión siguen iguales mientras no cambie.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Posición actual del journal, para deshacer sólo una parte del movimiento.
+     */
+    public int marca() {
+        return tamano;
+    }
+
+    /**
+     * Revierte todos los cambios anotados desde la última confirmación.
+     */
+    public void deshacer() {
+        deshacerHasta(0);
+    }
+
+    /**
+     * Revierte, en orden inverso, los cambios anotados después de {@code marca}.
+     */
+    public void deshacerHasta(int marca) {
+        for (int i = tamano - 1; i >= marca; i--) {
+            if (indices[i] == ENTRADA_FLUJO) {
+                temporal.deshacerUltimos(deltas[i]);
+            } else if (indices[i] == ENTRADA_RESERVA) {
+                CambioReserva cambio = cambiosReserva.remove(deltas[i]);
+                if (cambio.anterior() != null) reservas.put(cambio.pedido(), cambio.anterior());
+                else reservas.remove(cambio.pedido());
+            } else if (indices[i] >= 0) {
+                cargaVuelos[indices[i]] -= deltas[i];
+            } else {
+                ocupacionAeropuertos[~indices[i]] -= deltas[i];
+            }
+        }
+        tamano = Math.min(tamano, Math.max(0, marca));
+    }
+
+    /**
+     * Acepta los cambios actuales: el estado queda como está y el journal se vacía.
+     */
+    public void confirmar() {
+        if (tamano > 0) version++;
+        vaciarJournal();
+    }
+
+    /**
+     * Número de deltas pendientes en el journal.
+     */
+    public int getTamano() {
+        return tamano;
+    }
+
+    private void vaciarJournal() {
+        tamano = 0;
+        cambiosReserva.clear();
+        if (temporal != null) temporal.confirmar();
+    }
+
+    /** Celda del vuelo en el día (1-based); el día tiene que estar dentro del horizonte. */
+    private int celda(int indiceVuelo, int dia) {
+        if (dia < 1 || dia > dias) {
+            throw new IllegalArgumentException("Día " + dia + " fuera del horizonte de " + dias + " días");
+        }
+        return indiceVuelo * dias + dia - 1;
+    }
+
+    private void ajustarCelda(int celda, int delta) {
+        cargaVuelos[celda] += delta;
+        anotar(celda, delta);
+    }
+
+    private void anotar(int indice, int delta) {
+        if (tamano == deltas.length) {
+            int nuevaCapacidad = deltas.length * 2;
+            indices = Arrays.copyOf(indices, nuevaCapacidad);
+            deltas = Arrays.copyOf(deltas, nuevaCapacidad);
+        }
+        indices[tamano] = indice;
+        deltas[tamano] = delta;
+        tamano++;
+    }
+
+    private record CambioReserva(Pedido pedido, int[] anterior, int[] dias) {
+    }
+}
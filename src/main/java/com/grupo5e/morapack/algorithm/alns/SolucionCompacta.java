@@ -0,0 +1,119 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solución ALNS en forma compacta: para cada pedido (por índice denso de
+ * {@link TablaRutas}) el id de su ruta internada, o {@link TablaRutas#SIN_RUTA}.
+ *
+ * {@link #copiar()} es O(1): la copia comparte el arreglo con el original y
+ * cualquiera de las dos lo clona recién en su primera escritura (copy-on-write).
+ */
+public class SolucionCompacta {
+
+    private final TablaRutas tabla;
+    private int[] rutaPorPedido;
+    private boolean compartido;
+    private int asignados;
+
+    public SolucionCompacta(TablaRutas tabla) {
+        this.tabla = tabla;
+        this.rutaPorPedido = new int[tabla.getNumPedidos()];
+        Arrays.fill(this.rutaPorPedido, TablaRutas.SIN_RUTA);
+        this.compartido = false;
+        this.asignados = 0;
+    }
+
+    private SolucionCompacta(SolucionCompacta origen) {
+        this.tabla = origen.tabla;
+        this.rutaPorPedido = origen.rutaPorPedido;
+        this.asignados = origen.asignados;
+        this.compartido = true;
+        origen.compartido = true;
+    }
+
+    /** Copia lógica en O(1); el arreglo se duplica sólo al escribir. */
+    public SolucionCompacta copiar() {
+        return new SolucionCompacta(this);
+    }
+
+    public TablaRutas getTabla() {
+        return tabla;
+    }
+
+    /** Número de pedidos con ruta asignada. */
+    public int tamano() {
+        return asignados;
+    }
+
+    public boolean estaVacia() {
+        return asignados == 0;
+    }
+
+    // ===== Acceso por índice =====
+
+    public int rutaId(int indicePedido) {
+        return rutaPorPedido[indicePedido];
+    }
+
+    public boolean estaAsignado(int indicePedido) {
+        return rutaPorPedido[indicePedido] != TablaRutas.SIN_RUTA;
+    }
+
+    public void asignarRuta(int indicePedido, int idRuta) {
+        int anterior = rutaPorPedido[indicePedido];
+        if (anterior == idRuta) return;
+        escribible()[indicePedido] = idRuta;
+        if (anterior == TablaRutas.SIN_RUTA) asignados++;
+        else if (idRuta == TablaRutas.SIN_RUTA) asignados--;
+    }
+
+    public void quitarRuta(int indicePedido) {
+        asignarRuta(indicePedido, TablaRutas.SIN_RUTA);
+    }
+
+    // ===== Acceso por entidad (para los operadores) =====
+
+    public boolean contiene(Pedido pedido) {
+        int indice = tabla.indicePedido(pedido);
+        return indice >= 0 && estaAsignado(indice);
+    }
+
+    /** Ruta del pedido (lista compartida de la tabla, no modificar) o null si no está asignado. */
+    public ArrayList<Vuelo> ruta(Pedido pedido) {
+        int indice = tabla.indicePedido(pedido);
+        if (indice < 0 || !estaAsignado(indice)) return null;
+        return tabla.ruta(rutaPorPedido[indice]);
+    }
+
+    public void asignar(Pedido pedido, List<Vuelo> ruta) {
+        asignarRuta(tabla.indicePedido(pedido), tabla.internar(ruta));
+    }
+
+    public void quitar(Pedido pedido) {
+        int indice = tabla.indicePedido(pedido);
+        if (indice >= 0) quitarRuta(indice);
+    }
+
+    /** Pedidos con ruta asignada, en orden de índice. */
+    public ArrayList<Pedido> pedidosAsignados() {
+        ArrayList<Pedido> lista = new ArrayList<>(asignados);
+        for (int i = 0; i < rutaPorPedido.length; i++) {
+            if (rutaPorPedido[i] != TablaRutas.SIN_RUTA) lista.add(tabla.pedido(i));
+        }
+        return lista;
+    }
+
+    private int[] escribible() {
+        if (compartido) {
+            rutaPorPedido = rutaPorPedido.clone();
+            compartido = false;
+        }
+        return rutaPorPedido;
+    }
+}
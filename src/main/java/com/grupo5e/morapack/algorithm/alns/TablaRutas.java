@@ -0,0 +1,166 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices densos de pedidos y vuelos + tabla de rutas internadas.
+ *
+ * Cada ruta distinta (secuencia de vuelos) se guarda una sola vez como un int[] de
+ * índices de vuelo y se identifica por un id entero. {@link SolucionCompacta} sólo
+ * guarda, por pedido, el id de su ruta.
+ *
+ * Una tabla pertenece a una ejecución del solver. El internado y la lectura de rutas están
+ * sincronizados porque las ramas de {@link RamasParalelas} internan rutas en paralelo;
+ * el resto (índices por id de base de datos) sólo se usa desde el hilo del solver.
+ */
+public class TablaRutas {
+
+    /** Id de ruta para un pedido sin asignar. */
+    public static final int SIN_RUTA = -1;
+
+    private final Pedido[] pedidos;
+    private final Vuelo[] vuelos;
+    private final Map<Pedido, Integer> indicePedidos;
+    private final Map<Vuelo, Integer> indiceVuelos;
+
+    // Rutas internadas: id -> índices de vuelo, id -> vista con entidades (no modificar)
+    private final ArrayList<int[]> rutas = new ArrayList<>();
+    private final ArrayList<ArrayList<Vuelo>> rutasVuelos = new ArrayList<>();
+    private final HashMap<ClaveRuta, Integer> idsRutas = new HashMap<>();
+
+    public TablaRutas(List<Pedido> pedidos, List<Vuelo> vuelos) {
+        this.pedidos = pedidos.toArray(new Pedido[0]);
+        this.vuelos = vuelos.toArray(new Vuelo[0]);
+        this.indicePedidos = new IdentityHashMap<>(this.pedidos.length * 2);
+        this.indiceVuelos = new IdentityHashMap<>(this.vuelos.length * 2);
+        for (int i = 0; i < this.pedidos.length; i++) indicePedidos.put(this.pedidos[i], i);
+        for (int i = 0; i < this.vuelos.length; i++) indiceVuelos.put(this.vuelos[i], i);
+    }
+
+    public int getNumPedidos() {
+        return pedidos.length;
+    }
+
+    public int getNumVuelos() {
+        return vuelos.length;
+    }
+
+    public synchronized int getNumRutas() {
+        return rutas.size();
+    }
+
+    public Pedido pedido(int indice) {
+        return pedidos[indice];
+    }
+
+    public Vuelo vuelo(int indice) {
+        return vuelos[indice];
+    }
+
+    /** Índice denso del pedido, o -1 si no pertenece a esta instancia. */
+    public int indicePedido(Pedido pedido) {
+        Integer indice = indicePedidos.get(pedido);
+        return indice != null ? indice : -1;
+    }
+
+    /** Índice denso del vuelo, o -1 si no pertenece a esta instancia. */
+    public int indiceVuelo(Vuelo vuelo) {
+        Integer indice = indiceVuelos.get(vuelo);
+        return indice != null ? indice : -1;
+    }
+
+    /**
+     * Devuelve el id de la ruta, registrándola si es la primera vez que aparece.
+     */
+    public int internar(List<Vuelo> ruta) {
+        int[] indices = new int[ruta == null ? 0 : ruta.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = indiceVuelo(ruta.get(i));
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException("Vuelo fuera de la instancia: " + ruta.get(i).getIdentificadorVuelo());
+            }
+        }
+        return internar(indices);
+    }
+
+    /**
+     * Devuelve el id de la ruta dada como índices de vuelo (el arreglo no debe modificarse después).
+     */
+    public synchronized int internar(int[] indicesVuelos) {
+        ClaveRuta clave = new ClaveRuta(indicesVuelos);
+        Integer id = idsRutas.get(clave);
+        if (id != null) return id;
+
+        int nuevoId = rutas.size();
+        rutas.add(indicesVuelos);
+        ArrayList<Vuelo> vista = new ArrayList<>(indicesVuelos.length);
+        for (int indice : indicesVuelos) vista.add(vuelos[indice]);
+        rutasVuelos.add(vista);
+        idsRutas.put(clave, nuevoId);
+        return nuevoId;
+    }
+
+    /** Índices de vuelo de una ruta internada (no modificar). */
+    public synchronized int[] vuelosDeRuta(int idRuta) {
+        return rutas.get(idRuta);
+    }
+
+    /** Vuelos de una ruta internada; la lista es compartida y no debe modificarse. */
+    public synchronized ArrayList<Vuelo> ruta(int idRuta) {
+        return rutasVuelos.get(idRuta);
+    }
+
+    /**
+     * Convierte una solución compacta al formato de entidades usado fuera del solver.
+     * Cada ruta se copia para que el llamador pueda modificarla libremente.
+     */
+    public HashMap<Pedido, ArrayList<Vuelo>> aMapa(SolucionCompacta solucion) {
+        HashMap<Pedido, ArrayList<Vuelo>> mapa = new HashMap<>(solucion.tamano() * 2);
+        for (int i = 0; i < pedidos.length; i++) {
+            int idRuta = solucion.rutaId(i);
+            if (idRuta != SIN_RUTA) {
+                mapa.put(pedidos[i], new ArrayList<>(ruta(idRuta)));
+            }
+        }
+        return mapa;
+    }
+
+    /**
+     * Convierte una solución en formato de entidades a su forma compacta.
+     */
+    public SolucionCompacta desdeMapa(Map<Pedido, ArrayList<Vuelo>> mapa) {
+        SolucionCompacta solucion = new SolucionCompacta(this);
+        for (Map.Entry<Pedido, ArrayList<Vuelo>> entrada : mapa.entrySet()) {
+            solucion.asignar(entrada.getKey(), entrada.getValue());
+        }
+        return solucion;
+    }
+
+    private static final class ClaveRuta {
+        private final int[] vuelos;
+        private final int hash;
+
+        ClaveRuta(int[] vuelos) {
+            this.vuelos = vuelos;
+            this.hash = Arrays.hashCode(vuelos);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ClaveRuta otra && Arrays.equals(vuelos, otra.vuelos);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.grupo5e.morapack.algorithm.alns;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Límite de tiempo (wall-clock) y cancelación cooperativa de una ejecución del ALNS.
+ *
+ * El solver lo consulta entre iteraciones y en los bucles de construcción; al detenerse
+ * conserva la mejor solución encontrada hasta ese momento. Un mismo token puede compartirse
+ * entre los trabajadores de {@link ALNSMultiArranque}.
+ */
+public class TokenCancelacion {
+
+    private final AtomicBoolean cancelado = new AtomicBoolean(false);
+    private final long limiteNanos;
+
+    /**
+     * @param tiempoLimiteSegundos segundos desde ahora; null o 0 = sin límite de tiempo
+     */
+    public TokenCancelacion(Integer tiempoLimiteSegundos) {
+        if (tiempoLimiteSegundos == null || tiempoLimiteSegundos <= 0) {
+            this.limiteNanos = Long.MAX_VALUE;
+        } else {
+            this.limiteNanos = System.nanoTime() + tiempoLimiteSegundos * 1_000_000_000L;
+        }
+    }
+
+    public void cancelar() {
+        cancelado.set(true);
+    }
+
+    public boolean estaCancelado() {
+        return cancelado.get();
+    }
+
+    public boolean tiempoAgotado() {
+        return limiteNanos != Long.MAX_VALUE && System.nanoTime() - limiteNanos >= 0;
+    }
+
+    /** true si se pidió cancelar o se venció el límite de tiempo. */
+    public boolean debeDetenerse() {
+        return estaCancelado() || tiempoAgotado();
+    }
+}
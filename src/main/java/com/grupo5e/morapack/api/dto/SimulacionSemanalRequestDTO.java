@@ -31,6 +31,33 @@ public class SimulacionSemanalRequestDTO {
     @Min(value = 1, message = "Debe haber al menos 1 iteración")
     private Integer iteracionesAlns = 1000;
 
+    @Builder.Default
+    @Schema(description = "Número de búsquedas ALNS independientes en paralelo (1 = una sola búsqueda)", example = "1")
+    @Min(value = 1, message = "Debe haber al menos 1 trabajador")
+    @Max(value = 64, message = "No se pueden usar más de 64 trabajadores")
+    private Integer trabajadoresAlns = 1;
+
+    @Schema(description = "Iteraciones de cada búsqueda en modo paralelo (vacío = iteracionesAlns)", example = "500")
+    @Min(value = 1, message = "Debe haber al menos 1 iteración por trabajador")
+    private Integer iteracionesPorTrabajador;
+
+    @Builder.Default
+    @Schema(description = "Segmentos ALNS entre migraciones de soluciones entre trabajadores (0 = búsquedas independientes)", example = "4")
+    @Min(value = 0, message = "Los segmentos entre migraciones no pueden ser negativos")
+    private Integer segmentosEntreMigraciones = 0;
+
+    @Builder.Default
+    @Schema(description = "Operadores de reparación ALNS que se prueban en paralelo sobre cada destrucción (1 = sólo el elegido por la ruleta)", example = "4")
+    @Min(value = 1, message = "Debe probarse al menos 1 operador de reparación")
+    @Max(value = 4, message = "Sólo hay 4 operadores de reparación")
+    private Integer reparacionesEspeculativas = 1;
+
+    @Builder.Default
+    @Schema(description = "Vecinos ALNS (destrucción + reparación) que se generan y evalúan en paralelo en cada iteración (1 = uno solo); si es mayor que 1 reemplaza a reparacionesEspeculativas", example = "4")
+    @Min(value = 1, message = "Debe generarse al menos 1 vecino por iteración")
+    @Max(value = 16, message = "No se pueden generar más de 16 vecinos por iteración")
+    private Integer vecindariosParalelos = 1;
+
     @Schema(description = "IDs de pedidos específicos a incluir (vacío = todos los pedidos disponibles)")
     private List<Long> pedidosIds;
 
@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
@@ -24,5 +25,34 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Envío de frames SSE de las simulaciones. Un cliente lento ocupa un hilo sólo
+     * mientras recibe su frame; los demás siguen en los hilos libres
+     */
+    @Bean(name = "simulationStreamExecutor")
+    public Executor simulationStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("simulacion-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ticker de las simulaciones en tiempo real: avanza cada simulación activa
+     * y publica su estado a intervalo fijo
+     */
+    @Bean(name = "simulationTicker")
+    public ThreadPoolTaskScheduler simulationTicker() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("simulacion-ticker-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.initialize();
+        return scheduler;
+    }
 }
 
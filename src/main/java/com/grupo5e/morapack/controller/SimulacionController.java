@@ -170,6 +170,45 @@ public class SimulacionController {
         return ResponseEntity.ok(resultado);
     }
 
+    @Operation(
+            summary = "Cancelar simulación",
+            description = "Detiene el ALNS de una simulación en ejecución. Se guarda la mejor solución encontrada " +
+                          "hasta ese momento y la simulación queda en estado CANCELADA."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Cancelación solicitada"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Simulación no encontrada"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "La simulación no tiene un ALNS en ejecución"
+            )
+    })
+    @PostMapping("/{simulacionId}/cancelar")
+    public ResponseEntity<Map<String, Object>> cancelarSimulacion(
+            @Parameter(description = "ID de la simulación", required = true)
+            @PathVariable Long simulacionId) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("simulacionId", simulacionId);
+        try {
+            if (simulacionService.cancelarSimulacion(simulacionId)) {
+                response.put("mensaje", "Cancelación solicitada. Se guardará la mejor solución encontrada.");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+            response.put("mensaje", "La simulación no tiene un ALNS en ejecución");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (RuntimeException e) {
+            response.put("mensaje", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
     @Operation(
             summary = "Listar todas las simulaciones",
             description = "Obtiene una lista de todas las simulaciones ejecutadas, ordenadas por fecha"
@@ -33,6 +33,13 @@ public class Constantes {
     public static final int CAPACIDAD_MAX_ALMACEN = 1000;
     
     public static final int HORAS_MAX_RECOGIDA_CLIENTE = 2;
+
+    // Red temporal de vuelos (búsqueda de itinerarios)
+    public static final int TIEMPO_MINIMO_CONEXION_MINUTOS = 120; // Escala mínima entre dos vuelos
+    public static final int MAX_VUELOS_POR_RUTA = 3; // Directo, 1 escala o 2 escalas
+    public static final int RETRASO_MAX_RUTA_ALEATORIA_MINUTOS = 12 * 60; // Solución inicial aleatoria
+    public static final int MAX_OPCIONES_RUTA = 20; // Itinerarios alternativos por pedido en la reparación
+    public static final int RUTAS_CATALOGO_POR_PAR = 30; // Itinerarios precalculados por par origen-destino
     
     // NUEVO: Control de tipo de solución inicial
     public static final boolean USAR_SOLUCION_INICIAL_CODICIOSA = false; // true=codiciosa, false=aleatoria
@@ -41,6 +48,7 @@ public class Constantes {
     // Control de logs
     public static final boolean LOGGING_VERBOSO = false; // true=logs detallados, false=logs mínimos
     public static final int INTERVALO_LOG_ITERACION = 100; // Mostrar solo cada X iteraciones
+    public static final boolean VERIFICAR_PESO_INCREMENTAL = false; // true=compara el peso incremental con el recálculo completo
     
     // NEW: Diversificación extrema / Restart inteligente
     public static final int UMBRAL_ESTANCAMIENTO_PARA_RESTART = 50; // Iteraciones sin mejora significativa para restart
@@ -4,14 +4,28 @@ import com.grupo5e.morapack.core.model.Aeropuerto;
 import com.grupo5e.morapack.core.model.Vuelo;
 import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Cache de vuelos disponibles por día.
  * Evita verificar disponibilidad repetidamente para la misma ruta y día.
+ *
+ * Cada día se calcula de una vez como una {@link TablaDia} inmutable: los ids de los vuelos que
+ * operan ese día en formato CSR por par (origen, destino) del {@link IndiceVuelos}, más una lista
+ * de solo lectura por par construida al mismo tiempo. Como los tramos del índice están ordenados
+ * por hora de salida, los de la tabla también, y se puede saltar por búsqueda binaria a las
+ * salidas desde un minuto del día. Las consultas devuelven siempre esas mismas
+ * instancias, sin copiar ni reservar memoria.
+ *
+ * Las tablas viven en un arreglo de ranuras indexado por {@code dia % maxDias}: la clave es el
+ * propio día (sin boxing), la memoria queda acotada a {@code maxDias} días y, al pedir un día que
+ * cae en una ranura ocupada por otro, el día anterior se desaloja. Como las tablas son inmutables
+ * y se publican con un {@link AtomicReferenceArray}, varios solvers en paralelo pueden compartir
+ * la cache sin bloqueos; si dos hilos calculan el mismo día a la vez, ambos obtienen tablas
+ * equivalentes y se queda la que se publique primero.
  * 
  * Patrón: Cache Pattern para optimización de consultas repetidas
  */
@@ -20,15 +34,16 @@ public class CacheDisponibilidad {
     private final ServicioDisponibilidadVuelos servicioDisponibilidad;
     private final IndiceVuelos indiceVuelos;
     
-    // Cache: día → (clave_ruta → vuelos disponibles)
-    private final Map<Integer, Map<String, List<Vuelo>>> cachePorDia;
+    // Ranura dia % maxDias → tabla de ese día (null si no se ha calculado)
+    private final AtomicReferenceArray<TablaDia> tablasPorDia;
     
     // Límite de días en cache (para evitar consumo excesivo de memoria)
     private static final int MAX_DIAS_EN_CACHE = 30;
+    private final int maxDias;
     
     // Estadísticas de cache
-    private int hits = 0;
-    private int misses = 0;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
     
     /**
      * Constructor del cache de disponibilidad.
@@ -37,9 +52,153 @@ public class CacheDisponibilidad {
      * @param indice Índice de vuelos para búsqueda eficiente
      */
     public CacheDisponibilidad(ServicioDisponibilidadVuelos servicio, IndiceVuelos indice) {
+        this(servicio, indice, MAX_DIAS_EN_CACHE);
+    }
+
+    /**
+     * @param maxDias número de días que se mantienen en cache a la vez
+     */
+    public CacheDisponibilidad(ServicioDisponibilidadVuelos servicio, IndiceVuelos indice, int maxDias) {
+        if (maxDias < 1) {
+            throw new IllegalArgumentException("maxDias debe ser al menos 1");
+        }
         this.servicioDisponibilidad = servicio;
         this.indiceVuelos = indice;
-        this.cachePorDia = new HashMap<>();
+        this.maxDias = maxDias;
+        this.tablasPorDia = new AtomicReferenceArray<>(maxDias);
+    }
+
+    /**
+     * Vuelos que operan un día, agrupados por par (origen, destino). Inmutable.
+     */
+    public static final class TablaDia {
+
+        private final int dia;
+        private final int numAeropuertos;
+        // CSR: vuelos del par p en [inicioPar[p], inicioPar[p + 1]) de vuelos
+        private final int[] inicioPar;
+        private final int[] vuelos;
+        private final int[] salidas; // minuto del día de cada posición, o MINUTOS_DIA si no tiene hora
+        private final List<Vuelo>[] listas;
+
+        @SuppressWarnings("unchecked")
+        private TablaDia(int dia, IndiceVuelos indice, ServicioDisponibilidadVuelos servicio) {
+            int n = indice.getNumAeropuertos();
+            int numVuelos = indice.getNumVuelos();
+            this.dia = dia;
+            this.numAeropuertos = n;
+            this.inicioPar = new int[n * n + 1];
+            this.listas = new List[n * n];
+
+            // El CSR de salientes del índice ya está ordenado por par: basta filtrarlo
+            int[] operan = new int[numVuelos];
+            int total = 0;
+            for (int o = 0; o < n; o++) {
+                for (int d = 0; d < n; d++) {
+                    int par = o * n + d;
+                    inicioPar[par] = total;
+                    for (int i = indice.inicioDirectos(o, d); i < indice.finDirectos(o, d); i++) {
+                        int f = indice.vueloSaliente(i);
+                        if (servicio.estaDisponible(indice.vuelo(f), dia)) operan[total++] = f;
+                    }
+                    int cantidad = total - inicioPar[par];
+                    if (cantidad == 0) {
+                        listas[par] = List.of();
+                    } else {
+                        Vuelo[] delPar = new Vuelo[cantidad];
+                        for (int k = 0; k < cantidad; k++) delPar[k] = indice.vuelo(operan[inicioPar[par] + k]);
+                        listas[par] = List.of(delPar);
+                    }
+                }
+            }
+            inicioPar[n * n] = total;
+            this.vuelos = Arrays.copyOf(operan, total);
+            this.salidas = new int[total];
+            for (int i = 0; i < total; i++) {
+                int minuto = indice.salida(vuelos[i]);
+                salidas[i] = minuto >= 0 ? minuto : IndiceVuelos.MINUTOS_DIA;
+            }
+        }
+
+        public int getDia() {
+            return dia;
+        }
+
+        /** Primera posición de los vuelos origen → destino que operan el día, en {@link #vuelo(int)}. */
+        public int inicio(int origen, int destino) {
+            return inicioPar[origen * numAeropuertos + destino];
+        }
+
+        /** Posición siguiente a la última de los vuelos origen → destino que operan el día. */
+        public int fin(int origen, int destino) {
+            return inicioPar[origen * numAeropuertos + destino + 1];
+        }
+
+        /**
+         * Primera posición de los vuelos origen → destino del día que salen en el minuto del día
+         * {@code minutoDia} o después; {@link #fin(int, int)} si no hay.
+         */
+        public int primeroDesde(int origen, int destino, int minutoDia) {
+            int bajo = inicio(origen, destino);
+            int alto = fin(origen, destino);
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (salidas[medio] < minutoDia) bajo = medio + 1;
+                else alto = medio;
+            }
+            return bajo;
+        }
+
+        /** Id de vuelo del índice en la posición {@code i}. */
+        public int vuelo(int i) {
+            return vuelos[i];
+        }
+
+        /** Minuto del día en que sale el vuelo de la posición {@code i}, o -1 si no tiene hora. */
+        public int salida(int i) {
+            return salidas[i] < IndiceVuelos.MINUTOS_DIA ? salidas[i] : -1;
+        }
+
+        /** Vuelos origen → destino que operan el día (lista de solo lectura compartida). */
+        public List<Vuelo> vuelos(int origen, int destino) {
+            return listas[origen * numAeropuertos + destino];
+        }
+
+        /** Número de pares (origen, destino) con al menos un vuelo ese día. */
+        private int paresConVuelos() {
+            int total = 0;
+            for (int p = 0; p + 1 < inicioPar.length; p++) {
+                if (inicioPar[p + 1] > inicioPar[p]) total++;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Tabla de vuelos disponibles del día, calculándola si no está en cache.
+     *
+     * @param dia Día de operación (1-based)
+     * @return la tabla del día, o null si el día es inválido
+     */
+    public TablaDia obtenerTabla(int dia) {
+        if (dia < 1) {
+            return null; // Día inválido
+        }
+        int ranura = dia % maxDias;
+        TablaDia tabla = tablasPorDia.get(ranura);
+        if (tabla != null && tabla.dia == dia) {
+            hits.increment();
+            return tabla; // Cache hit
+        }
+
+        // Cache miss: calcular el día completo y reemplazar el que ocupaba la ranura
+        misses.increment();
+        TablaDia nueva = new TablaDia(dia, indiceVuelos, servicioDisponibilidad);
+        while (true) {
+            TablaDia actual = tablasPorDia.get(ranura);
+            if (actual != null && actual.dia == dia) return actual; // Otro hilo la publicó antes
+            if (tablasPorDia.compareAndSet(ranura, actual, nueva)) return nueva;
+        }
     }
     
     /**
@@ -52,41 +211,21 @@ public class CacheDisponibilidad {
      * @return Lista INMUTABLE de vuelos disponibles (filtrados por cancelaciones)
      */
     public List<Vuelo> obtenerVuelosDisponibles(Aeropuerto origen, Aeropuerto destino, int dia) {
-        // Validar día
-        if (dia < 1) {
-            return List.of(); // Día inválido
-        }
-        
-        // Generar clave de ruta
-        String claveRuta = generarClaveRuta(origen, destino);
-        if (claveRuta == null) {
+        int o = indiceVuelos.idAeropuerto(origen);
+        int d = indiceVuelos.idAeropuerto(destino);
+        if (o < 0 || d < 0) {
             return List.of(); // Retornar lista vacía si parámetros inválidos
         }
+        return obtenerVuelosDisponibles(o, d, dia);
+    }
         
-        // Verificar si existe en cache
-        Map<String, List<Vuelo>> cacheDia = cachePorDia.get(dia);
-        if (cacheDia != null) {
-            List<Vuelo> cached = cacheDia.get(claveRuta);
-            if (cached != null) {
-                hits++;
-                // CRÍTICO: Retornar copia inmutable para proteger el cache
-                return List.copyOf(cached); // Cache hit
-            }
-        }
-        
-        // Cache miss: calcular vuelos disponibles
-        misses++;
-        List<Vuelo> todosVuelos = indiceVuelos.obtenerVuelosDirectos(origen, destino);
-        List<Vuelo> disponibles = todosVuelos.stream()
-            .filter(v -> servicioDisponibilidad.estaDisponible(v, dia))
-            .collect(Collectors.toList());
-        
-        // Guardar en cache
-        cachePorDia.computeIfAbsent(dia, k -> new HashMap<>())
-                   .put(claveRuta, disponibles);
-        
-        // CRÍTICO: Retornar copia inmutable para proteger el cache
-        return List.copyOf(disponibles);
+    /**
+     * Igual que {@link #obtenerVuelosDisponibles(Aeropuerto, Aeropuerto, int)} con los ids densos
+     * de aeropuerto del índice. La lista es la de la tabla del día: no se copia.
+     */
+    public List<Vuelo> obtenerVuelosDisponibles(int origen, int destino, int dia) {
+        TablaDia tabla = obtenerTabla(dia);
+        return tabla != null ? tabla.vuelos(origen, destino) : List.of();
     }
     
     /**
@@ -96,20 +235,25 @@ public class CacheDisponibilidad {
      * @param diaActual Día actual de operación
      */
     public void limpiarDiasAnteriores(int diaActual) {
-        cachePorDia.keySet().removeIf(dia -> dia < diaActual);
+        desalojarAntesDe(diaActual);
     }
     
     /**
-     * Limpia el cache cuando excede el límite de días permitidos.
-     * Elimina los días más antiguos para mantener el cache acotado.
+     * Limpia los días anteriores a la ventana de {@code maxDias} días que termina en diaActual.
+     * El tamaño de la cache ya está acotado por las ranuras; esto solo adelanta el desalojo.
      * 
      * @param diaActual Día actual de operación
      */
     public void aplicarLimiteCache(int diaActual) {
-        if (cachePorDia.size() > MAX_DIAS_EN_CACHE) {
-            // Eliminar días más antiguos que (diaActual - MAX_DIAS_EN_CACHE)
-            int diaMinimo = diaActual - MAX_DIAS_EN_CACHE;
-            cachePorDia.keySet().removeIf(dia -> dia < diaMinimo);
+        desalojarAntesDe(diaActual - maxDias);
+    }
+
+    private void desalojarAntesDe(int diaMinimo) {
+        for (int ranura = 0; ranura < maxDias; ranura++) {
+            TablaDia tabla = tablasPorDia.get(ranura);
+            if (tabla != null && tabla.dia < diaMinimo) {
+                tablasPorDia.compareAndSet(ranura, tabla, null);
+            }
         }
     }
     
@@ -118,23 +262,10 @@ public class CacheDisponibilidad {
      * Útil para reiniciar el cache entre iteraciones o fases del algoritmo.
      */
     public void limpiarCache() {
-        cachePorDia.clear();
-        resetearEstadisticas();
-    }
-    
-    /**
-     * Genera la clave única para una ruta.
-     * 
-     * @param origen Aeropuerto de origen
-     * @param destino Aeropuerto de destino
-     * @return Clave de ruta, o null si parámetros inválidos
-     */
-    private String generarClaveRuta(Aeropuerto origen, Aeropuerto destino) {
-        if (origen == null || destino == null || 
-            origen.getCodigoIATA() == null || destino.getCodigoIATA() == null) {
-            return null;
+        for (int ranura = 0; ranura < maxDias; ranura++) {
+            tablasPorDia.set(ranura, null);
         }
-        return origen.getCodigoIATA() + "-" + destino.getCodigoIATA();
+        resetearEstadisticas();
     }
     
     // ========== Estadísticas y debugging ==========
@@ -145,9 +276,10 @@ public class CacheDisponibilidad {
      * @return Porcentaje de hits (0.0 - 1.0)
      */
     public double getHitRate() {
-        int total = hits + misses;
+        long h = hits.sum();
+        long total = h + misses.sum();
         if (total == 0) return 0.0;
-        return (double) hits / total;
+        return (double) h / total;
     }
     
     /**
@@ -156,26 +288,33 @@ public class CacheDisponibilidad {
      * @return Número de días en cache
      */
     public int getDiasCacheados() {
-        return cachePorDia.size();
+        int total = 0;
+        for (int ranura = 0; ranura < maxDias; ranura++) {
+            if (tablasPorDia.get(ranura) != null) total++;
+        }
+        return total;
     }
     
     /**
      * Obtiene el número total de entradas en cache.
      * 
-     * @return Número total de (día, ruta) cacheados
+     * @return Número total de (día, ruta) cacheados con al menos un vuelo
      */
     public int getTotalEntradasCache() {
-        return cachePorDia.values().stream()
-            .mapToInt(Map::size)
-            .sum();
+        int total = 0;
+        for (int ranura = 0; ranura < maxDias; ranura++) {
+            TablaDia tabla = tablasPorDia.get(ranura);
+            if (tabla != null) total += tabla.paresConVuelos();
+        }
+        return total;
     }
     
     /**
      * Resetea las estadísticas del cache.
      */
     public void resetearEstadisticas() {
-        hits = 0;
-        misses = 0;
+        hits.reset();
+        misses.reset();
     }
     
     /**
@@ -183,8 +322,8 @@ public class CacheDisponibilidad {
      */
     public void imprimirEstadisticas() {
         System.out.println("=== Estadísticas de Cache de Disponibilidad ===");
-        System.out.println("Hits: " + hits);
-        System.out.println("Misses: " + misses);
+        System.out.println("Hits: " + hits.sum());
+        System.out.println("Misses: " + misses.sum());
         System.out.println("Hit Rate: " + String.format("%.2f%%", getHitRate() * 100));
         System.out.println("Días cacheados: " + getDiasCacheados());
         System.out.println("Total entradas: " + getTotalEntradasCache());
@@ -0,0 +1,455 @@
+package com.grupo5e.morapack.core.index;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.model.Ruta;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Catálogo de itinerarios por par (origen, destino): los K directos, de una escala y de dos
+ * escalas más cortos del plan de vuelos, ordenados por duración (de la primera salida a la última
+ * llegada, con el tiempo mínimo de conexión en las escalas).
+ *
+ * El plan se repite cada día, así que el catálogo sólo depende de él y no del horizonte, las
+ * cancelaciones ni la capacidad: se calcula una vez (en paralelo, un origen por tarea de
+ * fork-join) y se guarda como entidades {@link Ruta}. Al resolver, cada entrada se programa sobre
+ * la {@link RedTemporalVuelos} con {@link RedTemporalVuelos#programar}, que es donde se filtran
+ * las cancelaciones, la capacidad y el plazo del pedido.
+ *
+ * Las rutas se guardan con los ids de vuelo del {@link IndiceVuelos} sobre el que se construyó;
+ * {@link #paraIndice(IndiceVuelos)} las traduce a otro índice del mismo plan (p. ej. el de cada
+ * solver) por el id de entidad de los vuelos.
+ */
+public final class CatalogoRutas {
+
+    private static final int[][] SIN_RUTAS = new int[0][];
+    private static final int[] SIN_DURACIONES = new int[0];
+    private static final char SEPARADOR = '-'; // entre ids de vuelo en Ruta.secuenciaVuelos
+
+    // Duración máxima de un itinerario que vale la pena guardar: la promesa más larga de MoraPack
+    private static final int DURACION_MAXIMA =
+            (int) (Constantes.TIEMPO_MAX_ENTREGA_DIFERENTE_CONTINENTE * RedTemporalVuelos.MINUTOS_DIA);
+
+    private final IndiceVuelos indice;
+    private final int minutosConexion;
+    private final long firmaHorario;
+
+    // Por par (origen * A + destino): rutas (ids de vuelo del índice) y su duración en minutos
+    private final int[][][] rutasPorPar;
+    private final int[][] duracionesPorPar;
+
+    private CatalogoRutas(IndiceVuelos indice, int minutosConexion, long firmaHorario,
+                          int[][][] rutasPorPar, int[][] duracionesPorPar) {
+        this.indice = indice;
+        this.minutosConexion = minutosConexion;
+        this.firmaHorario = firmaHorario;
+        this.rutasPorPar = rutasPorPar;
+        this.duracionesPorPar = duracionesPorPar;
+    }
+
+    // ========== Construcción ==========
+
+    /**
+     * Construye el catálogo del plan de vuelos del índice en el pool común de fork-join.
+     *
+     * @param rutasPorPar número máximo de itinerarios por par (origen, destino)
+     */
+    public static CatalogoRutas construir(IndiceVuelos indice, int minutosConexion, int rutasPorPar) {
+        return construir(indice, minutosConexion, rutasPorPar, ForkJoinPool.commonPool());
+    }
+
+    public static CatalogoRutas construir(IndiceVuelos indice, int minutosConexion, int rutasPorPar, ForkJoinPool pool) {
+        int n = indice.getNumAeropuertos();
+        Plan plan = new Plan(indice, Math.max(0, minutosConexion));
+        int[][][] rutas = new int[n * n][][];
+        int[][] duraciones = new int[n * n][];
+        pool.invoke(new TareaOrigenes(plan, Math.max(1, rutasPorPar), 0, n, rutas, duraciones));
+        return new CatalogoRutas(indice, plan.minutosConexion, firmaHorario(indice), rutas, duraciones);
+    }
+
+    /**
+     * Horarios del plan por id de vuelo: minuto de salida y duración.
+     */
+    private static final class Plan {
+        final IndiceVuelos indice;
+        final int minutosConexion;
+        final int[] salida;
+        final int[] duracion;
+
+        Plan(IndiceVuelos indice, int minutosConexion) {
+            this.indice = indice;
+            this.minutosConexion = minutosConexion;
+            int numVuelos = indice.getNumVuelos();
+            this.salida = new int[numVuelos];
+            this.duracion = new int[numVuelos];
+            for (int f = 0; f < numVuelos; f++) {
+                // Igual que en la red temporal: sin horario o de un aeropuerto a sí mismo no cuenta
+                salida[f] = indice.origen(f) != indice.destino(f) ? indice.salida(f) : -1;
+                duracion[f] = RedTemporalVuelos.duracionMinutos(indice.vuelo(f));
+            }
+        }
+
+        /** Minutos desde la salida del primer tramo hasta la llegada de la ruta, o -1 si no es válida. */
+        int duracionRuta(int[] vuelos) {
+            if (vuelos.length == 0 || salida[vuelos[0]] < 0) return -1;
+            long transcurrido = duracion[vuelos[0]];
+            long llegada = salida[vuelos[0]] + transcurrido;
+            for (int t = 1; t < vuelos.length; t++) {
+                int f = vuelos[t];
+                if (salida[f] < 0 || indice.origen(f) != indice.destino(vuelos[t - 1])) return -1;
+                long espera = minutosConexion + Math.floorMod(salida[f] - (llegada + minutosConexion), RedTemporalVuelos.MINUTOS_DIA);
+                transcurrido += espera + duracion[f];
+                llegada += espera + duracion[f];
+            }
+            return transcurrido <= Integer.MAX_VALUE ? (int) transcurrido : -1;
+        }
+    }
+
+    /**
+     * Divide el rango de orígenes hasta llegar a uno por tarea. Cada origen llena sólo sus pares,
+     * así que las tareas no comparten nada mutable.
+     */
+    private static final class TareaOrigenes extends RecursiveAction {
+        private final Plan plan;
+        private final int k;
+        private final int desde;
+        private final int hasta;
+        private final int[][][] rutas;
+        private final int[][] duraciones;
+
+        TareaOrigenes(Plan plan, int k, int desde, int hasta, int[][][] rutas, int[][] duraciones) {
+            this.plan = plan;
+            this.k = k;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.rutas = rutas;
+            this.duraciones = duraciones;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 1) {
+                if (desde < hasta) calcularOrigen(plan, k, desde, rutas, duraciones);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaOrigenes(plan, k, desde, medio, rutas, duraciones),
+                    new TareaOrigenes(plan, k, medio, hasta, rutas, duraciones));
+        }
+    }
+
+    /**
+     * Recorre todos los itinerarios de hasta tres vuelos que salen del origen y guarda, por destino,
+     * los K más cortos.
+     */
+    private static void calcularOrigen(Plan plan, int k, int o, int[][][] rutas, int[][] duraciones) {
+        IndiceVuelos indice = plan.indice;
+        int n = indice.getNumAeropuertos();
+        int conexion = plan.minutosConexion;
+        int dia = RedTemporalVuelos.MINUTOS_DIA;
+        Mejores[] porDestino = new Mejores[n];
+        for (int d = 0; d < n; d++) porDestino[d] = new Mejores(k);
+
+        for (int i = indice.inicioSalientes(o), fin1 = indice.finSalientes(o); i < fin1; i++) {
+            int f1 = indice.vueloSaliente(i);
+            if (plan.salida[f1] < 0) continue;
+            int m1 = indice.destino(f1);
+            int t1 = plan.duracion[f1];
+            if (t1 > DURACION_MAXIMA) continue;
+            porDestino[m1].ofrecer(t1, f1, -1, -1);
+            int listo1 = plan.salida[f1] + t1 + conexion;
+
+            for (int j = indice.inicioSalientes(m1), fin2 = indice.finSalientes(m1); j < fin2; j++) {
+                int f2 = indice.vueloSaliente(j);
+                int m2 = indice.destino(f2);
+                if (plan.salida[f2] < 0 || m2 == o || m2 == m1) continue;
+                int t2 = t1 + conexion + Math.floorMod(plan.salida[f2] - listo1, dia) + plan.duracion[f2];
+                if (t2 > DURACION_MAXIMA) continue;
+                porDestino[m2].ofrecer(t2, f1, f2, -1);
+                int listo2 = plan.salida[f2] + plan.duracion[f2] + conexion;
+
+                for (int l = indice.inicioSalientes(m2), fin3 = indice.finSalientes(m2); l < fin3; l++) {
+                    int f3 = indice.vueloSaliente(l);
+                    int m3 = indice.destino(f3);
+                    if (plan.salida[f3] < 0 || m3 == o || m3 == m1 || m3 == m2) continue;
+                    int t3 = t2 + conexion + Math.floorMod(plan.salida[f3] - listo2, dia) + plan.duracion[f3];
+                    if (t3 > DURACION_MAXIMA || !porDestino[m3].admite(t3)) continue;
+                    porDestino[m3].ofrecer(t3, f1, f2, f3);
+                }
+            }
+        }
+
+        for (int d = 0; d < n; d++) {
+            int par = o * n + d;
+            if (d == o || porDestino[d].cantidad == 0) {
+                rutas[par] = SIN_RUTAS;
+                duraciones[par] = SIN_DURACIONES;
+            } else {
+                porDestino[d].volcar(rutas, duraciones, par);
+            }
+        }
+    }
+
+    /**
+     * Los K itinerarios más cortos hacia un destino: arreglo sin ordenar más la posición del peor,
+     * que es el que se reemplaza.
+     */
+    private static final class Mejores {
+        final int[] duracion;
+        final int[] tramos; // 3 por ruta; -1 = sin tramo
+        int cantidad;
+        int peor;
+
+        Mejores(int k) {
+            this.duracion = new int[k];
+            this.tramos = new int[3 * k];
+        }
+
+        boolean admite(int minutos) {
+            return cantidad < duracion.length || minutos < duracion[peor];
+        }
+
+        void ofrecer(int minutos, int f1, int f2, int f3) {
+            if (!admite(minutos)) return;
+            int pos = cantidad < duracion.length ? cantidad++ : peor;
+            duracion[pos] = minutos;
+            tramos[3 * pos] = f1;
+            tramos[3 * pos + 1] = f2;
+            tramos[3 * pos + 2] = f3;
+            if (cantidad == duracion.length) {
+                peor = 0;
+                for (int i = 1; i < cantidad; i++) {
+                    if (duracion[i] > duracion[peor]) peor = i;
+                }
+            }
+        }
+
+        void volcar(int[][][] rutas, int[][] duraciones, int par) {
+            Integer[] orden = new Integer[cantidad];
+            for (int i = 0; i < cantidad; i++) orden[i] = i;
+            Arrays.sort(orden, (a, b) -> duracion[a] != duracion[b] ? Integer.compare(duracion[a], duracion[b])
+                    : Integer.compare(numTramos(a), numTramos(b)));
+            int[][] delPar = new int[cantidad][];
+            int[] minutos = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                int r = orden[i];
+                delPar[i] = Arrays.copyOfRange(tramos, 3 * r, 3 * r + numTramos(r));
+                minutos[i] = duracion[r];
+            }
+            rutas[par] = delPar;
+            duraciones[par] = minutos;
+        }
+
+        int numTramos(int r) {
+            return tramos[3 * r + 1] < 0 ? 1 : tramos[3 * r + 2] < 0 ? 2 : 3;
+        }
+    }
+
+    // ========== Consultas ==========
+
+    public IndiceVuelos getIndice() {
+        return indice;
+    }
+
+    public int getMinutosConexion() {
+        return minutosConexion;
+    }
+
+    /** Firma del plan de vuelos con el que se construyó (ver {@link #firmaHorario(IndiceVuelos)}). */
+    public long getFirmaHorario() {
+        return firmaHorario;
+    }
+
+    /** Número de itinerarios guardados para el par (ids del índice). */
+    public int numRutas(int origen, int destino) {
+        return rutasPorPar[origen * indice.getNumAeropuertos() + destino].length;
+    }
+
+    /** Vuelos (ids del índice) del itinerario {@code r} del par; compartido, no modificar. */
+    public int[] ruta(int origen, int destino, int r) {
+        return rutasPorPar[origen * indice.getNumAeropuertos() + destino][r];
+    }
+
+    /** Duración en minutos del itinerario {@code r} del par según el plan. */
+    public int duracion(int origen, int destino, int r) {
+        return duracionesPorPar[origen * indice.getNumAeropuertos() + destino][r];
+    }
+
+    public int getTotalRutas() {
+        int total = 0;
+        for (int[][] delPar : rutasPorPar) total += delPar.length;
+        return total;
+    }
+
+    // ========== Plan de vuelos y traducción entre índices ==========
+
+    /**
+     * Firma del plan de vuelos del índice: no depende del orden de los vuelos y cambia si cambia el
+     * id, los aeropuertos o el horario de alguno. Sirve para saber si un catálogo guardado sigue
+     * valiendo.
+     */
+    public static long firmaHorario(IndiceVuelos indice) {
+        long firma = indice.getNumVuelos();
+        for (int f = 0; f < indice.getNumVuelos(); f++) {
+            Vuelo vuelo = indice.vuelo(f);
+            long h = vuelo.getId();
+            h = 31 * h + indice.aeropuerto(indice.origen(f)).getCodigoIATA().hashCode();
+            h = 31 * h + indice.aeropuerto(indice.destino(f)).getCodigoIATA().hashCode();
+            h = 31 * h + indice.salida(f);
+            h = 31 * h + RedTemporalVuelos.duracionMinutos(vuelo);
+            firma += mezclar(h);
+        }
+        return firma;
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * El mismo catálogo sobre otro índice del mismo plan de vuelos (los vuelos se emparejan por id
+     * de entidad y los aeropuertos por código IATA), o null si el plan del otro índice es distinto.
+     */
+    public CatalogoRutas paraIndice(IndiceVuelos otro) {
+        if (otro == indice) return this;
+        if (otro.getNumVuelos() != indice.getNumVuelos() || firmaHorario(otro) != firmaHorario) return null;
+
+        int[] vueloEnOtro = new int[indice.getNumVuelos()];
+        Map<Integer, Integer> porId = idsDeEntidad(otro);
+        for (int f = 0; f < indice.getNumVuelos(); f++) {
+            Integer g = porId != null ? porId.get(indice.vuelo(f).getId()) : null;
+            if (g == null) return null; // Ids repetidos o sin persistir: no hay forma segura de emparejar
+            vueloEnOtro[f] = g;
+        }
+        int n = indice.getNumAeropuertos();
+        int m = otro.getNumAeropuertos();
+        int[][][] rutas = new int[m * m][][];
+        int[][] duraciones = new int[m * m][];
+        Arrays.fill(rutas, SIN_RUTAS);
+        Arrays.fill(duraciones, SIN_DURACIONES);
+        for (int par = 0; par < n * n; par++) {
+            int[][] delPar = rutasPorPar[par];
+            if (delPar.length == 0) continue;
+            int o = otro.idAeropuerto(indice.aeropuerto(par / n));
+            int d = otro.idAeropuerto(indice.aeropuerto(par % n));
+            if (o < 0 || d < 0) return null;
+            int[][] traducidas = new int[delPar.length][];
+            for (int r = 0; r < delPar.length; r++) {
+                traducidas[r] = new int[delPar[r].length];
+                for (int t = 0; t < delPar[r].length; t++) traducidas[r][t] = vueloEnOtro[delPar[r][t]];
+            }
+            rutas[o * m + d] = traducidas;
+            duraciones[o * m + d] = duracionesPorPar[par];
+        }
+        return new CatalogoRutas(otro, minutosConexion, firmaHorario, rutas, duraciones);
+    }
+
+    /** Id de entidad → id del índice, o null si hay ids repetidos. */
+    private static Map<Integer, Integer> idsDeEntidad(IndiceVuelos indice) {
+        Map<Integer, Integer> porId = new HashMap<>(indice.getNumVuelos() * 2);
+        for (int f = 0; f < indice.getNumVuelos(); f++) {
+            if (porId.put(indice.vuelo(f).getId(), f) != null) return null;
+        }
+        return porId;
+    }
+
+    // ========== Persistencia como entidades Ruta ==========
+
+    /**
+     * Una {@link Ruta} por itinerario, con la secuencia de ids de entidad de sus vuelos, su
+     * posición en el par y la firma del plan.
+     */
+    public List<Ruta> aRutas() {
+        int n = indice.getNumAeropuertos();
+        List<Ruta> rutas = new ArrayList<>(getTotalRutas());
+        for (int par = 0; par < n * n; par++) {
+            for (int r = 0; r < rutasPorPar[par].length; r++) {
+                int[] vuelos = rutasPorPar[par][r];
+                StringBuilder secuencia = new StringBuilder();
+                for (int t = 0; t < vuelos.length; t++) {
+                    if (t > 0) secuencia.append(SEPARADOR);
+                    secuencia.append(indice.vuelo(vuelos[t]).getId());
+                }
+                Ruta ruta = new Ruta();
+                ruta.setAeropuertoOrigen(indice.aeropuerto(par / n));
+                ruta.setAeropuertoDestino(indice.aeropuerto(par % n));
+                ruta.setTiempoTotal(duracionesPorPar[par][r] / 60.0);
+                ruta.setSecuenciaVuelos(secuencia.toString());
+                ruta.setPosicionCatalogo(r);
+                ruta.setFirmaHorario(firmaHorario);
+                rutas.add(ruta);
+            }
+        }
+        return rutas;
+    }
+
+    /**
+     * Reconstruye un catálogo guardado sobre el índice del plan actual.
+     *
+     * @return el catálogo, o null si no hay rutas, su firma no es la del plan del índice o alguna
+     *         referencia un vuelo que ya no existe
+     */
+    public static CatalogoRutas desdeRutas(List<Ruta> rutas, IndiceVuelos indice, int minutosConexion) {
+        if (rutas == null || rutas.isEmpty()) return null;
+        long firma = firmaHorario(indice);
+        Map<Integer, Integer> porId = idsDeEntidad(indice);
+        if (porId == null) return null;
+
+        Plan plan = new Plan(indice, Math.max(0, minutosConexion));
+        int n = indice.getNumAeropuertos();
+        List<List<Ruta>> porPar = new ArrayList<>(n * n);
+        for (int par = 0; par < n * n; par++) porPar.add(null);
+        for (Ruta ruta : rutas) {
+            if (ruta.getFirmaHorario() == null || ruta.getFirmaHorario() != firma) return null;
+            int o = indice.idAeropuerto(ruta.getAeropuertoOrigen());
+            int d = indice.idAeropuerto(ruta.getAeropuertoDestino());
+            if (o < 0 || d < 0 || ruta.getSecuenciaVuelos() == null) return null;
+            List<Ruta> delPar = porPar.get(o * n + d);
+            if (delPar == null) porPar.set(o * n + d, delPar = new ArrayList<>());
+            delPar.add(ruta);
+        }
+
+        int[][][] rutasPorPar = new int[n * n][][];
+        int[][] duraciones = new int[n * n][];
+        for (int par = 0; par < n * n; par++) {
+            List<Ruta> delPar = porPar.get(par);
+            if (delPar == null) {
+                rutasPorPar[par] = SIN_RUTAS;
+                duraciones[par] = SIN_DURACIONES;
+                continue;
+            }
+            delPar.sort((a, b) -> Integer.compare(posicion(a), posicion(b)));
+            rutasPorPar[par] = new int[delPar.size()][];
+            duraciones[par] = new int[delPar.size()];
+            for (int r = 0; r < delPar.size(); r++) {
+                String[] ids = delPar.get(r).getSecuenciaVuelos().split(String.valueOf(SEPARADOR));
+                int[] vuelos = new int[ids.length];
+                for (int t = 0; t < ids.length; t++) {
+                    Integer f = porId.get(Integer.parseInt(ids[t].trim()));
+                    if (f == null) return null;
+                    vuelos[t] = f;
+                }
+                int minutos = plan.duracionRuta(vuelos);
+                if (minutos < 0) return null;
+                rutasPorPar[par][r] = vuelos;
+                duraciones[par][r] = minutos;
+            }
+        }
+        return new CatalogoRutas(indice, plan.minutosConexion, firma, rutasPorPar, duraciones);
+    }
+
+    private static int posicion(Ruta ruta) {
+        return ruta.getPosicionCatalogo() != null ? ruta.getPosicionCatalogo() : Integer.MAX_VALUE;
+    }
+}
@@ -3,9 +3,11 @@ package com.grupo5e.morapack.core.index;
 import com.grupo5e.morapack.core.model.Aeropuerto;
 import com.grupo5e.morapack.core.model.Vuelo;
 
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,57 +15,377 @@ import java.util.Map;
  * Índice espacial para búsqueda eficiente de vuelos por ruta.
  * Reduce búsqueda de O(N) a O(1) mediante indexación por ruta y aeropuerto.
  * 
+ * Al construirse asigna a cada aeropuerto y a cada vuelo un id entero denso (una sola vez, por
+ * código IATA). A partir de ahí todo se resuelve con arreglos: la adyacencia está en formato CSR
+ * (vuelos ordenados por origen y destino, con el inicio de cada tramo en un arreglo de offsets),
+ * así que recorrer los vuelos salientes, entrantes o directos de un aeropuerto no crea objetos
+ * ni calcula hashes de strings.
+ *
+ * Dentro de cada par (origen, destino) los vuelos están ordenados por hora de salida, y aparte
+ * se guardan los salientes de cada aeropuerto ordenados por hora de salida (sin agrupar por
+ * destino). Con eso "la siguiente salida de A a B después del minuto t" o "todas las salidas de
+ * A entre t y t + w" son una búsqueda binaria más un recorrido con un {@link CursorSalidas}
+ * reutilizable, sin reservar memoria por consulta.
+ *
  * Patrón: Index/Cache Pattern para optimización de rendimiento
  */
 public class IndiceVuelos {
     
-    // Índice: "ORIGEN-DESTINO" → Lista de vuelos
-    private final Map<String, List<Vuelo>> vuelosPorRuta;
+    private final Aeropuerto[] aeropuertos;
+    private final Vuelo[] vuelos;
+    private final Map<String, Integer> idPorCodigo;   // sólo para traducir en los bordes
+    private final Map<Vuelo, Integer> idPorVuelo;
     
-    // Índice: Aeropuerto origen → Lista de vuelos salientes
-    private final Map<Aeropuerto, List<Vuelo>> vuelosSalientes;
+    public static final int MINUTOS_DIA = 24 * 60;
+    private static final int SIN_HORA = MINUTOS_DIA; // clave de orden de los vuelos sin horaSalida
     
-    // Índice: Aeropuerto destino → Lista de vuelos entrantes
-    private final Map<Aeropuerto, List<Vuelo>> vuelosEntrantes;
+    // Datos por vuelo (id denso)
+    private final int[] origen;
+    private final int[] destino;
+    private final int[] salida; // minuto del día de la salida, o SIN_HORA
+
+    // CSR por par (origen, destino): vuelos [inicioPar[o*n+d], inicioPar[o*n+d+1]) de porPar,
+    // ordenados por salida. Como porPar está ordenado por origen, también es el CSR de salientes
+    // de cada aeropuerto (agrupados por destino).
+    private final int[] inicioPar;
+    private final int[] porPar;
+
+    // Salientes de cada aeropuerto ordenados sólo por salida; mismos offsets que los salientes
+    private final int[] salientesPorHora;
+
+    // CSR de vuelos entrantes por aeropuerto destino
+    private final int[] inicioEntrantes;
+    private final int[] entrantes;
     
     /**
-     * Construye el índice a partir de una lista de vuelos.
-     * Complejidad: O(N) donde N = número de vuelos
+     * Construye el índice a partir de una lista de vuelos; los aeropuertos se toman de los vuelos
+     * en el orden en que aparecen.
      * 
      * @param vuelos Lista de todos los vuelos del sistema
      */
     public IndiceVuelos(List<Vuelo> vuelos) {
-        this.vuelosPorRuta = new HashMap<>();
-        this.vuelosSalientes = new HashMap<>();
-        this.vuelosEntrantes = new HashMap<>();
-        
-        construirIndices(vuelos);
+        this(aeropuertosDeVuelos(vuelos), vuelos);
     }
     
     /**
-     * Construye los tres índices a partir de la lista de vuelos.
+     * Construye el índice con los ids de aeropuerto en el orden de {@code aeropuertos}.
+     * Los vuelos sin aeropuertos, o entre aeropuertos que no están en la lista, quedan fuera.
+     * Complejidad: O(N + A²) donde N = número de vuelos y A = número de aeropuertos
+     *
+     * @param aeropuertos Aeropuertos de la red
+     * @param vuelos Lista de todos los vuelos del sistema
      */
-    private void construirIndices(List<Vuelo> vuelos) {
+    public IndiceVuelos(List<Aeropuerto> aeropuertos, List<Vuelo> vuelos) {
+        // Interning de aeropuertos por código IATA
+        Map<String, Integer> porCodigo = new HashMap<>(aeropuertos.size() * 2);
+        List<Aeropuerto> unicos = new ArrayList<>(aeropuertos.size());
+        for (Aeropuerto aeropuerto : aeropuertos) {
+            if (aeropuerto == null || aeropuerto.getCodigoIATA() == null) continue;
+            if (porCodigo.putIfAbsent(aeropuerto.getCodigoIATA(), unicos.size()) == null) {
+                unicos.add(aeropuerto);
+            }
+        }
+        this.aeropuertos = unicos.toArray(new Aeropuerto[0]);
+        this.idPorCodigo = porCodigo;
+        int n = this.aeropuertos.length;
+
+        // Interning de vuelos válidos, en el orden de la lista
+        List<Vuelo> validos = new ArrayList<>(vuelos.size());
+        List<int[]> extremos = new ArrayList<>(vuelos.size());
         for (Vuelo vuelo : vuelos) {
-            if (vuelo == null || vuelo.getAeropuertoOrigen() == null || 
-                vuelo.getAeropuertoDestino() == null) {
+            if (vuelo == null || vuelo.getAeropuertoOrigen() == null || vuelo.getAeropuertoDestino() == null) {
                 continue; // Saltar vuelos inválidos
             }
+            Integer o = porCodigo.get(vuelo.getAeropuertoOrigen().getCodigoIATA());
+            Integer d = porCodigo.get(vuelo.getAeropuertoDestino().getCodigoIATA());
+            if (o == null || d == null) continue;
+            validos.add(vuelo);
+            extremos.add(new int[]{o, d});
+        }
+        this.vuelos = validos.toArray(new Vuelo[0]);
+        int numVuelos = this.vuelos.length;
+        this.origen = new int[numVuelos];
+        this.destino = new int[numVuelos];
+        this.salida = new int[numVuelos];
+        this.idPorVuelo = new IdentityHashMap<>(numVuelos * 2);
+        for (int f = 0; f < numVuelos; f++) {
+            origen[f] = extremos.get(f)[0];
+            destino[f] = extremos.get(f)[1];
+            LocalTime hora = this.vuelos[f].getHoraSalida();
+            salida[f] = hora != null ? hora.getHour() * 60 + hora.getMinute() : SIN_HORA;
+            idPorVuelo.put(this.vuelos[f], f);
+        }
             
-            // Índice por ruta (origen-destino)
-            String claveRuta = generarClaveRuta(
-                vuelo.getAeropuertoOrigen(), 
-                vuelo.getAeropuertoDestino()
-            );
-            vuelosPorRuta.computeIfAbsent(claveRuta, k -> new ArrayList<>()).add(vuelo);
+        // Vuelos por hora de salida (counting sort estable); los CSR se llenan en este orden,
+        // así que cada tramo queda ordenado por salida
+        int[] porHora = ordenarPorSalida(salida);
             
-            // Índice por aeropuerto de origen
-            vuelosSalientes.computeIfAbsent(vuelo.getAeropuertoOrigen(), k -> new ArrayList<>()).add(vuelo);
+        // CSR por par (counting sort estable por o*n+d)
+        this.inicioPar = new int[n * n + 1];
+        for (int f = 0; f < numVuelos; f++) inicioPar[origen[f] * n + destino[f] + 1]++;
+        for (int p = 0; p < n * n; p++) inicioPar[p + 1] += inicioPar[p];
+        this.porPar = new int[numVuelos];
+        int[] llenado = new int[n * n];
+        for (int f : porHora) {
+            int par = origen[f] * n + destino[f];
+            porPar[inicioPar[par] + llenado[par]++] = f;
+        }
             
-            // Índice por aeropuerto de destino
-            vuelosEntrantes.computeIfAbsent(vuelo.getAeropuertoDestino(), k -> new ArrayList<>()).add(vuelo);
+        // Salientes por hora (counting sort estable por origen)
+        this.salientesPorHora = new int[numVuelos];
+        int[] llenadoSalientes = new int[n];
+        for (int f : porHora) {
+            salientesPorHora[inicioPar[origen[f] * n] + llenadoSalientes[origen[f]]++] = f;
+        }
+
+        // CSR de entrantes
+        this.inicioEntrantes = new int[n + 1];
+        for (int f = 0; f < numVuelos; f++) inicioEntrantes[destino[f] + 1]++;
+        for (int a = 0; a < n; a++) inicioEntrantes[a + 1] += inicioEntrantes[a];
+        this.entrantes = new int[numVuelos];
+        int[] llenadoEntrantes = new int[n];
+        for (int f = 0; f < numVuelos; f++) {
+            entrantes[inicioEntrantes[destino[f]] + llenadoEntrantes[destino[f]]++] = f;
+        }
+    }
+
+    private static int[] ordenarPorSalida(int[] salida) {
+        int[] inicio = new int[SIN_HORA + 2];
+        for (int minuto : salida) inicio[minuto + 1]++;
+        for (int m = 0; m <= SIN_HORA; m++) inicio[m + 1] += inicio[m];
+        int[] orden = new int[salida.length];
+        for (int f = 0; f < salida.length; f++) orden[inicio[salida[f]]++] = f;
+        return orden;
+    }
+
+    private static List<Aeropuerto> aeropuertosDeVuelos(List<Vuelo> vuelos) {
+        List<Aeropuerto> aeropuertos = new ArrayList<>();
+        for (Vuelo vuelo : vuelos) {
+            if (vuelo == null) continue;
+            if (vuelo.getAeropuertoOrigen() != null) aeropuertos.add(vuelo.getAeropuertoOrigen());
+            if (vuelo.getAeropuertoDestino() != null) aeropuertos.add(vuelo.getAeropuertoDestino());
+        }
+        return aeropuertos;
+    }
+
+    // ========== Ids densos ==========
+
+    public int getNumAeropuertos() {
+        return aeropuertos.length;
+    }
+
+    public int getNumVuelos() {
+        return vuelos.length;
+    }
+
+    /**
+     * Id denso del aeropuerto por código IATA, o -1 si no está en el índice.
+     */
+    public int idAeropuerto(String codigoIATA) {
+        Integer id = codigoIATA != null ? idPorCodigo.get(codigoIATA) : null;
+        return id != null ? id : -1;
+    }
+
+    public int idAeropuerto(Aeropuerto aeropuerto) {
+        return aeropuerto != null ? idAeropuerto(aeropuerto.getCodigoIATA()) : -1;
+    }
+
+    /**
+     * Id denso del vuelo (por identidad), o -1 si no está en el índice.
+     */
+    public int idVuelo(Vuelo vuelo) {
+        Integer id = vuelo != null ? idPorVuelo.get(vuelo) : null;
+        return id != null ? id : -1;
+    }
+
+    public Aeropuerto aeropuerto(int id) {
+        return aeropuertos[id];
+    }
+
+    public Vuelo vuelo(int id) {
+        return vuelos[id];
+    }
+
+    public int origen(int vuelo) {
+        return origen[vuelo];
+    }
+
+    public int destino(int vuelo) {
+        return destino[vuelo];
+    }
+
+    /** Minuto del día en que sale el vuelo, o -1 si no tiene horaSalida. */
+    public int salida(int vuelo) {
+        return salida[vuelo] != SIN_HORA ? salida[vuelo] : -1;
+    }
+
+    // ========== Adyacencia CSR ==========
+
+    /** Primera posición de los vuelos salientes del aeropuerto en {@link #vueloSaliente(int)}. */
+    public int inicioSalientes(int aeropuerto) {
+        return inicioPar[aeropuerto * aeropuertos.length];
+    }
+
+    /** Posición siguiente a la última de los vuelos salientes del aeropuerto. */
+    public int finSalientes(int aeropuerto) {
+        return inicioPar[(aeropuerto + 1) * aeropuertos.length];
+    }
+
+    /** Vuelo en la posición {@code i} del CSR de salientes (ordenado por origen y destino). */
+    public int vueloSaliente(int i) {
+        return porPar[i];
+    }
+
+    /** Primera posición de los vuelos directos origen → destino en {@link #vueloSaliente(int)}. */
+    public int inicioDirectos(int origen, int destino) {
+        return inicioPar[origen * aeropuertos.length + destino];
+    }
+
+    /** Posición siguiente a la última de los vuelos directos origen → destino. */
+    public int finDirectos(int origen, int destino) {
+        return inicioPar[origen * aeropuertos.length + destino + 1];
+    }
+
+    /**
+     * Primera posición de los directos origen → destino que salen en el minuto del día
+     * {@code minutoDia} o después (búsqueda binaria); {@link #finDirectos(int, int)} si no hay.
+     */
+    public int primerDirectoDesde(int origen, int destino, int minutoDia) {
+        return primeraDesde(porPar, inicioDirectos(origen, destino), finDirectos(origen, destino), minutoDia);
+    }
+
+    /** Vuelo en la posición {@code i} de los salientes ordenados sólo por hora de salida. */
+    public int vueloSalientePorHora(int i) {
+        return salientesPorHora[i];
+    }
+
+    /**
+     * Primera posición de los salientes del aeropuerto (en {@link #vueloSalientePorHora(int)})
+     * que salen en el minuto del día {@code minutoDia} o después; {@link #finSalientes(int)} si no hay.
+     */
+    public int primerSalienteDesde(int aeropuerto, int minutoDia) {
+        return primeraDesde(salientesPorHora, inicioSalientes(aeropuerto), finSalientes(aeropuerto), minutoDia);
+    }
+
+    private int primeraDesde(int[] lista, int desde, int hasta, int minutoDia) {
+        int bajo = desde;
+        int alto = hasta;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (salida[lista[medio]] < minutoDia) bajo = medio + 1;
+            else alto = medio;
+        }
+        return bajo;
+    }
+
+    /** Id del par (origen, destino), en [0, A²). */
+    public int idPar(int origen, int destino) {
+        return origen * aeropuertos.length + destino;
+    }
+
+    public int inicioEntrantes(int aeropuerto) {
+        return inicioEntrantes[aeropuerto];
+    }
+
+    public int finEntrantes(int aeropuerto) {
+        return inicioEntrantes[aeropuerto + 1];
+    }
+
+    /** Vuelo en la posición {@code i} del CSR de entrantes. */
+    public int vueloEntrante(int i) {
+        return entrantes[i];
+    }
+
+    // ========== Salidas en el tiempo ==========
+
+    /**
+     * Cursor reutilizable para este índice. No es thread-safe: cada hilo usa el suyo.
+     */
+    public CursorSalidas nuevoCursor() {
+        return new CursorSalidas();
+    }
+
+    /**
+     * Recorre en orden de salida las ocurrencias diarias de un tramo de vuelos entre dos minutos
+     * absolutos (minuto 0 = medianoche del día 1), pasando al día siguiente al acabar el tramo.
+     * No mira cancelaciones: el llamador filtra con {@link #dia()}.
+     *
+     * Uso: {@code cursor.directos(o, d, t, t + w); while (cursor.siguiente()) { ... cursor.vuelo() ... }}
+     */
+    public final class CursorSalidas {
+        private int[] lista;
+        private int inicio;
+        private int fin;
+        private int pos;
+        private int dia;
+        private int hasta;
+        private int vuelo;
+        private int minuto;
+        private boolean agotado;
+
+        private CursorSalidas() {
+            this.agotado = true;
+        }
+
+        /** Salidas de los directos origen → destino en [desde, hasta]. */
+        public CursorSalidas directos(int origen, int destino, int desde, int hasta) {
+            return abrir(porPar, inicioDirectos(origen, destino), finDirectos(origen, destino), desde, hasta);
+        }
+
+        /** Salidas de todos los vuelos del aeropuerto en [desde, hasta]. */
+        public CursorSalidas salientes(int aeropuerto, int desde, int hasta) {
+            return abrir(salientesPorHora, inicioSalientes(aeropuerto), finSalientes(aeropuerto), desde, hasta);
+        }
+
+        private CursorSalidas abrir(int[] lista, int inicio, int fin, int desde, int hasta) {
+            this.lista = lista;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.hasta = hasta;
+            // Sin vuelos con hora en el tramo no hay nada que recorrer (los sin hora van al final)
+            this.agotado = inicio == fin || salida[lista[inicio]] == SIN_HORA || desde > hasta;
+            int inicioDia = Math.floorDiv(desde, MINUTOS_DIA);
+            this.dia = inicioDia + 1;
+            this.pos = agotado ? fin : primeraDesde(lista, inicio, fin, desde - inicioDia * MINUTOS_DIA);
+            return this;
+        }
+
+        /** Avanza a la siguiente salida; false cuando ya no quedan dentro del intervalo. */
+        public boolean siguiente() {
+            if (agotado) return false;
+            if (pos == fin || salida[lista[pos]] == SIN_HORA) {
+                dia++;
+                pos = inicio;
+            }
+            int f = lista[pos];
+            long absoluto = (long) (dia - 1) * MINUTOS_DIA + salida[f];
+            if (absoluto > hasta) {
+                agotado = true;
+                return false;
+            }
+            vuelo = f;
+            minuto = (int) absoluto;
+            pos++;
+            return true;
+        }
+
+        /** Id del vuelo de la salida actual. */
+        public int vuelo() {
+            return vuelo;
+        }
+
+        /** Día (1-based) de la salida actual. */
+        public int dia() {
+            return dia;
+        }
+
+        /** Minuto absoluto de la salida actual. */
+        public int minuto() {
+            return minuto;
         }
     }
+
+    // ========== Consultas por entidad ==========
     
     /**
      * Obtiene vuelos directos entre dos aeropuertos.
@@ -71,15 +393,15 @@ public class IndiceVuelos {
      * 
      * @param origen Aeropuerto de origen
      * @param destino Aeropuerto de destino
-     * @return Lista de vuelos directos, o lista vacía si no existen
+     * @return Lista de vuelos directos ordenados por hora de salida, o lista vacía si no existen
      */
     public List<Vuelo> obtenerVuelosDirectos(Aeropuerto origen, Aeropuerto destino) {
-        if (origen == null || destino == null) {
+        int o = idAeropuerto(origen);
+        int d = idAeropuerto(destino);
+        if (o < 0 || d < 0) {
             return Collections.emptyList();
         }
-        
-        String clave = generarClaveRuta(origen, destino);
-        return vuelosPorRuta.getOrDefault(clave, Collections.emptyList());
+        return vuelosEn(porPar, inicioDirectos(o, d), finDirectos(o, d));
     }
     
     /**
@@ -87,13 +409,14 @@ public class IndiceVuelos {
      * Complejidad: O(1)
      * 
      * @param aeropuerto Aeropuerto de origen
-     * @return Lista de vuelos salientes, o lista vacía si no existen
+     * @return Lista de vuelos salientes ordenados por hora de salida, o lista vacía si no existen
      */
     public List<Vuelo> obtenerVuelosSalientes(Aeropuerto aeropuerto) {
-        if (aeropuerto == null) {
+        int a = idAeropuerto(aeropuerto);
+        if (a < 0) {
             return Collections.emptyList();
         }
-        return vuelosSalientes.getOrDefault(aeropuerto, Collections.emptyList());
+        return vuelosEn(salientesPorHora, inicioSalientes(a), finSalientes(a));
     }
     
     /**
@@ -104,26 +427,18 @@ public class IndiceVuelos {
      * @return Lista de vuelos entrantes, o lista vacía si no existen
      */
     public List<Vuelo> obtenerVuelosEntrantes(Aeropuerto aeropuerto) {
-        if (aeropuerto == null) {
+        int a = idAeropuerto(aeropuerto);
+        if (a < 0) {
             return Collections.emptyList();
         }
-        return vuelosEntrantes.getOrDefault(aeropuerto, Collections.emptyList());
+        return vuelosEn(entrantes, inicioEntrantes(a), finEntrantes(a));
     }
     
-    /**
-     * Genera la clave única para indexar una ruta.
-     * Formato: "ORIGEN-DESTINO"
-     * 
-     * @param origen Aeropuerto de origen
-     * @param destino Aeropuerto de destino
-     * @return Clave de ruta, o null si algún parámetro es inválido
-     */
-    private String generarClaveRuta(Aeropuerto origen, Aeropuerto destino) {
-        if (origen == null || destino == null || 
-            origen.getCodigoIATA() == null || destino.getCodigoIATA() == null) {
-            return null;
-        }
-        return origen.getCodigoIATA() + "-" + destino.getCodigoIATA();
+    private List<Vuelo> vuelosEn(int[] csr, int desde, int hasta) {
+        if (desde == hasta) return Collections.emptyList();
+        List<Vuelo> resultado = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) resultado.add(vuelos[csr[i]]);
+        return Collections.unmodifiableList(resultado);
     }
     
     // ========== Métodos de estadísticas y debugging ==========
@@ -134,7 +449,11 @@ public class IndiceVuelos {
      * @return Número de rutas directas únicas en el sistema
      */
     public int getTotalRutasUnicas() {
-        return vuelosPorRuta.size();
+        int rutas = 0;
+        for (int p = 0; p + 1 < inicioPar.length; p++) {
+            if (inicioPar[p + 1] > inicioPar[p]) rutas++;
+        }
+        return rutas;
     }
     
     /**
@@ -143,7 +462,11 @@ public class IndiceVuelos {
      * @return Número de aeropuertos con al menos un vuelo saliente
      */
     public int getAeropuertosConVuelosSalientes() {
-        return vuelosSalientes.size();
+        int total = 0;
+        for (int a = 0; a < aeropuertos.length; a++) {
+            if (finSalientes(a) > inicioSalientes(a)) total++;
+        }
+        return total;
     }
     
     /**
@@ -152,7 +475,11 @@ public class IndiceVuelos {
      * @return Número de aeropuertos con al menos un vuelo entrante
      */
     public int getAeropuertosConVuelosEntrantes() {
-        return vuelosEntrantes.size();
+        int total = 0;
+        for (int a = 0; a < aeropuertos.length; a++) {
+            if (finEntrantes(a) > inicioEntrantes(a)) total++;
+        }
+        return total;
     }
     
     /**
@@ -161,13 +488,9 @@ public class IndiceVuelos {
      * @return Promedio de vuelos por ruta única
      */
     public double getPromedioVuelosPorRuta() {
-        if (vuelosPorRuta.isEmpty()) return 0.0;
-        
-        int totalVuelos = vuelosPorRuta.values().stream()
-            .mapToInt(List::size)
-            .sum();
-        
-        return (double) totalVuelos / vuelosPorRuta.size();
+        int rutas = getTotalRutasUnicas();
+        if (rutas == 0) return 0.0;
+        return (double) vuelos.length / rutas;
     }
     
     /**
@@ -175,6 +498,7 @@ public class IndiceVuelos {
      */
     public void imprimirEstadisticas() {
         System.out.println("=== Estadísticas de Índice de Vuelos ===");
+        System.out.println("Aeropuertos: " + aeropuertos.length + ", vuelos: " + vuelos.length);
         System.out.println("Rutas únicas: " + getTotalRutasUnicas());
         System.out.println("Aeropuertos con vuelos salientes: " + getAeropuertosConVuelosSalientes());
         System.out.println("Aeropuertos con vuelos entrantes: " + getAeropuertosConVuelosEntrantes());
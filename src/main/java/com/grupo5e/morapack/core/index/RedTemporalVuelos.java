@@ -0,0 +1,596 @@
+package com.grupo5e.morapack.core.index;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Red de vuelos expandida en el tiempo sobre el horizonte de planificación.
+ *
+ * Cada nodo es la ocurrencia de un vuelo en un día (vuelo, día): sale a su horaSalida y llega a
+ * su horaLlegada, con las horas tal como vienen en el plan de vuelos (el mismo criterio con el
+ * que se calcula tiempoTransporte, así que los tiempos de la red cuadran con el resto del ALNS).
+ * Las ocurrencias no se materializan: como el itinerario se repite cada día, la siguiente salida
+ * de un vuelo a partir de un instante se calcula en O(1), saltando los días cancelados.
+ *
+ * La búsqueda de llegada más temprana avanza por rondas (estilo RAPTOR): la ronda k conoce la
+ * mejor llegada a cada aeropuerto usando a lo sumo k vuelos. Respeta el tiempo mínimo de
+ * conexión en las escalas, el plazo del pedido, el horizonte y un filtro de capacidad por
+ * ocurrencia ({@link FiltroCapacidad}): cada tramo se toma en su primera salida no cancelada con
+ * espacio; si la del día está llena se prueba la del día siguiente, hasta el final del horizonte o
+ * hasta que la llegada pase el plazo.
+ *
+ * Para listar todas las alternativas (no sólo la más temprana) hay además una búsqueda que se
+ * encuentra a mitad de camino: hacia atrás desde el destino, por el CSR de vuelos entrantes,
+ * calcula la última salida desde cada aeropuerto que todavía llega a tiempo con uno o dos
+ * vuelos; hacia adelante desde el origen sólo se siguen las escalas que llegan antes de esa
+ * última salida, y las dos mitades se unen en el aeropuerto intermedio.
+ *
+ * Los tiempos son minutos desde la medianoche del primer día del horizonte.
+ *
+ * Aeropuertos y vuelos usan los ids densos del {@link IndiceVuelos} y la adyacencia sale de su
+ * CSR. Las búsquedas reutilizan arreglos de trabajo por hilo, así que con los métodos por id la
+ * única memoria que se reserva es la del itinerario resultante.
+ */
+public class RedTemporalVuelos {
+
+    public static final int MINUTOS_DIA = 24 * 60;
+    private static final int INFINITO = Integer.MAX_VALUE;
+    private static final int SIN_SALIDA = Integer.MIN_VALUE;
+
+    private final IndiceVuelos indice;
+
+    // Datos por vuelo (id denso del índice)
+    private final int[] destino;
+    private final int[] salidaBase;   // minuto de la salida el día 1; -1 si el vuelo no entra a la red
+    private final int[] duracion;     // minutos de vuelo
+    private final BitSet[] diasCancelados; // bit d = día d cancelado; null si el vuelo no tiene cancelaciones
+
+    // Arreglos de trabajo de la búsqueda, uno por hilo
+    private final ThreadLocal<EspacioBusqueda> espacios;
+
+    private final LocalDateTime inicioHorizonte;
+    private final int diasHorizonte;
+    private final int minutosConexion;
+
+    /**
+     * Filtro de capacidad por ocurrencia: true si el vuelo (id denso del índice) tiene espacio el
+     * día {@code dia} (1-based).
+     */
+    @FunctionalInterface
+    public interface FiltroCapacidad {
+        boolean tieneEspacio(int vuelo, int dia);
+    }
+
+    /**
+     * @param inicioHorizonte instante cuyo día es el día 1 del horizonte
+     * @param diasHorizonte   número de días con ocurrencias de vuelos
+     * @param minutosConexion tiempo mínimo en tierra entre dos vuelos de un itinerario
+     */
+    public RedTemporalVuelos(List<Aeropuerto> aeropuertos,
+                             List<Vuelo> vuelos,
+                             ServicioDisponibilidadVuelos servicioDisponibilidad,
+                             LocalDateTime inicioHorizonte,
+                             int diasHorizonte,
+                             int minutosConexion) {
+        this(new IndiceVuelos(aeropuertos, vuelos), servicioDisponibilidad, inicioHorizonte, diasHorizonte,
+                minutosConexion);
+    }
+
+    /**
+     * Red sobre los ids de un índice ya construido (el mismo que usan el resto de búsquedas).
+     */
+    public RedTemporalVuelos(IndiceVuelos indice,
+                             ServicioDisponibilidadVuelos servicioDisponibilidad,
+                             LocalDateTime inicioHorizonte,
+                             int diasHorizonte,
+                             int minutosConexion) {
+        this.indice = indice;
+        this.inicioHorizonte = inicioHorizonte.truncatedTo(ChronoUnit.DAYS);
+        this.diasHorizonte = Math.max(1, diasHorizonte);
+        this.minutosConexion = Math.max(0, minutosConexion);
+
+        int numVuelos = indice.getNumVuelos();
+        this.destino = new int[numVuelos];
+        this.salidaBase = new int[numVuelos];
+        this.duracion = new int[numVuelos];
+        for (int f = 0; f < numVuelos; f++) {
+            Vuelo vuelo = indice.vuelo(f);
+            destino[f] = indice.destino(f);
+            // Solo entran a la red los vuelos con horario y entre aeropuertos distintos
+            if (vuelo.getHoraSalida() == null || indice.origen(f) == indice.destino(f)) {
+                salidaBase[f] = -1;
+                continue;
+            }
+            salidaBase[f] = minutoDelDia(vuelo.getHoraSalida());
+            duracion[f] = duracionMinutos(vuelo);
+        }
+
+        this.diasCancelados = cargarCancelaciones(servicioDisponibilidad);
+        this.espacios = ThreadLocal.withInitial(() -> new EspacioBusqueda(indice.getNumAeropuertos()));
+    }
+
+    private BitSet[] cargarCancelaciones(ServicioDisponibilidadVuelos servicioDisponibilidad) {
+        BitSet[] resultado = new BitSet[indice.getNumVuelos()];
+        if (servicioDisponibilidad == null || servicioDisponibilidad.getTotalCancelaciones() == 0) {
+            return resultado;
+        }
+        for (int f = 0; f < indice.getNumVuelos(); f++) {
+            if (salidaBase[f] < 0) continue;
+            BitSet dias = servicioDisponibilidad.obtenerMascaraCancelaciones(indice.vuelo(f));
+            if (!dias.isEmpty()) resultado[f] = dias;
+        }
+        return resultado;
+    }
+
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    /**
+     * Minutos de vuelo según el plan: de horaSalida a horaLlegada (si la llegada es "antes" que la
+     * salida, el vuelo cruza la medianoche), o tiempoTransporte si no hay hora de llegada.
+     */
+    public static int duracionMinutos(Vuelo vuelo) {
+        int minutosVuelo;
+        if (vuelo.getHoraSalida() != null && vuelo.getHoraLlegada() != null) {
+            minutosVuelo = Math.floorMod(minutoDelDia(vuelo.getHoraLlegada()) - minutoDelDia(vuelo.getHoraSalida()),
+                    MINUTOS_DIA);
+        } else {
+            minutosVuelo = (int) Math.round(vuelo.getTiempoTransporte() * 60);
+        }
+        return Math.max(1, minutosVuelo);
+    }
+
+    /**
+     * Convierte una fecha a minutos del eje de la red.
+     */
+    public int aMinutos(LocalDateTime fecha) {
+        long minutos = ChronoUnit.MINUTES.between(inicioHorizonte, fecha);
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, minutos));
+    }
+
+    /**
+     * Itinerario de llegada más temprana para un pedido. El pedido está listo en su origen en
+     * fechaPedido (+ retraso) y debe llegar antes de su fecha límite y de la promesa MoraPack
+     * (2 días mismo continente, 3 días entre continentes), ambas contadas desde fechaPedido.
+     */
+    public Itinerario buscarParaPedido(Pedido pedido,
+                                       Aeropuerto aeropuertoOrigen,
+                                       Aeropuerto aeropuertoDestino,
+                                       int retrasoMinutos,
+                                       int maxVuelos,
+                                       Predicate<Vuelo> tieneCapacidad) {
+        if (pedido == null || aeropuertoOrigen == null || aeropuertoDestino == null) return null;
+
+        int listo = minutoListo(pedido);
+        return buscarLlegadaMasTemprana(aeropuertoOrigen, aeropuertoDestino, listo + retrasoMinutos,
+                limiteLlegada(pedido, aeropuertoOrigen, aeropuertoDestino), maxVuelos, tieneCapacidad);
+    }
+
+    /**
+     * Igual que {@link #buscarParaPedido(Pedido, Aeropuerto, Aeropuerto, int, int, Predicate)} con
+     * aeropuertos y filtro de capacidad sobre ids densos del índice.
+     */
+    public Itinerario buscarParaPedido(Pedido pedido, int origen, int destino, int retrasoMinutos,
+                                       int maxVuelos, FiltroCapacidad tieneCapacidad) {
+        if (pedido == null || origen < 0 || destino < 0) return null;
+        int limite = limiteLlegada(pedido, indice.aeropuerto(origen), indice.aeropuerto(destino));
+        return buscarLlegadaMasTemprana(origen, destino, minutoListo(pedido) + retrasoMinutos, limite,
+                maxVuelos, tieneCapacidad);
+    }
+
+    /**
+     * Minuto en que el pedido está listo en su origen (su fechaPedido).
+     */
+    public int minutoListo(Pedido pedido) {
+        return pedido.getFechaPedido() != null ? aMinutos(pedido.getFechaPedido()) : 0;
+    }
+
+    /**
+     * Minuto máximo de llegada del pedido: el menor entre su fecha límite y la promesa MoraPack.
+     */
+    public int limiteLlegada(Pedido pedido, Aeropuerto aeropuertoOrigen, Aeropuerto aeropuertoDestino) {
+        long limiteCliente = pedido.getFechaLimiteEntrega() != null
+                ? aMinutos(pedido.getFechaLimiteEntrega()) : Long.MAX_VALUE;
+        return (int) limiteLlegada(minutoListo(pedido), limiteCliente, aeropuertoOrigen, aeropuertoDestino);
+    }
+
+    /**
+     * Regla del plazo de llegada, en minutos de cualquier eje: el menor entre la fecha límite del
+     * cliente ({@code limiteCliente}, Long.MAX_VALUE si no tiene) y la promesa MoraPack contada
+     * desde que el pedido está listo (2 días en el mismo continente, 3 entre continentes; un
+     * aeropuerto sin ciudad cuenta como otro continente). La usan la red y el calendario de vuelos.
+     */
+    public static long limiteLlegada(long listo, long limiteCliente, Aeropuerto aeropuertoOrigen,
+                                     Aeropuerto aeropuertoDestino) {
+        boolean mismoContinente = aeropuertoOrigen != null && aeropuertoDestino != null
+                && aeropuertoOrigen.getCiudad() != null && aeropuertoDestino.getCiudad() != null
+                && aeropuertoOrigen.getCiudad().getContinente() == aeropuertoDestino.getCiudad().getContinente();
+        double diasPromesa = mismoContinente ? Constantes.TIEMPO_MAX_ENTREGA_MISMO_CONTINENTE
+                : Constantes.TIEMPO_MAX_ENTREGA_DIFERENTE_CONTINENTE;
+        return Math.min(listo + (long) (diasPromesa * MINUTOS_DIA), limiteCliente);
+    }
+
+    /**
+     * Itinerario de llegada más temprana entre dos aeropuertos.
+     *
+     * @param listoDesde       minuto a partir del cual el pedido puede salir del origen
+     * @param limiteLlegada    minuto máximo de llegada al destino (plazo del pedido)
+     * @param maxVuelos        número máximo de vuelos del itinerario
+     * @param tieneCapacidad   filtro de vuelos con espacio para el pedido
+     * @return el itinerario, o null si no hay ninguno factible
+     */
+    public Itinerario buscarLlegadaMasTemprana(Aeropuerto aeropuertoOrigen,
+                                               Aeropuerto aeropuertoDestino,
+                                               int listoDesde,
+                                               int limiteLlegada,
+                                               int maxVuelos,
+                                               Predicate<Vuelo> tieneCapacidad) {
+        if (aeropuertoOrigen == null || aeropuertoDestino == null) return null;
+        return buscarLlegadaMasTemprana(indice.idAeropuerto(aeropuertoOrigen), indice.idAeropuerto(aeropuertoDestino),
+                listoDesde, limiteLlegada, maxVuelos,
+                tieneCapacidad != null ? (f, dia) -> tieneCapacidad.test(indice.vuelo(f)) : null);
+    }
+
+    /**
+     * Búsqueda de llegada más temprana sobre ids densos de aeropuerto y vuelo.
+     */
+    public Itinerario buscarLlegadaMasTemprana(int o, int d, int listoDesde, int limiteLlegada, int maxVuelos,
+                                               FiltroCapacidad tieneCapacidad) {
+        if (o < 0 || d < 0 || o == d || maxVuelos < 1) return null;
+
+        int n = indice.getNumAeropuertos();
+        EspacioBusqueda espacio = espacios.get();
+        espacio.preparar(maxVuelos);
+        int[][] llegada = espacio.llegada;
+        int[][] vueloPadre = espacio.vueloPadre;
+        int[][] diaPadre = espacio.diaPadre;
+        for (int k = 0; k <= maxVuelos; k++) {
+            Arrays.fill(llegada[k], INFINITO);
+            Arrays.fill(vueloPadre[k], -1);
+        }
+        llegada[0][o] = listoDesde;
+
+        boolean[] marcados = espacio.marcados;
+        boolean[] siguientes = espacio.siguientes;
+        Arrays.fill(marcados, false);
+        marcados[o] = true;
+        int mejorRonda = -1;
+
+        for (int k = 1; k <= maxVuelos; k++) {
+            System.arraycopy(llegada[k - 1], 0, llegada[k], 0, n);
+            Arrays.fill(siguientes, false);
+            boolean hayMarcados = false;
+
+            for (int a = 0; a < n; a++) {
+                if (!marcados[a]) continue;
+                // En el origen no hay conexión; en una escala hay que esperar el mínimo en tierra
+                int listo = llegada[k - 1][a] + (k > 1 ? minutosConexion : 0);
+
+                for (int i = indice.inicioSalientes(a), fin = indice.finSalientes(a); i < fin; i++) {
+                    int f = indice.vueloSaliente(i);
+                    int dia = siguienteDiaConCapacidad(f, listo, limiteLlegada, tieneCapacidad);
+                    if (dia < 0) continue;
+                    long llegadaVuelo = salida(f, dia) + duracion[f];
+                    int b = destino[f];
+                    // Llegar más tarde que la mejor llegada conocida al destino no sirve
+                    if (llegadaVuelo >= llegada[k][b] || llegadaVuelo >= llegada[k][d]) continue;
+
+                    llegada[k][b] = (int) llegadaVuelo;
+                    vueloPadre[k][b] = f;
+                    diaPadre[k][b] = dia;
+                    if (b != d) {
+                        siguientes[b] = true;
+                        hayMarcados = true;
+                    }
+                }
+            }
+
+            if (vueloPadre[k][d] >= 0) mejorRonda = k;
+            if (!hayMarcados) break;
+            boolean[] temporal = marcados;
+            marcados = siguientes;
+            siguientes = temporal;
+        }
+
+        if (mejorRonda < 0) return null;
+        return reconstruir(llegada, vueloPadre, diaPadre, mejorRonda, d);
+    }
+
+    private Itinerario reconstruir(int[][] llegada, int[][] vueloPadre, int[][] diaPadre, int ronda, int d) {
+        int[] indices = new int[ronda];
+        int[] dias = new int[ronda];
+        int tramos = 0;
+        int actual = d;
+        for (int k = ronda; k > 0; k--) {
+            int f = vueloPadre[k][actual];
+            if (f < 0) continue; // etiqueta heredada de la ronda anterior
+            indices[tramos] = f;
+            dias[tramos] = diaPadre[k][actual];
+            tramos++;
+            actual = indice.origen(f);
+        }
+
+        // Los tramos se recogieron del destino hacia el origen
+        ArrayList<Vuelo> ruta = new ArrayList<>(tramos);
+        int[] diasVuelo = new int[tramos];
+        for (int i = 0; i < tramos; i++) {
+            ruta.add(indice.vuelo(indices[tramos - 1 - i]));
+            diasVuelo[i] = dias[tramos - 1 - i];
+        }
+        int salida = (diasVuelo[0] - 1) * MINUTOS_DIA + salidaBase[indices[tramos - 1]];
+        return new Itinerario(ruta, diasVuelo, salida, llegada[ronda][d]);
+    }
+
+    /**
+     * Todos los itinerarios factibles de origen a destino con a lo sumo {@code maxVuelos} vuelos
+     * (directo, una o dos escalas), cada uno con la ocurrencia más temprana de cada tramo, sólo por
+     * vuelos que pasan el filtro de capacidad. Búsqueda bidireccional: ver la descripción de la clase.
+     *
+     * @param maxResultados número máximo de itinerarios devueltos (los de llegada más temprana)
+     * @return itinerarios ordenados por llegada y, a igual llegada, por número de vuelos
+     */
+    public List<Itinerario> enumerarItinerarios(int o, int d, int listoDesde, int limiteLlegada, int maxVuelos,
+                                                FiltroCapacidad tieneCapacidad, int maxResultados) {
+        if (o < 0 || d < 0 || o == d || maxVuelos < 1 || maxResultados < 1) return List.of();
+        maxVuelos = Math.min(maxVuelos, Constantes.MAX_VUELOS_POR_RUTA);
+
+        EspacioBusqueda espacio = espacios.get();
+        int[] ultimaSalida1 = espacio.ultimaSalida1;
+        int[] ultimaSalida2 = espacio.ultimaSalida2;
+        Arrays.fill(ultimaSalida1, SIN_SALIDA);
+        Arrays.fill(ultimaSalida2, SIN_SALIDA);
+
+        // Hacia atrás: última salida desde cada aeropuerto que llega al destino con un vuelo...
+        for (int i = indice.inicioEntrantes(d), fin = indice.finEntrantes(d); i < fin; i++) {
+            int f = indice.vueloEntrante(i);
+            int salida = ultimaSalida(f, limiteLlegada);
+            int a = indice.origen(f);
+            if (salida > ultimaSalida1[a]) ultimaSalida1[a] = salida;
+        }
+        // ...y con dos, entrando a una escala a tiempo para su última salida
+        if (maxVuelos >= 3) {
+            for (int m = 0; m < ultimaSalida1.length; m++) {
+                if (m == d || ultimaSalida1[m] == SIN_SALIDA) continue;
+                int limiteEscala = ultimaSalida1[m] - minutosConexion;
+                for (int i = indice.inicioEntrantes(m), fin = indice.finEntrantes(m); i < fin; i++) {
+                    int f = indice.vueloEntrante(i);
+                    int a = indice.origen(f);
+                    if (a == d) continue;
+                    int salida = ultimaSalida(f, limiteEscala);
+                    if (salida > ultimaSalida2[a]) ultimaSalida2[a] = salida;
+                }
+            }
+        }
+
+        // Hacia adelante desde el origen, uniendo en la escala con las últimas salidas
+        List<Itinerario> resultados = new ArrayList<>();
+        for (int i = indice.inicioSalientes(o), fin = indice.finSalientes(o); i < fin; i++) {
+            int f1 = indice.vueloSaliente(i);
+            int dia1 = siguienteDiaConCapacidad(f1, listoDesde, limiteLlegada, tieneCapacidad);
+            if (dia1 < 0) continue;
+            long llegada1 = salida(f1, dia1) + duracion[f1];
+            int m = destino[f1];
+            long listo1 = llegada1 + minutosConexion;
+            boolean directo = m == d;
+            boolean unaEscala = !directo && maxVuelos >= 2 && listo1 <= ultimaSalida1[m];
+            boolean dosEscalas = !directo && maxVuelos >= 3 && listo1 <= ultimaSalida2[m];
+            if (!directo && !unaEscala && !dosEscalas) continue;
+
+            if (directo) {
+                resultados.add(itinerario(llegada1, f1, dia1));
+                continue;
+            }
+            if (unaEscala) {
+                for (int j = indice.inicioDirectos(m, d), finJ = indice.finDirectos(m, d); j < finJ; j++) {
+                    int f2 = indice.vueloSaliente(j);
+                    int dia2 = siguienteDiaConCapacidad(f2, listo1, limiteLlegada, tieneCapacidad);
+                    if (dia2 < 0) continue;
+                    resultados.add(itinerario(salida(f2, dia2) + duracion[f2], f1, dia1, f2, dia2));
+                }
+            }
+            if (dosEscalas) {
+                for (int j = indice.inicioSalientes(m), finJ = indice.finSalientes(m); j < finJ; j++) {
+                    int f2 = indice.vueloSaliente(j);
+                    int m2 = destino[f2];
+                    if (m2 == d || m2 == o || m2 == m || ultimaSalida1[m2] == SIN_SALIDA) continue;
+                    int dia2 = siguienteDiaConCapacidad(f2, listo1, limiteLlegada, tieneCapacidad);
+                    if (dia2 < 0) continue;
+                    long listo2 = salida(f2, dia2) + duracion[f2] + minutosConexion;
+                    if (listo2 > ultimaSalida1[m2]) continue;
+                    for (int k = indice.inicioDirectos(m2, d), finK = indice.finDirectos(m2, d); k < finK; k++) {
+                        int f3 = indice.vueloSaliente(k);
+                        int dia3 = siguienteDiaConCapacidad(f3, listo2, limiteLlegada, tieneCapacidad);
+                        if (dia3 < 0) continue;
+                        resultados.add(itinerario(salida(f3, dia3) + duracion[f3], f1, dia1, f2, dia2, f3, dia3));
+                    }
+                }
+            }
+        }
+
+        resultados.sort((a, b) -> a.llegada != b.llegada ? Integer.compare(a.llegada, b.llegada)
+                : Integer.compare(a.getNumVuelos(), b.getNumVuelos()));
+        return resultados.size() > maxResultados ? new ArrayList<>(resultados.subList(0, maxResultados)) : resultados;
+    }
+
+    /**
+     * Programa una secuencia fija de vuelos (p. ej. una entrada del {@link CatalogoRutas}): cada
+     * tramo toma su primera ocurrencia no cancelada con espacio tras la llegada del anterior más la
+     * conexión.
+     *
+     * @return el itinerario, o null si algún tramo no tiene una ocurrencia con espacio que llegue a tiempo
+     */
+    public Itinerario programar(int[] vuelos, int listoDesde, int limiteLlegada, FiltroCapacidad tieneCapacidad) {
+        if (vuelos.length == 0) return null;
+        int[] vuelosYDias = new int[2 * vuelos.length];
+        long listo = listoDesde;
+        long llegada = 0;
+        for (int t = 0; t < vuelos.length; t++) {
+            int f = vuelos[t];
+            int dia = siguienteDiaConCapacidad(f, listo, limiteLlegada, tieneCapacidad);
+            if (dia < 0) return null;
+            llegada = salida(f, dia) + duracion[f];
+            vuelosYDias[2 * t] = f;
+            vuelosYDias[2 * t + 1] = dia;
+            listo = llegada + minutosConexion;
+        }
+        return itinerario(llegada, vuelosYDias);
+    }
+
+    /** Itinerario a partir de pares (vuelo, día) en orden de vuelo. */
+    private Itinerario itinerario(long llegada, int... vuelosYDias) {
+        int tramos = vuelosYDias.length / 2;
+        ArrayList<Vuelo> ruta = new ArrayList<>(tramos);
+        int[] dias = new int[tramos];
+        for (int t = 0; t < tramos; t++) {
+            ruta.add(indice.vuelo(vuelosYDias[2 * t]));
+            dias[t] = vuelosYDias[2 * t + 1];
+        }
+        return new Itinerario(ruta, dias, (int) salida(vuelosYDias[0], vuelosYDias[1]), (int) llegada);
+    }
+
+    private long salida(int f, int dia) {
+        return (long) (dia - 1) * MINUTOS_DIA + salidaBase[f];
+    }
+
+    /**
+     * Primer día en que el vuelo sale a partir de {@code minuto}, no está cancelado y tiene espacio:
+     * si una ocurrencia está llena se pasa a la siguiente. -1 si ninguna dentro del horizonte llega a
+     * más tardar en {@code limiteLlegada}.
+     */
+    private int siguienteDiaConCapacidad(int f, long minuto, long limiteLlegada, FiltroCapacidad tieneCapacidad) {
+        if (salidaBase[f] < 0 || minuto > Integer.MAX_VALUE) return -1;
+        BitSet cancelados = diasCancelados[f];
+        for (int dia = siguienteDia(f, (int) minuto); dia > 0; dia = diaNoCancelado(dia + 1, cancelados)) {
+            if (salida(f, dia) + duracion[f] > limiteLlegada) return -1;
+            if (tieneCapacidad == null || tieneCapacidad.tieneEspacio(f, dia)) return dia;
+        }
+        return -1;
+    }
+
+    /**
+     * Minuto de la última salida del vuelo que llega a más tardar en {@code llegadaMaxima} y no está
+     * cancelada, o SIN_SALIDA si no hay ninguna en el horizonte. No mira la capacidad: es una cota
+     * para podar y la ocurrencia que se use se filtra en el paso hacia adelante.
+     */
+    private int ultimaSalida(int f, int llegadaMaxima) {
+        if (salidaBase[f] < 0) return SIN_SALIDA;
+        int dia = Math.min(diasHorizonte,
+                Math.floorDiv(llegadaMaxima - duracion[f] - salidaBase[f], MINUTOS_DIA) + 1);
+        BitSet cancelados = diasCancelados[f];
+        if (cancelados != null && dia >= 1) dia = cancelados.previousClearBit(dia);
+        if (dia < 1) return SIN_SALIDA;
+        return (int) salida(f, dia);
+    }
+
+    /**
+     * Primer día (1-based) en que el vuelo sale a partir de {@code minuto} y no está cancelado,
+     * o -1 si no queda ninguna ocurrencia dentro del horizonte.
+     */
+    private int siguienteDia(int f, int minuto) {
+        int dia = Math.max(1, Math.floorDiv(minuto - salidaBase[f] + MINUTOS_DIA - 1, MINUTOS_DIA) + 1);
+        return diaNoCancelado(dia, diasCancelados[f]);
+    }
+
+    /** Primer día no cancelado desde {@code dia}, o -1 si pasa del horizonte. */
+    private int diaNoCancelado(int dia, BitSet cancelados) {
+        if (cancelados != null) dia = cancelados.nextClearBit(dia);
+        return dia <= diasHorizonte ? dia : -1;
+    }
+
+    public int getDiasHorizonte() {
+        return diasHorizonte;
+    }
+
+    public int getMinutosConexion() {
+        return minutosConexion;
+    }
+
+    public int getNumVuelos() {
+        return indice.getNumVuelos();
+    }
+
+    public IndiceVuelos getIndice() {
+        return indice;
+    }
+
+    /**
+     * Arreglos de trabajo de una búsqueda; crecen con el número de rondas pedido.
+     */
+    private static final class EspacioBusqueda {
+        private final int numAeropuertos;
+        private int[][] llegada = new int[0][];
+        private int[][] vueloPadre = new int[0][];
+        private int[][] diaPadre = new int[0][];
+        private final boolean[] marcados;
+        private final boolean[] siguientes;
+        // Búsqueda bidireccional: última salida que llega al destino con 1 y con 2 vuelos
+        private final int[] ultimaSalida1;
+        private final int[] ultimaSalida2;
+
+        EspacioBusqueda(int numAeropuertos) {
+            this.numAeropuertos = numAeropuertos;
+            this.marcados = new boolean[numAeropuertos];
+            this.siguientes = new boolean[numAeropuertos];
+            this.ultimaSalida1 = new int[numAeropuertos];
+            this.ultimaSalida2 = new int[numAeropuertos];
+        }
+
+        void preparar(int maxVuelos) {
+            if (llegada.length > maxVuelos) return;
+            llegada = new int[maxVuelos + 1][numAeropuertos];
+            vueloPadre = new int[maxVuelos + 1][numAeropuertos];
+            diaPadre = new int[maxVuelos + 1][numAeropuertos];
+        }
+    }
+
+    /**
+     * Itinerario sobre la red: los vuelos, el día de cada ocurrencia y los minutos de salida y llegada.
+     */
+    public static final class Itinerario {
+        private final ArrayList<Vuelo> vuelos;
+        private final int[] dias;
+        private final int salida;
+        private final int llegada;
+
+        Itinerario(ArrayList<Vuelo> vuelos, int[] dias, int salida, int llegada) {
+            this.vuelos = vuelos;
+            this.dias = dias;
+            this.salida = salida;
+            this.llegada = llegada;
+        }
+
+        /** Copia de los vuelos del itinerario (el llamador puede modificarla). */
+        public ArrayList<Vuelo> getVuelos() {
+            return new ArrayList<>(vuelos);
+        }
+
+        public int getDia(int tramo) {
+            return dias[tramo];
+        }
+
+        public int getSalida() {
+            return salida;
+        }
+
+        public int getLlegada() {
+            return llegada;
+        }
+
+        public int getNumVuelos() {
+            return vuelos.size();
+        }
+    }
+}
@@ -35,6 +35,12 @@ public class Ruta {
     private double tiempoTotal;
     private double costoTotal;
 
+    // Entradas del catálogo de rutas (null en las rutas creadas a mano): ids de los vuelos en
+    // orden separados por '-', posición dentro del par origen-destino y firma del plan de vuelos
+    private String secuenciaVuelos;
+    private Integer posicionCatalogo;
+    private Long firmaHorario;
+
     // Relación: muchos pedidos pueden usar muchas rutas
     @ManyToMany(mappedBy = "rutas")
     private List<Pedido> pedidos;
@@ -37,6 +37,9 @@ public class SimulacionAsignacion {
     @JoinColumn(name = "vuelo_id", nullable = false)
     private Vuelo vuelo;
 
+    @Column(name = "dia_vuelo")
+    private Integer diaVuelo; // Día de la ocurrencia del vuelo (1 = día de T0); cada día es un cupo distinto
+
     @Column(name = "minuto_inicio")
     private Integer minutoInicio; // Minuto desde T0 donde inicia este vuelo para este paquete
 
@@ -1,11 +1,11 @@
 package com.grupo5e.morapack.core.service;
 
+import com.grupo5e.morapack.core.model.Aeropuerto;
 import com.grupo5e.morapack.core.model.Cancelacion;
 import com.grupo5e.morapack.core.model.Vuelo;
 import com.grupo5e.morapack.utils.LectorCancelaciones;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Servicio que gestiona la disponibilidad de vuelos considerando cancelaciones.
@@ -13,14 +13,29 @@ import java.util.stream.Collectors;
  * Responsabilidad: determinar si un vuelo está disponible en un día específico.
  *
  * Adaptado para usar la clase Cancelacion en lugar de Map<String, Set<Integer>>.
+ *
+ * Las cancelaciones se compilan al registrarse en una máscara de días por vuelo: los aeropuertos
+ * se internan como enteros y cada vuelo (origen, destino, HH:MM) se empaqueta en una clave long,
+ * así que consultar un vuelo es una búsqueda en el mapa y una prueba de bit, sin recorrer la
+ * lista de cancelaciones ni comparar cadenas.
  */
 public class ServicioDisponibilidadVuelos {
 
+    private static final BitSet SIN_CANCELACIONES = new BitSet(0);
+
     // Lista total de cancelaciones registradas (día × vuelo)
     private final List<Cancelacion> cancelaciones;
 
+    // Código IATA (en mayúsculas) -> id interno, sólo de aeropuertos con cancelaciones
+    private final Map<String, Integer> idsAeropuerto;
+
+    // Clave del vuelo -> días cancelados (bit d = día d, 1-based)
+    private final Map<Long, BitSet> diasPorVuelo;
+
     public ServicioDisponibilidadVuelos() {
         this.cancelaciones = new ArrayList<>();
+        this.idsAeropuerto = new HashMap<>();
+        this.diasPorVuelo = new HashMap<>();
     }
 
     /**
@@ -31,6 +46,7 @@ public class ServicioDisponibilidadVuelos {
     public void registrarCancelacion(Cancelacion cancelacion) {
         if (cancelacion == null) return;
         this.cancelaciones.add(cancelacion);
+        compilar(cancelacion);
     }
 
     /**
@@ -41,7 +57,54 @@ public class ServicioDisponibilidadVuelos {
     public void cargarCancelaciones(LectorCancelaciones lector) {
         List<Cancelacion> leidas = lector.leerCancelaciones();
         this.cancelaciones.addAll(leidas);
-        System.out.println("✅ Cancelaciones cargadas: " + leidas.size());
+        for (Cancelacion cancelacion : leidas) {
+            compilar(cancelacion);
+        }
+        System.out.println("✅ Cancelaciones cargadas: " + leidas.size()
+                + " (" + diasPorVuelo.size() + " vuelos afectados)");
+    }
+
+    /**
+     * Marca el día de la cancelación en la máscara de su vuelo.
+     */
+    private void compilar(Cancelacion cancelacion) {
+        if (cancelacion.getCodigoIATAOrigen() == null || cancelacion.getCodigoIATADestino() == null
+                || cancelacion.getDiasCancelado() < 0) {
+            return;
+        }
+        int origen = idsAeropuerto.computeIfAbsent(cancelacion.getCodigoIATAOrigen().trim().toUpperCase(),
+                k -> idsAeropuerto.size());
+        int destino = idsAeropuerto.computeIfAbsent(cancelacion.getCodigoIATADestino().trim().toUpperCase(),
+                k -> idsAeropuerto.size());
+        long clave = clave(origen, destino, cancelacion.getHora(), cancelacion.getMinuto());
+        diasPorVuelo.computeIfAbsent(clave, k -> new BitSet()).set(cancelacion.getDiasCancelado());
+    }
+
+    private static long clave(int origen, int destino, int hora, int minuto) {
+        return ((long) origen << 40) | ((long) destino << 16) | ((hora * 60 + minuto) & 0xFFFF);
+    }
+
+    private int idAeropuerto(Aeropuerto aeropuerto) {
+        if (aeropuerto == null || aeropuerto.getCodigoIATA() == null) return -1;
+        Integer id = idsAeropuerto.get(aeropuerto.getCodigoIATA());
+        if (id == null) {
+            id = idsAeropuerto.get(aeropuerto.getCodigoIATA().trim().toUpperCase());
+        }
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Máscara de días cancelados del vuelo (compartida: no debe modificarse).
+     */
+    private BitSet mascara(Vuelo vuelo) {
+        if (diasPorVuelo.isEmpty() || vuelo.getHoraSalida() == null) return SIN_CANCELACIONES;
+        int origen = idAeropuerto(vuelo.getAeropuertoOrigen());
+        if (origen < 0) return SIN_CANCELACIONES;
+        int destino = idAeropuerto(vuelo.getAeropuertoDestino());
+        if (destino < 0) return SIN_CANCELACIONES;
+        BitSet dias = diasPorVuelo.get(clave(origen, destino,
+                vuelo.getHoraSalida().getHour(), vuelo.getHoraSalida().getMinute()));
+        return dias != null ? dias : SIN_CANCELACIONES;
     }
 
     /**
@@ -53,16 +116,18 @@ public class ServicioDisponibilidadVuelos {
      */
     public boolean estaDisponible(Vuelo vuelo, int dia) {
         if (vuelo == null) return false;
+        return dia < 0 || !mascara(vuelo).get(dia);
+    }
 
-        // Buscar cancelaciones que coincidan con el vuelo y día
-        return cancelaciones.stream()
-                .noneMatch(c ->
-                        c.getCodigoIATAOrigen().equalsIgnoreCase(vuelo.getAeropuertoOrigen().getCodigoIATA())
-                                && c.getCodigoIATADestino().equalsIgnoreCase(vuelo.getAeropuertoDestino().getCodigoIATA())
-                                && c.getHora() ==  vuelo.getHoraSalida().getHour()
-                                && c.getMinuto() == vuelo.getHoraSalida().getMinute()
-                                && c.getDiasCancelado() == dia
-                );
+    /**
+     * Obtiene los días en que un vuelo está cancelado como máscara (bit d = día d).
+     *
+     * @param vuelo Vuelo a consultar.
+     * @return Copia de la máscara (vacía si no hay cancelaciones).
+     */
+    public BitSet obtenerMascaraCancelaciones(Vuelo vuelo) {
+        if (vuelo == null) return new BitSet(0);
+        return (BitSet) mascara(vuelo).clone();
     }
 
     /**
@@ -74,15 +139,13 @@ public class ServicioDisponibilidadVuelos {
     public Set<Integer> obtenerDiasCancelados(Vuelo vuelo) {
         if (vuelo == null) return Set.of();
 
-        return cancelaciones.stream()
-                .filter(c ->
-                        c.getCodigoIATAOrigen().equalsIgnoreCase(vuelo.getAeropuertoOrigen().getCodigoIATA())
-                                && c.getCodigoIATADestino().equalsIgnoreCase(vuelo.getAeropuertoDestino().getCodigoIATA())
-                                && c.getHora() == vuelo.getHoraSalida().getHour()
-                                && c.getMinuto() == vuelo.getHoraSalida().getMinute()
-                )
-                .map(Cancelacion::getDiasCancelado)
-                .collect(Collectors.toSet());
+        BitSet dias = mascara(vuelo);
+        if (dias.isEmpty()) return Set.of();
+        Set<Integer> resultado = new TreeSet<>();
+        for (int dia = dias.nextSetBit(0); dia >= 0; dia = dias.nextSetBit(dia + 1)) {
+            resultado.add(dia);
+        }
+        return resultado;
     }
 
     /**
@@ -92,7 +155,7 @@ public class ServicioDisponibilidadVuelos {
      * @return true si tiene cancelaciones, false en caso contrario.
      */
     public boolean tieneCancelaciones(Vuelo vuelo) {
-        return !obtenerDiasCancelados(vuelo).isEmpty();
+        return vuelo != null && !mascara(vuelo).isEmpty();
     }
 
     /**
@@ -106,10 +169,7 @@ public class ServicioDisponibilidadVuelos {
      * Obtiene el número de vuelos únicos con al menos una cancelación.
      */
     public int getVuelosAfectados() {
-        return (int) cancelaciones.stream()
-                .map(c -> c.getCodigoIATAOrigen() + "-" + c.getCodigoIATADestino() + "-" + c.getHora() + ":" + c.getMinuto())
-                .distinct()
-                .count();
+        return diasPorVuelo.size();
     }
 
     /**
@@ -8,4 +8,6 @@ import java.util.List;
 public interface RutaRepository extends JpaRepository<Ruta, Integer> {
     List<Ruta> findByAeropuertoOrigenId(Long aeropuertoOrigenId);
     List<Ruta> findByAeropuertoDestinoId(Long aeropuertoDestinoId);
+    List<Ruta> findBySecuenciaVuelosIsNotNull();
+    void deleteBySecuenciaVuelosIsNotNull();
 }
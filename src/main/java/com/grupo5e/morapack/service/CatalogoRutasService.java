@@ -0,0 +1,129 @@
+package com.grupo5e.morapack.service;
+
+import com.grupo5e.morapack.core.constants.Constantes;
+import com.grupo5e.morapack.core.index.CatalogoRutas;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Catálogo de rutas precalculadas del plan de vuelos actual.
+ *
+ * Se prepara al arrancar la aplicación: se lee de las rutas guardadas y, si no hay o su firma no
+ * coincide con el plan de vuelos (se agregaron, quitaron o cambiaron vuelos), se vuelve a
+ * construir en paralelo y se reemplaza lo guardado. Después los solvers reciben el mismo catálogo
+ * en memoria sin consultar la base; sólo un cambio de vuelos o aeropuertos
+ * ({@link PlanVuelosModificadoEvent}) lo invalida y dispara otra validación en segundo plano.
+ */
+@Service
+@Slf4j
+public class CatalogoRutasService {
+
+    private final AeropuertoService aeropuertoService;
+    private final VueloService vueloService;
+    private final RutaService rutaService;
+    private final Executor precargador;
+
+    private volatile CatalogoRutas catalogo;
+    // false cuando el plan de vuelos cambió desde que se validó el catálogo
+    private volatile boolean vigente;
+
+    public CatalogoRutasService(AeropuertoService aeropuertoService,
+                                VueloService vueloService,
+                                RutaService rutaService,
+                                @Qualifier("simulacionExecutor") Executor precargador) {
+        this.aeropuertoService = aeropuertoService;
+        this.vueloService = vueloService;
+        this.rutaService = rutaService;
+        this.precargador = precargador;
+    }
+
+    /**
+     * Prepara el catálogo al arrancar, para que la primera simulación no lo construya
+     * dentro de su tiempo límite.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        try {
+            obtenerCatalogo();
+        } catch (Exception e) {
+            // Se reintenta con la próxima simulación
+            log.warn("⚠️ No se pudo preparar el catálogo de rutas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * El plan de vuelos cambió: el catálogo se vuelve a validar (y si hace falta a construir)
+     * en segundo plano, una vez confirmada la transacción.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarPlanVuelos(PlanVuelosModificadoEvent evento) {
+        log.info("📚 Plan de vuelos modificado ({}), se revalida el catálogo de rutas", evento.origen());
+        vigente = false;
+        try {
+            precargador.execute(this::precargar);
+        } catch (RejectedExecutionException e) {
+            // Queda invalidado: lo revalida la próxima simulación
+            log.warn("Executor saturado, el catálogo de rutas se revalidará con la próxima simulación");
+        }
+    }
+
+    /**
+     * Catálogo del plan de vuelos actual. Sólo consulta la base la primera vez o después de un
+     * cambio del plan; entonces lo lee de lo guardado o lo construye si la firma no coincide.
+     */
+    public synchronized CatalogoRutas obtenerCatalogo() {
+        CatalogoRutas actual = catalogo;
+        if (actual != null && vigente) {
+            return actual;
+        }
+
+        // Antes de leer el plan: un cambio durante la lectura lo vuelve a invalidar
+        vigente = true;
+        try {
+            IndiceVuelos indice = new IndiceVuelos(aeropuertoService.listarDisponibles(), vueloService.listar());
+            long firma = CatalogoRutas.firmaHorario(indice);
+            if (actual != null && actual.getFirmaHorario() == firma) {
+                return actual;
+            }
+
+            CatalogoRutas guardado = CatalogoRutas.desdeRutas(rutaService.listarCatalogo(), indice,
+                    Constantes.TIEMPO_MINIMO_CONEXION_MINUTOS);
+            if (guardado != null) {
+                log.info("📚 Catálogo de rutas leído: {} itinerarios", guardado.getTotalRutas());
+                catalogo = guardado;
+                return guardado;
+            }
+            return reconstruir(indice);
+        } catch (RuntimeException e) {
+            vigente = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Construye el catálogo del plan de vuelos del índice y reemplaza el guardado.
+     */
+    private CatalogoRutas reconstruir(IndiceVuelos indice) {
+        long inicio = System.currentTimeMillis();
+        CatalogoRutas nuevo = CatalogoRutas.construir(indice, Constantes.TIEMPO_MINIMO_CONEXION_MINUTOS,
+                Constantes.RUTAS_CATALOGO_POR_PAR);
+        log.info("📚 Catálogo de rutas construido: {} itinerarios en {} ms",
+                nuevo.getTotalRutas(), System.currentTimeMillis() - inicio);
+        try {
+            rutaService.reemplazarCatalogo(nuevo.aRutas());
+        } catch (Exception e) {
+            // Sin persistencia el catálogo sigue sirviendo en memoria; se reintenta con el próximo cambio
+            log.warn("No se pudo guardar el catálogo de rutas: {}", e.getMessage());
+        }
+        catalogo = nuevo;
+        return nuevo;
+    }
+}
@@ -0,0 +1,10 @@
+package com.grupo5e.morapack.service;
+
+/**
+ * Se publica cuando cambian los vuelos o los aeropuertos disponibles del plan de vuelos.
+ * Lo escucha {@link CatalogoRutasService} para volver a validar el catálogo de rutas.
+ *
+ * @param origen operación que modificó el plan (solo para el log)
+ */
+public record PlanVuelosModificadoEvent(String origen) {
+}
@@ -14,4 +14,6 @@ public interface RutaService {
     void eliminar(int id);
     boolean existePorId(int id);
     List<Ruta> insertarBulk(List<Ruta> rutas);
+    List<Ruta> listarCatalogo();
+    List<Ruta> reemplazarCatalogo(List<Ruta> rutas);
 }
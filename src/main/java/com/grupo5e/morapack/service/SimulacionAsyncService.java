@@ -1,7 +1,12 @@
 package com.grupo5e.morapack.service;
 
+import com.grupo5e.morapack.algorithm.alns.ALNSMultiArranque;
+import com.grupo5e.morapack.algorithm.alns.CalendarioVuelos;
+import com.grupo5e.morapack.algorithm.alns.RegistroCapacidades;
 import com.grupo5e.morapack.algorithm.alns.ALNSSolver;
+import com.grupo5e.morapack.algorithm.alns.TokenCancelacion;
 import com.grupo5e.morapack.api.dto.SimulacionSemanalRequestDTO;
+import com.grupo5e.morapack.core.index.CatalogoRutas;
 import com.grupo5e.morapack.core.enums.EstadoSimulacion;
 import com.grupo5e.morapack.core.model.*;
 import com.grupo5e.morapack.repository.SimulacionAsignacionRepository;
@@ -21,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio separado para ejecución asíncrona del algoritmo ALNS.
@@ -36,6 +42,10 @@ public class SimulacionAsyncService {
     private final PedidoService pedidoService;
     private final VueloService vueloService;
     private final SimulationEngine simulationEngine;
+    private final CatalogoRutasService catalogoRutasService;
+
+    // Tokens de las simulaciones con ALNS en ejecución, para poder cancelarlas por id
+    private final Map<Long, TokenCancelacion> ejecucionesActivas = new ConcurrentHashMap<>();
 
     public SimulacionAsyncService(
             SimulacionSemanalRepository simulacionRepository,
@@ -43,13 +53,15 @@ public class SimulacionAsyncService {
             AeropuertoService aeropuertoService,
             PedidoService pedidoService,
             VueloService vueloService,
-            @Lazy SimulationEngine simulationEngine) {
+            @Lazy SimulationEngine simulationEngine,
+            CatalogoRutasService catalogoRutasService) {
         this.simulacionRepository = simulacionRepository;
         this.asignacionRepository = asignacionRepository;
         this.aeropuertoService = aeropuertoService;
         this.pedidoService = pedidoService;
         this.vueloService = vueloService;
         this.simulationEngine = simulationEngine;
+        this.catalogoRutasService = catalogoRutasService;
     }
 
     /**
@@ -61,6 +73,14 @@ public class SimulacionAsyncService {
         log.info("⚙️ [Thread: {}] Ejecutando ALNS para simulación {}", 
                 Thread.currentThread().getName(), simulacionId);
 
+        // El catálogo normalmente ya está en memoria; si hay que leerlo o construirlo,
+        // no se descuenta del tiempo límite del ALNS
+        CatalogoRutas catalogoRutas = obtenerCatalogoRutas();
+
+        // El límite de tiempo cuenta desde que la simulación entra a ejecución
+        TokenCancelacion token = new TokenCancelacion(request.getTiempoLimiteSegundos());
+        ejecucionesActivas.put(simulacionId, token);
+
         try {
             // Actualizar estado EN_PROGRESO en transacción separada
             actualizarEstadoSimulacion(simulacionId, EstadoSimulacion.EN_PROGRESO, 10);
@@ -72,16 +92,44 @@ public class SimulacionAsyncService {
             Integer iteraciones = request.getIteracionesAlns() != null ? request.getIteracionesAlns() : 500;
             Integer timeout = request.getTiempoLimiteSegundos() != null ? request.getTiempoLimiteSegundos() : 0;
             
-            log.info("📊 Inicializando ALNSSolver con {} iteraciones, timeout: {} seg", iteraciones, timeout);
-            ALNSSolver solver = new ALNSSolver(aeropuertoService, pedidoService, vueloService, iteraciones, timeout);
+            Integer trabajadores = request.getTrabajadoresAlns() != null ? request.getTrabajadoresAlns() : 1;
+            int reparacionesEspeculativas = request.getReparacionesEspeculativas() != null ?
+                    request.getReparacionesEspeculativas() : 1;
+            int vecindariosParalelos = request.getVecindariosParalelos() != null ?
+                    request.getVecindariosParalelos() : 1;
 
-            // Ejecutar algoritmo con timeout
-            log.info("🔄 Ejecutando algoritmo ALNS (timeout: {} segundos)...", 
-                    request.getTiempoLimiteSegundos());
             long startTime = System.currentTimeMillis();
-            
-            // Ejecutar en thread con timeout
-            solver.resolver();
+            ALNSSolver solver;
+            if (trabajadores > 1) {
+                // Multi-arranque: N búsquedas independientes en paralelo, se conserva la mejor
+                Integer iteracionesTrabajador = request.getIteracionesPorTrabajador() != null ?
+                        request.getIteracionesPorTrabajador() : iteraciones;
+                int segmentosMigracion = request.getSegmentosEntreMigraciones() != null ?
+                        request.getSegmentosEntreMigraciones() : 0;
+                log.info("📊 ALNS multi-arranque: {} trabajadores x {} iteraciones, migración cada {} segmentos, timeout: {} seg",
+                        trabajadores, iteracionesTrabajador, segmentosMigracion, timeout);
+                solver = new ALNSMultiArranque(aeropuertoService, pedidoService, vueloService,
+                        trabajadores, iteracionesTrabajador, timeout)
+                        .conMigracion(segmentosMigracion)
+                        .conTokenCancelacion(token)
+                        .conCatalogoRutas(catalogoRutas)
+                        .conReparacionesEspeculativas(reparacionesEspeculativas)
+                        .conVecindariosParalelos(vecindariosParalelos)
+                        .resolver();
+            } else {
+                log.info("📊 Inicializando ALNSSolver con {} iteraciones, {} reparaciones y {} vecinos en paralelo, timeout: {} seg",
+                        iteraciones, reparacionesEspeculativas, vecindariosParalelos, timeout);
+                solver = new ALNSSolver(aeropuertoService, pedidoService, vueloService, iteraciones, timeout);
+                solver.setTokenCancelacion(token);
+                solver.setCatalogoRutas(catalogoRutas);
+                solver.setReparacionesEspeculativas(reparacionesEspeculativas);
+                solver.setVecindariosParalelos(vecindariosParalelos);
+
+                // El solver revisa el token entre iteraciones y se detiene al vencer el límite
+                log.info("🔄 Ejecutando algoritmo ALNS (timeout: {} segundos)...",
+                        request.getTiempoLimiteSegundos());
+                solver.resolver();
+            }
             
             long endTime = System.currentTimeMillis();
             long duracionMs = endTime - startTime;
@@ -107,7 +155,11 @@ public class SimulacionAsyncService {
             // Actualizar registro de simulación
             simulacion.setFechaFin(LocalDateTime.now());
             simulacion.setDuracionMs(duracionMs);
-            simulacion.setEstado(EstadoSimulacion.COMPLETADA);
+            // Cancelada: se guarda igual la mejor solución encontrada hasta ese momento
+            simulacion.setEstado(token.estaCancelado() ? EstadoSimulacion.CANCELADA : EstadoSimulacion.COMPLETADA);
+            if (token.estaCancelado()) {
+                simulacion.setMensajeError("Cancelada por el usuario; se guardó la mejor solución encontrada");
+            }
             simulacion.setProgreso(100);
             simulacion.setTiempoInicialReferencia(T0);
             simulacion.setPesoSolucion(pesoSolucion);
@@ -133,7 +185,7 @@ public class SimulacionAsyncService {
 
             // Guardar asignaciones
             log.info("💾 Guardando asignaciones en BD...");
-            guardarAsignaciones(simulacion, solucionOptima, T0);
+            guardarAsignaciones(simulacion, solucionOptima, T0, solver.getRegistroCapacidades());
 
             log.info("🎉 Simulación {} completada exitosamente", simulacionId);
             
@@ -156,9 +208,27 @@ public class SimulacionAsyncService {
             
             // Actualizar estado de error en transacción separada
             actualizarEstadoError(simulacionId, e.getMessage());
+        } finally {
+            ejecucionesActivas.remove(simulacionId);
         }
     }
 
+    /**
+     * Pide detener el ALNS de una simulación en curso. El solver termina en su próxima
+     * comprobación y se guarda la mejor solución encontrada.
+     *
+     * @return false si la simulación no tiene un ALNS en ejecución
+     */
+    public boolean cancelar(Long simulacionId) {
+        TokenCancelacion token = ejecucionesActivas.get(simulacionId);
+        if (token == null) {
+            return false;
+        }
+        token.cancelar();
+        log.info("⏹️ Cancelación solicitada para simulación {}", simulacionId);
+        return true;
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     protected void actualizarEstadoError(Long simulacionId, String mensajeError) {
         SimulacionSemanal sim = simulacionRepository.findById(simulacionId).orElse(null);
@@ -171,12 +241,16 @@ public class SimulacionAsyncService {
     }
 
     /**
-     * Guarda las asignaciones (solución) en la base de datos
+     * Guarda las asignaciones (solución) en la base de datos.
+     * Cada tramo se guarda con la ocurrencia (día, salida, llegada) en la que el solver reservó
+     * su capacidad.
      */
     @Transactional
     protected void guardarAsignaciones(SimulacionSemanal simulacion, 
                                        HashMap<Pedido, ArrayList<Vuelo>> solucion,
-                                       LocalDateTime T0) {
+                                       LocalDateTime T0,
+                                       RegistroCapacidades registro) {
+        CalendarioVuelos calendario = registro.getCalendario();
         int contador = 0;
         
         for (Map.Entry<Pedido, ArrayList<Vuelo>> entry : solucion.entrySet()) {
@@ -184,14 +258,20 @@ public class SimulacionAsyncService {
             ArrayList<Vuelo> ruta = entry.getValue();
 
             int minutoActual = calcularMinutoInicio(pedido, T0);
+            int[] dias = registro.dias(pedido, ruta);
 
             for (int secuencia = 0; secuencia < ruta.size(); secuencia++) {
                 Vuelo vuelo = ruta.get(secuencia);
+                int indiceVuelo = calendario.getInstancia().indiceVuelo(vuelo);
 
-                // Calcular minutos de inicio y fin
+                // Calcular minutos de inicio y fin: los de la ocurrencia si el vuelo es de la instancia
                 int minutoInicio = minutoActual;
                 int duracionMinutos = (int) (vuelo.getTiempoTransporte() * 60);
                 int minutoFin = minutoInicio + duracionMinutos;
+                if (indiceVuelo >= 0 && dias != null && calendario.getInicio() != null) {
+                    minutoInicio = (int) Duration.between(T0, calendario.fechaSalida(indiceVuelo, dias[secuencia])).toMinutes();
+                    minutoFin = (int) Duration.between(T0, calendario.fechaLlegada(indiceVuelo, dias[secuencia])).toMinutes();
+                }
 
                 // Obtener coordenadas
                 Aeropuerto origen = vuelo.getAeropuertoOrigen();
@@ -219,6 +299,7 @@ public class SimulacionAsyncService {
                 asignacion.setPedido(pedido);
                 asignacion.setSecuencia(secuencia + 1);
                 asignacion.setVuelo(vuelo);
+                asignacion.setDiaVuelo(dias[secuencia] > 0 ? dias[secuencia] : null);
                 asignacion.setMinutoInicio(minutoInicio);
                 asignacion.setMinutoFin(minutoFin);
                 asignacion.setLatitudInicio(latOrigen);
@@ -238,6 +319,18 @@ public class SimulacionAsyncService {
         log.info("💾 {} asignaciones guardadas", contador);
     }
 
+    /**
+     * Catálogo de rutas del plan de vuelos actual; si no se puede obtener, el solver busca sin él.
+     */
+    private CatalogoRutas obtenerCatalogoRutas() {
+        try {
+            return catalogoRutasService.obtenerCatalogo();
+        } catch (Exception e) {
+            log.warn("⚠️ Catálogo de rutas no disponible, se buscarán rutas sin catálogo: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Calcula el minuto de inicio de un pedido desde T0
      */
@@ -63,6 +63,16 @@ public class SimulacionSemanalService {
     }
 
 
+    /**
+     * Cancela el ALNS de una simulación en ejecución (se conserva la mejor solución encontrada)
+     */
+    public boolean cancelarSimulacion(Long simulacionId) {
+        if (!simulacionRepository.existsById(simulacionId)) {
+            throw new RuntimeException("Simulación no encontrada: " + simulacionId);
+        }
+        return simulacionAsyncService.cancelar(simulacionId);
+    }
+
     /**
      * Obtiene el estado de una simulación
      */
@@ -82,7 +92,7 @@ public class SimulacionSemanalService {
         SimulacionSemanal simulacion = simulacionRepository.findById(simulacionId)
                 .orElseThrow(() -> new RuntimeException("Simulación no encontrada: " + simulacionId));
 
-        if (simulacion.getEstado() != EstadoSimulacion.COMPLETADA) {
+        if (!tieneSolucion(simulacion)) {
             throw new RuntimeException("La simulación aún no ha completado");
         }
 
@@ -125,7 +135,7 @@ public class SimulacionSemanalService {
         }
 
         // Incluir solución completa si se solicita
-        if (incluirSolucion && simulacion.getEstado() == EstadoSimulacion.COMPLETADA) {
+        if (incluirSolucion && tieneSolucion(simulacion)) {
             Map<Long, List<Integer>> solucionMap = construirMapaSolucion(simulacion);
             dto.setSolucion(solucionMap);
 
@@ -139,6 +149,14 @@ public class SimulacionSemanalService {
         return dto;
     }
 
+    /**
+     * Completada, o cancelada después de guardar su mejor solución
+     */
+    private boolean tieneSolucion(SimulacionSemanal simulacion) {
+        return simulacion.getEstado() == EstadoSimulacion.COMPLETADA ||
+                (simulacion.getEstado() == EstadoSimulacion.CANCELADA && simulacion.getPesoSolucion() != null);
+    }
+
     /**
      * Construye el mapa de solución: pedidoId -> [vueloIds]
      */
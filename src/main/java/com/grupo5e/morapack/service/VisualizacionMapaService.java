@@ -96,13 +96,14 @@ public class VisualizacionMapaService {
         List<SimulacionAsignacion> asignacionesActivas = 
                 asignacionRepository.findAsignacionesActivasEnMinuto(simulacionId, minutoActual);
 
-        // Agrupar por vuelo para evitar duplicados
-        Map<Integer, List<SimulacionAsignacion>> porVuelo = asignacionesActivas.stream()
-                .collect(Collectors.groupingBy(a -> a.getVuelo().getId()));
+        // Agrupar por ocurrencia del vuelo (vuelo, día) para evitar duplicados
+        Map<String, List<SimulacionAsignacion>> porVuelo = asignacionesActivas.stream()
+                .collect(Collectors.groupingBy(a -> a.getVuelo().getId() + "-" +
+                        (a.getDiaVuelo() != null ? a.getDiaVuelo() : 0)));
 
         List<VueloActivoDTO> vuelosActivos = new ArrayList<>();
 
-        for (Map.Entry<Integer, List<SimulacionAsignacion>> entry : porVuelo.entrySet()) {
+        for (Map.Entry<String, List<SimulacionAsignacion>> entry : porVuelo.entrySet()) {
             List<SimulacionAsignacion> asignaciones = entry.getValue();
             SimulacionAsignacion primeraAsignacion = asignaciones.get(0);
 
@@ -180,12 +181,17 @@ public class VisualizacionMapaService {
                 .collect(Collectors.toList());
         dto.setPaquetesABordo(paquetesIds);
 
-        // Capacidad
+        // Capacidad de esta ocurrencia: productos de los pedidos a bordo
+        int capacidadUsada = todasAsignaciones.stream()
+                .map(SimulacionAsignacion::getPedido)
+                .distinct()
+                .mapToInt(p -> p.getProductos() != null ? p.getProductos().size() : 1)
+                .sum();
         dto.setCapacidadMaxima(vuelo.getCapacidadMaxima());
-        dto.setCapacidadUsada(vuelo.getCapacidadUsada());
+        dto.setCapacidadUsada(capacidadUsada);
 
         if (vuelo.getCapacidadMaxima() > 0) {
-            double porcentaje = (vuelo.getCapacidadUsada() * 100.0) / vuelo.getCapacidadMaxima();
+            double porcentaje = (capacidadUsada * 100.0) / vuelo.getCapacidadMaxima();
             dto.setPorcentajeOcupacion(Math.round(porcentaje * 100.0) / 100.0);
         }
 
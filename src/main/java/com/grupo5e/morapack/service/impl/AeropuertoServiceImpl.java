@@ -5,6 +5,8 @@ import com.grupo5e.morapack.core.enums.EstadoAeropuerto;
 import com.grupo5e.morapack.core.model.Aeropuerto;
 import com.grupo5e.morapack.repository.AeropuertoRepository;
 import com.grupo5e.morapack.service.AeropuertoService;
+import com.grupo5e.morapack.service.PlanVuelosModificadoEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,9 +18,11 @@ import java.util.stream.Collectors;
 public class AeropuertoServiceImpl implements AeropuertoService {
 
     private final AeropuertoRepository aeropuertoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AeropuertoServiceImpl(AeropuertoRepository aeropuertoRepository) {
+    public AeropuertoServiceImpl(AeropuertoRepository aeropuertoRepository, ApplicationEventPublisher eventPublisher) {
         this.aeropuertoRepository = aeropuertoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -34,7 +38,9 @@ public class AeropuertoServiceImpl implements AeropuertoService {
     @Override
     @Transactional
     public Long insertar(Aeropuerto aeropuerto) {
-        return aeropuertoRepository.save(aeropuerto).getId();
+        Long id = aeropuertoRepository.save(aeropuerto).getId();
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("aeropuerto insertado"));
+        return id;
     }
 
     @Override
@@ -45,7 +51,9 @@ public class AeropuertoServiceImpl implements AeropuertoService {
             throw new ResourceNotFoundException("Aeropuerto", "id", id);
         }
         aeropuerto.setId(id);
-        return aeropuertoRepository.save(aeropuerto);
+        Aeropuerto guardado = aeropuertoRepository.save(aeropuerto);
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("aeropuerto actualizado"));
+        return guardado;
     }
 
     @Override
@@ -63,7 +71,9 @@ public class AeropuertoServiceImpl implements AeropuertoService {
             aeropuerto.setEstado(EstadoAeropuerto.DISPONIBLE);
         }
         
-        return aeropuertoRepository.save(aeropuerto);
+        Aeropuerto guardado = aeropuertoRepository.save(aeropuerto);
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("estado de aeropuerto"));
+        return guardado;
     }
 
     @Override
@@ -83,6 +93,7 @@ public class AeropuertoServiceImpl implements AeropuertoService {
             throw new ResourceNotFoundException("Aeropuerto", "id", id);
         }
         aeropuertoRepository.deleteById(id);
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("aeropuerto eliminado"));
     }
 
     @Override
@@ -93,6 +104,8 @@ public class AeropuertoServiceImpl implements AeropuertoService {
     @Override
     @Transactional
     public List<Aeropuerto> insertarBulk(List<Aeropuerto> aeropuertos) {
-        return aeropuertoRepository.saveAll(aeropuertos).stream().collect(Collectors.toList());
+        List<Aeropuerto> guardados = aeropuertoRepository.saveAll(aeropuertos).stream().collect(Collectors.toList());
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("carga de aeropuertos"));
+        return guardados;
     }
 }
@@ -75,4 +75,16 @@ public class RutaServiceImpl implements RutaService {
     public List<Ruta> insertarBulk(List<Ruta> rutas) {
         return rutaRepository.saveAll(rutas).stream().collect(Collectors.toList());
     }
+
+    @Override
+    public List<Ruta> listarCatalogo() {
+        return rutaRepository.findBySecuenciaVuelosIsNotNull();
+    }
+
+    @Override
+    @Transactional
+    public List<Ruta> reemplazarCatalogo(List<Ruta> rutas) {
+        rutaRepository.deleteBySecuenciaVuelosIsNotNull();
+        return rutaRepository.saveAll(rutas);
+    }
 }
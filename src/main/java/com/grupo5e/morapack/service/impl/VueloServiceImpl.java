@@ -4,7 +4,9 @@ import com.grupo5e.morapack.api.exception.ResourceNotFoundException;
 import com.grupo5e.morapack.core.enums.EstadoVuelo;
 import com.grupo5e.morapack.core.model.Vuelo;
 import com.grupo5e.morapack.repository.VueloRepository;
+import com.grupo5e.morapack.service.PlanVuelosModificadoEvent;
 import com.grupo5e.morapack.service.VueloService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,9 +18,11 @@ import java.util.stream.Collectors;
 public class VueloServiceImpl implements VueloService {
 
     private final VueloRepository vueloRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public VueloServiceImpl(VueloRepository vueloRepository) {
+    public VueloServiceImpl(VueloRepository vueloRepository, ApplicationEventPublisher eventPublisher) {
         this.vueloRepository = vueloRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -29,7 +33,9 @@ public class VueloServiceImpl implements VueloService {
     @Override
     @Transactional
     public int insertar(Vuelo vuelo) {
-        return vueloRepository.save(vuelo).getId();
+        int id = vueloRepository.save(vuelo).getId();
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("vuelo insertado"));
+        return id;
     }
 
     @Override
@@ -40,7 +46,9 @@ public class VueloServiceImpl implements VueloService {
             throw new ResourceNotFoundException("Vuelo", "id", id);
         }
         vuelo.setId(id);
-        return vueloRepository.save(vuelo);
+        Vuelo guardado = vueloRepository.save(vuelo);
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("vuelo actualizado"));
+        return guardado;
     }
 
     @Override
@@ -78,6 +86,7 @@ public class VueloServiceImpl implements VueloService {
             throw new ResourceNotFoundException("Vuelo", "id", id);
         }
         vueloRepository.deleteById(id);
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("vuelo eliminado"));
     }
 
     @Override
@@ -88,6 +97,8 @@ public class VueloServiceImpl implements VueloService {
     @Override
     @Transactional
     public List<Vuelo> insertarBulk(List<Vuelo> vuelos) {
-        return vueloRepository.saveAll(vuelos).stream().collect(Collectors.toList());
+        List<Vuelo> guardados = vueloRepository.saveAll(vuelos).stream().collect(Collectors.toList());
+        eventPublisher.publishEvent(new PlanVuelosModificadoEvent("carga de vuelos"));
+        return guardados;
     }
 }
@@ -3,6 +3,7 @@ package com.grupo5e.morapack.simulation.controller;
 import com.grupo5e.morapack.simulation.dto.*;
 import com.grupo5e.morapack.simulation.model.*;
 import com.grupo5e.morapack.simulation.service.SimulationEngine;
+import com.grupo5e.morapack.simulation.service.SimulationStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,13 +13,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Controller para visualización en tiempo real de simulaciones.
@@ -28,7 +30,9 @@ import java.util.stream.Collectors;
  * 2. Backend ejecuta algoritmo ALNS (puede tardar minutos)
  * 3. Cuando ALNS termina, frontend llama POST /api/simulations/{id}/visualization/start
  * 4. Esto carga la solución en memoria y prepara la visualización
- * 5. Frontend hace polling a GET /api/simulations/{id}/status cada 2 segundos
+ * 5. Frontend pide una vez GET /api/simulations/{id}/flights (datos fijos de los vuelos)
+ *    y se suscribe a GET /api/simulations/{id}/stream (SSE) o hace polling a
+ *    GET /api/simulations/{id}/status/delta?since={version} cada 2 segundos
  * 6. Frontend puede controlar con PATCH /api/simulations/{id}/control
  */
 @RestController
@@ -38,10 +42,15 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class SimulationRealtimeController {
     
+    private static final MediaType BINARY_POSITIONS = MediaType.parseMediaType(PositionColumns.MEDIA_TYPE);
+    
     private final SimulationEngine simulationEngine;
+    private final SimulationStreamService streamService;
     
-    public SimulationRealtimeController(SimulationEngine simulationEngine) {
+    public SimulationRealtimeController(SimulationEngine simulationEngine,
+                                        SimulationStreamService streamService) {
         this.simulationEngine = simulationEngine;
+        this.streamService = streamService;
     }
     
     // ==================== INICIO DE VISUALIZACIÓN ====================
@@ -87,8 +96,8 @@ public class SimulationRealtimeController {
             simulationEngine.pauseSimulation(simulacionId);
         }
         
-        // Devolver estado inicial
-        SimulationStatusResponse response = buildStatusResponse(state);
+        // Devolver estado inicial (snapshot publicado, ya refleja la pausa si no es autoStart)
+        SimulationStatusResponse response = simulationEngine.getStatusSnapshot(simulacionId);
         
         log.info("✅ Visualización iniciada: {} vuelos, factor {}x, autoStart={}", 
                 state.getFlights().size(), timeScale, autoStart);
@@ -102,7 +111,7 @@ public class SimulationRealtimeController {
             summary = "Obtener estado actual de la simulación (POLLING)",
             description = "Endpoint principal para actualización en tiempo real. " +
                           "El frontend debe llamar a este endpoint cada 2-3 segundos. " +
-                          "El backend calcula automáticamente el tiempo transcurrido y las posiciones actuales de los vuelos."
+                          "El backend avanza la simulación en segundo plano y este endpoint sólo devuelve el último estado publicado."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -121,130 +130,145 @@ public class SimulationRealtimeController {
             @PathVariable Long simulacionId) {
         
         try {
-            // Actualizar simulación (calcula posiciones actuales)
-            SimulationState state = simulationEngine.updateSimulation(simulacionId);
-            
-            // Construir respuesta
-            SimulationStatusResponse response = buildStatusResponse(state);
+            // Último snapshot publicado por el ticker (lectura sin bloqueo, no modifica el estado)
+            SimulationStatusResponse response = simulationEngine.getStatusSnapshot(simulacionId);
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             // Simulación no está en memoria - devolver 503 con mensaje claro
             log.warn("Simulación {} no está en memoria. Mensaje: {}", simulacionId, e.getMessage());
-            
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("simulationId", simulacionId);
-            errorResponse.put("error", "SIMULATION_NOT_LOADED");
-            errorResponse.put("message", "La simulación no está cargada en memoria. Debe iniciar la visualización primero.");
-            errorResponse.put("action", "POST /api/simulations/" + simulacionId + "/visualization/start");
-            
-            return ResponseEntity.status(503).body(errorResponse);
+            return simulationNotLoaded(simulacionId);
         }
     }
     
-    /**
-     * Construye la respuesta de status a partir del estado en memoria
-     */
-    private SimulationStatusResponse buildStatusResponse(SimulationState state) {
-        LocalDateTime currentSimulatedTime = state.getCurrentSimulatedTime();
-        long elapsedSeconds = ChronoUnit.SECONDS.between(state.getSimulatedStartTime(), currentSimulatedTime);
-        
-        // Extraer día, hora, minuto
-        long totalMinutes = elapsedSeconds / 60;
-        int currentDay = (int) (totalMinutes / (24 * 60)) + 1;  // Día 1, 2, 3...
-        int currentHour = (int) ((totalMinutes % (24 * 60)) / 60);
-        int currentMinute = (int) (totalMinutes % 60);
-        
-        // Convertir vuelos activos (solo IN_FLIGHT)
-        List<ActiveFlightDTO> activeFlights = state.getFlights().stream()
-                .filter(f -> f.getStatus() == FlightStatus.IN_FLIGHT)
-                .map(this::convertToActiveFlightDTO)
-                .collect(Collectors.toList());
-        
-        // Convertir almacenes
-        List<WarehouseStateDTO> warehouses = state.getWarehouses().stream()
-                .map(this::convertToWarehouseDTO)
-                .collect(Collectors.toList());
-        
-        // Convertir métricas
-        MetricsDTO metrics = convertToMetricsDTO(state.getMetrics());
+    @Operation(
+            summary = "Obtener cambios desde una versión (POLLING incremental)",
+            description = "Devuelve sólo lo que cambió desde la versión 'since': vuelos que despegaron, " +
+                          "vuelos que se movieron, IDs de vuelos que aterrizaron, almacenes modificados y eventos nuevos. " +
+                          "Los datos fijos de los vuelos se piden una vez con GET /flights. " +
+                          "Con since=0, o si la versión ya es muy vieja, devuelve un frame completo (baseVersion=0). " +
+                          "Con 'Accept: " + PositionColumns.MEDIA_TYPE + "' devuelve sólo las posiciones en formato " +
+                          "binario por columnas (ver PositionColumns); por defecto responde JSON."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Cambios obtenidos exitosamente",
+                    content = @Content(schema = @Schema(implementation = SimulationDeltaResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Simulación no activa en memoria. Debe iniciar visualización primero."
+            )
+    })
+    @GetMapping("/{simulacionId}/status/delta")
+    public ResponseEntity<?> getSimulationDelta(
+            @Parameter(description = "ID de la simulación", required = true)
+            @PathVariable Long simulacionId,
+            @Parameter(description = "Última versión recibida por el cliente (0 = frame completo)")
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         
-        // Eventos recientes (últimos 20)
-        List<SimulationEvent> recentEvents = new ArrayList<>(state.getRecentEvents());
-        if (recentEvents.size() > 20) {
-            recentEvents = recentEvents.subList(recentEvents.size() - 20, recentEvents.size());
+        try {
+            // El binario sólo si el cliente lo pide explícitamente; */* sigue siendo JSON
+            if (acceptsBinaryPositions(accept)) {
+                return ResponseEntity.ok()
+                        .contentType(BINARY_POSITIONS)
+                        .body(simulationEngine.getPositionDelta(simulacionId, since));
+            }
+            return ResponseEntity.ok(simulationEngine.getStatusDelta(simulacionId, since));
+        } catch (RuntimeException e) {
+            log.warn("Simulación {} no está en memoria. Mensaje: {}", simulacionId, e.getMessage());
+            return simulationNotLoaded(simulacionId);
         }
+    }
+    
+    @Operation(
+            summary = "Obtener los datos fijos de los vuelos de la simulación",
+            description = "Código, origen/destino, ciudades, horarios y paquetes de cada vuelo. " +
+                          "No cambian durante la visualización: se piden una vez y se cruzan por flightId con los deltas. " +
+                          "Cada ocurrencia (vuelo del plan en un día) tiene su propio flightId."
+    )
+    @GetMapping("/{simulacionId}/flights")
+    public ResponseEntity<?> getFlightMetadata(
+            @Parameter(description = "ID de la simulación", required = true)
+            @PathVariable Long simulacionId) {
         
-        return SimulationStatusResponse.builder()
-                .simulationId(state.getSimulationId())
-                .status(state.getStatus().name())
-                .currentSimulatedTime(currentSimulatedTime)
-                .elapsedSimulatedSeconds(elapsedSeconds)
-                .progressPercentage(Math.round(state.calculateProgress() * 10000.0) / 100.0)
-                .currentDay(currentDay)
-                .currentHour(currentHour)
-                .currentMinute(currentMinute)
-                .activeFlights(activeFlights)
-                .warehouses(warehouses)
-                .metrics(metrics)
-                .recentEvents(recentEvents)
-                .timeScale(state.getTimeScale())
-                .build();
+        try {
+            return ResponseEntity.ok(simulationEngine.getFlightMetadata(simulacionId));
+        } catch (RuntimeException e) {
+            log.warn("Simulación {} no está en memoria. Mensaje: {}", simulacionId, e.getMessage());
+            return simulationNotLoaded(simulacionId);
+        }
     }
     
-    private ActiveFlightDTO convertToActiveFlightDTO(FlightSnapshot flight) {
-        return ActiveFlightDTO.builder()
-                .flightId(flight.getFlightId())
-                .flightCode(flight.getFlightCode())
-                .currentLat(flight.getCurrentLat())
-                .currentLng(flight.getCurrentLng())
-                .originLat(flight.getOriginLat())
-                .originLng(flight.getOriginLng())
-                .destinationLat(flight.getDestinationLat())
-                .destinationLng(flight.getDestinationLng())
-                .originCode(flight.getOriginCode())
-                .destinationCode(flight.getDestinationCode())
-                .originCity(flight.getOriginCity())
-                .destinationCity(flight.getDestinationCity())
-                .status(flight.getStatus().name())
-                .progressPercentage(flight.getProgressPercentage())
-                .heading(flight.getHeading())
-                .packagesOnBoard(flight.getPackagesOnBoard())
-                .capacityUsed(flight.getCapacityUsed())
-                .capacityMax(flight.getCapacityMax())
-                .occupancyPercentage(flight.getOccupancyPercentage())
-                .build();
+    private static boolean acceptsBinaryPositions(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(BINARY_POSITIONS::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
     }
     
-    private WarehouseStateDTO convertToWarehouseDTO(WarehouseSnapshot warehouse) {
-        return WarehouseStateDTO.builder()
-                .warehouseId(warehouse.getWarehouseId())
-                .code(warehouse.getCode())
-                .cityName(warehouse.getCityName())
-                .latitude(warehouse.getLatitude())
-                .longitude(warehouse.getLongitude())
-                .capacity(warehouse.getCapacity())
-                .current(warehouse.getCurrentOccupancy())
-                .available(warehouse.getAvailable())
-                .occupancyPercentage(warehouse.getOccupancyPercentage())
-                .status(warehouse.getStatus().name())
-                .isPrincipal(warehouse.isPrincipal())
-                .build();
+    private ResponseEntity<Map<String, Object>> simulationNotLoaded(Long simulacionId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("simulationId", simulacionId);
+        errorResponse.put("error", "SIMULATION_NOT_LOADED");
+        errorResponse.put("message", "La simulación no está cargada en memoria. Debe iniciar la visualización primero.");
+        errorResponse.put("action", "POST /api/simulations/" + simulacionId + "/visualization/start");
+        
+        return ResponseEntity.status(503).body(errorResponse);
     }
     
-    private MetricsDTO convertToMetricsDTO(SimulationMetrics metrics) {
-        return MetricsDTO.builder()
-                .totalFlights(metrics.getTotalFlights())
-                .flightsScheduled(metrics.getFlightsScheduled())
-                .flightsInAir(metrics.getFlightsInAir())
-                .flightsCompleted(metrics.getFlightsCompleted())
-                .totalOrders(metrics.getTotalOrders())
-                .ordersDelivered(metrics.getOrdersDelivered())
-                .ordersInTransit(metrics.getOrdersInTransit())
-                .ordersWaiting(metrics.getOrdersWaiting())
-                .slaCompliancePercentage(metrics.getSlaCompliancePercentage())
-                .averageWarehouseOccupancy(metrics.getAverageWarehouseOccupancy())
-                .build();
+    // ==================== STREAMING (SSE) ====================
+    
+    @Operation(
+            summary = "Suscribirse a las actualizaciones de la simulación (SSE)",
+            description = "Abre un stream Server-Sent Events que envía un evento 'delta' (mismo contenido " +
+                          "que GET /status/delta) en cada tick del backend, con la versión como id del evento. " +
+                          "Si el cliente no alcanza a leer, recibe un único delta hasta el estado más reciente. " +
+                          "Al reconectarse, el header Last-Event-ID continúa desde la última versión recibida. " +
+                          "El stream se cierra cuando la simulación termina o se detiene."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream abierto; el primer evento es un frame completo o el delta desde Last-Event-ID"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Simulación no activa en memoria. Debe iniciar visualización primero."
+            )
+    })
+    @GetMapping(value = "/{simulacionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSimulation(
+            @Parameter(description = "ID de la simulación", required = true)
+            @PathVariable Long simulacionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        
+        long since = StatusFrames.FULL_FRAME;
+        if (lastEventId != null) {
+            try {
+                since = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                log.debug("Last-Event-ID inválido '{}', se envía frame completo", lastEventId);
+            }
+        }
+        
+        SseEmitter emitter;
+        try {
+            emitter = streamService.subscribe(simulacionId,
+                    () -> simulationEngine.getPublishedFrames(simulacionId), since);
+        } catch (RuntimeException e) {
+            // Sin cuerpo: el cliente pidió text/event-stream
+            log.warn("Stream solicitado para simulación {} que no está en memoria", simulacionId);
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.ok(emitter);
     }
     
     // ==================== CONTROL DE SIMULACIÓN ====================
@@ -299,9 +323,8 @@ public class SimulationRealtimeController {
                 throw new IllegalArgumentException("Acción inválida: " + request.getAction());
         }
         
-        // Devolver estado actualizado
-        SimulationState state = simulationEngine.getSimulation(simulacionId);
-        SimulationStatusResponse response = buildStatusResponse(state);
+        // Devolver estado actualizado (cada comando publica un snapshot nuevo)
+        SimulationStatusResponse response = simulationEngine.getStatusSnapshot(simulacionId);
         
         return ResponseEntity.ok(response);
     }
@@ -16,10 +16,10 @@ import java.util.List;
 @Schema(description = "Vuelo actualmente en el aire")
 public class ActiveFlightDTO {
     
-    @Schema(description = "ID del vuelo", example = "123")
+    @Schema(description = "ID de la ocurrencia del vuelo (vuelo del plan en un día)", example = "123")
     private Integer flightId;
     
-    @Schema(description = "Código del vuelo", example = "MP-123")
+    @Schema(description = "Código de la ocurrencia del vuelo", example = "MP-123-D4")
     private String flightCode;
     
     @Schema(description = "Latitud actual (interpolada)", example = "-12.5432")
@@ -0,0 +1,75 @@
+package com.grupo5e.morapack.simulation.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Datos fijos de un vuelo de la simulación.
+ * No cambian durante la visualización: el cliente los pide una vez y los frames
+ * delta sólo traen {@link FlightPositionDTO}
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Datos fijos de un vuelo de la simulación")
+public class FlightMetadataDTO {
+    
+    @Schema(description = "ID de la ocurrencia del vuelo (vuelo del plan en un día)", example = "123")
+    private Integer flightId;
+    
+    @Schema(description = "Código de la ocurrencia del vuelo", example = "MP-123-D4")
+    private String flightCode;
+    
+    @Schema(description = "ID del vuelo del plan", example = "123")
+    private Integer scheduleFlightId;
+    
+    @Schema(description = "Día de operación de la ocurrencia (1 = día de T0)", example = "4")
+    private Integer flightDay;
+    
+    @Schema(description = "Latitud de origen", example = "-12.0219")
+    private Double originLat;
+    
+    @Schema(description = "Longitud de origen", example = "-77.0433")
+    private Double originLng;
+    
+    @Schema(description = "Latitud de destino", example = "50.9014")
+    private Double destinationLat;
+    
+    @Schema(description = "Longitud de destino", example = "4.4844")
+    private Double destinationLng;
+    
+    @Schema(description = "Código IATA origen", example = "SPIM")
+    private String originCode;
+    
+    @Schema(description = "Código IATA destino", example = "EBCI")
+    private String destinationCode;
+    
+    @Schema(description = "Ciudad origen", example = "Lima")
+    private String originCity;
+    
+    @Schema(description = "Ciudad destino", example = "Bruselas")
+    private String destinationCity;
+    
+    @Schema(description = "Hora simulada de salida", example = "2025-01-20T10:00:00")
+    private LocalDateTime departureTime;
+    
+    @Schema(description = "Hora simulada de llegada", example = "2025-01-20T18:30:00")
+    private LocalDateTime arrivalTime;
+    
+    @Schema(description = "IDs de paquetes a bordo", example = "[1, 5, 12]")
+    private List<Long> packagesOnBoard;
+    
+    @Schema(description = "Capacidad utilizada", example = "150")
+    private Integer capacityUsed;
+    
+    @Schema(description = "Capacidad máxima", example = "200")
+    private Integer capacityMax;
+    
+    @Schema(description = "Porcentaje de ocupación", example = "75.0")
+    private Double occupancyPercentage;
+}
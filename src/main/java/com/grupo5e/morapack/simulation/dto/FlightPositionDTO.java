@@ -0,0 +1,35 @@
+package com.grupo5e.morapack.simulation.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Parte dinámica de un vuelo en el aire (lo que cambia entre frames).
+ * Los datos fijos del vuelo están en {@link FlightMetadataDTO}
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Posición y estado de un vuelo en el aire")
+public class FlightPositionDTO {
+    
+    @Schema(description = "ID de la ocurrencia del vuelo (vuelo del plan en un día)", example = "123")
+    private Integer flightId;
+    
+    @Schema(description = "Latitud actual (interpolada)", example = "-12.5432")
+    private Double currentLat;
+    
+    @Schema(description = "Longitud actual (interpolada)", example = "-77.0123")
+    private Double currentLng;
+    
+    @Schema(description = "Estado del vuelo", example = "IN_FLIGHT")
+    private String status;
+    
+    @Schema(description = "Progreso del vuelo (0-100%)", example = "45.23")
+    private Double progressPercentage;
+    
+    @Schema(description = "Dirección del vuelo en grados (0° = Norte, 90° = Este)", example = "45.0")
+    private Double heading;
+}
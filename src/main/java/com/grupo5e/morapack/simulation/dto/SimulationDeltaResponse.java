@@ -0,0 +1,76 @@
+package com.grupo5e.morapack.simulation.dto;
+
+import com.grupo5e.morapack.simulation.model.SimulationEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cambios de la simulación entre la versión que tiene el cliente ({@code baseVersion})
+ * y la última publicada ({@code version}).
+ * 
+ * Si {@code baseVersion} es 0 el frame es completo: todos los vuelos en el aire vienen en
+ * {@code enteredFlights} y el cliente debe descartar lo que tenía. Pasa en la primera
+ * petición y cuando la versión del cliente ya no está en la ventana del servidor.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Frame incremental del estado de la simulación")
+public class SimulationDeltaResponse {
+    
+    @Schema(description = "ID de la simulación", example = "1")
+    private Long simulationId;
+    
+    @Schema(description = "Versión de este frame", example = "1532")
+    private Long version;
+    
+    @Schema(description = "Versión sobre la que se aplican los cambios (0 = frame completo)", example = "1528")
+    private Long baseVersion;
+    
+    @Schema(description = "Estado actual", example = "RUNNING")
+    private String status;
+    
+    @Schema(description = "Tiempo simulado actual (fecha/hora en la simulación)", example = "2025-01-20T14:30:00")
+    private LocalDateTime currentSimulatedTime;
+    
+    @Schema(description = "Segundos simulados transcurridos desde T0", example = "23400")
+    private Long elapsedSimulatedSeconds;
+    
+    @Schema(description = "Progreso total de la simulación (0-100%)", example = "38.5")
+    private Double progressPercentage;
+    
+    @Schema(description = "Día actual en la simulación", example = "2")
+    private Integer currentDay;
+    
+    @Schema(description = "Hora actual en la simulación (0-23)", example = "14")
+    private Integer currentHour;
+    
+    @Schema(description = "Minuto actual en la simulación (0-59)", example = "30")
+    private Integer currentMinute;
+    
+    @Schema(description = "Vuelos que despegaron desde la versión base")
+    private List<FlightPositionDTO> enteredFlights;
+    
+    @Schema(description = "Vuelos que siguen en el aire y cambiaron de posición o estado")
+    private List<FlightPositionDTO> updatedFlights;
+    
+    @Schema(description = "IDs de ocurrencias de vuelos que aterrizaron desde la versión base", example = "[12, 40]")
+    private List<Integer> leftFlightIds;
+    
+    @Schema(description = "Almacenes que cambiaron desde la versión base")
+    private List<WarehouseStateDTO> warehouses;
+    
+    @Schema(description = "Métricas generales de la simulación")
+    private MetricsDTO metrics;
+    
+    @Schema(description = "Eventos nuevos desde la versión base")
+    private List<SimulationEvent> newEvents;
+    
+    @Schema(description = "Información del factor de aceleración", example = "112")
+    private Integer timeScale;
+}
@@ -22,6 +22,9 @@ public class SimulationStatusResponse {
     @Schema(description = "ID de la simulación", example = "1")
     private Long simulationId;
     
+    @Schema(description = "Versión del estado publicado; sirve de base para pedir deltas", example = "1532")
+    private Long version;
+    
     @Schema(description = "Estado actual", example = "RUNNING")
     private String status;
     
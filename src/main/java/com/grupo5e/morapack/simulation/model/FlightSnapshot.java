@@ -20,15 +20,26 @@ import java.util.List;
 public class FlightSnapshot {
     
     /**
-     * ID del vuelo (referencia a entidad Vuelo en BD)
+     * ID de la ocurrencia del vuelo en la simulación (vuelo del plan en un día).
+     * Único aunque el mismo vuelo opere varios días; es el id de los frames y del formato binario
      */
     private Integer flightId;
     
     /**
-     * Código identificador del vuelo para mostrar en UI
+     * Código identificador de la ocurrencia para mostrar en UI (MP-vuelo-Ddía)
      */
     private String flightCode;
     
+    /**
+     * ID del vuelo del plan (referencia a entidad Vuelo en BD)
+     */
+    private Integer scheduleFlightId;
+    
+    /**
+     * Día de operación de la ocurrencia (1 = día de T0)
+     */
+    private Integer flightDay;
+    
     /**
      * Ruta del vuelo: [[longitudOrigen, latitudOrigen], [longitudDestino, latitudDestino]]
      * Formato GeoJSON estándar
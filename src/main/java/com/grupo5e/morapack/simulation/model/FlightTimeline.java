@@ -0,0 +1,140 @@
+package com.grupo5e.morapack.simulation.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Línea de tiempo discreta de una simulación: las salidas y llegadas de todos los vuelos en un
+ * heap ordenado por tiempo simulado, más el conjunto de vuelos que están en el aire.
+ *
+ * Cada avance saca del heap sólo los eventos que ya ocurrieron y mueve los vuelos entre
+ * programados, en vuelo y aterrizados, así que el costo de un tick depende de los eventos
+ * vencidos y de los vuelos activos, no del total de vuelos de la simulación. Los contadores
+ * de vuelos y de pedidos entregados se mantienen con cada evento.
+ *
+ * Mismo criterio que la interpolación por vuelo: un vuelo está en el aire desde su salida
+ * (inclusive) hasta su llegada (inclusive) y aterriza pasado ese instante.
+ */
+public class FlightTimeline {
+
+    /** Cambio de estado de un vuelo producido por un evento de la línea de tiempo. */
+    public static final class Transition {
+        private final FlightSnapshot flight;
+        private final FlightStatus status;
+
+        private Transition(FlightSnapshot flight, FlightStatus status) {
+            this.flight = flight;
+            this.status = status;
+        }
+
+        public FlightSnapshot getFlight() {
+            return flight;
+        }
+
+        public FlightStatus getStatus() {
+            return status;
+        }
+    }
+
+    private static final class ScheduledEvent {
+        final long timeMillis;     // milisegundos simulados desde el inicio
+        final boolean departure;
+        final FlightSnapshot flight;
+
+        ScheduledEvent(long timeMillis, boolean departure, FlightSnapshot flight) {
+            this.timeMillis = timeMillis;
+            this.departure = departure;
+            this.flight = flight;
+        }
+
+        boolean isDue(long elapsedMillis) {
+            return departure ? timeMillis <= elapsedMillis : timeMillis < elapsedMillis;
+        }
+    }
+
+    // A igual tiempo las salidas van antes que las llegadas
+    private final PriorityQueue<ScheduledEvent> pending = new PriorityQueue<>(
+            Comparator.<ScheduledEvent>comparingLong(e -> e.timeMillis)
+                    .thenComparing(e -> !e.departure));
+    private final Set<FlightSnapshot> active = new LinkedHashSet<>();
+    private final Set<Long> deliveredOrders = new HashSet<>();
+    private final int totalFlights;
+    private final int totalOrders;
+    private int landed;
+
+    /**
+     * @param flights             vuelos de la simulación, todos aún programados
+     * @param simulatedStartTime  T0 de la simulación
+     */
+    public FlightTimeline(List<FlightSnapshot> flights, LocalDateTime simulatedStartTime) {
+        Set<Long> orders = new HashSet<>();
+        for (FlightSnapshot flight : flights) {
+            long departure = ChronoUnit.MILLIS.between(simulatedStartTime, flight.getDepartureTime());
+            long arrival = ChronoUnit.MILLIS.between(simulatedStartTime, flight.getArrivalTime());
+            pending.add(new ScheduledEvent(departure, true, flight));
+            // Una llegada anterior a la salida (dato inválido) se trata como llegada inmediata
+            pending.add(new ScheduledEvent(Math.max(departure, arrival), false, flight));
+            if (flight.getPackagesOnBoard() != null) orders.addAll(flight.getPackagesOnBoard());
+        }
+        this.totalFlights = flights.size();
+        this.totalOrders = orders.size();
+    }
+
+    /**
+     * Procesa, en orden, los eventos ocurridos hasta {@code elapsedMillis} (milisegundos
+     * simulados desde T0). El tiempo sólo avanza: los eventos ya procesados no se revierten.
+     *
+     * @return los cambios de estado, en el orden en que ocurrieron
+     */
+    public synchronized List<Transition> advanceTo(long elapsedMillis) {
+        List<Transition> transitions = new ArrayList<>();
+        while (!pending.isEmpty() && pending.peek().isDue(elapsedMillis)) {
+            ScheduledEvent event = pending.poll();
+            if (event.departure) {
+                active.add(event.flight);
+                transitions.add(new Transition(event.flight, FlightStatus.IN_FLIGHT));
+            } else {
+                active.remove(event.flight);
+                landed++;
+                if (event.flight.getPackagesOnBoard() != null) {
+                    deliveredOrders.addAll(event.flight.getPackagesOnBoard());
+                }
+                transitions.add(new Transition(event.flight, FlightStatus.LANDED));
+            }
+        }
+        return transitions;
+    }
+
+    /** Copia de los vuelos en el aire, en orden de salida. */
+    public synchronized List<FlightSnapshot> getActiveFlights() {
+        return new ArrayList<>(active);
+    }
+
+    public synchronized int getFlightsInAir() {
+        return active.size();
+    }
+
+    public synchronized int getFlightsLanded() {
+        return landed;
+    }
+
+    public synchronized int getFlightsScheduled() {
+        return totalFlights - active.size() - landed;
+    }
+
+    public int getTotalOrders() {
+        return totalOrders;
+    }
+
+    /** Pedidos distintos que viajaron en algún vuelo que ya aterrizó. */
+    public synchronized int getOrdersDelivered() {
+        return deliveredOrders.size();
+    }
+}
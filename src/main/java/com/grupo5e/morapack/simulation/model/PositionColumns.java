@@ -0,0 +1,168 @@
+package com.grupo5e.morapack.simulation.model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Posiciones de los vuelos en el aire de un frame, en columnas de primitivos ordenadas por
+ * flightId (id de la ocurrencia del vuelo) y ya cuantizadas. Es la fuente del formato binario
+ * de posiciones: el delta entre dos frames se arma con un merge de las columnas, sin crear
+ * objetos por vuelo.
+ *
+ * Formato binario (big-endian, {@link #MEDIA_TYPE}):
+ * <pre>
+ * int32      magic 'MPF1'
+ * int64      simulationId
+ * int64      version
+ * int64      baseVersion (0 = frame completo)
+ * int32      n  vuelos que despegaron o cambiaron
+ * int32      m  vuelos que aterrizaron
+ * int32[n]   flightId
+ * int32[n]   latitud  (1e-5 grados)
+ * int32[n]   longitud (1e-5 grados)
+ * uint16[n]  heading  (centésimas de grado, 0-35999)
+ * uint16[n]  progreso (centésimas de %, 0-10000)
+ * uint8[n]   estado   (ordinal de {@link FlightStatus})
+ * int32[m]   flightId de los que aterrizaron
+ * </pre>
+ */
+public final class PositionColumns {
+
+    public static final String MEDIA_TYPE = "application/vnd.morapack.positions";
+
+    static final int MAGIC = 0x4D504631;  // "MPF1"
+    static final int HEADER_BYTES = 4 + 8 + 8 + 8 + 4 + 4;
+    static final int BYTES_PER_FLIGHT = 4 + 4 + 4 + 2 + 2 + 1;
+
+    private static final double COORD_SCALE = 100_000.0;
+    private static final PositionColumns EMPTY = new PositionColumns(0);
+
+    private final int[] flightIds;
+    private final int[] lat;
+    private final int[] lng;
+    private final short[] heading;
+    private final short[] progress;
+    private final byte[] status;
+
+    private PositionColumns(int size) {
+        this.flightIds = new int[size];
+        this.lat = new int[size];
+        this.lng = new int[size];
+        this.heading = new short[size];
+        this.progress = new short[size];
+        this.status = new byte[size];
+    }
+
+    /**
+     * @param flights vuelos en el aire; se reordena por flightId
+     */
+    public static PositionColumns of(List<FlightSnapshot> flights) {
+        flights.sort((a, b) -> Integer.compare(a.getFlightId(), b.getFlightId()));
+        PositionColumns columns = new PositionColumns(flights.size());
+        for (int i = 0; i < flights.size(); i++) {
+            FlightSnapshot flight = flights.get(i);
+            columns.flightIds[i] = flight.getFlightId();
+            columns.lat[i] = (int) Math.round(flight.getCurrentLat() * COORD_SCALE);
+            columns.lng[i] = (int) Math.round(flight.getCurrentLng() * COORD_SCALE);
+            columns.heading[i] = (short) Math.floorMod(Math.round(flight.getHeading() * 100), 36000);
+            columns.progress[i] = (short) Math.max(0, Math.min(10000, Math.round(flight.getProgressPercentage() * 100)));
+            columns.status[i] = (byte) flight.getStatus().ordinal();
+        }
+        return columns;
+    }
+
+    public int size() {
+        return flightIds.length;
+    }
+
+    /**
+     * Codifica los cambios de {@code base} a {@code current}.
+     *
+     * @param base columnas del frame que tiene el cliente, o null para un frame completo
+     */
+    public static byte[] encodeDelta(long simulationId, long version, long baseVersion,
+                                     PositionColumns base, PositionColumns current) {
+        PositionColumns previous = base != null ? base : EMPTY;
+
+        // Primera pasada: sólo contar, para reservar el buffer exacto
+        int changed = 0;
+        int left = 0;
+        int i = 0;
+        int j = 0;
+        while (i < previous.size() || j < current.size()) {
+            int cmp = compareAt(previous, i, current, j);
+            if (cmp < 0) {
+                left++;
+                i++;
+            } else if (cmp > 0) {
+                changed++;
+                j++;
+            } else {
+                if (!previous.samePosition(i, current, j)) changed++;
+                i++;
+                j++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + changed * BYTES_PER_FLIGHT + left * 4);
+        buffer.putInt(MAGIC)
+                .putLong(simulationId)
+                .putLong(version)
+                .putLong(baseVersion)
+                .putInt(changed)
+                .putInt(left);
+
+        // Columnas: cada una se escribe en su propia región del buffer
+        int idsAt = HEADER_BYTES;
+        int latAt = idsAt + changed * 4;
+        int lngAt = latAt + changed * 4;
+        int headingAt = lngAt + changed * 4;
+        int progressAt = headingAt + changed * 2;
+        int statusAt = progressAt + changed * 2;
+        int leftAt = statusAt + changed;
+
+        int c = 0;
+        int l = 0;
+        i = 0;
+        j = 0;
+        while (i < previous.size() || j < current.size()) {
+            int cmp = compareAt(previous, i, current, j);
+            if (cmp < 0) {
+                buffer.putInt(leftAt + 4 * l++, previous.flightIds[i++]);
+                continue;
+            }
+            if (cmp == 0 && previous.samePosition(i, current, j)) {
+                i++;
+                j++;
+                continue;
+            }
+            buffer.putInt(idsAt + 4 * c, current.flightIds[j]);
+            buffer.putInt(latAt + 4 * c, current.lat[j]);
+            buffer.putInt(lngAt + 4 * c, current.lng[j]);
+            buffer.putShort(headingAt + 2 * c, current.heading[j]);
+            buffer.putShort(progressAt + 2 * c, current.progress[j]);
+            buffer.put(statusAt + c, current.status[j]);
+            c++;
+            if (cmp == 0) i++;
+            j++;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Orden del merge: un lado agotado va al final
+     */
+    private static int compareAt(PositionColumns a, int i, PositionColumns b, int j) {
+        if (i >= a.size()) return 1;
+        if (j >= b.size()) return -1;
+        return Integer.compare(a.flightIds[i], b.flightIds[j]);
+    }
+
+    private boolean samePosition(int i, PositionColumns other, int j) {
+        return lat[i] == other.lat[j]
+                && lng[i] == other.lng[j]
+                && heading[i] == other.heading[j]
+                && progress[i] == other.progress[j]
+                && status[i] == other.status[j];
+    }
+}
@@ -1,12 +1,14 @@
 package com.grupo5e.morapack.simulation.model;
 
 import com.grupo5e.morapack.core.model.SimulacionSemanal;
+import com.grupo5e.morapack.simulation.dto.FlightMetadataDTO;
 import lombok.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Estado completo de una simulación activa en memoria.
@@ -77,6 +79,24 @@ public class SimulationState {
     @Builder.Default
     private List<FlightSnapshot> flights = new ArrayList<>();
     
+    /**
+     * Salidas y llegadas pendientes y vuelos en el aire.
+     * El motor sólo actualiza los vuelos activos en cada tick
+     */
+    private FlightTimeline timeline;
+    
+    /**
+     * Últimos status publicados por el ticker o por un comando de control.
+     * Los lectores los toman sin lock y sin avanzar la simulación
+     */
+    @Builder.Default
+    private AtomicReference<StatusFrames> publishedFrames = new AtomicReference<>();
+    
+    /**
+     * Datos fijos de los vuelos, se arman una vez al iniciar
+     */
+    private List<FlightMetadataDTO> flightMetadata;
+    
     /**
      * Lista de almacenes/aeropuertos
      * Se mantiene en memoria para cálculos rápidos
@@ -0,0 +1,203 @@
+package com.grupo5e.morapack.simulation.model;
+
+import com.grupo5e.morapack.simulation.dto.ActiveFlightDTO;
+import com.grupo5e.morapack.simulation.dto.FlightPositionDTO;
+import com.grupo5e.morapack.simulation.dto.SimulationDeltaResponse;
+import com.grupo5e.morapack.simulation.dto.SimulationStatusResponse;
+import com.grupo5e.morapack.simulation.dto.WarehouseStateDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Últimos status publicados de una simulación, del más viejo al más nuevo.
+ *
+ * Es inmutable: cada publicación crea una ventana nueva con el frame agregado, así que los
+ * lectores la toman de un {@code AtomicReference} sin lock. Los deltas hacia el último frame
+ * se calculan una vez por versión base y se comparten entre todos los clientes que parten de
+ * esa versión (polling y SSE). Junto a cada frame se guardan sus posiciones en columnas
+ * ({@link PositionColumns}) para el formato binario.
+ */
+public final class StatusFrames {
+
+    /**
+     * Frames que se conservan como base de deltas (a 500 ms por tick, ~16 s)
+     */
+    public static final int MAX_FRAMES = 32;
+
+    /**
+     * Versión base de un frame completo
+     */
+    public static final long FULL_FRAME = 0L;
+
+    private final List<SimulationStatusResponse> window;
+    private final List<PositionColumns> positions;  // paralela a window
+    private final Map<Long, SimulationDeltaResponse> deltas = new ConcurrentHashMap<>();
+    private final Map<Long, byte[]> binaryDeltas = new ConcurrentHashMap<>();
+
+    private StatusFrames(List<SimulationStatusResponse> window, List<PositionColumns> positions) {
+        this.window = window;
+        this.positions = positions;
+    }
+
+    public static StatusFrames first(SimulationStatusResponse frame, PositionColumns columns) {
+        return new StatusFrames(List.of(frame), List.of(columns));
+    }
+
+    /**
+     * Ventana nueva con {@code frame} como último; descarta el más viejo si está llena
+     */
+    public StatusFrames next(SimulationStatusResponse frame, PositionColumns columns) {
+        int from = Math.max(0, window.size() + 1 - MAX_FRAMES);
+        List<SimulationStatusResponse> frames = new ArrayList<>(window.subList(from, window.size()));
+        List<PositionColumns> frameColumns = new ArrayList<>(positions.subList(from, positions.size()));
+        frames.add(frame);
+        frameColumns.add(columns);
+        return new StatusFrames(List.copyOf(frames), List.copyOf(frameColumns));
+    }
+
+    public SimulationStatusResponse getLatest() {
+        return window.get(window.size() - 1);
+    }
+
+    public long getVersion() {
+        return getLatest().getVersion();
+    }
+
+    /**
+     * Si el último frame es el final de la simulación (completada o detenida): no habrá más
+     */
+    public boolean isFinished() {
+        String status = getLatest().getStatus();
+        return SimulationStatus.COMPLETED.name().equals(status)
+                || SimulationStatus.STOPPED.name().equals(status);
+    }
+
+    /**
+     * Cambios desde {@code baseVersion} hasta el último frame.
+     * Si la versión no está en la ventana devuelve un frame completo (base 0).
+     */
+    public SimulationDeltaResponse deltaSince(long baseVersion) {
+        SimulationStatusResponse base = find(baseVersion);
+        long key = base != null ? baseVersion : FULL_FRAME;
+        return deltas.computeIfAbsent(key, k -> diff(base, getLatest()));
+    }
+
+    /**
+     * Igual que {@link #deltaSince} pero sólo las posiciones, en el formato binario de
+     * {@link PositionColumns}. Se codifica una vez por versión base.
+     */
+    public byte[] positionDeltaSince(long baseVersion) {
+        int index = indexOf(baseVersion);
+        long key = index >= 0 ? baseVersion : FULL_FRAME;
+        return binaryDeltas.computeIfAbsent(key, k -> PositionColumns.encodeDelta(
+                getLatest().getSimulationId(), getVersion(), k,
+                index >= 0 ? positions.get(index) : null,
+                positions.get(positions.size() - 1)));
+    }
+
+    private SimulationStatusResponse find(long version) {
+        int index = indexOf(version);
+        return index >= 0 ? window.get(index) : null;
+    }
+
+    private int indexOf(long version) {
+        for (int i = 0; i < window.size(); i++) {
+            if (window.get(i).getVersion() == version) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param base frame que tiene el cliente, o null para un frame completo
+     */
+    private static SimulationDeltaResponse diff(SimulationStatusResponse base, SimulationStatusResponse current) {
+        Map<Integer, ActiveFlightDTO> before = new HashMap<>();
+        if (base != null) {
+            base.getActiveFlights().forEach(f -> before.put(f.getFlightId(), f));
+        }
+
+        List<FlightPositionDTO> entered = new ArrayList<>();
+        List<FlightPositionDTO> updated = new ArrayList<>();
+        for (ActiveFlightDTO flight : current.getActiveFlights()) {
+            ActiveFlightDTO previous = before.remove(flight.getFlightId());
+            if (previous == null) {
+                entered.add(toPosition(flight));
+            } else if (moved(previous, flight)) {
+                updated.add(toPosition(flight));
+            }
+        }
+        // Lo que quedó en la base ya no está en el aire
+        List<Integer> left = new ArrayList<>(before.keySet());
+
+        List<WarehouseStateDTO> warehouses = current.getWarehouses();
+        if (base != null) {
+            Map<Long, WarehouseStateDTO> previousWarehouses = new HashMap<>();
+            base.getWarehouses().forEach(w -> previousWarehouses.put(w.getWarehouseId(), w));
+            warehouses = warehouses.stream()
+                    .filter(w -> changed(previousWarehouses.get(w.getWarehouseId()), w))
+                    .toList();
+        }
+
+        List<SimulationEvent> events = current.getRecentEvents();
+        if (base != null) {
+            Set<String> seen = new HashSet<>();
+            base.getRecentEvents().forEach(e -> seen.add(e.getId()));
+            events = events.stream().filter(e -> !seen.contains(e.getId())).toList();
+        }
+
+        return SimulationDeltaResponse.builder()
+                .simulationId(current.getSimulationId())
+                .version(current.getVersion())
+                .baseVersion(base != null ? base.getVersion() : FULL_FRAME)
+                .status(current.getStatus())
+                .currentSimulatedTime(current.getCurrentSimulatedTime())
+                .elapsedSimulatedSeconds(current.getElapsedSimulatedSeconds())
+                .progressPercentage(current.getProgressPercentage())
+                .currentDay(current.getCurrentDay())
+                .currentHour(current.getCurrentHour())
+                .currentMinute(current.getCurrentMinute())
+                .enteredFlights(List.copyOf(entered))
+                .updatedFlights(List.copyOf(updated))
+                .leftFlightIds(List.copyOf(left))
+                .warehouses(List.copyOf(warehouses))
+                .metrics(current.getMetrics())
+                .newEvents(List.copyOf(events))
+                .timeScale(current.getTimeScale())
+                .build();
+    }
+
+    private static boolean moved(ActiveFlightDTO before, ActiveFlightDTO after) {
+        return !Objects.equals(before.getCurrentLat(), after.getCurrentLat())
+                || !Objects.equals(before.getCurrentLng(), after.getCurrentLng())
+                || !Objects.equals(before.getStatus(), after.getStatus())
+                || !Objects.equals(before.getProgressPercentage(), after.getProgressPercentage())
+                || !Objects.equals(before.getHeading(), after.getHeading());
+    }
+
+    private static boolean changed(WarehouseStateDTO before, WarehouseStateDTO after) {
+        return before == null
+                || !Objects.equals(before.getCurrent(), after.getCurrent())
+                || !Objects.equals(before.getAvailable(), after.getAvailable())
+                || !Objects.equals(before.getStatus(), after.getStatus());
+    }
+
+    private static FlightPositionDTO toPosition(ActiveFlightDTO flight) {
+        return FlightPositionDTO.builder()
+                .flightId(flight.getFlightId())
+                .currentLat(flight.getCurrentLat())
+                .currentLng(flight.getCurrentLng())
+                .status(flight.getStatus())
+                .progressPercentage(flight.getProgressPercentage())
+                .heading(flight.getHeading())
+                .build();
+    }
+}
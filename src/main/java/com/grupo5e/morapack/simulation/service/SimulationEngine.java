@@ -5,23 +5,38 @@ import com.grupo5e.morapack.core.model.*;
 import com.grupo5e.morapack.repository.SimulacionAsignacionRepository;
 import com.grupo5e.morapack.repository.SimulacionSemanalRepository;
 import com.grupo5e.morapack.service.AeropuertoService;
+import com.grupo5e.morapack.simulation.dto.*;
 import com.grupo5e.morapack.simulation.model.*;
 import com.grupo5e.morapack.utils.BezierCurveUtils;
 import com.grupo5e.morapack.utils.CoordenadasUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * Motor de simulación en tiempo real.
  * 
  * Mantiene el estado de simulaciones activas en memoria y calcula
- * posiciones de vuelos mediante interpolación en cada request del frontend.
+ * posiciones de vuelos mediante interpolación en cada tick.
+ * 
+ * El avance es por eventos discretos ({@link FlightTimeline}): cada tick procesa
+ * las salidas y llegadas vencidas e interpola sólo los vuelos que están en el aire.
+ * 
+ * Cada simulación activa tiene un ticker que la avanza a intervalo fijo y publica un
+ * {@link SimulationStatusResponse} que ya no se modifica; el endpoint de status sólo lee
+ * el último publicado y {@link SimulationStreamService} lo empuja a los clientes SSE.
+ * El ticker y los comandos de control modifican el estado bajo el lock del
+ * {@link SimulationState}.
  * 
  * Este servicio es thread-safe y soporta múltiples simulaciones simultáneas.
  */
@@ -35,6 +50,18 @@ public class SimulationEngine {
      */
     private final ConcurrentHashMap<Long, SimulationState> activeSimulations = new ConcurrentHashMap<>();
     
+    /**
+     * Ticker de cada simulación activa
+     * Key: simulationId, Value: tarea periódica en el scheduler
+     */
+    private final ConcurrentHashMap<Long, ScheduledFuture<?>> tickers = new ConcurrentHashMap<>();
+    
+    /**
+     * Versiones de los status publicados. Es global para que nunca se repitan, aunque una
+     * simulación se reinicie con el mismo ID
+     */
+    private final AtomicLong versions = new AtomicLong();
+    
     /**
      * Cache de coordenadas para acceso rápido
      * Key: códigoIATA, Value: [longitud, latitud]
@@ -44,6 +71,13 @@ public class SimulationEngine {
     private final SimulacionSemanalRepository simulacionRepository;
     private final SimulacionAsignacionRepository asignacionRepository;
     private final AeropuertoService aeropuertoService;
+    private final TaskScheduler ticker;
+    private final SimulationStreamService streams;
+    
+    /**
+     * Intervalo real entre ticks (a 112x, ~56 segundos simulados)
+     */
+    private static final Duration TICK_INTERVAL = Duration.ofMillis(500);
     
     /**
      * Factor de aceleración por defecto: 112x
@@ -59,10 +93,14 @@ public class SimulationEngine {
     public SimulationEngine(
             SimulacionSemanalRepository simulacionRepository,
             SimulacionAsignacionRepository asignacionRepository,
-            AeropuertoService aeropuertoService) {
+            AeropuertoService aeropuertoService,
+            @Qualifier("simulationTicker") TaskScheduler ticker,
+            SimulationStreamService streams) {
         this.simulacionRepository = simulacionRepository;
         this.asignacionRepository = asignacionRepository;
         this.aeropuertoService = aeropuertoService;
+        this.ticker = ticker;
+        this.streams = streams;
         
         // Inicializar cache de coordenadas al arrancar
         initializeCoordinatesCache();
@@ -121,6 +159,10 @@ public class SimulationEngine {
         
         // Cargar vuelos en memoria
         state.setFlights(buildFlightSnapshots(asignaciones));
+        state.setTimeline(new FlightTimeline(state.getFlights(), state.getSimulatedStartTime()));
+        state.setFlightMetadata(state.getFlights().stream()
+                .map(this::convertToFlightMetadataDTO)
+                .toList());
         
         // Cargar almacenes en memoria
         state.setWarehouses(buildWarehouseSnapshots());
@@ -128,9 +170,6 @@ public class SimulationEngine {
         // Calcular métricas iniciales
         updateMetrics(state);
         
-        // Guardar en memoria
-        activeSimulations.put(simulacionId, state);
-        
         // Evento de inicio
         state.addEvent(SimulationEvent.builder()
                 .id(UUID.randomUUID().toString())
@@ -140,6 +179,13 @@ public class SimulationEngine {
                 .realTime(LocalDateTime.now())
                 .build());
         
+        // Estado inicial visible antes del primer tick
+        publishSnapshot(state);
+        
+        // Guardar en memoria
+        activeSimulations.put(simulacionId, state);
+        scheduleTicker(state);
+        
         log.info("✅ Simulación {} cargada en memoria con {} vuelos y {} almacenes", 
                 simulacionId, state.getFlights().size(), state.getWarehouses().size());
         
@@ -151,20 +197,26 @@ public class SimulationEngine {
      * Solo incluye vuelos con aeropuertos de origen y destino DISPONIBLES
      */
     private List<FlightSnapshot> buildFlightSnapshots(List<SimulacionAsignacion> asignaciones) {
-        // Agrupar asignaciones por vuelo
-        Map<Integer, List<SimulacionAsignacion>> byFlight = asignaciones.stream()
-                .collect(Collectors.groupingBy(a -> a.getVuelo().getId()));
+        // Agrupar asignaciones por ocurrencia del vuelo (vuelo, día): cada día es un vuelo distinto.
+        // Ordenadas por (vuelo, día) para que el id de cada ocurrencia sea el mismo en cada carga
+        Map<Long, List<SimulacionAsignacion>> byOccurrence = asignaciones.stream()
+                .collect(Collectors.groupingBy(
+                        a -> occurrenceKey(a.getVuelo().getId(), a.getDiaVuelo() != null ? a.getDiaVuelo() : 0),
+                        TreeMap::new, Collectors.toList()));
         
         List<FlightSnapshot> snapshots = new ArrayList<>();
         int vuelosFiltrados = 0;
+        int occurrenceId = 0;
         
-        for (Map.Entry<Integer, List<SimulacionAsignacion>> entry : byFlight.entrySet()) {
-            Integer vueloId = entry.getKey();
-            List<SimulacionAsignacion> vueloAsignaciones = entry.getValue();
+        for (List<SimulacionAsignacion> vueloAsignaciones : byOccurrence.values()) {
+            // Id denso de la ocurrencia: el mismo vuelo del plan vuela varios días
+            occurrenceId++;
             
             // Tomar la primera asignación para datos del vuelo
             SimulacionAsignacion first = vueloAsignaciones.get(0);
             Vuelo vuelo = first.getVuelo();
+            Integer vueloId = vuelo.getId();
+            int dia = first.getDiaVuelo() != null ? first.getDiaVuelo() : 0;
             Aeropuerto origen = vuelo.getAeropuertoOrigen();
             Aeropuerto destino = vuelo.getAeropuertoDestino();
             
@@ -225,8 +277,10 @@ public class SimulationEngine {
             LocalDateTime arrivalTime = t0.plusMinutes(minutoFin);
             
             FlightSnapshot snapshot = FlightSnapshot.builder()
-                    .flightId(vueloId)
-                    .flightCode("MP-" + vueloId)
+                    .flightId(occurrenceId)
+                    .flightCode("MP-" + vueloId + "-D" + dia)
+                    .scheduleFlightId(vueloId)
+                    .flightDay(dia)
                     .route(new double[][]{{originLng, originLat}, {destLng, destLat}})
                     .originLat(originLat)
                     .originLng(originLng)
@@ -263,6 +317,10 @@ public class SimulationEngine {
         return snapshots;
     }
     
+    private static long occurrenceKey(int vueloId, int dia) {
+        return ((long) vueloId << 32) | (dia & 0xFFFFFFFFL);
+    }
+    
     /**
      * Construye snapshots de almacenes/aeropuertos
      */
@@ -308,19 +366,129 @@ public class SimulationEngine {
     }
     
     /**
-     * Actualiza el estado de una simulación activa
-     * Calcula posiciones actuales de todos los vuelos mediante interpolación
+     * Último estado publicado de una simulación activa.
+     * No modifica el estado ni espera al ticker: devuelve el snapshot del último tick o comando.
+     * 
+     * @param simulationId ID de la simulación
+     * @return snapshot inmutable del estado
+     */
+    public SimulationStatusResponse getStatusSnapshot(Long simulationId) {
+        SimulationState state = activeSimulations.get(simulationId);
+        
+        if (state == null) {
+            throw new RuntimeException("Simulación no activa en memoria: " + simulationId);
+        }
+        
+        return state.getPublishedFrames().get().getLatest();
+    }
+    
+    /**
+     * Cambios desde la versión que tiene el cliente hasta el último estado publicado.
+     * Igual que {@link #getStatusSnapshot}, no modifica el estado ni espera al ticker.
      * 
      * @param simulationId ID de la simulación
-     * @return SimulationState actualizado
+     * @param sinceVersion última versión recibida por el cliente (0 = frame completo)
      */
-    public SimulationState updateSimulation(Long simulationId) {
+    public SimulationDeltaResponse getStatusDelta(Long simulationId, long sinceVersion) {
         SimulationState state = activeSimulations.get(simulationId);
         
         if (state == null) {
             throw new RuntimeException("Simulación no activa en memoria: " + simulationId);
         }
         
+        return state.getPublishedFrames().get().deltaSince(sinceVersion);
+    }
+    
+    /**
+     * Como {@link #getStatusDelta}, pero sólo las posiciones de los vuelos en el formato
+     * binario de {@link PositionColumns}
+     */
+    public byte[] getPositionDelta(Long simulationId, long sinceVersion) {
+        SimulationState state = activeSimulations.get(simulationId);
+        
+        if (state == null) {
+            throw new RuntimeException("Simulación no activa en memoria: " + simulationId);
+        }
+        
+        return state.getPublishedFrames().get().positionDeltaSince(sinceVersion);
+    }
+    
+    /**
+     * Últimos status publicados de una simulación activa (para abrir un stream)
+     */
+    public StatusFrames getPublishedFrames(Long simulationId) {
+        SimulationState state = activeSimulations.get(simulationId);
+        
+        if (state == null) {
+            throw new RuntimeException("Simulación no activa en memoria: " + simulationId);
+        }
+        
+        return state.getPublishedFrames().get();
+    }
+    
+    /**
+     * Datos fijos de todos los vuelos de una simulación activa
+     */
+    public List<FlightMetadataDTO> getFlightMetadata(Long simulationId) {
+        SimulationState state = activeSimulations.get(simulationId);
+        
+        if (state == null) {
+            throw new RuntimeException("Simulación no activa en memoria: " + simulationId);
+        }
+        
+        return state.getFlightMetadata();
+    }
+    
+    /**
+     * Programa el ticker de la simulación (reemplaza el anterior si se reinició)
+     */
+    private void scheduleTicker(SimulationState state) {
+        ScheduledFuture<?> future = ticker.scheduleAtFixedRate(() -> tick(state), TICK_INTERVAL);
+        ScheduledFuture<?> previous = tickers.put(state.getSimulationId(), future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+    
+    private void cancelTicker(Long simulationId) {
+        ScheduledFuture<?> future = tickers.remove(simulationId);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+    
+    /**
+     * Un tick: avanza la simulación hasta el tiempo simulado actual y publica el snapshot.
+     * Una excepción cancelaría el ticker, así que se registra y se sigue en el próximo tick.
+     */
+    private void tick(SimulationState state) {
+        try {
+            synchronized (state) {
+                // Pausada no cambia: su snapshot lo publicó el comando de pausa
+                if (state.getStatus() == SimulationStatus.PAUSED) {
+                    return;
+                }
+                
+                advanceSimulation(state);
+                publishSnapshot(state);
+                
+                if (state.getStatus() == SimulationStatus.COMPLETED || 
+                    state.getStatus() == SimulationStatus.STOPPED) {
+                    cancelTicker(state.getSimulationId());
+                    streams.complete(state.getSimulationId());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Error avanzando la simulación {}", state.getSimulationId(), e);
+        }
+    }
+    
+    /**
+     * Avanza el estado de una simulación activa hasta el tiempo simulado actual.
+     * Procesa salidas y llegadas vencidas e interpola los vuelos en el aire.
+     * Debe llamarse con el lock del estado.
+     */
+    private void advanceSimulation(SimulationState state) {
         // Verificar si completó
         if (state.isCompleted() && state.getStatus() != SimulationStatus.COMPLETED) {
             state.setStatus(SimulationStatus.COMPLETED);
@@ -331,59 +499,201 @@ public class SimulationEngine {
                     .simulatedTime(state.getCurrentSimulatedTime())
                     .realTime(LocalDateTime.now())
                     .build());
-            log.info("✅ Simulación {} completada", simulationId);
+            log.info("✅ Simulación {} completada", state.getSimulationId());
         }
         
         // No actualizar si está pausada o completada
         if (state.getStatus() == SimulationStatus.PAUSED || 
             state.getStatus() == SimulationStatus.STOPPED ||
             state.getStatus() == SimulationStatus.COMPLETED) {
-            return state;
+            return;
         }
         
         LocalDateTime currentSimulatedTime = state.getCurrentSimulatedTime();
+        long elapsedMillis = ChronoUnit.MILLIS.between(state.getSimulatedStartTime(), currentSimulatedTime);
         
-        // Actualizar cada vuelo
+        // Eventos vencidos desde el último tick (salidas y llegadas, en orden)
         List<SimulationEvent> newEvents = new ArrayList<>();
         
-        for (FlightSnapshot flight : state.getFlights()) {
-            FlightStatus oldStatus = flight.getStatus();
-            updateFlightPosition(flight, currentSimulatedTime);
-            FlightStatus newStatus = flight.getStatus();
-            
-            // Generar eventos de cambio de estado
-            if (oldStatus != newStatus) {
-                if (newStatus == FlightStatus.IN_FLIGHT) {
-                    newEvents.add(SimulationEvent.builder()
-                            .id(UUID.randomUUID().toString())
-                            .type(EventType.FLIGHT_DEPARTURE)
-                            .message(String.format("Vuelo %s despegó de %s", flight.getFlightCode(), flight.getOriginCity()))
-                            .simulatedTime(currentSimulatedTime)
-                            .realTime(LocalDateTime.now())
-                            .relatedFlightId(flight.getFlightId())
-                            .relatedAirportCode(flight.getOriginCode())
-                            .build());
-                } else if (newStatus == FlightStatus.LANDED) {
-                    newEvents.add(SimulationEvent.builder()
-                            .id(UUID.randomUUID().toString())
-                            .type(EventType.FLIGHT_ARRIVAL)
-                            .message(String.format("Vuelo %s aterrizó en %s", flight.getFlightCode(), flight.getDestinationCity()))
-                            .simulatedTime(currentSimulatedTime)
-                            .realTime(LocalDateTime.now())
-                            .relatedFlightId(flight.getFlightId())
-                            .relatedAirportCode(flight.getDestinationCode())
-                            .build());
-                }
+        for (FlightTimeline.Transition transition : state.getTimeline().advanceTo(elapsedMillis)) {
+            FlightSnapshot flight = transition.getFlight();
+            if (transition.getStatus() == FlightStatus.IN_FLIGHT) {
+                newEvents.add(SimulationEvent.builder()
+                        .id(UUID.randomUUID().toString())
+                        .type(EventType.FLIGHT_DEPARTURE)
+                        .message(String.format("Vuelo %s despegó de %s", flight.getFlightCode(), flight.getOriginCity()))
+                        .simulatedTime(currentSimulatedTime)
+                        .realTime(LocalDateTime.now())
+                        .relatedFlightId(flight.getFlightId())
+                        .relatedAirportCode(flight.getOriginCode())
+                        .build());
+            } else if (transition.getStatus() == FlightStatus.LANDED) {
+                // Ya no está entre los activos: se deja en destino aquí
+                updateFlightPosition(flight, currentSimulatedTime);
+                newEvents.add(SimulationEvent.builder()
+                        .id(UUID.randomUUID().toString())
+                        .type(EventType.FLIGHT_ARRIVAL)
+                        .message(String.format("Vuelo %s aterrizó en %s", flight.getFlightCode(), flight.getDestinationCity()))
+                        .simulatedTime(currentSimulatedTime)
+                        .realTime(LocalDateTime.now())
+                        .relatedFlightId(flight.getFlightId())
+                        .relatedAirportCode(flight.getDestinationCode())
+                        .build());
             }
         }
         
+        // Sólo los vuelos en el aire cambian de posición
+        for (FlightSnapshot flight : state.getTimeline().getActiveFlights()) {
+            updateFlightPosition(flight, currentSimulatedTime);
+        }
+        
         // Agregar eventos generados
         newEvents.forEach(state::addEvent);
         
         // Actualizar métricas
         updateMetrics(state);
-        
-        return state;
+    }
+    
+    /**
+     * Publica el estado actual como snapshot para los lectores del status y los streams SSE.
+     * Debe llamarse con el lock del estado; el snapshot no vuelve a modificarse.
+     */
+    private void publishSnapshot(SimulationState state) {
+        SimulationStatusResponse status = buildStatusResponse(state, versions.incrementAndGet());
+        PositionColumns columns = PositionColumns.of(state.getTimeline().getActiveFlights());
+        StatusFrames previous = state.getPublishedFrames().get();
+        StatusFrames frames = previous != null ? previous.next(status, columns) : StatusFrames.first(status, columns);
+        state.getPublishedFrames().set(frames);
+        streams.publish(state.getSimulationId(), frames);
+    }
+    
+    /**
+     * Construye la respuesta de status a partir del estado en memoria
+     */
+    private SimulationStatusResponse buildStatusResponse(SimulationState state, long version) {
+        LocalDateTime currentSimulatedTime = state.getCurrentSimulatedTime();
+        long elapsedSeconds = ChronoUnit.SECONDS.between(state.getSimulatedStartTime(), currentSimulatedTime);
+        
+        // Extraer día, hora, minuto
+        long totalMinutes = elapsedSeconds / 60;
+        int currentDay = (int) (totalMinutes / (24 * 60)) + 1;  // Día 1, 2, 3...
+        int currentHour = (int) ((totalMinutes % (24 * 60)) / 60);
+        int currentMinute = (int) (totalMinutes % 60);
+        
+        // Convertir vuelos activos (solo IN_FLIGHT, ya separados por la línea de tiempo)
+        List<ActiveFlightDTO> activeFlights = state.getTimeline().getActiveFlights().stream()
+                .map(this::convertToActiveFlightDTO)
+                .toList();
+        
+        // Convertir almacenes
+        List<WarehouseStateDTO> warehouses = state.getWarehouses().stream()
+                .map(this::convertToWarehouseDTO)
+                .toList();
+        
+        // Convertir métricas
+        MetricsDTO metrics = convertToMetricsDTO(state.getMetrics());
+        
+        // Eventos recientes (últimos 20)
+        List<SimulationEvent> recentEvents = new ArrayList<>(state.getRecentEvents());
+        if (recentEvents.size() > 20) {
+            recentEvents = recentEvents.subList(recentEvents.size() - 20, recentEvents.size());
+        }
+        recentEvents = List.copyOf(recentEvents);
+        
+        return SimulationStatusResponse.builder()
+                .simulationId(state.getSimulationId())
+                .version(version)
+                .status(state.getStatus().name())
+                .currentSimulatedTime(currentSimulatedTime)
+                .elapsedSimulatedSeconds(elapsedSeconds)
+                .progressPercentage(Math.round(state.calculateProgress() * 10000.0) / 100.0)
+                .currentDay(currentDay)
+                .currentHour(currentHour)
+                .currentMinute(currentMinute)
+                .activeFlights(activeFlights)
+                .warehouses(warehouses)
+                .metrics(metrics)
+                .recentEvents(recentEvents)
+                .timeScale(state.getTimeScale())
+                .build();
+    }
+    
+    private ActiveFlightDTO convertToActiveFlightDTO(FlightSnapshot flight) {
+        return ActiveFlightDTO.builder()
+                .flightId(flight.getFlightId())
+                .flightCode(flight.getFlightCode())
+                .currentLat(flight.getCurrentLat())
+                .currentLng(flight.getCurrentLng())
+                .originLat(flight.getOriginLat())
+                .originLng(flight.getOriginLng())
+                .destinationLat(flight.getDestinationLat())
+                .destinationLng(flight.getDestinationLng())
+                .originCode(flight.getOriginCode())
+                .destinationCode(flight.getDestinationCode())
+                .originCity(flight.getOriginCity())
+                .destinationCity(flight.getDestinationCity())
+                .status(flight.getStatus().name())
+                .progressPercentage(flight.getProgressPercentage())
+                .heading(flight.getHeading())
+                .packagesOnBoard(flight.getPackagesOnBoard())
+                .capacityUsed(flight.getCapacityUsed())
+                .capacityMax(flight.getCapacityMax())
+                .occupancyPercentage(flight.getOccupancyPercentage())
+                .build();
+    }
+    
+    private FlightMetadataDTO convertToFlightMetadataDTO(FlightSnapshot flight) {
+        return FlightMetadataDTO.builder()
+                .flightId(flight.getFlightId())
+                .flightCode(flight.getFlightCode())
+                .scheduleFlightId(flight.getScheduleFlightId())
+                .flightDay(flight.getFlightDay())
+                .originLat(flight.getOriginLat())
+                .originLng(flight.getOriginLng())
+                .destinationLat(flight.getDestinationLat())
+                .destinationLng(flight.getDestinationLng())
+                .originCode(flight.getOriginCode())
+                .destinationCode(flight.getDestinationCode())
+                .originCity(flight.getOriginCity())
+                .destinationCity(flight.getDestinationCity())
+                .departureTime(flight.getDepartureTime())
+                .arrivalTime(flight.getArrivalTime())
+                .packagesOnBoard(flight.getPackagesOnBoard())
+                .capacityUsed(flight.getCapacityUsed())
+                .capacityMax(flight.getCapacityMax())
+                .occupancyPercentage(flight.getOccupancyPercentage())
+                .build();
+    }
+    
+    private WarehouseStateDTO convertToWarehouseDTO(WarehouseSnapshot warehouse) {
+        return WarehouseStateDTO.builder()
+                .warehouseId(warehouse.getWarehouseId())
+                .code(warehouse.getCode())
+                .cityName(warehouse.getCityName())
+                .latitude(warehouse.getLatitude())
+                .longitude(warehouse.getLongitude())
+                .capacity(warehouse.getCapacity())
+                .current(warehouse.getCurrentOccupancy())
+                .available(warehouse.getAvailable())
+                .occupancyPercentage(warehouse.getOccupancyPercentage())
+                .status(warehouse.getStatus().name())
+                .isPrincipal(warehouse.isPrincipal())
+                .build();
+    }
+    
+    private MetricsDTO convertToMetricsDTO(SimulationMetrics metrics) {
+        return MetricsDTO.builder()
+                .totalFlights(metrics.getTotalFlights())
+                .flightsScheduled(metrics.getFlightsScheduled())
+                .flightsInAir(metrics.getFlightsInAir())
+                .flightsCompleted(metrics.getFlightsCompleted())
+                .totalOrders(metrics.getTotalOrders())
+                .ordersDelivered(metrics.getOrdersDelivered())
+                .ordersInTransit(metrics.getOrdersInTransit())
+                .ordersWaiting(metrics.getOrdersWaiting())
+                .slaCompliancePercentage(metrics.getSlaCompliancePercentage())
+                .averageWarehouseOccupancy(metrics.getAverageWarehouseOccupancy())
+                .build();
     }
     
     /**
@@ -459,32 +769,17 @@ public class SimulationEngine {
     private void updateMetrics(SimulationState state) {
         SimulationMetrics metrics = state.getMetrics();
         
-        List<FlightSnapshot> flights = state.getFlights();
-        
-        // Métricas de vuelos
-        metrics.setTotalFlights(flights.size());
-        metrics.setFlightsScheduled((int) flights.stream()
-                .filter(f -> f.getStatus() == FlightStatus.SCHEDULED).count());
-        metrics.setFlightsInAir((int) flights.stream()
-                .filter(f -> f.getStatus() == FlightStatus.IN_FLIGHT).count());
-        metrics.setFlightsCompleted((int) flights.stream()
-                .filter(f -> f.getStatus() == FlightStatus.LANDED).count());
+        FlightTimeline timeline = state.getTimeline();
         
-        // Métricas de pedidos - contar pedidos únicos en vuelos
-        Set<Long> allPackages = new HashSet<>();
-        Set<Long> deliveredPackages = new HashSet<>();
-        
-        for (FlightSnapshot flight : flights) {
-            allPackages.addAll(flight.getPackagesOnBoard());
-            
-            // Si el vuelo aterrizó, consideramos los paquetes como entregados
-            if (flight.getStatus() == FlightStatus.LANDED) {
-                deliveredPackages.addAll(flight.getPackagesOnBoard());
-            }
-        }
+        // Métricas de vuelos (contadores de la línea de tiempo, sin recorrer todos los vuelos)
+        metrics.setTotalFlights(state.getFlights().size());
+        metrics.setFlightsScheduled(timeline.getFlightsScheduled());
+        metrics.setFlightsInAir(timeline.getFlightsInAir());
+        metrics.setFlightsCompleted(timeline.getFlightsLanded());
         
-        int totalOrders = allPackages.size();
-        int ordersDelivered = deliveredPackages.size();
+        // Métricas de pedidos - pedidos únicos en vuelos; entregados = a bordo de un vuelo que aterrizó
+        int totalOrders = timeline.getTotalOrders();
+        int ordersDelivered = timeline.getOrdersDelivered();
         int ordersInTransit = totalOrders - ordersDelivered;
         
         metrics.setTotalOrders(totalOrders);
@@ -496,7 +791,7 @@ public class SimulationEngine {
         // Por ahora, asumimos 100% de cumplimiento si hay entregas, o 0% si no hay
         // TODO: Implementar cálculo real basado en deadlines cuando esté disponible
         double slaPercentage = totalOrders > 0 
-                ? (deliveredPackages.size() * 100.0 / totalOrders) 
+                ? (ordersDelivered * 100.0 / totalOrders) 
                 : 100.0;
         metrics.setSlaCompliancePercentage(Math.round(slaPercentage * 100.0) / 100.0);
         
@@ -521,7 +816,13 @@ public class SimulationEngine {
      */
     public void pauseSimulation(Long simulationId) {
         SimulationState state = activeSimulations.get(simulationId);
-        if (state != null && state.getStatus() == SimulationStatus.RUNNING) {
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.getStatus() != SimulationStatus.RUNNING) {
+                return;
+            }
             state.setPausedAtMillis(System.currentTimeMillis());
             state.setAccumulatedSimulatedMillis(state.calculateElapsedSimulatedMillis());
             state.setStatus(SimulationStatus.PAUSED);
@@ -534,6 +835,7 @@ public class SimulationEngine {
                     .realTime(LocalDateTime.now())
                     .build());
             
+            publishSnapshot(state);
             log.info("⏸️ Simulación {} pausada", simulationId);
         }
     }
@@ -543,7 +845,13 @@ public class SimulationEngine {
      */
     public void resumeSimulation(Long simulationId) {
         SimulationState state = activeSimulations.get(simulationId);
-        if (state != null && state.getStatus() == SimulationStatus.PAUSED) {
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.getStatus() != SimulationStatus.PAUSED) {
+                return;
+            }
             // Ajustar tiempo de inicio para mantener el tiempo simulado acumulado
             state.setRealStartTimeMillis(System.currentTimeMillis());
             state.setPausedAtMillis(null);
@@ -557,6 +865,7 @@ public class SimulationEngine {
                     .realTime(LocalDateTime.now())
                     .build());
             
+            publishSnapshot(state);
             log.info("▶️ Simulación {} reanudada", simulationId);
         }
     }
@@ -566,7 +875,11 @@ public class SimulationEngine {
      */
     public void stopSimulation(Long simulationId) {
         SimulationState state = activeSimulations.get(simulationId);
-        if (state != null) {
+        if (state == null) {
+            return;
+        }
+        cancelTicker(simulationId);
+        synchronized (state) {
             state.setStatus(SimulationStatus.STOPPED);
             
             state.addEvent(SimulationEvent.builder()
@@ -577,6 +890,8 @@ public class SimulationEngine {
                     .realTime(LocalDateTime.now())
                     .build());
             
+            publishSnapshot(state);
+            streams.complete(simulationId);
             log.info("⏹️ Simulación {} detenida", simulationId);
         }
     }
@@ -586,7 +901,10 @@ public class SimulationEngine {
      */
     public void setSimulationSpeed(Long simulationId, int newTimeScale) {
         SimulationState state = activeSimulations.get(simulationId);
-        if (state != null) {
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
             // Guardar tiempo simulado acumulado hasta ahora
             long elapsed = state.calculateElapsedSimulatedMillis();
             state.setAccumulatedSimulatedMillis(elapsed);
@@ -594,6 +912,7 @@ public class SimulationEngine {
             // Resetear punto de inicio y cambiar escala
             state.setRealStartTimeMillis(System.currentTimeMillis());
             state.setTimeScale(newTimeScale);
+            publishSnapshot(state);
             
             log.info("⚡ Velocidad de simulación {} cambiada a {}x", simulationId, newTimeScale);
         }
@@ -603,7 +922,10 @@ public class SimulationEngine {
      * Elimina una simulación de memoria
      */
     public void removeSimulation(Long simulationId) {
+        cancelTicker(simulationId);
+        // Primero fuera de memoria: un stream que se abre en paralelo lo ve al releer y se cierra
         SimulationState removed = activeSimulations.remove(simulationId);
+        streams.complete(simulationId);
         if (removed != null) {
             log.info("🗑️ Simulación {} eliminada de memoria", simulationId);
         }
@@ -0,0 +1,266 @@
+package com.grupo5e.morapack.simulation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo5e.morapack.simulation.dto.SimulationDeltaResponse;
+import com.grupo5e.morapack.simulation.model.StatusFrames;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Difusión de los snapshots de las simulaciones por Server-Sent Events.
+ *
+ * Cada suscriptor recibe frames delta ({@link SimulationDeltaResponse}) desde la última
+ * versión que se le envió; el id de cada evento SSE es esa versión, así que al reconectarse
+ * el navegador manda {@code Last-Event-ID} y sigue desde ahí. El delta y su JSON se calculan
+ * una vez por versión base y se comparten entre los suscriptores que parten de la misma.
+ *
+ * Cada suscriptor guarda sólo su último frame pendiente: si un cliente lento todavía está
+ * recibiendo el anterior, los intermedios se reemplazan en lugar de encolarse. Un cliente
+ * atrasado recibe un único delta hasta el estado más reciente, no acumula memoria y no
+ * demora a los demás ni al ticker.
+ */
+@Service
+@Slf4j
+public class SimulationStreamService {
+
+    /**
+     * Nombre del evento SSE con el delta de la simulación
+     */
+    public static final String DELTA_EVENT = "delta";
+
+    /**
+     * Suscriptores por simulación
+     * Key: simulationId, Value: conexiones SSE abiertas
+     */
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+    private final Executor sender;
+
+    public SimulationStreamService(
+            ObjectMapper objectMapper,
+            @Qualifier("simulationStreamExecutor") Executor sender) {
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+    }
+
+    /**
+     * Abre una conexión SSE para una simulación.
+     * La conexión no expira: se cierra cuando el cliente se desconecta o la simulación termina.
+     * Si la simulación ya terminó, se envía el último frame y se cierra.
+     *
+     * @param simulationId ID de la simulación
+     * @param frames últimos status publicados; el primer frame es el delta hasta el actual.
+     *               Lanza {@link RuntimeException} si la simulación no está en memoria
+     * @param sinceVersion versión que ya tiene el cliente (0 = frame completo)
+     */
+    public SseEmitter subscribe(Long simulationId, Supplier<StatusFrames> frames, long sinceVersion) {
+        StatusFrames current = frames.get();
+        SseEmitter emitter = new SseEmitter(0L);
+        // Una versión futura viene de otra ejecución del servidor: se manda el frame completo
+        long base = sinceVersion <= current.getVersion() ? sinceVersion : StatusFrames.FULL_FRAME;
+        Subscriber subscriber = new Subscriber(simulationId, emitter, base);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // Alta atómica con la baja del último suscriptor, que quita el conjunto vacío
+        subscribers.compute(simulationId, (id, subs) -> {
+            Set<Subscriber> set = subs != null ? subs : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        // Si el ticker ya dejó un frame más nuevo, no se reemplaza por el inicial
+        subscriber.offerIfIdle(new Published(current));
+
+        // El engine publica el frame final antes de complete(): si complete() corrió entre la
+        // lectura y el registro, se ve al releer después de registrarse y nadie más lo cerraría
+        StatusFrames latest = latestOrNull(frames);
+        if (latest == null || latest.isFinished()) {
+            if (latest != null) {
+                subscriber.offer(new Published(latest));
+            }
+            subscriber.finish();
+            log.info("📡 Simulación {} ya terminada, se envía el último frame y se cierra el stream", simulationId);
+            return emitter;
+        }
+
+        log.info("📡 Nuevo suscriptor SSE para simulación {} ({} conectados)",
+                simulationId, subscriberCount(simulationId));
+        return emitter;
+    }
+
+    /**
+     * @return últimos status publicados, o null si la simulación ya salió de memoria
+     */
+    private static StatusFrames latestOrNull(Supplier<StatusFrames> frames) {
+        try {
+            return frames.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Entrega los status publicados a todos los suscriptores de la simulación.
+     * No bloquea: los deltas se calculan y envían en el executor de streaming.
+     */
+    public void publish(Long simulationId, StatusFrames frames) {
+        Set<Subscriber> subs = subscribers.get(simulationId);
+        if (subs == null || subs.isEmpty()) {
+            return;
+        }
+
+        // Una sola publicación compartida por todos los suscriptores
+        Published published = new Published(frames);
+        for (Subscriber subscriber : subs) {
+            subscriber.offer(published);
+        }
+    }
+
+    /**
+     * Cierra los streams de una simulación después de enviar el último frame pendiente
+     */
+    public void complete(Long simulationId) {
+        Set<Subscriber> subs = subscribers.remove(simulationId);
+        if (subs != null) {
+            subs.forEach(Subscriber::finish);
+        }
+    }
+
+    public int subscriberCount(Long simulationId) {
+        Set<Subscriber> subs = subscribers.get(simulationId);
+        return subs != null ? subs.size() : 0;
+    }
+
+    private String serialize(SimulationDeltaResponse delta) {
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el delta de la simulación", e);
+        }
+    }
+
+    /**
+     * Una publicación del engine con el JSON de sus deltas, por versión base
+     */
+    private final class Published {
+        private final StatusFrames frames;
+        private final ConcurrentHashMap<Long, String> json = new ConcurrentHashMap<>();
+
+        Published(StatusFrames frames) {
+            this.frames = frames;
+        }
+
+        long version() {
+            return frames.getVersion();
+        }
+
+        String since(long version) {
+            SimulationDeltaResponse delta = frames.deltaSince(version);
+            return json.computeIfAbsent(delta.getBaseVersion(), base -> serialize(delta));
+        }
+    }
+
+    /**
+     * Conexión SSE con un único frame pendiente.
+     * A lo sumo un envío en curso por suscriptor ({@code draining}).
+     */
+    private final class Subscriber {
+        private final Long simulationId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Published> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean finishing;
+        private volatile boolean closed;
+        // Sólo lo usa el drain en curso
+        private long sentVersion;
+
+        Subscriber(Long simulationId, SseEmitter emitter, long sentVersion) {
+            this.simulationId = simulationId;
+            this.emitter = emitter;
+            this.sentVersion = sentVersion;
+        }
+
+        void offer(Published published) {
+            pending.set(published);
+            scheduleDrain();
+        }
+
+        void offerIfIdle(Published published) {
+            pending.compareAndSet(null, published);
+            scheduleDrain();
+        }
+
+        void finish() {
+            finishing = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (closed || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // El frame queda pendiente y se reintenta con el próximo
+                draining.set(false);
+                log.warn("Executor de streaming saturado, se posterga el envío a un suscriptor de {}", simulationId);
+            }
+        }
+
+        private void drain() {
+            try {
+                Published published;
+                while (!closed && (published = pending.getAndSet(null)) != null) {
+                    if (published.version() <= sentVersion) {
+                        continue;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(published.version()))
+                            .name(DELTA_EVENT)
+                            .data(published.since(sentVersion), MediaType.APPLICATION_JSON));
+                    sentVersion = published.version();
+                }
+                if (finishing && !closed) {
+                    close();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emitter ya completado
+                log.debug("Suscriptor SSE de simulación {} desconectado: {}", simulationId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            // Un frame que llegó entre el último getAndSet y la liberación del flag
+            if (!closed && (pending.get() != null || finishing)) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.computeIfPresent(simulationId, (id, subs) -> {
+                subs.remove(this);
+                return subs.isEmpty() ? null : subs;
+            });
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.algorithm.alns.AcumuladorObjetivo;
+import com.grupo5e.morapack.algorithm.alns.CalendarioVuelos;
+import com.grupo5e.morapack.algorithm.alns.FuncionObjetivo;
+import com.grupo5e.morapack.algorithm.alns.InstanciaProblema;
+import com.grupo5e.morapack.algorithm.alns.RegistroCapacidades;
+import com.grupo5e.morapack.core.enums.Continente;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Producto;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del cálculo incremental de la función objetivo
+ */
+public class AcumuladorObjetivoTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 2, 6, 0);
+
+    private static Pedido pedido(String origen, String destino, int horasPlazo, int productos) {
+        Pedido pedido = DatosPrueba.pedido(1L, origen, destino, INICIO, INICIO.plusHours(horasPlazo));
+        pedido.setProductos(new ArrayList<>(Collections.nCopies(productos, new Producto())));
+        return pedido;
+    }
+
+    @Test
+    public void testIncrementalCoincideConFuncionObjetivo() {
+        Aeropuerto lima = aeropuerto("SPIM", Continente.AMERICA, 800);
+        Aeropuerto bogota = aeropuerto("SKBO", Continente.AMERICA, 800);
+        Aeropuerto bruselas = aeropuerto("EBCI", Continente.EUROPA, 800);
+        Vuelo limaBogota = vuelo(lima, bogota, null, null, 300, 5);
+        Vuelo bogotaBruselas = vuelo(bogota, bruselas, null, null, 300, 12);
+        RegistroCapacidades registro = new RegistroCapacidades(new InstanciaProblema(
+                List.of(lima, bogota, bruselas), List.of(limaBogota, bogotaBruselas), List.of()));
+        FuncionObjetivo referencia = new FuncionObjetivo(registro);
+
+        Pedido p1 = pedido("SPIM", "SKBO", 48, 40);
+        Pedido p2 = pedido("SPIM", "EBCI", 72, 20);
+        Pedido p3 = pedido("SPIM", "EBCI", 10, 30);
+
+        HashMap<Pedido, List<Vuelo>> solucion = new HashMap<>();
+        AcumuladorObjetivo incremental = new AcumuladorObjetivo(registro);
+        incremental.reiniciar(solucion);
+        agregar(registro, incremental, solucion, p3, List.of(limaBogota, bogotaBruselas), bruselas);
+        agregar(registro, incremental, solucion, p1, List.of(limaBogota), bogota);
+        agregar(registro, incremental, solucion, p2, List.of(limaBogota, bogotaBruselas), bruselas);
+
+        assertPesoIgual(referencia.calcularPeso(solucion), incremental.calcularPeso());
+        AcumuladorObjetivo completo = new AcumuladorObjetivo(registro);
+        completo.reiniciar(solucion);
+        assertEquals(completo.calcularPeso(), incremental.calcularPeso());
+        assertEquals(3, incremental.getTotalPaquetes());
+        assertEquals(2, incremental.getEntregasATiempo(), "p3 no llega antes de su deadline de 10h");
+    }
+
+    @Test
+    public void testDeshacerVuelveAlPesoConfirmado() {
+        Aeropuerto lima = aeropuerto("SPIM", Continente.AMERICA, 800);
+        Aeropuerto bogota = aeropuerto("SKBO", Continente.AMERICA, 800);
+        Vuelo limaBogota = vuelo(lima, bogota, null, null, 300, 5);
+        RegistroCapacidades registro = new RegistroCapacidades(new InstanciaProblema(
+                List.of(lima, bogota), List.of(limaBogota), List.of()));
+        FuncionObjetivo referencia = new FuncionObjetivo(registro);
+        Pedido p1 = pedido("SPIM", "SKBO", 48, 40);
+        Pedido p2 = pedido("SPIM", "SKBO", 48, 25);
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        HashMap<Pedido, List<Vuelo>> solucion = new HashMap<>();
+        AcumuladorObjetivo acumulador = new AcumuladorObjetivo(registro);
+        acumulador.reiniciar(solucion);
+        agregar(registro, acumulador, solucion, p1, ruta, bogota);
+        registro.confirmar();
+        acumulador.confirmar();
+        int pesoConfirmado = acumulador.calcularPeso();
+        assertPesoIgual(referencia.calcularPeso(solucion), pesoConfirmado);
+
+        quitar(registro, acumulador, solucion, p1, ruta, bogota);
+        int marcaRegistro = registro.marca();
+        int marca = acumulador.marca();
+        int pesoSinP1 = acumulador.calcularPeso();
+        assertPesoIgual(referencia.calcularPeso(solucion), pesoSinP1);
+        agregar(registro, acumulador, solucion, p2, ruta, bogota);
+        agregar(registro, acumulador, solucion, p1, ruta, bogota);
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+        assertNotEquals(pesoConfirmado, acumulador.calcularPeso());
+
+        registro.deshacerHasta(marcaRegistro);
+        acumulador.deshacerHasta(marca);
+        solucion.clear();
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+        assertEquals(pesoSinP1, acumulador.calcularPeso(), "Sólo se revierte lo posterior a la marca");
+
+        agregar(registro, acumulador, solucion, p2, ruta, bogota);
+        registro.deshacer();
+        acumulador.deshacer();
+        solucion.clear();
+        solucion.put(p1, ruta);
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+        assertEquals(pesoConfirmado, acumulador.calcularPeso());
+    }
+
+    @Test
+    public void testRamaCopiaYReproduceElJournal() {
+        Aeropuerto lima = aeropuerto("SPIM", Continente.AMERICA, 800);
+        Aeropuerto bogota = aeropuerto("SKBO", Continente.AMERICA, 800);
+        Aeropuerto bruselas = aeropuerto("EBCI", Continente.EUROPA, 800);
+        Vuelo limaBogota = vuelo(lima, bogota, null, null, 300, 5);
+        Vuelo bogotaBruselas = vuelo(bogota, bruselas, null, null, 300, 12);
+        RegistroCapacidades registro = new RegistroCapacidades(new InstanciaProblema(
+                List.of(lima, bogota, bruselas), List.of(limaBogota, bogotaBruselas), List.of()));
+        Pedido p1 = pedido("SPIM", "SKBO", 48, 40);
+        Pedido p2 = pedido("SPIM", "EBCI", 72, 20);
+
+        HashMap<Pedido, List<Vuelo>> solucion = new HashMap<>();
+        AcumuladorObjetivo principal = new AcumuladorObjetivo(registro);
+        principal.reiniciar(solucion);
+        agregar(registro, principal, solucion, p1, List.of(limaBogota), bogota);
+        registro.confirmar();
+        principal.confirmar();
+
+        RegistroCapacidades registroRama = registro.crearRama();
+        registroRama.copiarEstadoDe(registro);
+        AcumuladorObjetivo rama = principal.crearRama(registroRama);
+        rama.copiarEstadoDe(principal);
+        assertEquals(principal.calcularPeso(), rama.calcularPeso());
+        assertEquals(0, rama.marca(), "La copia no arrastra el journal");
+
+        int pesoConfirmado = principal.calcularPeso();
+        // La rama aplica un movimiento y el principal lo toma reproduciendo ambos journals
+        HashMap<Pedido, List<Vuelo>> solucionRama = new HashMap<>(solucion);
+        quitar(registroRama, rama, solucionRama, p1, List.of(limaBogota), bogota);
+        agregar(registroRama, rama, solucionRama, p2, List.of(limaBogota, bogotaBruselas), bruselas);
+        assertEquals(pesoConfirmado, principal.calcularPeso(), "La rama no toca el principal");
+        registroRama.reproducirEn(registro, 0, registroRama.marca());
+        rama.reproducirEn(principal, 0, rama.marca());
+        assertEquals(rama.calcularPeso(), principal.calcularPeso());
+        assertPesoIgual(new FuncionObjetivo(registro).calcularPeso(solucionRama), principal.calcularPeso());
+        assertEquals(2, principal.marca());
+
+        registro.deshacer();
+        principal.deshacer();
+        assertEquals(pesoConfirmado, principal.calcularPeso(), "Lo reproducido se deshace como cualquier operación");
+        assertPesoIgual(new FuncionObjetivo(registro).calcularPeso(solucion), principal.calcularPeso());
+    }
+
+    @Test
+    public void testPesoCoincideConFuncionObjetivoPorOcurrencia() {
+        Aeropuerto lima = aeropuerto("SPIM", Continente.AMERICA, 800);
+        Aeropuerto bogota = aeropuerto("SKBO", Continente.AMERICA, 800);
+        Aeropuerto bruselas = aeropuerto("EBCI", Continente.EUROPA, 800);
+        Vuelo limaBogota = vuelo(lima, bogota, "08:00", "13:00", 10, 5);
+        Vuelo bogotaBruselas = vuelo(bogota, bruselas, "15:00", "03:00", 10, 12);
+        InstanciaProblema instancia = new InstanciaProblema(List.of(lima, bogota, bruselas),
+                List.of(limaBogota, bogotaBruselas), List.of());
+        RegistroCapacidades registro = new RegistroCapacidades(instancia, null,
+                new CalendarioVuelos(instancia, INICIO, 3, null));
+        AcumuladorObjetivo acumulador = new AcumuladorObjetivo(registro);
+        FuncionObjetivo referencia = new FuncionObjetivo(registro);
+        HashMap<Pedido, List<Vuelo>> solucion = new HashMap<>();
+        acumulador.reiniciar(solucion);
+
+        Pedido p1 = pedido("SPIM", "SKBO", 48, 6);
+        Pedido p2 = pedido("SPIM", "EBCI", 72, 6);
+        Pedido p3 = pedido("SPIM", "EBCI", 72, 3);
+        List<Vuelo> directa = List.of(limaBogota);
+        List<Vuelo> conEscala = List.of(limaBogota, bogotaBruselas);
+
+        agregar(registro, acumulador, solucion, p1, directa, bogota);
+        agregar(registro, acumulador, solucion, p2, conEscala, bruselas);
+        agregar(registro, acumulador, solucion, p3, conEscala, bruselas);
+        assertArrayEquals(new int[]{2, 2}, registro.dias(p2, conEscala), "p2 no cabe el día 1 y vuela el día 2");
+        assertArrayEquals(new int[]{1, 1}, registro.dias(p3, conEscala));
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+        registro.confirmar();
+        acumulador.confirmar();
+        int pesoConfirmado = acumulador.calcularPeso();
+
+        // Movimiento: sale p1 (el registro libera antes de que el acumulador lo quite) y entra de nuevo
+        int marcaRegistro = registro.marca();
+        int marcaAcumulador = acumulador.marca();
+        registro.liberarRuta(p1, directa, bogota, 6);
+        acumulador.quitar(p1, directa);
+        solucion.remove(p1);
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+
+        agregar(registro, acumulador, solucion, p1, directa, bogota);
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+
+        registro.deshacerHasta(marcaRegistro);
+        acumulador.deshacerHasta(marcaAcumulador);
+        assertPesoIgual(referencia.calcularPeso(solucion), acumulador.calcularPeso());
+        assertEquals(pesoConfirmado, acumulador.calcularPeso());
+
+        // El reinicio desde la solución ocupada toma los días de las reservas del registro
+        AcumuladorObjetivo reiniciado = new AcumuladorObjetivo(registro);
+        reiniciado.reiniciar(solucion);
+        assertEquals(acumulador.calcularPeso(), reiniciado.calcularPeso());
+    }
+
+    /** Ocupa la ruta en el registro y anota el pedido en el acumulador y en la solución. */
+    private static void agregar(RegistroCapacidades registro, AcumuladorObjetivo acumulador,
+                                HashMap<Pedido, List<Vuelo>> solucion, Pedido pedido, List<Vuelo> ruta,
+                                Aeropuerto destino) {
+        registro.ocuparRuta(pedido, ruta, destino, RegistroCapacidades.cantidadProductos(pedido));
+        acumulador.agregar(pedido, ruta, registro.dias(pedido, ruta));
+        solucion.put(pedido, ruta);
+    }
+
+    /** Libera la ruta en el registro antes de quitar el pedido del acumulador, como el solver. */
+    private static void quitar(RegistroCapacidades registro, AcumuladorObjetivo acumulador,
+                               HashMap<Pedido, List<Vuelo>> solucion, Pedido pedido, List<Vuelo> ruta,
+                               Aeropuerto destino) {
+        registro.liberarRuta(pedido, ruta, destino, RegistroCapacidades.cantidadProductos(pedido));
+        acumulador.quitar(pedido, ruta);
+        solucion.remove(pedido);
+    }
+
+    /** Mismo margen que el solver al verificar el peso incremental: redondeo de sumas en double. */
+    private static void assertPesoIgual(int esperado, int actual) {
+        assertTrue(Math.abs(esperado - actual) <= 1, "Peso incremental " + actual + " y completo " + esperado);
+    }
+}
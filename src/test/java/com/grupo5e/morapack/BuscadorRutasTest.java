@@ -0,0 +1,74 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.algorithm.alns.BuscadorRutas;
+import com.grupo5e.morapack.algorithm.alns.CalendarioVuelos;
+import com.grupo5e.morapack.algorithm.alns.InstanciaProblema;
+import com.grupo5e.morapack.algorithm.alns.RegistroCapacidades;
+import com.grupo5e.morapack.core.index.CacheDisponibilidad;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de la búsqueda de rutas compartida por solver y reparación
+ */
+public class BuscadorRutasTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final Aeropuerto lima = aeropuerto("SPIM");
+    private final Aeropuerto bogota = aeropuerto("SKBO");
+    private final Aeropuerto quito = aeropuerto("SEQM");
+    private final Aeropuerto paris = aeropuerto("LFPG");
+
+    @Test
+    public void testBuscaSoloConVuelosConEspacio() {
+        Vuelo directo = vuelo(lima, quito, "10:00", "16:00", 10); // llega después que la ruta con escala
+        Vuelo limaBogota = vuelo(lima, bogota, "06:00", "09:00", 10);
+        Vuelo bogotaQuito = vuelo(bogota, quito, "12:00", "14:00", 10);
+        List<Aeropuerto> aeropuertos = List.of(lima, bogota, quito, paris);
+        List<Vuelo> vuelos = List.of(directo, limaBogota, bogotaQuito);
+        InstanciaProblema instancia = new InstanciaProblema(aeropuertos, vuelos, List.of());
+        ServicioDisponibilidadVuelos servicio = new ServicioDisponibilidadVuelos();
+        RegistroCapacidades registro = new RegistroCapacidades(instancia, null,
+                new CalendarioVuelos(instancia, INICIO, 5, servicio));
+        IndiceVuelos indice = new IndiceVuelos(aeropuertos, vuelos);
+        RedTemporalVuelos red = new RedTemporalVuelos(indice, servicio, INICIO, 5, 120);
+        BuscadorRutas buscador = new BuscadorRutas(instancia, red, new CacheDisponibilidad(servicio, indice), registro);
+
+        assertEquals(1, buscador.vuelosMinimos(lima, quito));
+        assertEquals(0, buscador.vuelosMinimos(lima, lima));
+        assertEquals(Integer.MAX_VALUE, buscador.vuelosMinimos(lima, paris));
+        assertNull(buscador.buscar(pedido(1L, "SPIM", "LFPG", INICIO, INICIO.plusDays(2)), 0), "Sin conexión no se busca");
+
+        Pedido pedido = pedido(1L, "SPIM", "SEQM", INICIO, INICIO.plusDays(2));
+        assertEquals(List.of(directo), buscador.buscarConVuelos(pedido, 1).getVuelos());
+        assertEquals(List.of(limaBogota, bogotaQuito), buscador.buscarConVuelos(pedido, 2).getVuelos());
+
+        // Lleno el día 1: el directo pasa a la ocurrencia del día 2
+        registro.ajustarVuelo(directo, 1, 10);
+        RedTemporalVuelos.Itinerario directoDia2 = buscador.buscarConVuelos(pedido, 1);
+        assertEquals(List.of(directo), directoDia2.getVuelos());
+        assertEquals(2, directoDia2.getDia(0));
+
+        registro.ajustarVuelo(directo, 2, 10);
+        assertNull(buscador.buscarConVuelos(pedido, 1), "El directo del día 3 llega después del plazo");
+        assertEquals(2, buscador.buscar(pedido, 0).getNumVuelos());
+
+        // El pedido del día siguiente tiene plazo hasta el día 4
+        Pedido siguiente = pedido(1L, "SPIM", "SEQM", INICIO, INICIO.plusDays(2));
+        siguiente.setFechaPedido(INICIO.plusDays(1));
+        siguiente.setFechaLimiteEntrega(INICIO.plusDays(4));
+        assertEquals(3, buscador.buscarConVuelos(siguiente, 1).getDia(0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.algorithm.alns.BuzonMigracion;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del buzón de migración del modelo de islas
+ */
+public class BuzonMigracionTest {
+
+    private BuzonMigracion.Migrante migrante(int isla, int peso) {
+        return new BuzonMigracion.Migrante(isla, peso, new Pedido[0], new Vuelo[0][], new double[4][4]);
+    }
+
+    @Test
+    public void testConservaElMigranteDeMayorPeso() {
+        BuzonMigracion buzon = new BuzonMigracion();
+        buzon.publicar(migrante(0, 500));
+        buzon.publicar(migrante(1, 300));
+        buzon.publicar(migrante(2, 700));
+        buzon.publicar(migrante(3, 600));
+
+        BuzonMigracion.Migrante recibido = buzon.tomar();
+        assertNotNull(recibido);
+        assertEquals(700, recibido.getPeso());
+        assertEquals(2, recibido.getIslaOrigen());
+        assertNull(buzon.tomar(), "Tomar vacía el buzón");
+    }
+
+    @Test
+    public void testPublicacionesConcurrentes() throws InterruptedException {
+        BuzonMigracion buzon = new BuzonMigracion();
+        Thread[] hilos = new Thread[8];
+        for (int h = 0; h < hilos.length; h++) {
+            final int isla = h;
+            hilos[h] = new Thread(() -> {
+                for (int peso = 0; peso < 1000; peso++) {
+                    buzon.publicar(migrante(isla, isla * 1000 + peso));
+                }
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) hilo.join();
+
+        assertEquals(7999, buzon.tomar().getPeso());
+    }
+}
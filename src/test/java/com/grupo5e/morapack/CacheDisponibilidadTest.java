@@ -0,0 +1,82 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.index.CacheDisponibilidad;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Cancelacion;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de la cache de vuelos disponibles por día
+ */
+public class CacheDisponibilidadTest {
+
+    private final Aeropuerto lima = aeropuerto("SPIM");
+    private final Aeropuerto bogota = aeropuerto("SKBO");
+
+    private static Cancelacion cancelacion(String origen, String destino, int hora, int dia) {
+        Cancelacion cancelacion = new Cancelacion();
+        cancelacion.setCodigoIATAOrigen(origen);
+        cancelacion.setCodigoIATADestino(destino);
+        cancelacion.setHora(hora);
+        cancelacion.setMinuto(0);
+        cancelacion.setDiasCancelado(dia);
+        return cancelacion;
+    }
+
+    @Test
+    public void testDevuelveLaMismaListaSinCopiar() {
+        Vuelo manana = vuelo(lima, bogota, "08:00");
+        Vuelo tarde = vuelo(lima, bogota, "16:00");
+        Vuelo vuelta = vuelo(bogota, lima, "10:00");
+        ServicioDisponibilidadVuelos servicio = new ServicioDisponibilidadVuelos();
+        servicio.registrarCancelacion(cancelacion("SPIM", "SKBO", 8, 2));
+        IndiceVuelos indice = new IndiceVuelos(List.of(lima, bogota), List.of(manana, tarde, vuelta));
+        CacheDisponibilidad cache = new CacheDisponibilidad(servicio, indice);
+
+        assertEquals(List.of(manana, tarde), cache.obtenerVuelosDisponibles(lima, bogota, 1));
+        assertEquals(List.of(tarde), cache.obtenerVuelosDisponibles(lima, bogota, 2), "Día 2 cancelado");
+        assertEquals(List.of(vuelta), cache.obtenerVuelosDisponibles(bogota, lima, 2));
+        assertTrue(cache.obtenerVuelosDisponibles(lima, lima, 1).isEmpty());
+        assertTrue(cache.obtenerVuelosDisponibles(lima, bogota, 0).isEmpty(), "Día inválido");
+
+        List<Vuelo> primera = cache.obtenerVuelosDisponibles(lima, bogota, 1);
+        assertSame(primera, cache.obtenerVuelosDisponibles(lima, bogota, 1));
+        assertThrows(UnsupportedOperationException.class, () -> primera.add(vuelta));
+
+        CacheDisponibilidad.TablaDia tabla = cache.obtenerTabla(2);
+        int o = indice.idAeropuerto(lima);
+        int d = indice.idAeropuerto(bogota);
+        assertEquals(1, tabla.fin(o, d) - tabla.inicio(o, d));
+        assertSame(tarde, indice.vuelo(tabla.vuelo(tabla.inicio(o, d))));
+        assertEquals(2, cache.getDiasCacheados());
+    }
+
+    @Test
+    public void testDesalojaPorDia() {
+        Vuelo vuelo = vuelo(lima, bogota, "08:00");
+        IndiceVuelos indice = new IndiceVuelos(List.of(lima, bogota), List.of(vuelo));
+        CacheDisponibilidad cache = new CacheDisponibilidad(new ServicioDisponibilidadVuelos(), indice, 3);
+
+        for (int dia = 1; dia <= 5; dia++) {
+            assertEquals(List.of(vuelo), cache.obtenerVuelosDisponibles(lima, bogota, dia));
+        }
+        assertEquals(3, cache.getDiasCacheados(), "Solo se guardan tres días");
+        assertEquals(3, cache.obtenerTabla(3).getDia());
+        assertEquals(1, cache.obtenerTabla(1).getDia(), "El día desalojado se vuelve a calcular");
+
+        cache.limpiarDiasAnteriores(4);
+        assertEquals(1, cache.getDiasCacheados(), "Solo queda el día 5");
+        cache.obtenerTabla(6);
+        cache.aplicarLimiteCache(9);
+        assertEquals(1, cache.getDiasCacheados(), "El día 5 queda fuera de la ventana que termina en 9");
+        assertEquals(6, cache.obtenerTabla(6).getDia());
+    }
+}
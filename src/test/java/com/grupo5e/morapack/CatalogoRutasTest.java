@@ -0,0 +1,113 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.index.CatalogoRutas;
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Ruta;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del catálogo de rutas precalculadas por par origen-destino
+ */
+public class CatalogoRutasTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final Aeropuerto lima = aeropuerto("SPIM");
+    private final Aeropuerto bogota = aeropuerto("SKBO");
+    private final Aeropuerto quito = aeropuerto("SEQM");
+    private final List<Aeropuerto> aeropuertos = List.of(lima, bogota, quito);
+
+    private List<Vuelo> plan() {
+        List<Vuelo> vuelos = List.of(
+                vuelo(lima, quito, "20:00", "23:00", 300),   // directo: 3 h
+                vuelo(lima, bogota, "06:00", "09:00", 300),
+                vuelo(bogota, quito, "11:00", "12:00", 300), // con escala: 6 h
+                vuelo(bogota, quito, "10:00", "11:00", 300)  // conexión de 1 h: espera al día siguiente
+        );
+        for (int i = 0; i < vuelos.size(); i++) vuelos.get(i).setId(i + 1);
+        return vuelos;
+    }
+
+    private static List<List<Vuelo>> rutas(CatalogoRutas catalogo, Aeropuerto origen, Aeropuerto destino) {
+        IndiceVuelos indice = catalogo.getIndice();
+        int o = indice.idAeropuerto(origen);
+        int d = indice.idAeropuerto(destino);
+        List<List<Vuelo>> rutas = new ArrayList<>();
+        for (int r = 0; r < catalogo.numRutas(o, d); r++) {
+            List<Vuelo> ruta = new ArrayList<>();
+            for (int f : catalogo.ruta(o, d, r)) ruta.add(indice.vuelo(f));
+            rutas.add(ruta);
+        }
+        return rutas;
+    }
+
+    @Test
+    public void testOrdenaPorDuracionConConexion() {
+        List<Vuelo> vuelos = plan();
+        CatalogoRutas catalogo = CatalogoRutas.construir(new IndiceVuelos(aeropuertos, vuelos), 120, 10);
+
+        assertEquals(List.of(List.of(vuelos.get(0)), List.of(vuelos.get(1), vuelos.get(2)),
+                List.of(vuelos.get(1), vuelos.get(3))), rutas(catalogo, lima, quito));
+        int o = catalogo.getIndice().idAeropuerto(lima);
+        int d = catalogo.getIndice().idAeropuerto(quito);
+        assertEquals(3 * 60, catalogo.duracion(o, d, 0));
+        assertEquals(6 * 60, catalogo.duracion(o, d, 1));
+        assertEquals(29 * 60, catalogo.duracion(o, d, 2));
+        assertTrue(rutas(catalogo, quito, lima).isEmpty());
+
+        CatalogoRutas dos = CatalogoRutas.construir(new IndiceVuelos(aeropuertos, vuelos), 120, 2);
+        assertEquals(2, rutas(dos, lima, quito).size(), "Sólo los K más cortos");
+    }
+
+    @Test
+    public void testSeGuardaYSeTraduceAOtroIndice() {
+        List<Vuelo> vuelos = plan();
+        CatalogoRutas catalogo = CatalogoRutas.construir(new IndiceVuelos(aeropuertos, vuelos), 120, 10);
+        List<Ruta> guardadas = catalogo.aRutas();
+        assertEquals(catalogo.getTotalRutas(), guardadas.size());
+
+        // Mismo plan cargado en otro orden: se empareja por id de vuelo
+        List<Vuelo> invertidos = new ArrayList<>(vuelos);
+        java.util.Collections.reverse(invertidos);
+        IndiceVuelos otro = new IndiceVuelos(aeropuertos, invertidos);
+        CatalogoRutas leido = CatalogoRutas.desdeRutas(guardadas, otro, 120);
+        assertNotNull(leido);
+        assertEquals(rutas(catalogo, lima, quito), rutas(leido, lima, quito));
+        assertEquals(rutas(catalogo, lima, quito), rutas(catalogo.paraIndice(otro), lima, quito));
+
+        // Un vuelo con otro horario cambia la firma: lo guardado ya no vale
+        List<Vuelo> cambiados = plan();
+        cambiados.get(2).setHoraSalida(LocalTime.parse("13:00"));
+        IndiceVuelos cambiado = new IndiceVuelos(aeropuertos, cambiados);
+        assertNull(CatalogoRutas.desdeRutas(guardadas, cambiado, 120));
+        assertNull(catalogo.paraIndice(cambiado));
+    }
+
+    @Test
+    public void testProgramaEntradasSobreLaRed() {
+        List<Vuelo> vuelos = plan();
+        IndiceVuelos indice = new IndiceVuelos(aeropuertos, vuelos);
+        CatalogoRutas catalogo = CatalogoRutas.construir(indice, 120, 10);
+        RedTemporalVuelos red = new RedTemporalVuelos(indice, null, INICIO, 5, 120);
+        int o = indice.idAeropuerto(lima);
+        int d = indice.idAeropuerto(quito);
+
+        RedTemporalVuelos.Itinerario conEscala = red.programar(catalogo.ruta(o, d, 1), 0, 5 * RedTemporalVuelos.MINUTOS_DIA, null);
+        assertEquals(12 * 60, conEscala.getLlegada());
+        RedTemporalVuelos.Itinerario esperando = red.programar(catalogo.ruta(o, d, 2), 0, 5 * RedTemporalVuelos.MINUTOS_DIA, null);
+        assertEquals(2, esperando.getDia(1), "La conexión de 1 h pasa al día siguiente");
+        assertNull(red.programar(catalogo.ruta(o, d, 1), 0, 11 * 60, null), "Fuera de plazo");
+        assertNull(red.programar(catalogo.ruta(o, d, 0), 0, 5 * RedTemporalVuelos.MINUTOS_DIA, (f, dia) -> false), "Sin capacidad");
+    }
+}
@@ -0,0 +1,81 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.enums.Continente;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Ciudad;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Entidades mínimas para los tests de la red de vuelos y del ALNS: sólo llenan los campos que
+ * leen los índices, el calendario y los registros de capacidad.
+ */
+final class DatosPrueba {
+
+    private DatosPrueba() {
+    }
+
+    static Aeropuerto aeropuerto(String codigo) {
+        Aeropuerto aeropuerto = new Aeropuerto();
+        aeropuerto.setCodigoIATA(codigo);
+        return aeropuerto;
+    }
+
+    static Aeropuerto aeropuerto(String codigo, int capacidad) {
+        Aeropuerto aeropuerto = aeropuerto(codigo);
+        aeropuerto.setCapacidadMaxima(capacidad);
+        return aeropuerto;
+    }
+
+    /** Aeropuerto con una ciudad del continente dado, para la promesa y la eficiencia continental. */
+    static Aeropuerto aeropuerto(String codigo, Continente continente, int capacidad) {
+        Ciudad ciudad = new Ciudad();
+        ciudad.setNombre(codigo);
+        ciudad.setContinente(continente);
+        Aeropuerto aeropuerto = aeropuerto(codigo, capacidad);
+        aeropuerto.setCiudad(ciudad);
+        return aeropuerto;
+    }
+
+    /** Vuelo con sólo hora de salida (null para un vuelo sin horario). */
+    static Vuelo vuelo(Aeropuerto origen, Aeropuerto destino, String salida) {
+        return vuelo(origen, destino, salida, null, 0);
+    }
+
+    static Vuelo vuelo(Aeropuerto origen, Aeropuerto destino, String salida, String llegada, int capacidad) {
+        Vuelo vuelo = new Vuelo();
+        vuelo.setAeropuertoOrigen(origen);
+        vuelo.setAeropuertoDestino(destino);
+        vuelo.setHoraSalida(salida != null ? LocalTime.parse(salida) : null);
+        vuelo.setHoraLlegada(llegada != null ? LocalTime.parse(llegada) : null);
+        vuelo.setCapacidadMaxima(capacidad);
+        return vuelo;
+    }
+
+    /** Vuelo con tiempo de transporte, que usan la ocupación temporal y la función objetivo. */
+    static Vuelo vuelo(Aeropuerto origen, Aeropuerto destino, String salida, String llegada, int capacidad,
+                       double horas) {
+        Vuelo vuelo = vuelo(origen, destino, salida, llegada, capacidad);
+        vuelo.setTiempoTransporte(horas);
+        return vuelo;
+    }
+
+    /** Pedido sin fecha límite: rige sólo la promesa MoraPack. */
+    static Pedido pedido(long id, String origen, String destino, LocalDateTime fecha) {
+        Pedido pedido = new Pedido();
+        pedido.setId(id);
+        pedido.setAeropuertoOrigenCodigo(origen);
+        pedido.setAeropuertoDestinoCodigo(destino);
+        pedido.setFechaPedido(fecha);
+        return pedido;
+    }
+
+    static Pedido pedido(long id, String origen, String destino, LocalDateTime fecha, LocalDateTime limite) {
+        Pedido pedido = pedido(id, origen, destino, fecha);
+        pedido.setFechaLimiteEntrega(limite);
+        return pedido;
+    }
+}
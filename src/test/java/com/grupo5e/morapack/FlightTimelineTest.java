@@ -0,0 +1,74 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.simulation.model.FlightSnapshot;
+import com.grupo5e.morapack.simulation.model.FlightStatus;
+import com.grupo5e.morapack.simulation.model.FlightTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de la línea de tiempo de eventos de la simulación
+ */
+public class FlightTimelineTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 20, 8, 0);
+    private static final long HORA = 60 * 60 * 1000L;
+
+    private static FlightSnapshot vuelo(int id, int horaSalida, int horaLlegada, Long... pedidos) {
+        return FlightSnapshot.builder()
+                .flightId(id)
+                .departureTime(T0.plusHours(horaSalida))
+                .arrivalTime(T0.plusHours(horaLlegada))
+                .status(FlightStatus.SCHEDULED)
+                .packagesOnBoard(List.of(pedidos))
+                .build();
+    }
+
+    private static List<Integer> ids(List<FlightSnapshot> vuelos) {
+        return vuelos.stream().map(FlightSnapshot::getFlightId).toList();
+    }
+
+    @Test
+    public void testProcesaSoloLosEventosVencidos() {
+        FlightSnapshot v1 = vuelo(1, 1, 3, 10L);
+        FlightSnapshot v2 = vuelo(2, 2, 5, 10L, 11L);
+        FlightSnapshot v3 = vuelo(3, 48, 50, 12L);
+        FlightTimeline timeline = new FlightTimeline(List.of(v3, v2, v1), T0);
+        assertEquals(3, timeline.getFlightsScheduled());
+        assertEquals(3, timeline.getTotalOrders());
+
+        assertTrue(timeline.advanceTo(HORA / 2).isEmpty());
+
+        List<FlightTimeline.Transition> salidas = timeline.advanceTo(2 * HORA);
+        assertEquals(2, salidas.size(), "La salida es inclusiva");
+        assertEquals(List.of(1, 2), ids(timeline.getActiveFlights()));
+        assertEquals(1, timeline.getFlightsScheduled());
+
+        assertTrue(timeline.advanceTo(3 * HORA).isEmpty(), "A la hora exacta de llegada sigue en el aire");
+        List<FlightTimeline.Transition> llegada = timeline.advanceTo(3 * HORA + 1);
+        assertEquals(1, llegada.size());
+        assertSame(v1, llegada.get(0).getFlight());
+        assertEquals(FlightStatus.LANDED, llegada.get(0).getStatus());
+        assertEquals(List.of(2), ids(timeline.getActiveFlights()));
+        assertEquals(1, timeline.getOrdersDelivered());
+    }
+
+    @Test
+    public void testUnSaltoLargoProcesaSalidaYLlegadaEnOrden() {
+        FlightSnapshot v1 = vuelo(1, 1, 3, 10L);
+        FlightSnapshot v2 = vuelo(2, 2, 5, 10L, 11L);
+        FlightTimeline timeline = new FlightTimeline(List.of(v1, v2), T0);
+
+        List<FlightTimeline.Transition> eventos = timeline.advanceTo(24 * HORA);
+        assertEquals(List.of(FlightStatus.IN_FLIGHT, FlightStatus.IN_FLIGHT, FlightStatus.LANDED, FlightStatus.LANDED),
+                eventos.stream().map(FlightTimeline.Transition::getStatus).toList());
+        assertTrue(timeline.getActiveFlights().isEmpty());
+        assertEquals(2, timeline.getFlightsLanded());
+        assertEquals(2, timeline.getOrdersDelivered(), "Pedidos distintos entregados");
+        assertTrue(timeline.advanceTo(48 * HORA).isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.index.IndiceVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del índice de vuelos ordenado por hora de salida
+ */
+public class IndiceVuelosTest {
+
+    private final Aeropuerto lima = aeropuerto("SPIM");
+    private final Aeropuerto bogota = aeropuerto("SKBO");
+    private final Aeropuerto quito = aeropuerto("SEQM");
+
+    @Test
+    public void testTramosOrdenadosPorSalida() {
+        Vuelo tarde = vuelo(lima, bogota, "16:00");
+        Vuelo manana = vuelo(lima, bogota, "08:00");
+        Vuelo mediodia = vuelo(lima, quito, "12:00");
+        Vuelo sinHora = vuelo(lima, bogota, null);
+        IndiceVuelos indice = new IndiceVuelos(List.of(lima, bogota, quito), List.of(tarde, manana, mediodia, sinHora));
+
+        assertEquals(List.of(manana, tarde, sinHora), indice.obtenerVuelosDirectos(lima, bogota));
+        assertEquals(List.of(manana, mediodia, tarde, sinHora), indice.obtenerVuelosSalientes(lima));
+
+        int o = indice.idAeropuerto(lima);
+        int d = indice.idAeropuerto(bogota);
+        assertSame(tarde, indice.vuelo(indice.vueloSaliente(indice.primerDirectoDesde(o, d, 9 * 60))));
+        assertSame(mediodia, indice.vuelo(indice.vueloSalientePorHora(indice.primerSalienteDesde(o, 8 * 60 + 1))));
+        assertEquals(-1, indice.salida(indice.idVuelo(sinHora)));
+    }
+
+    @Test
+    public void testCursorPasaAlDiaSiguiente() {
+        Vuelo manana = vuelo(lima, bogota, "08:00");
+        Vuelo tarde = vuelo(lima, bogota, "16:00");
+        Vuelo mediodia = vuelo(lima, quito, "12:00");
+        IndiceVuelos indice = new IndiceVuelos(List.of(lima, bogota, quito), List.of(manana, tarde, mediodia));
+        int o = indice.idAeropuerto(lima);
+        int d = indice.idAeropuerto(bogota);
+        IndiceVuelos.CursorSalidas cursor = indice.nuevoCursor();
+
+        // De las 10:00 del día 1 a las 09:00 del día 3
+        List<Vuelo> salidas = new ArrayList<>();
+        List<Integer> dias = new ArrayList<>();
+        cursor.directos(o, d, 10 * 60, 2 * IndiceVuelos.MINUTOS_DIA + 9 * 60);
+        while (cursor.siguiente()) {
+            salidas.add(indice.vuelo(cursor.vuelo()));
+            dias.add(cursor.dia());
+            assertEquals((cursor.dia() - 1) * IndiceVuelos.MINUTOS_DIA + indice.salida(cursor.vuelo()), cursor.minuto());
+        }
+        assertEquals(List.of(tarde, manana, tarde, manana), salidas);
+        assertEquals(List.of(1, 2, 2, 3), dias);
+
+        salidas.clear();
+        cursor.salientes(o, 7 * 60, 13 * 60);
+        while (cursor.siguiente()) salidas.add(indice.vuelo(cursor.vuelo()));
+        assertEquals(List.of(manana, mediodia), salidas);
+
+        assertFalse(cursor.directos(d, o, 0, 10 * IndiceVuelos.MINUTOS_DIA).siguiente(), "Sin vuelos en el tramo");
+    }
+}
@@ -0,0 +1,84 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.algorithm.alns.InstanciaProblema;
+import com.grupo5e.morapack.algorithm.alns.OcupacionTemporalAlmacenes;
+import com.grupo5e.morapack.algorithm.alns.RegistroCapacidades;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de la ocupación temporal de almacenes con árboles de segmentos
+ */
+public class OcupacionTemporalAlmacenesTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final Aeropuerto lima = aeropuerto("SPIM", 100);
+    private final Aeropuerto bogota = aeropuerto("SKBO", 10);
+    private final Vuelo limaBogota = vuelo(lima, bogota, "08:00", "11:00", 300, 3.0);
+    private final InstanciaProblema instancia = new InstanciaProblema(List.of(lima, bogota), List.of(limaBogota), List.of());
+
+    @Test
+    public void testSumaYMaximoPorIntervalo() {
+        OcupacionTemporalAlmacenes ocupacion = new OcupacionTemporalAlmacenes(instancia, INICIO, 30);
+
+        ocupacion.sumar(bogota, 100, 50, 4);   // [100, 150)
+        ocupacion.sumar(bogota, 120, 100, 3);  // [120, 220)
+
+        assertEquals(4, ocupacion.maximo(bogota, 0, 120));
+        assertEquals(7, ocupacion.maximo(bogota, 140, 1));
+        assertEquals(3, ocupacion.maximo(bogota, 150, 1000));
+        assertEquals(0, ocupacion.maximo(bogota, 220, 40_000));
+        assertEquals(7, ocupacion.maximo(bogota));
+        assertEquals(120, ocupacion.minutoPico(bogota));
+        assertEquals(0, ocupacion.maximo(lima));
+        assertTrue(ocupacion.cabe(bogota, 0, 300, 3));
+        assertFalse(ocupacion.cabe(bogota, 0, 300, 4));
+    }
+
+    @Test
+    public void testDeshacerRevierteEnOrden() {
+        OcupacionTemporalAlmacenes ocupacion = new OcupacionTemporalAlmacenes(instancia, INICIO, 30);
+        ocupacion.sumar(lima, 0, 60, 5);
+        ocupacion.confirmar();
+
+        int marca = ocupacion.marca();
+        ocupacion.sumar(lima, 30, 60, 2);
+        ocupacion.sumar(lima, 40_000, 10, 9); // al final del horizonte
+        assertEquals(9, ocupacion.maximo(lima));
+
+        ocupacion.deshacerHasta(marca);
+        assertEquals(5, ocupacion.maximo(lima));
+        assertEquals(0, ocupacion.maximo(lima, 60, 30));
+    }
+
+    @Test
+    public void testFlujoDelPedidoEnElRegistro() {
+        OcupacionTemporalAlmacenes ocupacion = new OcupacionTemporalAlmacenes(instancia, INICIO, 30);
+        RegistroCapacidades registro = new RegistroCapacidades(instancia, ocupacion);
+        Pedido pedido = pedido(60, "SPIM", "SKBO", INICIO); // desfase por id = 0
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        assertTrue(registro.cabeFlujo(pedido, ruta, 10));
+        registro.confirmar();
+        registro.ocuparFlujo(pedido, ruta, 10);
+
+        // Espera en Lima [0, 120), vuelo de 3 h, recogida en Bogotá [300, 420)
+        assertEquals(10, ocupacion.maximo(lima, 0, 120));
+        assertEquals(0, ocupacion.maximo(bogota, 0, 300));
+        assertEquals(10, ocupacion.maximo(bogota, 300, 120));
+        assertFalse(registro.cabeFlujo(pedido(120, "SPIM", "SKBO", INICIO), ruta, 1), "Bogotá ya está llena durante la recogida");
+
+        registro.deshacer();
+        assertEquals(0, ocupacion.maximo(lima));
+        assertEquals(0, ocupacion.maximo(bogota));
+    }
+}
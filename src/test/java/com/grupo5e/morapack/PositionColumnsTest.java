@@ -0,0 +1,75 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.simulation.model.FlightSnapshot;
+import com.grupo5e.morapack.simulation.model.FlightStatus;
+import com.grupo5e.morapack.simulation.model.PositionColumns;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del formato binario de posiciones
+ */
+public class PositionColumnsTest {
+
+    private static FlightSnapshot vuelo(int id, double lat, double lng, double heading) {
+        return FlightSnapshot.builder()
+                .flightId(id)
+                .currentLat(lat)
+                .currentLng(lng)
+                .heading(heading)
+                .progressPercentage(50.0)
+                .status(FlightStatus.IN_FLIGHT)
+                .build();
+    }
+
+    private static PositionColumns columnas(FlightSnapshot... vuelos) {
+        return PositionColumns.of(new ArrayList<>(List.of(vuelos)));
+    }
+
+    @Test
+    public void testDeltaCodificaCambiosEnColumnas() {
+        PositionColumns base = columnas(vuelo(3, 10.0, 20.0, 90.0), vuelo(1, -12.02, -77.04, 45.0), vuelo(2, 5.0, 5.0, 0.0));
+        PositionColumns actual = columnas(vuelo(1, -12.02, -77.04, 45.0), vuelo(3, 10.5, 20.5, -90.0), vuelo(4, 1.0, 2.0, 180.0));
+
+        ByteBuffer buffer = ByteBuffer.wrap(PositionColumns.encodeDelta(7L, 12L, 11L, base, actual));
+        assertEquals(0x4D504631, buffer.getInt());
+        assertEquals(7L, buffer.getLong());
+        assertEquals(12L, buffer.getLong());
+        assertEquals(11L, buffer.getLong());
+        int cambiados = buffer.getInt();
+        int aterrizados = buffer.getInt();
+        assertEquals(2, cambiados, "El vuelo 1 no se movió");
+        assertEquals(1, aterrizados);
+
+        int[] ids = {buffer.getInt(), buffer.getInt()};
+        assertArrayEquals(new int[]{3, 4}, ids, "Ordenados por flightId");
+        assertEquals(1_050_000, buffer.getInt(), "Latitud en 1e-5 grados");
+        assertEquals(100_000, buffer.getInt());
+        assertEquals(2_050_000, buffer.getInt());
+        assertEquals(200_000, buffer.getInt());
+        assertEquals(27000, Short.toUnsignedInt(buffer.getShort()), "Heading -90° normalizado a 270°");
+        assertEquals(18000, Short.toUnsignedInt(buffer.getShort()));
+        assertEquals(5000, buffer.getShort());
+        assertEquals(5000, buffer.getShort());
+        assertEquals(FlightStatus.IN_FLIGHT.ordinal(), buffer.get());
+        assertEquals(FlightStatus.IN_FLIGHT.ordinal(), buffer.get());
+        assertEquals(2, buffer.getInt(), "Vuelo que aterrizó");
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testSinBaseEsFrameCompleto() {
+        PositionColumns actual = columnas(vuelo(2, 1.0, 1.0, 0.0), vuelo(1, 2.0, 2.0, 0.0));
+        ByteBuffer buffer = ByteBuffer.wrap(PositionColumns.encodeDelta(7L, 12L, 0L, null, actual));
+        buffer.position(4 + 8 + 8 + 8);
+        assertEquals(2, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+        assertEquals(1, buffer.getInt());
+        assertEquals(2, buffer.getInt());
+    }
+}
@@ -0,0 +1,132 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.index.RedTemporalVuelos;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Cancelacion;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de la búsqueda de llegada más temprana en la red temporal de vuelos
+ */
+public class RedTemporalVuelosTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int DIA = RedTemporalVuelos.MINUTOS_DIA;
+
+    private final Aeropuerto lima = aeropuerto("SPIM");
+    private final Aeropuerto bogota = aeropuerto("SKBO");
+    private final Aeropuerto quito = aeropuerto("SEQM");
+    private final List<Aeropuerto> aeropuertos = List.of(lima, bogota, quito);
+
+    private RedTemporalVuelos red(List<Vuelo> vuelos, ServicioDisponibilidadVuelos servicio) {
+        return new RedTemporalVuelos(aeropuertos, vuelos, servicio, INICIO, 5, 120);
+    }
+
+    @Test
+    public void testRespetaConexionMinima() {
+        Vuelo limaBogota = vuelo(lima, bogota, "08:00", "11:00", 300);
+        Vuelo bogotaQuitoTemprano = vuelo(bogota, quito, "12:00", "13:30", 300); // sólo 1 h de escala
+        Vuelo bogotaQuitoTarde = vuelo(bogota, quito, "14:00", "15:30", 300);
+        RedTemporalVuelos red = red(List.of(limaBogota, bogotaQuitoTemprano, bogotaQuitoTarde), null);
+
+        RedTemporalVuelos.Itinerario itinerario =
+                red.buscarLlegadaMasTemprana(lima, quito, 0, 5 * DIA, 3, v -> true);
+
+        assertNotNull(itinerario);
+        assertEquals(List.of(limaBogota, bogotaQuitoTarde), itinerario.getVuelos());
+        assertEquals(15 * 60 + 30, itinerario.getLlegada());
+    }
+
+    @Test
+    public void testPrefiereLlegadaMasTempranaConEscala() {
+        Vuelo directo = vuelo(lima, quito, "20:00", "23:00", 300);
+        Vuelo limaBogota = vuelo(lima, bogota, "06:00", "09:00", 300);
+        Vuelo bogotaQuito = vuelo(bogota, quito, "11:00", "12:00", 300);
+        RedTemporalVuelos red = red(List.of(directo, limaBogota, bogotaQuito), null);
+
+        assertEquals(2, red.buscarLlegadaMasTemprana(lima, quito, 0, 5 * DIA, 3, v -> true).getNumVuelos());
+        assertEquals(List.of(directo), red.buscarLlegadaMasTemprana(lima, quito, 0, 5 * DIA, 1, v -> true).getVuelos());
+    }
+
+    @Test
+    public void testSaltaDiasCanceladosYVuelosLlenos() {
+        Vuelo directo = vuelo(lima, quito, "22:00", "02:00", 300); // cruza la medianoche
+        ServicioDisponibilidadVuelos servicio = new ServicioDisponibilidadVuelos();
+        Cancelacion cancelacion = new Cancelacion();
+        cancelacion.setCodigoIATAOrigen("SPIM");
+        cancelacion.setCodigoIATADestino("SEQM");
+        cancelacion.setHora(22);
+        cancelacion.setMinuto(0);
+        cancelacion.setDiasCancelado(1);
+        servicio.registrarCancelacion(cancelacion);
+        RedTemporalVuelos red = red(List.of(directo), servicio);
+
+        RedTemporalVuelos.Itinerario itinerario =
+                red.buscarLlegadaMasTemprana(lima, quito, 0, 5 * DIA, 3, v -> true);
+        assertEquals(2, itinerario.getDia(0));
+        assertEquals(DIA + 22 * 60 + 4 * 60, itinerario.getLlegada());
+
+        assertNull(red.buscarLlegadaMasTemprana(lima, quito, 0, 5 * DIA, 3, v -> false), "Vuelo sin capacidad");
+        assertNull(red.buscarLlegadaMasTemprana(lima, quito, 0, DIA + 23 * 60, 3, v -> true), "Fuera de plazo");
+    }
+
+    @Test
+    public void testOcurrenciaLlenaPasaAlDiaSiguiente() {
+        Vuelo directo = vuelo(lima, quito, "10:00", "12:00", 300);
+        RedTemporalVuelos red = red(List.of(directo), null);
+        int o = red.getIndice().idAeropuerto(lima);
+        int d = red.getIndice().idAeropuerto(quito);
+        RedTemporalVuelos.FiltroCapacidad llenoHastaElDia2 = (f, dia) -> dia >= 3;
+
+        RedTemporalVuelos.Itinerario itinerario = red.buscarLlegadaMasTemprana(o, d, 0, 5 * DIA, 3, llenoHastaElDia2);
+        assertEquals(3, itinerario.getDia(0));
+        assertEquals(2 * DIA + 12 * 60, itinerario.getLlegada());
+        assertEquals(3, red.enumerarItinerarios(o, d, 0, 5 * DIA, 3, llenoHastaElDia2, 10).get(0).getDia(0));
+        int[] vuelos = {red.getIndice().idVuelo(directo)};
+        assertEquals(3, red.programar(vuelos, 0, 5 * DIA, llenoHastaElDia2).getDia(0));
+
+        assertNull(red.buscarLlegadaMasTemprana(o, d, 0, 2 * DIA + 11 * 60, 3, llenoHastaElDia2), "El día 3 llega tarde");
+        assertNull(red.programar(vuelos, 0, 10 * DIA, (f, dia) -> dia > 5), "No hay ocurrencias después del horizonte");
+    }
+
+    @Test
+    public void testEnumeraRutasConEscalasDesdeAmbosExtremos() {
+        Aeropuerto cusco = aeropuerto("SPZO");
+        Vuelo directo = vuelo(lima, quito, "20:00", "23:00", 300);
+        Vuelo limaBogota = vuelo(lima, bogota, "06:00", "09:00", 300);
+        Vuelo bogotaQuito = vuelo(bogota, quito, "11:00", "12:00", 300);
+        Vuelo bogotaQuitoNoche = vuelo(bogota, quito, "23:30", "01:00", 300);
+        Vuelo limaCusco = vuelo(lima, cusco, "05:00", "06:00", 300);
+        Vuelo cuscoBogota = vuelo(cusco, bogota, "08:00", "09:00", 300);
+        List<Vuelo> vuelos = List.of(directo, limaBogota, bogotaQuito, bogotaQuitoNoche, limaCusco, cuscoBogota);
+        RedTemporalVuelos red = new RedTemporalVuelos(List.of(lima, bogota, quito, cusco), vuelos, null, INICIO, 5, 120);
+        int o = red.getIndice().idAeropuerto(lima);
+        int d = red.getIndice().idAeropuerto(quito);
+
+        List<RedTemporalVuelos.Itinerario> rutas = red.enumerarItinerarios(o, d, 0, 5 * DIA, 3, null, 10);
+        assertEquals(5, rutas.size());
+        assertEquals(List.of(limaBogota, bogotaQuito), rutas.get(0).getVuelos());
+        assertEquals(List.of(limaCusco, cuscoBogota, bogotaQuito), rutas.get(1).getVuelos(), "Misma llegada, más vuelos");
+        assertEquals(List.of(directo), rutas.get(2).getVuelos());
+        assertEquals(List.of(limaBogota, bogotaQuitoNoche), rutas.get(3).getVuelos());
+        assertEquals(DIA + 60, rutas.get(3).getLlegada());
+        assertEquals(List.of(limaCusco, cuscoBogota, bogotaQuitoNoche), rutas.get(4).getVuelos());
+
+        assertEquals(3, red.enumerarItinerarios(o, d, 0, 23 * 60, 3, null, 10).size(), "Plazo a las 23:00");
+        assertEquals(2, red.enumerarItinerarios(o, d, 0, 5 * DIA, 3, null, 2).size());
+        assertEquals(3, red.enumerarItinerarios(o, d, 0, 5 * DIA, 2, null, 10).size(), "Sin dos escalas");
+
+        int sinEspacio = red.getIndice().idVuelo(bogotaQuito);
+        List<RedTemporalVuelos.Itinerario> conEspacio = red.enumerarItinerarios(o, d, 0, 5 * DIA, 3, (f, dia) -> f != sinEspacio, 10);
+        assertEquals(3, conEspacio.size());
+        assertEquals(List.of(directo), conEspacio.get(0).getVuelos());
+    }
+}
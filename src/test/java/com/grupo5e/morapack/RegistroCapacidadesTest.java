@@ -0,0 +1,270 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.algorithm.alns.CalendarioVuelos;
+import com.grupo5e.morapack.algorithm.alns.InstanciaProblema;
+import com.grupo5e.morapack.algorithm.alns.OcupacionTemporalAlmacenes;
+import com.grupo5e.morapack.algorithm.alns.RegistroCapacidades;
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Pedido;
+import com.grupo5e.morapack.core.model.Vuelo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario del journal de capacidades usado en el bucle ALNS
+ */
+public class RegistroCapacidadesTest {
+
+    private final Vuelo v1 = new Vuelo();
+    private final Vuelo v2 = new Vuelo();
+    private final Aeropuerto destino = aeropuerto("SKBO");
+    private final InstanciaProblema instancia =
+            new InstanciaProblema(List.of(aeropuerto("SPIM"), destino), List.of(v1, v2), List.of());
+
+    @Test
+    public void testDeshacerRestauraEstadoInicial() {
+        RegistroCapacidades registro = new RegistroCapacidades(instancia);
+        registro.ocuparRuta(List.of(v1), destino, 100);
+        registro.confirmar();
+
+        registro.liberarRuta(List.of(v1), destino, 30);
+        registro.ocuparRuta(List.of(v1, v2), destino, 25);
+
+        assertEquals(95, registro.capacidadUsada(v1));
+        assertEquals(25, registro.capacidadUsada(v2));
+        assertEquals(95, registro.ocupacion(destino));
+
+        registro.deshacer();
+
+        assertEquals(100, registro.capacidadUsada(v1), "Capacidad de v1 no restaurada");
+        assertEquals(0, registro.capacidadUsada(v2), "Capacidad de v2 no restaurada");
+        assertEquals(100, registro.ocupacion(destino), "Ocupación del almacén no restaurada");
+        assertEquals(0, registro.getTamano());
+    }
+
+    @Test
+    public void testConfirmarConservaCambios() {
+        RegistroCapacidades registro = new RegistroCapacidades(instancia);
+
+        // Más entradas que la capacidad inicial para forzar el crecimiento del journal
+        for (int i = 0; i < 1000; i++) {
+            registro.ajustarVuelo(v1, 1, 1);
+        }
+        registro.confirmar();
+        registro.deshacer();
+
+        assertEquals(1000, registro.capacidadUsada(v1));
+    }
+
+    @Test
+    public void testDeshacerHastaMarca() {
+        RegistroCapacidades registro = new RegistroCapacidades(instancia);
+
+        registro.ajustarAeropuerto(destino, 10);
+        int marca = registro.marca();
+        registro.ajustarAeropuerto(destino, 5);
+        registro.deshacerHasta(marca);
+
+        assertEquals(10, registro.ocupacion(destino));
+        assertEquals(marca, registro.getTamano());
+    }
+
+    @Test
+    public void testNoModificaLasEntidades() {
+        RegistroCapacidades a = new RegistroCapacidades(instancia);
+        RegistroCapacidades b = new RegistroCapacidades(instancia);
+
+        a.ocuparRuta(List.of(v1), destino, 40);
+
+        assertEquals(0, v1.getCapacidadUsada());
+        assertEquals(0, destino.getCapacidadActual());
+        assertEquals(0, b.capacidadUsada(v1), "Las ejecuciones no deben compartir capacidades");
+        // Otra instancia de la misma entidad se resuelve por código IATA
+        assertEquals(40, a.ocupacion(aeropuerto("SKBO")));
+    }
+
+    @Test
+    public void testCargaPorOcurrenciaDiaria() {
+        Aeropuerto lima = aeropuerto("SPIM");
+        Aeropuerto bogota = aeropuerto("SKBO");
+        Aeropuerto quito = aeropuerto("SEQM");
+        Vuelo limaBogota = vuelo(lima, bogota, "10:00", "12:00", 10);
+        Vuelo bogotaQuito = vuelo(bogota, quito, "13:00", "15:00", 10); // conexión de 1 h: sale al día siguiente
+        InstanciaProblema red = new InstanciaProblema(List.of(lima, bogota, quito), List.of(limaBogota, bogotaQuito), List.of());
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        RegistroCapacidades registro = new RegistroCapacidades(red, null, new CalendarioVuelos(red, inicio, 7, null));
+        List<Vuelo> ruta = List.of(limaBogota, bogotaQuito);
+
+        Pedido temprano = pedido(1L, "SPIM", "SKBO", inicio.plusHours(9));
+        Pedido tarde = pedido(2L, "SPIM", "SKBO", inicio.plusHours(11)); // ya salió el vuelo del día 1
+        assertArrayEquals(new int[]{1, 2}, registro.getCalendario().dias(temprano, ruta));
+        assertArrayEquals(new int[]{2, 3}, registro.getCalendario().dias(tarde, ruta));
+
+        registro.ocuparVuelos(temprano, ruta, 10);
+        assertTrue(registro.cabeEnVuelos(tarde, ruta, 10), "Los días 2 y 3 son otro cupo");
+
+        registro.ocuparVuelos(tarde, List.of(limaBogota), 4);
+        Pedido alDiaSiguiente = pedido(3L, "SPIM", "SKBO", inicio.plusDays(1).plusHours(9)); // comparte el vuelo del día 2
+        assertTrue(registro.cabeEnVuelos(alDiaSiguiente, ruta, 6));
+        assertEquals(4, registro.cargaRuta(alDiaSiguiente, ruta, 6));
+        alDiaSiguiente.setFechaLimiteEntrega(inicio.plusDays(3));
+        assertFalse(registro.cabeEnVuelos(alDiaSiguiente, ruta, 7), "Los días 3 y 4 llegan después del plazo");
+
+        assertEquals(10, registro.capacidadUsada(limaBogota, 1));
+        assertEquals(4, registro.capacidadUsada(limaBogota, 2));
+        assertEquals(0, registro.capacidadUsada(bogotaQuito, 1));
+        assertEquals(10, registro.capacidadUsada(bogotaQuito), "Ocurrencia más llena");
+
+        registro.deshacer();
+        assertEquals(0, registro.capacidadUsada(limaBogota));
+        assertEquals(0, registro.capacidadUsada(bogotaQuito));
+    }
+
+    @Test
+    public void testOcurrenciaLlenaPasaAlDiaSiguiente() {
+        Aeropuerto lima = aeropuerto("SPIM");
+        Aeropuerto bogota = aeropuerto("SKBO");
+        Vuelo limaBogota = vuelo(lima, bogota, "10:00", "12:00", 10);
+        InstanciaProblema red = new InstanciaProblema(List.of(lima, bogota), List.of(limaBogota), List.of());
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        RegistroCapacidades registro = new RegistroCapacidades(red, null, new CalendarioVuelos(red, inicio, 7, null));
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        Pedido primero = pedido(1L, "SPIM", "SKBO", inicio.plusHours(9));
+        Pedido segundo = pedido(2L, "SPIM", "SKBO", inicio.plusHours(9));
+        registro.ocuparVuelos(primero, ruta, 8);
+        registro.confirmar();
+        assertTrue(registro.ocuparVuelos(segundo, ruta, 5));
+        assertArrayEquals(new int[]{2}, registro.dias(segundo, ruta), "El día 1 no tiene espacio para 5");
+        assertEquals(5, registro.capacidadUsada(limaBogota, 2));
+
+        // Liberar el día 1 no cambia la reserva: el segundo libera la ocurrencia que ocupó
+        registro.liberarVuelos(primero, ruta, 8);
+        assertArrayEquals(new int[]{2}, registro.dias(segundo, ruta));
+        registro.liberarVuelos(segundo, ruta, 5);
+        assertEquals(0, registro.capacidadUsada(limaBogota));
+
+        registro.deshacer();
+        assertEquals(8, registro.capacidadUsada(limaBogota, 1));
+        assertEquals(0, registro.capacidadUsada(limaBogota, 2));
+        assertArrayEquals(new int[]{1}, registro.dias(primero, ruta), "Deshacer restaura la reserva");
+    }
+
+    @Test
+    public void testPromesaLimitaLaOcurrenciaSiguiente() {
+        Aeropuerto lima = aeropuerto("SPIM");
+        Aeropuerto bogota = aeropuerto("SKBO");
+        Vuelo limaBogota = vuelo(lima, bogota, "10:00", "12:00", 10);
+        InstanciaProblema red = new InstanciaProblema(List.of(lima, bogota), List.of(limaBogota), List.of());
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        RegistroCapacidades registro = new RegistroCapacidades(red, null, new CalendarioVuelos(red, inicio, 7, null));
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        // Sin fecha límite del cliente rige la promesa: 3 días sin continente conocido
+        for (long id = 1; id <= 3; id++) {
+            assertTrue(registro.ocuparVuelos(pedido(id, "SPIM", "SKBO", inicio.plusHours(9)), ruta, 10));
+        }
+        Pedido cuarto = pedido(4L, "SPIM", "SKBO", inicio.plusHours(9));
+        assertFalse(registro.cabeEnVuelos(cuarto, ruta, 1), "El día 4 llega después de la promesa");
+        assertEquals(0, registro.capacidadUsada(limaBogota, 4));
+    }
+
+    @Test
+    public void testReservasCopiadasReponenLosMismosDias() {
+        Aeropuerto lima = aeropuerto("SPIM");
+        Aeropuerto bogota = aeropuerto("SKBO");
+        Vuelo limaBogota = vuelo(lima, bogota, "10:00", "12:00", 10);
+        InstanciaProblema red = new InstanciaProblema(List.of(lima, bogota), List.of(limaBogota), List.of());
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        CalendarioVuelos calendario = new CalendarioVuelos(red, inicio, 7, null);
+        RegistroCapacidades registro = new RegistroCapacidades(red, null, calendario);
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        Pedido primero = pedido(1L, "SPIM", "SKBO", inicio.plusHours(9));
+        Pedido segundo = pedido(2L, "SPIM", "SKBO", inicio.plusHours(9));
+        registro.ocuparVuelos(primero, ruta, 8);
+        registro.ocuparVuelos(segundo, ruta, 5);
+        Map<Pedido, int[]> reservas = registro.copiarReservas();
+        registro.liberarVuelos(primero, ruta, 8);
+        assertArrayEquals(new int[]{2}, reservas.get(segundo), "La copia no sigue al registro");
+
+        // En otro orden, sin las reservas el segundo caería en el día 1
+        RegistroCapacidades repuesto = new RegistroCapacidades(red, null, calendario);
+        repuesto.ocuparVuelos(segundo, ruta, 5, reservas.get(segundo));
+        repuesto.ocuparVuelos(primero, ruta, 8, reservas.get(primero));
+        assertArrayEquals(new int[]{2}, repuesto.dias(segundo, ruta));
+        assertEquals(8, repuesto.capacidadUsada(limaBogota, 1));
+        assertEquals(5, repuesto.capacidadUsada(limaBogota, 2));
+    }
+
+    @Test
+    public void testDiaFueraDelHorizonteNoSeRecorta() {
+        Aeropuerto lima = aeropuerto("SPIM");
+        Aeropuerto bogota = aeropuerto("SKBO");
+        Vuelo limaBogota = vuelo(lima, bogota, "10:00", "12:00", 10);
+        InstanciaProblema red = new InstanciaProblema(List.of(lima, bogota), List.of(limaBogota), List.of());
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        RegistroCapacidades registro = new RegistroCapacidades(red, null, new CalendarioVuelos(red, inicio, 30, null));
+        List<Vuelo> ruta = List.of(limaBogota);
+
+        Pedido dia30 = pedido(1L, "SPIM", "SKBO", inicio.plusDays(29).plusHours(9));
+        Pedido dia31 = pedido(2L, "SPIM", "SKBO", inicio.plusDays(30).plusHours(9));
+        assertTrue(registro.ocuparVuelos(dia30, ruta, 4));
+        assertEquals(4, registro.capacidadUsada(limaBogota, 30));
+
+        assertNull(registro.dias(dia31, ruta));
+        assertFalse(registro.cabeEnVuelos(dia31, ruta, 1));
+        assertFalse(registro.ocuparVuelos(dia31, ruta, 4), "El día 31 no cae en el día 30");
+        assertEquals(4, registro.capacidadUsada(limaBogota, 30));
+        assertThrows(IllegalArgumentException.class, () -> registro.capacidadUsada(limaBogota, 31));
+        assertFalse(registro.cabeEnVuelos(dia30, ruta, 7), "Sin espacio el día 30 no hay ocurrencia siguiente");
+    }
+
+    @Test
+    public void testRamaReproduceElJournalDelPrincipal() {
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        OcupacionTemporalAlmacenes temporal = new OcupacionTemporalAlmacenes(instancia, inicio, 2);
+        RegistroCapacidades principal = new RegistroCapacidades(instancia, temporal);
+        principal.ocuparRuta(List.of(v1), destino, 30);
+        principal.confirmar();
+
+        RegistroCapacidades rama = principal.crearRama();
+        rama.copiarEstadoDe(principal);
+        assertEquals(30, rama.capacidadUsada(v1));
+
+        // La rama reproduce la destrucción del principal y repara por su cuenta
+        principal.liberarRuta(List.of(v1), destino, 10);
+        principal.reproducirEn(rama, 0, principal.marca());
+        int marcaReparacion = rama.marca();
+        Pedido pedido = pedido(1L, "SPIM", "SKBO", inicio.plusHours(8));
+        rama.ocuparRuta(pedido, List.of(v2), destino, 10);
+        rama.ocuparFlujo(pedido, List.of(), 10);
+        assertEquals(0, principal.capacidadUsada(v2), "La reparación de la rama no toca el principal");
+        assertEquals(10, rama.getTemporal().maximo(destino));
+
+        // Al adoptarla, el principal queda como la rama y la deshace junto con la destrucción
+        rama.reproducirEn(principal, marcaReparacion, rama.marca());
+        assertEquals(20, principal.capacidadUsada(v1));
+        assertEquals(10, principal.capacidadUsada(v2));
+        assertEquals(30, principal.ocupacion(destino));
+        assertEquals(10, temporal.maximo(destino));
+
+        long version = principal.getVersion();
+        principal.deshacer();
+        assertEquals(30, principal.capacidadUsada(v1));
+        assertEquals(0, principal.capacidadUsada(v2));
+        assertEquals(0, temporal.maximo(destino));
+        principal.confirmar();
+        assertEquals(version, principal.getVersion(), "Sin cambios confirmados la versión se mantiene");
+
+        principal.ajustarVuelo(v1, 1, 1);
+        principal.confirmar();
+        assertNotEquals(version, principal.getVersion());
+    }
+}
@@ -0,0 +1,47 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.core.model.Aeropuerto;
+import com.grupo5e.morapack.core.model.Cancelacion;
+import com.grupo5e.morapack.core.model.Vuelo;
+import com.grupo5e.morapack.core.service.ServicioDisponibilidadVuelos;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static com.grupo5e.morapack.DatosPrueba.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de las máscaras de días cancelados por vuelo
+ */
+public class ServicioDisponibilidadVuelosTest {
+
+    private static Cancelacion cancelacion(String origen, String destino, int hora, int minuto, int dia) {
+        Cancelacion cancelacion = new Cancelacion();
+        cancelacion.setCodigoIATAOrigen(origen);
+        cancelacion.setCodigoIATADestino(destino);
+        cancelacion.setHora(hora);
+        cancelacion.setMinuto(minuto);
+        cancelacion.setDiasCancelado(dia);
+        return cancelacion;
+    }
+
+    @Test
+    public void testCancelacionesPorVueloYDia() {
+        ServicioDisponibilidadVuelos servicio = new ServicioDisponibilidadVuelos();
+        servicio.registrarCancelacion(cancelacion("spim", "SKBO", 8, 30, 3));
+        servicio.registrarCancelacion(cancelacion("SPIM", "SKBO", 8, 30, 1));
+        servicio.registrarCancelacion(cancelacion("SKBO", "SPIM", 8, 30, 2));
+
+        Vuelo limaBogota = vuelo(aeropuerto("SPIM"), aeropuerto("SKBO"), "08:30");
+        assertFalse(servicio.estaDisponible(limaBogota, 1));
+        assertTrue(servicio.estaDisponible(limaBogota, 2));
+        assertFalse(servicio.estaDisponible(limaBogota, 3), "El código se compara sin mayúsculas");
+        assertEquals(Set.of(1, 3), servicio.obtenerDiasCancelados(limaBogota));
+
+        assertTrue(servicio.estaDisponible(vuelo(aeropuerto("SPIM"), aeropuerto("SKBO"), "08:31"), 1), "Otra hora de salida");
+        assertFalse(servicio.tieneCancelaciones(vuelo(aeropuerto("SPIM"), aeropuerto("SEQM"), "08:30")));
+        assertEquals(2, servicio.getVuelosAfectados());
+        assertEquals(3, servicio.getTotalCancelaciones());
+    }
+}
@@ -0,0 +1,126 @@
+package com.grupo5e.morapack;
+
+import com.grupo5e.morapack.simulation.dto.ActiveFlightDTO;
+import com.grupo5e.morapack.simulation.dto.FlightPositionDTO;
+import com.grupo5e.morapack.simulation.dto.SimulationDeltaResponse;
+import com.grupo5e.morapack.simulation.dto.SimulationStatusResponse;
+import com.grupo5e.morapack.simulation.dto.WarehouseStateDTO;
+import com.grupo5e.morapack.simulation.model.PositionColumns;
+import com.grupo5e.morapack.simulation.model.SimulationEvent;
+import com.grupo5e.morapack.simulation.model.SimulationStatus;
+import com.grupo5e.morapack.simulation.model.StatusFrames;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario de los frames delta de la simulación
+ */
+public class StatusFramesTest {
+
+    private static ActiveFlightDTO vuelo(int id, double lat) {
+        return ActiveFlightDTO.builder()
+                .flightId(id)
+                .flightCode("MP-" + id)
+                .currentLat(lat)
+                .currentLng(-77.0)
+                .status("IN_FLIGHT")
+                .progressPercentage(lat)
+                .heading(45.0)
+                .build();
+    }
+
+    private static WarehouseStateDTO almacen(long id, int ocupacion) {
+        return WarehouseStateDTO.builder()
+                .warehouseId(id)
+                .current(ocupacion)
+                .available(100 - ocupacion)
+                .status("NORMAL")
+                .build();
+    }
+
+    private static SimulationEvent evento(String id) {
+        return SimulationEvent.builder().id(id).build();
+    }
+
+    private static SimulationStatusResponse frame(long version, List<ActiveFlightDTO> vuelos,
+                                                  List<WarehouseStateDTO> almacenes, List<SimulationEvent> eventos) {
+        return SimulationStatusResponse.builder()
+                .simulationId(1L)
+                .version(version)
+                .activeFlights(vuelos)
+                .warehouses(almacenes)
+                .recentEvents(eventos)
+                .build();
+    }
+
+    private static PositionColumns sinPosiciones() {
+        return PositionColumns.of(new ArrayList<>());
+    }
+
+    private static List<Integer> ids(List<FlightPositionDTO> vuelos) {
+        return vuelos.stream().map(FlightPositionDTO::getFlightId).toList();
+    }
+
+    @Test
+    public void testDeltaSoloTraeLoQueCambio() {
+        StatusFrames frames = StatusFrames.first(frame(1,
+                List.of(vuelo(1, 10.0), vuelo(2, 20.0), vuelo(3, 30.0)),
+                List.of(almacen(1, 40), almacen(2, 50)),
+                List.of(evento("a"))), sinPosiciones());
+        frames = frames.next(frame(2,
+                List.of(vuelo(1, 10.0), vuelo(2, 21.0), vuelo(4, 0.0)),
+                List.of(almacen(1, 40), almacen(2, 55)),
+                List.of(evento("a"), evento("b"))), sinPosiciones());
+
+        SimulationDeltaResponse delta = frames.deltaSince(1);
+        assertEquals(1L, delta.getBaseVersion());
+        assertEquals(2L, delta.getVersion());
+        assertEquals(List.of(4), ids(delta.getEnteredFlights()));
+        assertEquals(List.of(2), ids(delta.getUpdatedFlights()), "El vuelo 1 no se movió");
+        assertEquals(List.of(3), delta.getLeftFlightIds());
+        assertEquals(1, delta.getWarehouses().size());
+        assertEquals(2L, delta.getWarehouses().get(0).getWarehouseId());
+        assertEquals(List.of("b"), delta.getNewEvents().stream().map(SimulationEvent::getId).toList());
+
+        SimulationDeltaResponse vacio = frames.deltaSince(2);
+        assertTrue(vacio.getEnteredFlights().isEmpty());
+        assertTrue(vacio.getUpdatedFlights().isEmpty());
+        assertTrue(vacio.getLeftFlightIds().isEmpty());
+    }
+
+    @Test
+    public void testVersionDesconocidaDevuelveFrameCompleto() {
+        StatusFrames frames = StatusFrames.first(
+                frame(1, List.of(vuelo(1, 10.0)), List.of(almacen(1, 40)), List.of()), sinPosiciones());
+        for (long v = 2; v <= StatusFrames.MAX_FRAMES + 1; v++) {
+            frames = frames.next(
+                    frame(v, List.of(vuelo(1, v), vuelo(2, v)), List.of(almacen(1, 40)), List.of()), sinPosiciones());
+        }
+
+        SimulationDeltaResponse completo = frames.deltaSince(1);
+        assertEquals(StatusFrames.FULL_FRAME, completo.getBaseVersion(), "La versión 1 salió de la ventana");
+        assertEquals(List.of(1, 2), ids(completo.getEnteredFlights()));
+        assertEquals(1, completo.getWarehouses().size());
+        assertSame(completo, frames.deltaSince(0), "El frame completo se calcula una vez");
+
+        SimulationDeltaResponse delta = frames.deltaSince(2);
+        assertEquals(2L, delta.getBaseVersion());
+        assertSame(delta, frames.deltaSince(2), "Los clientes con la misma base comparten el delta");
+    }
+
+    @Test
+    public void testFrameFinalDeLaSimulacion() {
+        SimulationStatusResponse enCurso = frame(1, List.of(vuelo(1, 10.0)), List.of(), List.of());
+        enCurso.setStatus(SimulationStatus.RUNNING.name());
+        StatusFrames frames = StatusFrames.first(enCurso, sinPosiciones());
+        assertFalse(frames.isFinished());
+
+        SimulationStatusResponse detenida = frame(2, List.of(), List.of(), List.of());
+        detenida.setStatus(SimulationStatus.STOPPED.name());
+        assertTrue(frames.next(detenida, sinPosiciones()).isFinished(), "Sólo cuenta el último frame");
+    }
+}